@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.extension.persistence.impl.eclipselink;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.persistence.exceptions.ConcurrencyException;
+import org.eclipse.persistence.internal.databaseaccess.Accessor;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionCustomizer;
+import org.eclipse.persistence.sessions.server.ConnectionPool;
+import org.eclipse.persistence.sessions.server.ServerSession;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Exports the state of the JDBC connection pools of a realm: the number of connections in use, idle
+ * and allowed, the number of requests waiting for a connection and the time spent waiting for one.
+ * Applied as a session customizer, before EclipseLink logs in, so that the pools can be replaced by
+ * metered ones before they open any connection.
+ */
+class ConnectionPoolMetrics implements SessionCustomizer {
+  static final String METRIC_PREFIX = "polaris.persistence.connection_pool";
+  static final String ACTIVE_METRIC = METRIC_PREFIX + ".active";
+  static final String IDLE_METRIC = METRIC_PREFIX + ".idle";
+  static final String MAX_METRIC = METRIC_PREFIX + ".max";
+  static final String PENDING_METRIC = METRIC_PREFIX + ".pending";
+  static final String WAIT_METRIC = METRIC_PREFIX + ".wait";
+  private static final String TAG_REALM = "REALM_ID";
+  private static final String TAG_POOL = "POOL";
+
+  private final MeterRegistry meterRegistry;
+  private final String realmId;
+
+  ConnectionPoolMetrics(@NotNull MeterRegistry meterRegistry, @NotNull String realmId) {
+    this.meterRegistry = meterRegistry;
+    this.realmId = realmId;
+  }
+
+  @Override
+  public void customize(Session session) {
+    if (!(session instanceof ServerSession serverSession)) {
+      return;
+    }
+    for (String name : List.copyOf(serverSession.getConnectionPools().keySet())) {
+      ConnectionPool pool = serverSession.getConnectionPool(name);
+      if (pool.getClass() == ConnectionPool.class) {
+        serverSession.getConnectionPools().put(name, metered(pool, serverSession));
+      }
+    }
+    ConnectionPool readPool = serverSession.getReadConnectionPool();
+    if (readPool.getClass() == ConnectionPool.class) {
+      serverSession.setReadConnectionPool(metered(readPool, serverSession));
+    }
+  }
+
+  private MeteredConnectionPool metered(ConnectionPool pool, ServerSession owner) {
+    Tags tags = Tags.of(TAG_REALM, realmId, TAG_POOL, pool.getName());
+    MeteredConnectionPool metered =
+        new MeteredConnectionPool(
+            pool, owner, Timer.builder(WAIT_METRIC).tags(tags).register(meterRegistry));
+    Gauge.builder(ACTIVE_METRIC, metered, MeteredConnectionPool::getActiveConnections)
+        .tags(tags)
+        .register(meterRegistry);
+    Gauge.builder(IDLE_METRIC, metered, p -> p.getConnectionsAvailable().size())
+        .tags(tags)
+        .register(meterRegistry);
+    Gauge.builder(MAX_METRIC, metered, ConnectionPool::getMaxNumberOfConnections)
+        .tags(tags)
+        .register(meterRegistry);
+    Gauge.builder(PENDING_METRIC, metered, MeteredConnectionPool::getPendingRequests)
+        .tags(tags)
+        .register(meterRegistry);
+    return metered;
+  }
+
+  /** A connection pool recording how long and how many requests wait for a connection */
+  static class MeteredConnectionPool extends ConnectionPool {
+    private final Timer waitTimer;
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+
+    MeteredConnectionPool(ConnectionPool pool, ServerSession owner, Timer waitTimer) {
+      super(
+          pool.getName(),
+          pool.getLogin(),
+          pool.getInitialNumberOfConnections(),
+          pool.getMinNumberOfConnections(),
+          pool.getMaxNumberOfConnections(),
+          owner);
+      setWaitTimeout(pool.getWaitTimeout());
+      this.waitTimer = waitTimer;
+    }
+
+    @Override
+    public Accessor acquireConnection() throws ConcurrencyException {
+      long start = System.nanoTime();
+      pendingRequests.incrementAndGet();
+      try {
+        return super.acquireConnection();
+      } finally {
+        pendingRequests.decrementAndGet();
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    int getActiveConnections() {
+      return getConnectionsUsed().size();
+    }
+
+    int getPendingRequests() {
+      return pendingRequests.get();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.extension.persistence.impl.eclipselink;
+
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CACHE_STATEMENTS;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CACHE_STATEMENTS_SIZE;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL_INITIAL;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL_MAX;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL_MIN;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL_READ;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.CONNECTION_POOL_WAIT;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.persistence.sessions.server.ServerSession;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Configuration of the JDBC connection pools EclipseLink keeps for each realm: the pool of
+ * connections used to write, and the pool of connections used to read outside of a write. Both
+ * pools get the same bounds. Settings which are not configured keep the value of the
+ * persistence-unit, or the EclipseLink default.
+ */
+public class EclipseLinkConnectionPoolConfiguration {
+  private static final String DEFAULT_POOL = CONNECTION_POOL + ServerSession.DEFAULT_POOL + ".";
+
+  /** Number of connections opened when the pool starts */
+  @JsonProperty("initial-connections")
+  private @Nullable Integer initialConnections;
+
+  /** Number of connections kept open when they are released */
+  @JsonProperty("min-connections")
+  private @Nullable Integer minConnections;
+
+  /** Maximum number of connections open at once, requests wait for a connection beyond that */
+  @JsonProperty("max-connections")
+  private @Nullable Integer maxConnections;
+
+  /** Maximum time to wait for a connection of an exhausted pool, 0 to wait forever */
+  @JsonProperty("wait-timeout-ms")
+  private @Nullable Integer waitTimeoutMs;
+
+  /** Number of prepared statements cached per connection, 0 to disable the cache */
+  @JsonProperty("statement-cache-size")
+  private @Nullable Integer statementCacheSize;
+
+  public @Nullable Integer getInitialConnections() {
+    return initialConnections;
+  }
+
+  public void setInitialConnections(@Nullable Integer initialConnections) {
+    this.initialConnections = initialConnections;
+  }
+
+  public @Nullable Integer getMinConnections() {
+    return minConnections;
+  }
+
+  public void setMinConnections(@Nullable Integer minConnections) {
+    this.minConnections = minConnections;
+  }
+
+  public @Nullable Integer getMaxConnections() {
+    return maxConnections;
+  }
+
+  public void setMaxConnections(@Nullable Integer maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  public @Nullable Integer getWaitTimeoutMs() {
+    return waitTimeoutMs;
+  }
+
+  public void setWaitTimeoutMs(@Nullable Integer waitTimeoutMs) {
+    this.waitTimeoutMs = waitTimeoutMs;
+  }
+
+  public @Nullable Integer getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  public void setStatementCacheSize(@Nullable Integer statementCacheSize) {
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  /**
+   * @return the EclipseLink persistence-unit properties applying this configuration
+   */
+  public Map<String, Object> toProperties() {
+    Map<String, Object> properties = new HashMap<>();
+    for (String pool : new String[] {DEFAULT_POOL, CONNECTION_POOL_READ}) {
+      putIfSet(properties, pool + CONNECTION_POOL_INITIAL, initialConnections);
+      putIfSet(properties, pool + CONNECTION_POOL_MIN, minConnections);
+      putIfSet(properties, pool + CONNECTION_POOL_MAX, maxConnections);
+      putIfSet(properties, pool + CONNECTION_POOL_WAIT, waitTimeoutMs);
+    }
+    if (statementCacheSize != null) {
+      properties.put(CACHE_STATEMENTS, String.valueOf(statementCacheSize > 0));
+      if (statementCacheSize > 0) {
+        properties.put(CACHE_STATEMENTS_SIZE, String.valueOf(statementCacheSize));
+      }
+    }
+    return properties;
+  }
+
+  private static void putIfSet(Map<String, Object> properties, String key, Integer value) {
+    if (value != null) {
+      properties.put(key, String.valueOf(value));
+    }
+  }
+}
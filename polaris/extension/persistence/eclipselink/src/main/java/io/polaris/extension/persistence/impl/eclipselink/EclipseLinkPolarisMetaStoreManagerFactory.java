@@ -22,12 +22,19 @@ import io.polaris.core.context.RealmContext;
 import io.polaris.core.persistence.LocalPolarisMetaStoreManagerFactory;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
 import io.polaris.core.persistence.PolarisMetaStoreSession;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * The implementation of Configuration interface for configuring the {@link PolarisMetaStoreManager}
  * using an EclipseLink based meta store to store and retrieve all Polaris metadata. It can be
- * configured through persistence.xml to use supported RDBMS as the meta store.
+ * configured through persistence.xml to use supported RDBMS as the meta store. Each realm has a
+ * single EntityManagerFactory, holding the connection pools of the realm, shared by all the meta
+ * store sessions of the realm.
  */
 @JsonTypeName("eclipse-link")
 public class EclipseLinkPolarisMetaStoreManagerFactory
@@ -38,13 +45,42 @@ public class EclipseLinkPolarisMetaStoreManagerFactory
   @JsonProperty("persistence-unit")
   private String persistenceUnitName;
 
+  @JsonProperty("connection-pool")
+  private EclipseLinkConnectionPoolConfiguration connectionPool =
+      new EclipseLinkConnectionPoolConfiguration();
+
+  private final ConcurrentMap<String, EntityManagerFactory> entityManagerFactories =
+      new ConcurrentHashMap<>();
+
   protected PolarisEclipseLinkStore createBackingStore(@NotNull PolarisDiagnostics diagnostics) {
     return new PolarisEclipseLinkStore(diagnostics);
   }
 
   protected PolarisMetaStoreSession createMetaStoreSession(
       @NotNull PolarisEclipseLinkStore store, @NotNull RealmContext realmContext) {
-    return new PolarisEclipseLinkMetaStoreSessionImpl(
-        store, storageIntegration, realmContext, confFile, persistenceUnitName);
+    EntityManagerFactory emf =
+        entityManagerFactories.computeIfAbsent(
+            realmContext.getRealmIdentifier(), realm -> createEntityManagerFactory(realmContext));
+    return new PolarisEclipseLinkMetaStoreSessionImpl(store, storageIntegration, emf);
+  }
+
+  private EntityManagerFactory createEntityManagerFactory(RealmContext realmContext) {
+    Map<String, Object> overrides = connectionPool.toProperties();
+    if (metricRegistry != null) {
+      overrides.put(
+          PersistenceUnitProperties.SESSION_CUSTOMIZER,
+          new ConnectionPoolMetrics(
+              metricRegistry.getMeterRegistry(), realmContext.getRealmIdentifier()));
+    }
+    return PolarisEclipseLinkMetaStoreSessionImpl.createEntityManagerFactory(
+        realmContext, confFile, persistenceUnitName, overrides);
+  }
+
+  /** Close the EntityManagerFactory of each realm, releasing its connection pools */
+  @Override
+  public synchronized void close() {
+    entityManagerFactories.values().forEach(EntityManagerFactory::close);
+    entityManagerFactories.clear();
+    super.close();
   }
 }
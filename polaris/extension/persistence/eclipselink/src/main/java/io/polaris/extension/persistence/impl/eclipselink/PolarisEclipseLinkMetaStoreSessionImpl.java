@@ -18,7 +18,6 @@ package io.polaris.extension.persistence.impl.eclipselink;
 import static org.eclipse.persistence.config.PersistenceUnitProperties.ECLIPSELINK_PERSISTENCE_XML;
 import static org.eclipse.persistence.config.PersistenceUnitProperties.JDBC_URL;
 
-import com.google.common.base.Predicates;
 import com.google.common.collect.Maps;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.context.RealmContext;
@@ -28,6 +27,8 @@ import io.polaris.core.entity.PolarisEntitiesActiveKey;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
+import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrincipalSecrets;
@@ -37,6 +38,7 @@ import io.polaris.core.persistence.RetryOnConcurrencyException;
 import io.polaris.core.persistence.models.ModelEntity;
 import io.polaris.core.persistence.models.ModelEntityActive;
 import io.polaris.core.persistence.models.ModelEntityChangeTracking;
+import io.polaris.core.persistence.models.ModelEntityLocation;
 import io.polaris.core.persistence.models.ModelGrantRecord;
 import io.polaris.core.persistence.models.ModelPrincipalSecrets;
 import io.polaris.core.storage.PolarisStorageConfigurationInfo;
@@ -48,6 +50,7 @@ import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.Persistence;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -76,7 +79,7 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
   private static final Logger LOG =
       LoggerFactory.getLogger(PolarisEclipseLinkMetaStoreSessionImpl.class);
 
-  private EntityManagerFactory emf;
+  private final EntityManagerFactory emf;
   private ThreadLocal<EntityManager> localSession = new ThreadLocal<>();
   private final PolarisEclipseLinkStore store;
   private final PolarisStorageIntegrationProvider storageIntegrationProvider;
@@ -97,34 +100,74 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
       @NotNull RealmContext realmContext,
       @Nullable String confFile,
       @Nullable String persistenceUnitName) {
+    this(
+        store,
+        storageIntegrationProvider,
+        createEntityManagerFactory(realmContext, confFile, persistenceUnitName, Map.of()));
+  }
+
+  /**
+   * Create a meta store session over the EntityManagerFactory of a realm. The factory, and the
+   * connection pool it holds, are meant to be shared by all the sessions of the realm, so creating
+   * a session is cheap.
+   *
+   * @param store Backing store of EclipseLink implementation
+   * @param storageIntegrationProvider Storage integration provider
+   * @param emf EntityManagerFactory of the realm, see {@link #createEntityManagerFactory}
+   */
+  public PolarisEclipseLinkMetaStoreSessionImpl(
+      @NotNull PolarisEclipseLinkStore store,
+      @NotNull PolarisStorageIntegrationProvider storageIntegrationProvider,
+      @NotNull EntityManagerFactory emf) {
+    this.emf = emf;
+    this.store = store;
+    this.storageIntegrationProvider = storageIntegrationProvider;
+  }
+
+  /**
+   * Create the EntityManagerFactory of a realm. Each realm has its own database.
+   *
+   * @param realmContext Realm context used to communicate with different database.
+   * @param confFile Optional EclipseLink configuration file. Default to 'META-INF/persistence.xml'.
+   * @param persistenceUnitName Optional persistence-unit name in confFile. Default to 'polaris'.
+   * @param overrides Properties overriding the ones of the persistence-unit
+   */
+  public static EntityManagerFactory createEntityManagerFactory(
+      @NotNull RealmContext realmContext,
+      @Nullable String confFile,
+      @Nullable String persistenceUnitName,
+      @NotNull Map<String, Object> overrides) {
     persistenceUnitName = persistenceUnitName == null ? "polaris" : persistenceUnitName;
-    Map<String, String> properties =
-        loadProperties(
-            confFile == null ? "META-INF/persistence.xml" : confFile, persistenceUnitName);
+    // copy the loaded properties, which are shared by all the realms
+    Map<String, Object> properties =
+        new HashMap<>(
+            loadProperties(
+                confFile == null ? "META-INF/persistence.xml" : confFile, persistenceUnitName));
     // Replace database name in JDBC URL with realm
     if (properties.containsKey(JDBC_URL)) {
       properties.put(
-          JDBC_URL, properties.get(JDBC_URL).replace("{realm}", realmContext.getRealmIdentifier()));
+          JDBC_URL,
+          ((String) properties.get(JDBC_URL))
+              .replace("{realm}", realmContext.getRealmIdentifier()));
     }
     properties.put(ECLIPSELINK_PERSISTENCE_XML, confFile);
+    properties.putAll(overrides);
 
-    emf = Persistence.createEntityManagerFactory(persistenceUnitName, properties);
-
-    LOG.debug("Create EclipseLink Meta Store Session for {}", realmContext.getRealmIdentifier());
-
-    // init store
-    this.store = store;
-    this.storageIntegrationProvider = storageIntegrationProvider;
+    LOG.debug("Create EclipseLink EntityManagerFactory for {}", realmContext.getRealmIdentifier());
+    return Persistence.createEntityManagerFactory(persistenceUnitName, properties);
   }
 
   /** Load the persistence unit properties from a given configuration file */
-  private Map<String, String> loadProperties(String confFile, String persistenceUnitName) {
-    if (this.properties != null) {
-      return this.properties;
+  private static Map<String, String> loadProperties(String confFile, String persistenceUnitName) {
+    if (properties != null) {
+      return properties;
     }
 
     try {
-      InputStream input = this.getClass().getClassLoader().getResourceAsStream(confFile);
+      InputStream input =
+          PolarisEclipseLinkMetaStoreSessionImpl.class
+              .getClassLoader()
+              .getResourceAsStream(confFile);
       DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
       DocumentBuilder builder = factory.newDocumentBuilder();
       Document doc = builder.parse(input);
@@ -133,16 +176,16 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
           "/persistence/persistence-unit[@name='" + persistenceUnitName + "']/properties/property";
       NodeList nodeList =
           (NodeList) xPath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-      Map<String, String> properties = new HashMap<>();
+      Map<String, String> loadedProperties = new HashMap<>();
       for (int i = 0; i < nodeList.getLength(); i++) {
         NamedNodeMap nodeMap = nodeList.item(i).getAttributes();
-        properties.put(
+        loadedProperties.put(
             nodeMap.getNamedItem("name").getNodeValue(),
             nodeMap.getNamedItem("value").getNodeValue());
       }
 
-      this.properties = properties;
-      return properties;
+      properties = loadedProperties;
+      return loadedProperties;
     } catch (Exception e) {
       LOG.warn(
           "Cannot find or parse the configuration file {} for persistence-unit {}",
@@ -246,11 +289,22 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
    */
   @Override
   public long generateNewId(@NotNull PolarisCallContext callCtx) {
+    return this.store.getNextIds(1, () -> nextSequenceValue(callCtx)).get(0);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<Long> generateNewIds(@NotNull PolarisCallContext callCtx, int count) {
+    return this.store.getNextIds(count, () -> nextSequenceValue(callCtx));
+  }
+
+  /** Draw the next value from the sequence, only needed once per block of ids */
+  private long nextSequenceValue(@NotNull PolarisCallContext callCtx) {
     // This function can be called within a transaction or out of transaction.
     // If called out of transaction, create a new transaction, otherwise run in current transaction
     return localSession.get() != null
         ? this.store.getNextSequence(localSession.get())
-        : runInReadTransaction(callCtx, () -> generateNewId(callCtx));
+        : runInReadTransaction(callCtx, () -> this.store.getNextSequence(localSession.get()));
   }
 
   /** {@inheritDoc} */
@@ -301,6 +355,14 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
     this.store.writeToGrantRecords(localSession.get(), grantRec);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void writeToEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    // write it
+    this.store.writeToEntityLocations(localSession.get(), locationRecord);
+  }
+
   /** {@inheritDoc} */
   @Override
   public void deleteFromEntities(
@@ -346,6 +408,13 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
     this.store.deleteFromGrantRecords(localSession.get(), grantRec);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void deleteFromEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    this.store.deleteFromEntityLocations(localSession.get(), locationRecord);
+  }
+
   /** {@inheritDoc} */
   @Override
   public void deleteAllEntityGrantRecords(
@@ -389,8 +458,9 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
   @Override
   public @NotNull List<PolarisChangeTrackingVersions> lookupEntityVersions(
       @NotNull PolarisCallContext callCtx, List<PolarisEntityId> entityIds) {
-    Map<PolarisEntityId, ModelEntity> idToEntityMap =
-        this.store.lookupEntities(localSession.get(), entityIds).stream()
+    // the versions are read from the narrow change tracking table, in batches
+    Map<PolarisEntityId, ModelEntityChangeTracking> idToChangeTrackingMap =
+        this.store.lookupEntityChangeTrackingBatch(localSession.get(), entityIds).stream()
             .collect(
                 Collectors.toMap(
                     entry -> new PolarisEntityId(entry.getCatalogId(), entry.getId()),
@@ -398,7 +468,7 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
     return entityIds.stream()
         .map(
             entityId -> {
-              ModelEntity entity = idToEntityMap.getOrDefault(entityId, null);
+              ModelEntityChangeTracking entity = idToChangeTrackingMap.get(entityId);
               return entity == null
                   ? null
                   : new PolarisChangeTrackingVersions(
@@ -423,12 +493,52 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
   public List<PolarisEntityActiveRecord> lookupEntityActiveBatch(
       @NotNull PolarisCallContext callCtx,
       @NotNull List<PolarisEntitiesActiveKey> entityActiveKeys) {
+    // lookup all the keys with a few set-based queries, then put the results back in key order
+    Map<List<Object>, ModelEntityActive> keyToEntityActiveMap =
+        this.store.lookupEntityActiveBatch(localSession.get(), entityActiveKeys).stream()
+            .collect(
+                Collectors.toMap(
+                    model ->
+                        Arrays.asList(
+                            model.getCatalogId(),
+                            model.getParentId(),
+                            model.getTypeCode(),
+                            model.getName()),
+                    model -> model,
+                    (first, second) -> first));
+
     // now build a list to quickly verify that nothing has changed
     return entityActiveKeys.stream()
-        .map(entityActiveKey -> this.lookupEntityActive(callCtx, entityActiveKey))
+        .map(
+            key ->
+                ModelEntityActive.toEntityActive(
+                    keyToEntityActiveMap.get(
+                        Arrays.asList(
+                            key.getCatalogId(),
+                            key.getParentId(),
+                            key.getTypeCode(),
+                            key.getName()))))
         .collect(Collectors.toList());
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<PolarisEntityLocationRecord> lookupOverlappingEntityLocations(
+      @NotNull PolarisCallContext callCtx, long catalogId, @NotNull String normalizedLocation) {
+    return this.store
+        .lookupOverlappingEntityLocations(localSession.get(), catalogId, normalizedLocation)
+        .stream()
+        .map(ModelEntityLocation::toEntityLocation)
+        .collect(Collectors.toList());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasEntityLocation(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    return this.store.lookupEntityLocation(localSession.get(), locationRecord) != null;
+  }
+
   /** {@inheritDoc} */
   @Override
   public @NotNull List<PolarisEntityActiveRecord> listActiveEntities(
@@ -436,7 +546,38 @@ public class PolarisEclipseLinkMetaStoreSessionImpl implements PolarisMetaStoreS
       long catalogId,
       long parentId,
       @NotNull PolarisEntityType entityType) {
-    return listActiveEntities(callCtx, catalogId, parentId, entityType, Predicates.alwaysTrue());
+    return listActiveEntities(
+        callCtx,
+        catalogId,
+        parentId,
+        entityType,
+        PolarisEntitySubType.ANY_SUBTYPE,
+        null,
+        Integer.MAX_VALUE);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<PolarisEntityActiveRecord> listActiveEntities(
+      @NotNull PolarisCallContext callCtx,
+      long catalogId,
+      long parentId,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String startAfterName,
+      int pageSize) {
+    return this.store
+        .lookupEntitiesActivePage(
+            localSession.get(),
+            catalogId,
+            parentId,
+            entityType,
+            entitySubType,
+            startAfterName,
+            pageSize)
+        .stream()
+        .map(ModelEntityActive::toEntityActive)
+        .collect(Collectors.toList());
   }
 
   @Override
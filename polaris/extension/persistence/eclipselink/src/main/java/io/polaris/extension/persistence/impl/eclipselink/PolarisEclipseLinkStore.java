@@ -15,12 +15,15 @@
  */
 package io.polaris.extension.persistence.impl.eclipselink;
 
+import com.google.common.collect.Lists;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisEntitiesActiveKey;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
+import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrincipalSecrets;
@@ -28,12 +31,20 @@ import io.polaris.core.persistence.models.ModelEntity;
 import io.polaris.core.persistence.models.ModelEntityActive;
 import io.polaris.core.persistence.models.ModelEntityChangeTracking;
 import io.polaris.core.persistence.models.ModelEntityDropped;
+import io.polaris.core.persistence.models.ModelEntityLocation;
 import io.polaris.core.persistence.models.ModelGrantRecord;
 import io.polaris.core.persistence.models.ModelPrincipalSecrets;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -47,6 +58,22 @@ import org.slf4j.LoggerFactory;
 public class PolarisEclipseLinkStore {
   private static final Logger LOG = LoggerFactory.getLogger(PolarisEclipseLinkStore.class);
 
+  // maximum number of bind parameters in the IN list of a batched lookup. Larger batches are split
+  // in several queries, which keeps the statement count in O(n/chunk) and lets the database reuse
+  // a small number of prepared statements
+  static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+  // escape character of the LIKE patterns
+  private static final String LIKE_ESCAPE = "!";
+
+  // number of ids reserved by each value drawn from the sequence
+  static final long ID_BLOCK_SIZE = 1000;
+
+  // block the ids are currently handed out from, initially empty so that the first id draws a block
+  private final AtomicReference<IdBlock> idBlock =
+      new AtomicReference<>(new IdBlock(new AtomicLong(), 0));
+  private final ReentrantLock idBlockLock = new ReentrantLock();
+
   // diagnostic services
   private PolarisDiagnostics diagnosticServices;
 
@@ -59,6 +86,43 @@ public class PolarisEclipseLinkStore {
     this.diagnosticServices = diagnostics;
   }
 
+  /**
+   * Hand out new unique ids with a hi/lo scheme: each value drawn from the sequence reserves the
+   * block of {@link #ID_BLOCK_SIZE} ids starting at that value times the block size, so that the
+   * sequence is only read once per block. The ids of a block are handed out without locking, only
+   * drawing the next block is serialized. Blocks start above any value drawn from the sequence
+   * before, so the ids never collide with ids generated one sequence value at a time.
+   *
+   * @param count number of ids to generate
+   * @param nextSequenceValue draws the next value from the sequence
+   * @return the new ids
+   */
+  List<Long> getNextIds(int count, LongSupplier nextSequenceValue) {
+    List<Long> ids = new ArrayList<>(count);
+    while (ids.size() < count) {
+      IdBlock block = idBlock.get();
+      int remaining = count - ids.size();
+      long first = block.next().getAndAdd(remaining);
+      for (long id = first; id < Math.min(first + remaining, block.end()); id++) {
+        ids.add(id);
+      }
+      if (ids.size() < count) {
+        // not a synchronized block, which would pin virtual threads while reading the sequence
+        idBlockLock.lock();
+        try {
+          // another thread may have drawn the next block while we were waiting
+          if (idBlock.get() == block) {
+            long start = nextSequenceValue.getAsLong() * ID_BLOCK_SIZE;
+            idBlock.set(new IdBlock(new AtomicLong(start), start + ID_BLOCK_SIZE));
+          }
+        } finally {
+          idBlockLock.unlock();
+        }
+      }
+    }
+    return ids;
+  }
+
   long getNextSequence(EntityManager session) {
     diagnosticServices.check(session != null, "session_is_null");
     // implement with a sequence table POLARIS_SEQUENCE
@@ -120,6 +184,19 @@ public class PolarisEclipseLinkStore {
     session.persist(ModelGrantRecord.fromGrantRecord(grantRec));
   }
 
+  void writeToEntityLocations(EntityManager session, PolarisEntityLocationRecord locationRecord) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    ModelEntityLocation model = lookupEntityLocation(session, locationRecord);
+    if (model != null) {
+      // the location of an entity which is renamed or moved does not change
+      model.update(locationRecord);
+    } else {
+      model = ModelEntityLocation.fromEntityLocation(locationRecord);
+    }
+    session.persist(model);
+  }
+
   void deleteFromEntities(EntityManager session, long catalogId, long entityId) {
     diagnosticServices.check(session != null, "session_is_null");
 
@@ -173,16 +250,40 @@ public class PolarisEclipseLinkStore {
     session.remove(lookupGrantRecord);
   }
 
+  void deleteFromEntityLocations(
+      EntityManager session, PolarisEntityLocationRecord locationRecord) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    // the entities of a catalog created before the ENTITY_LOCATIONS table existed are not in it
+    // until the catalog is backfilled, which may be after some of them are dropped or moved
+    ModelEntityLocation model = lookupEntityLocation(session, locationRecord);
+    if (model != null) {
+      session.remove(model);
+    }
+  }
+
   void deleteAllEntityGrantRecords(EntityManager session, PolarisEntityCore entity) {
     diagnosticServices.check(session != null, "session_is_null");
 
     // Delete grant records from grantRecords tables
-    lookupAllGrantRecordsOnSecurable(session, entity.getCatalogId(), entity.getId())
-        .forEach(session::remove);
+    session
+        .createQuery(
+            "DELETE from ModelGrantRecord m "
+                + "where m.securableCatalogId=:catalogId "
+                + "and m.securableId=:id")
+        .setParameter("catalogId", entity.getCatalogId())
+        .setParameter("id", entity.getId())
+        .executeUpdate();
 
     // Delete grantee records from grantRecords tables
-    lookupGrantRecordsOnGrantee(session, entity.getCatalogId(), entity.getId())
-        .forEach(session::remove);
+    session
+        .createQuery(
+            "DELETE from ModelGrantRecord m "
+                + "where m.granteeCatalogId=:catalogId "
+                + "and m.granteeId=:id")
+        .setParameter("catalogId", entity.getCatalogId())
+        .setParameter("id", entity.getId())
+        .executeUpdate();
   }
 
   void deleteAll(EntityManager session) {
@@ -194,6 +295,7 @@ public class PolarisEclipseLinkStore {
     session.createQuery("DELETE from ModelEntityChangeTracking").executeUpdate();
     session.createQuery("DELETE from ModelGrantRecord").executeUpdate();
     session.createQuery("DELETE from ModelPrincipalSecrets").executeUpdate();
+    session.createQuery("DELETE from ModelEntityLocation").executeUpdate();
 
     LOG.debug("All entities deleted.");
   }
@@ -212,20 +314,26 @@ public class PolarisEclipseLinkStore {
         .orElse(null);
   }
 
-  @SuppressWarnings("unchecked")
   List<ModelEntity> lookupEntities(EntityManager session, List<PolarisEntityId> entityIds) {
     diagnosticServices.check(session != null, "session_is_null");
 
     if (entityIds == null || entityIds.isEmpty()) return new ArrayList<>();
 
-    // TODO Support paging
-    String inClause =
-        entityIds.stream()
-            .map(entityId -> "(" + entityId.getCatalogId() + "," + entityId.getId() + ")")
-            .collect(Collectors.joining(","));
-
-    String hql = "SELECT * from ENTITIES m where (m.catalogId, m.id) in (" + inClause + ")";
-    return (List<ModelEntity>) session.createNativeQuery(hql, ModelEntity.class).getResultList();
+    // one parameterized IN query per catalog and per chunk of ids
+    List<ModelEntity> results = new ArrayList<>();
+    for (Map.Entry<Long, List<Long>> entry : groupIdsByCatalog(entityIds).entrySet()) {
+      for (List<Long> ids : Lists.partition(entry.getValue(), IN_CLAUSE_CHUNK_SIZE)) {
+        results.addAll(
+            session
+                .createQuery(
+                    "SELECT m from ModelEntity m where m.catalogId=:catalogId and m.id in :ids",
+                    ModelEntity.class)
+                .setParameter("catalogId", entry.getKey())
+                .setParameter("ids", ids)
+                .getResultList());
+      }
+    }
+    return results;
   }
 
   ModelEntityActive lookupEntityActive(
@@ -234,7 +342,11 @@ public class PolarisEclipseLinkStore {
 
     return session
         .createQuery(
-            "SELECT m from ModelEntityActive m where m.catalogId=:catalogId and m.parentId=:parentId and m.typeCode=:typeCode and m.name=:name",
+            "SELECT m from ModelEntityActive m "
+                + "where m.catalogId=:catalogId "
+                + "and m.parentId=:parentId "
+                + "and m.typeCode=:typeCode "
+                + "and m.name=:name",
             ModelEntityActive.class)
         .setParameter("catalogId", entityActiveKey.getCatalogId())
         .setParameter("parentId", entityActiveKey.getParentId())
@@ -245,6 +357,121 @@ public class PolarisEclipseLinkStore {
         .orElse(null);
   }
 
+  ModelEntityLocation lookupEntityLocation(
+      EntityManager session, PolarisEntityLocationRecord locationRecord) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    return session
+        .createQuery(
+            "SELECT m from ModelEntityLocation m "
+                + "where m.catalogId=:catalogId "
+                + "and m.location=:location "
+                + "and m.id=:id",
+            ModelEntityLocation.class)
+        .setParameter("catalogId", locationRecord.getCatalogId())
+        .setParameter("location", locationRecord.getLocation())
+        .setParameter("id", locationRecord.getId())
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Lookup the locations of a catalog overlapping with the specified one: one IN query on its
+   * parent locations and one LIKE query on the location itself and the locations under it. A LIKE
+   * on a prefix matches the characters themselves, so it does not depend on the collation of the
+   * location column, unlike a range of locations would.
+   *
+   * @param session the current session
+   * @param catalogId catalog id
+   * @param normalizedLocation normalized location to check, ending with a '/'
+   * @return the overlapping locations, in no particular order
+   */
+  List<ModelEntityLocation> lookupOverlappingEntityLocations(
+      EntityManager session, long catalogId, String normalizedLocation) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    // the wildcards of LIKE which may appear in a location are escaped
+    String prefixPattern =
+        normalizedLocation
+                .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_")
+            + "%";
+    List<ModelEntityLocation> results =
+        new ArrayList<>(
+            session
+                .createQuery(
+                    "SELECT m from ModelEntityLocation m "
+                        + "where m.catalogId=:catalogId "
+                        + "and m.location like :prefixPattern escape '"
+                        + LIKE_ESCAPE
+                        + "'",
+                    ModelEntityLocation.class)
+                .setParameter("catalogId", catalogId)
+                .setParameter("prefixPattern", prefixPattern)
+                .getResultList());
+    List<String> parentLocations = PolarisEntityLocationRecord.parentLocations(normalizedLocation);
+    if (!parentLocations.isEmpty()) {
+      results.addAll(
+          session
+              .createQuery(
+                  "SELECT m from ModelEntityLocation m "
+                      + "where m.catalogId=:catalogId "
+                      + "and m.location in :locations",
+                  ModelEntityLocation.class)
+              .setParameter("catalogId", catalogId)
+              .setParameter("locations", parentLocations)
+              .getResultList());
+    }
+    return results;
+  }
+
+  /**
+   * Lookup a batch of active entities. The keys are grouped by catalog, parent and type so that
+   * each group is resolved with one IN query on the names per chunk of {@link
+   * #IN_CLAUSE_CHUNK_SIZE} keys.
+   *
+   * @param session the current session
+   * @param entityActiveKeys keys of the active entities to lookup
+   * @return the active entities which were found, in no particular order
+   */
+  List<ModelEntityActive> lookupEntityActiveBatch(
+      EntityManager session, List<PolarisEntitiesActiveKey> entityActiveKeys) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    Map<List<Long>, List<String>> namesByParent = new LinkedHashMap<>();
+    for (PolarisEntitiesActiveKey key : entityActiveKeys) {
+      namesByParent
+          .computeIfAbsent(
+              List.of(key.getCatalogId(), key.getParentId(), (long) key.getTypeCode()),
+              k -> new ArrayList<>())
+          .add(key.getName());
+    }
+
+    List<ModelEntityActive> results = new ArrayList<>();
+    for (Map.Entry<List<Long>, List<String>> entry : namesByParent.entrySet()) {
+      List<Long> parent = entry.getKey();
+      for (List<String> names : Lists.partition(entry.getValue(), IN_CLAUSE_CHUNK_SIZE)) {
+        results.addAll(
+            session
+                .createQuery(
+                    "SELECT m from ModelEntityActive m "
+                        + "where m.catalogId=:catalogId "
+                        + "and m.parentId=:parentId "
+                        + "and m.typeCode=:typeCode "
+                        + "and m.name in :names",
+                    ModelEntityActive.class)
+                .setParameter("catalogId", parent.get(0))
+                .setParameter("parentId", parent.get(1))
+                .setParameter("typeCode", parent.get(2).intValue())
+                .setParameter("names", names)
+                .getResultList());
+      }
+    }
+    return results;
+  }
+
   long countActiveChildEntities(
       EntityManager session,
       long catalogId,
@@ -253,7 +480,9 @@ public class PolarisEclipseLinkStore {
     diagnosticServices.check(session != null, "session_is_null");
 
     String hql =
-        "SELECT COUNT(m) from ModelEntityActive m where m.catalogId=:catalogId and m.parentId=:parentId";
+        "SELECT COUNT(m) from ModelEntityActive m "
+            + "where m.catalogId=:catalogId "
+            + "and m.parentId=:parentId";
     if (entityType != null) {
       hql += " and m.typeCode=:typeCode";
     }
@@ -270,13 +499,58 @@ public class PolarisEclipseLinkStore {
     return query.getSingleResult();
   }
 
+  List<ModelEntityActive> lookupEntitiesActivePage(
+      EntityManager session,
+      long catalogId,
+      long parentId,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String startAfterName,
+      int pageSize) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    // only read the narrow ENTITIES_ACTIVE table. Pages are ordered by name under the parent, so
+    // the next page is found with a keyset condition on the last name of the previous page
+    String hql =
+        "SELECT m from ModelEntityActive m "
+            + "where m.catalogId=:catalogId "
+            + "and m.parentId=:parentId "
+            + "and m.typeCode=:typeCode";
+    if (entitySubType != PolarisEntitySubType.ANY_SUBTYPE) {
+      hql += " and m.subTypeCode=:subTypeCode";
+    }
+    if (startAfterName != null) {
+      hql += " and m.name > :startAfterName";
+    }
+    hql += " order by m.name";
+
+    TypedQuery<ModelEntityActive> query =
+        session
+            .createQuery(hql, ModelEntityActive.class)
+            .setParameter("catalogId", catalogId)
+            .setParameter("parentId", parentId)
+            .setParameter("typeCode", entityType.getCode())
+            .setMaxResults(pageSize);
+    if (entitySubType != PolarisEntitySubType.ANY_SUBTYPE) {
+      query.setParameter("subTypeCode", entitySubType.getCode());
+    }
+    if (startAfterName != null) {
+      query.setParameter("startAfterName", startAfterName);
+    }
+
+    return query.getResultList();
+  }
+
   List<ModelEntity> lookupFullEntitiesActive(
       EntityManager session, long catalogId, long parentId, @NotNull PolarisEntityType entityType) {
     diagnosticServices.check(session != null, "session_is_null");
 
     // Currently check against ENTITIES not joining with ENTITIES_ACTIVE
     String hql =
-        "SELECT m from ModelEntity m where m.catalogId=:catalogId and m.parentId=:parentId and m.typeCode=:typeCode";
+        "SELECT m from ModelEntity m "
+            + "where m.catalogId=:catalogId "
+            + "and m.parentId=:parentId "
+            + "and m.typeCode=:typeCode";
 
     TypedQuery<ModelEntity> query =
         session
@@ -317,6 +591,29 @@ public class PolarisEclipseLinkStore {
         .orElse(null);
   }
 
+  List<ModelEntityChangeTracking> lookupEntityChangeTrackingBatch(
+      EntityManager session, List<PolarisEntityId> entityIds) {
+    diagnosticServices.check(session != null, "session_is_null");
+
+    // one parameterized IN query per catalog and per chunk of ids
+    List<ModelEntityChangeTracking> results = new ArrayList<>();
+    for (Map.Entry<Long, List<Long>> entry : groupIdsByCatalog(entityIds).entrySet()) {
+      for (List<Long> ids : Lists.partition(entry.getValue(), IN_CLAUSE_CHUNK_SIZE)) {
+        results.addAll(
+            session
+                .createQuery(
+                    "SELECT m from ModelEntityChangeTracking m "
+                        + "where m.catalogId=:catalogId "
+                        + "and m.id in :ids",
+                    ModelEntityChangeTracking.class)
+                .setParameter("catalogId", entry.getKey())
+                .setParameter("ids", ids)
+                .getResultList());
+      }
+    }
+    return results;
+  }
+
   ModelGrantRecord lookupGrantRecord(
       EntityManager session,
       long securableCatalogId,
@@ -409,4 +706,19 @@ public class PolarisEclipseLinkStore {
 
     session.remove(modelPrincipalSecrets);
   }
+
+  /** Group the ids of the specified entities by catalog id, removing duplicates */
+  private static Map<Long, List<Long>> groupIdsByCatalog(List<PolarisEntityId> entityIds) {
+    return entityIds.stream()
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(
+            Collectors.groupingBy(
+                PolarisEntityId::getCatalogId,
+                LinkedHashMap::new,
+                Collectors.mapping(PolarisEntityId::getId, Collectors.toList())));
+  }
+
+  /** Range of ids reserved from the sequence, from the next id to hand out to end, excluded */
+  private record IdBlock(AtomicLong next, long end) {}
 }
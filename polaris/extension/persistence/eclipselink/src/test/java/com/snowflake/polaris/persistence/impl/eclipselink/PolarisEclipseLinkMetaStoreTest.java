@@ -19,12 +19,24 @@ import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisConfigurationStore;
 import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.PolarisDiagnostics;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.PolarisEntitiesActiveKey;
+import io.polaris.core.entity.PolarisEntityActiveRecord;
+import io.polaris.core.entity.PolarisEntitySubType;
+import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.persistence.PolarisMetaStoreManagerImpl;
 import io.polaris.core.persistence.PolarisMetaStoreManagerTest;
 import io.polaris.core.persistence.PolarisTestMetaStoreManager;
 import io.polaris.extension.persistence.impl.eclipselink.PolarisEclipseLinkMetaStoreSessionImpl;
 import io.polaris.extension.persistence.impl.eclipselink.PolarisEclipseLinkStore;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 /**
@@ -49,4 +61,78 @@ public class PolarisEclipseLinkMetaStoreTest extends PolarisMetaStoreManagerTest
             new PolarisConfigurationStore() {},
             timeSource.withZone(ZoneId.systemDefault())));
   }
+
+  @Test
+  void testGenerateNewIdsFromReservedBlock() {
+    PolarisDiagnostics diagServices = new PolarisDefaultDiagServiceImpl();
+    PolarisEclipseLinkMetaStoreSessionImpl session =
+        new PolarisEclipseLinkMetaStoreSessionImpl(
+            new PolarisEclipseLinkStore(diagServices),
+            Mockito.mock(),
+            () -> "realm",
+            null,
+            "polaris-dev");
+    PolarisCallContext callCtx = new PolarisCallContext(session, diagServices);
+
+    // the first id reserves a block, the next ids are handed out from it
+    long firstId = session.generateNewId(callCtx);
+    Assertions.assertThat(session.generateNewIds(callCtx, 10))
+        .containsExactlyElementsOf(
+            LongStream.rangeClosed(firstId + 1, firstId + 10).boxed().toList());
+    Assertions.assertThat(session.generateNewId(callCtx)).isEqualTo(firstId + 11);
+  }
+
+  @Test
+  void testLookupEntityActiveBatchAcrossChunks() {
+    PolarisDiagnostics diagServices = new PolarisDefaultDiagServiceImpl();
+    PolarisEclipseLinkMetaStoreSessionImpl session =
+        new PolarisEclipseLinkMetaStoreSessionImpl(
+            new PolarisEclipseLinkStore(diagServices),
+            Mockito.mock(),
+            () -> "realm",
+            null,
+            "polaris-dev");
+    PolarisCallContext callCtx = new PolarisCallContext(session, diagServices);
+
+    // several groups of catalog, parent and type, one of them larger than a chunk of the IN
+    // clause of the batch lookup, which holds 500 keys
+    long catalogId = session.generateNewId(callCtx);
+    List<PolarisEntitiesActiveKey> keys = new ArrayList<>();
+    List<PolarisBaseEntity> entities = new ArrayList<>();
+    for (long catalog : List.of(catalogId, catalogId + 1)) {
+      for (long parentId : List.of(catalog, catalog + 2)) {
+        for (PolarisEntityType type :
+            List.of(PolarisEntityType.NAMESPACE, PolarisEntityType.TABLE_LIKE)) {
+          int count = catalog == catalogId && type == PolarisEntityType.TABLE_LIKE ? 600 : 50;
+          for (int i = 0; i < count; i++) {
+            PolarisBaseEntity entity =
+                new PolarisBaseEntity(
+                    catalog,
+                    catalogId + 10 + entities.size(),
+                    type,
+                    PolarisEntitySubType.NULL_SUBTYPE,
+                    parentId,
+                    type.name() + "_" + i);
+            entities.add(entity);
+            keys.add(new PolarisEntitiesActiveKey(entity));
+          }
+          // keys which do not exist
+          keys.add(new PolarisEntitiesActiveKey(catalog, parentId, type.getCode(), "missing"));
+        }
+      }
+    }
+    session.runActionInTransaction(
+        callCtx, () -> entities.forEach(entity -> session.writeToEntitiesActive(callCtx, entity)));
+    Collections.shuffle(keys, new Random(42));
+
+    // the batch lookup finds the same entities as one lookup per key, in key order
+    List<PolarisEntityActiveRecord> batch =
+        session.runInReadTransaction(callCtx, () -> session.lookupEntityActiveBatch(callCtx, keys));
+    List<PolarisEntityActiveRecord> single =
+        session.runInReadTransaction(
+            callCtx,
+            () -> keys.stream().map(key -> session.lookupEntityActive(callCtx, key)).toList());
+    Assertions.assertThat(batch).hasSize(keys.size()).isEqualTo(single);
+    Assertions.assertThat(batch).filteredOn(entityActive -> entityActive == null).hasSize(8);
+  }
 }
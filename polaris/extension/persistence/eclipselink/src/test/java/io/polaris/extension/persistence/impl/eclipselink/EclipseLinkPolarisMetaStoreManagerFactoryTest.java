@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.extension.persistence.impl.eclipselink;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class EclipseLinkPolarisMetaStoreManagerFactoryTest {
+
+  @Test
+  public void testConnectionPoolConfiguration() throws Exception {
+    EclipseLinkConnectionPoolConfiguration configuration =
+        new ObjectMapper()
+            .readValue(
+                "{\"max-connections\": 4, \"wait-timeout-ms\": 1000, \"statement-cache-size\": 0}",
+                EclipseLinkConnectionPoolConfiguration.class);
+
+    assertThat(configuration.toProperties())
+        .containsEntry("eclipselink.connection-pool.default.max", "4")
+        .containsEntry("eclipselink.connection-pool.read.max", "4")
+        .containsEntry("eclipselink.connection-pool.default.wait", "1000")
+        .containsEntry("eclipselink.connection-pool.read.wait", "1000")
+        .containsEntry("eclipselink.jdbc.cache-statements", "false")
+        .doesNotContainKey("eclipselink.connection-pool.default.min")
+        .doesNotContainKey("eclipselink.jdbc.cache-statements.size");
+  }
+
+  @Test
+  public void testSessionsShareTheConnectionPoolsOfTheRealm() throws Exception {
+    EclipseLinkPolarisMetaStoreManagerFactory factory =
+        new ObjectMapper()
+            .readValue(
+                "{\"type\": \"eclipse-link\", \"persistence-unit\": \"polaris-dev\","
+                    + " \"connection-pool\": {\"max-connections\": 4, \"statement-cache-size\":"
+                    + " 10}}",
+                EclipseLinkPolarisMetaStoreManagerFactory.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    factory.setMetricRegistry(new PolarisMetricRegistry(meterRegistry));
+    factory.setStorageIntegrationProvider(Mockito.mock());
+    String realm = "realm-" + UUID.randomUUID();
+
+    Map<String, PolarisMetaStoreManager.PrincipalSecretsResult> results =
+        factory.bootstrapRealms(List.of(realm));
+    assertThat(results.get(realm).isSuccess()).isTrue();
+
+    Supplier<PolarisMetaStoreSession> sessionSupplier =
+        factory.getOrCreateSessionSupplier(() -> realm);
+    assertThat(sessionSupplier.get()).isNotSameAs(sessionSupplier.get());
+
+    // a single set of pools was created for the realm, bounded as configured
+    for (String pool : List.of("default", "read")) {
+      List<Gauge> maxGauges =
+          List.copyOf(
+              meterRegistry
+                  .find(ConnectionPoolMetrics.MAX_METRIC)
+                  .tags("REALM_ID", realm, "POOL", pool)
+                  .gauges());
+      assertThat(maxGauges).hasSize(1);
+      assertThat(maxGauges.get(0).value()).isEqualTo(4);
+    }
+    assertThat(
+            meterRegistry
+                .get(ConnectionPoolMetrics.ACTIVE_METRIC)
+                .tags("REALM_ID", realm, "POOL", "default")
+                .gauge()
+                .value())
+        .isZero();
+    assertThat(
+            meterRegistry
+                .get(ConnectionPoolMetrics.WAIT_METRIC)
+                .tags("REALM_ID", realm, "POOL", "default")
+                .timer()
+                .count())
+        .isPositive();
+
+    // closing the factory closes the pools of the realm
+    PolarisMetaStoreSession session = sessionSupplier.get();
+    PolarisCallContext callCtx =
+        new PolarisCallContext(session, new PolarisDefaultDiagServiceImpl());
+    factory.close();
+    assertThatThrownBy(() -> session.runInReadTransaction(callCtx, () -> null))
+        .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.auth;
+
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.PolarisEntity;
+import io.polaris.core.entity.PolarisEntitySubType;
+import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.entity.PolarisGrantRecord;
+import io.polaris.core.entity.PolarisPrivilege;
+import io.polaris.core.persistence.PolarisResolvedPathWrapper;
+import io.polaris.core.persistence.ResolvedPolarisEntity;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link PolarisAuthorizer#hasTransitivePrivilege}, which checks the privileges indexed by
+ * grantee on each securable, with the scan of all the grant records of the securables it replaced,
+ * for a table under a deep namespace path with many grants on every level. The desired privilege is
+ * only granted to an activated grantee on the table itself, so the whole path is checked.
+ *
+ * <p>Run with {@code ./gradlew :polaris-core:jmh}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolarisAuthorizerBenchmark {
+
+  private static final long CATALOG_ID = 1;
+
+  // grantee ids of the activated roles of the caller, none of the other grantees are activated
+  private static final long FIRST_ACTIVATED_GRANTEE_ID = 1000;
+
+  private static final int ACTIVATED_GRANTEE_COUNT = 5;
+
+  private static final PolarisPrivilege DESIRED_PRIVILEGE = PolarisPrivilege.TABLE_WRITE_DATA;
+
+  // privileges granted to the grantees of each level, none of them satisfies the desired one
+  private static final List<PolarisPrivilege> OTHER_PRIVILEGES =
+      List.of(
+          PolarisPrivilege.NAMESPACE_LIST,
+          PolarisPrivilege.TABLE_LIST,
+          PolarisPrivilege.TABLE_READ_PROPERTIES,
+          PolarisPrivilege.TABLE_READ_DATA,
+          PolarisPrivilege.VIEW_LIST,
+          PolarisPrivilege.VIEW_READ_PROPERTIES);
+
+  @Param({"4", "16"})
+  private int namespaceDepth;
+
+  @Param({"10", "100"})
+  private int grantsPerLevel;
+
+  private final PolarisAuthorizer authorizer =
+      new PolarisAuthorizer(new PolarisConfigurationStore() {});
+
+  private final Set<Long> activatedGranteeIds = new HashSet<>();
+
+  private AuthenticatedPolarisPrincipal principal;
+
+  private PolarisResolvedPathWrapper resolvedPath;
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < ACTIVATED_GRANTEE_COUNT; i++) {
+      activatedGranteeIds.add(FIRST_ACTIVATED_GRANTEE_ID + i);
+    }
+    principal =
+        new AuthenticatedPolarisPrincipal(
+            new PolarisEntity(
+                new PolarisBaseEntity(
+                    0,
+                    1,
+                    PolarisEntityType.PRINCIPAL,
+                    PolarisEntitySubType.NULL_SUBTYPE,
+                    0,
+                    "principal")),
+            Set.of());
+
+    List<ResolvedPolarisEntity> path = new ArrayList<>();
+    long parentId = 0;
+    long id = CATALOG_ID;
+    path.add(level(PolarisEntityType.CATALOG, PolarisEntitySubType.NULL_SUBTYPE, id, parentId));
+    for (int depth = 0; depth < namespaceDepth; depth++) {
+      parentId = id++;
+      path.add(level(PolarisEntityType.NAMESPACE, PolarisEntitySubType.NULL_SUBTYPE, id, parentId));
+    }
+    parentId = id++;
+    ResolvedPolarisEntity table =
+        level(PolarisEntityType.TABLE_LIKE, PolarisEntitySubType.TABLE, id, parentId);
+    List<PolarisGrantRecord> tableGrants = new ArrayList<>(table.getGrantRecordsAsSecurable());
+    tableGrants.add(
+        new PolarisGrantRecord(
+            CATALOG_ID,
+            id,
+            CATALOG_ID,
+            FIRST_ACTIVATED_GRANTEE_ID + ACTIVATED_GRANTEE_COUNT - 1,
+            DESIRED_PRIVILEGE.getCode()));
+    path.add(new ResolvedPolarisEntity(table.getEntity(), List.of(), tableGrants));
+    resolvedPath = new PolarisResolvedPathWrapper(path);
+  }
+
+  /** An entity of the path with grants to both activated and other grantees */
+  private ResolvedPolarisEntity level(
+      PolarisEntityType type, PolarisEntitySubType subType, long id, long parentId) {
+    List<PolarisGrantRecord> grants = new ArrayList<>(grantsPerLevel);
+    for (int i = 0; i < grantsPerLevel; i++) {
+      PolarisPrivilege privilege = OTHER_PRIVILEGES.get(i % OTHER_PRIVILEGES.size());
+      long granteeId =
+          i < ACTIVATED_GRANTEE_COUNT
+              ? FIRST_ACTIVATED_GRANTEE_ID + i
+              : FIRST_ACTIVATED_GRANTEE_ID * 2 + i;
+      grants.add(
+          new PolarisGrantRecord(CATALOG_ID, id, CATALOG_ID, granteeId, privilege.getCode()));
+    }
+    PolarisEntity entity =
+        new PolarisEntity(
+            new PolarisBaseEntity(CATALOG_ID, id, type, subType, parentId, "entity_" + id));
+    return new ResolvedPolarisEntity(entity, List.of(), grants);
+  }
+
+  @Benchmark
+  public boolean scanGrantRecords() {
+    // the check as it used to be done, going through every grant record of the path
+    for (ResolvedPolarisEntity resolvedSecurableEntity : resolvedPath.getResolvedFullPath()) {
+      for (PolarisGrantRecord grantRecord : resolvedSecurableEntity.getGrantRecordsAsSecurable()) {
+        if (authorizer.matchesOrIsSubsumedBy(
+                DESIRED_PRIVILEGE, PolarisPrivilege.fromCode(grantRecord.getPrivilegeCode()))
+            && activatedGranteeIds.contains(grantRecord.getGranteeId())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean indexedPrivileges() {
+    return authorizer.hasTransitivePrivilege(
+        principal, activatedGranteeIds, DESIRED_PRIVILEGE, resolvedPath);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the slice keys of the {@link PolarisTreeMapStore}, {@link PolarisTreeMapKey}, with the
+ * formatted string keys they replaced, for point lookups by name in the entities active slice and
+ * for range scans of the children of a parent.
+ *
+ * <p>Run with {@code ./gradlew :polaris-core:jmh}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolarisTreeMapKeyBenchmark {
+
+  // number of parents, each one with CHILD_COUNT children
+  private static final int PARENT_COUNT = 100;
+
+  private static final int CHILD_COUNT = 100;
+
+  private static final long CATALOG_ID = 1;
+
+  private static final int TYPE_CODE = 6;
+
+  private final TreeMap<String, String> stringKeys = new TreeMap<>();
+
+  private final TreeMap<PolarisTreeMapKey, String> typedKeys = new TreeMap<>();
+
+  @Setup
+  public void setup() {
+    for (long parentId = 1; parentId <= PARENT_COUNT; parentId++) {
+      for (int child = 0; child < CHILD_COUNT; child++) {
+        String name = "table_" + child;
+        this.stringKeys.put(stringKey(parentId, name), name);
+        this.typedKeys.put(PolarisTreeMapKey.named(name, CATALOG_ID, parentId, TYPE_CODE), name);
+      }
+    }
+  }
+
+  /** Key of the entities active slice as it used to be built */
+  private static String stringKey(long parentId, String name) {
+    return String.format("%d::%d::%d::%s", CATALOG_ID, parentId, TYPE_CODE, name);
+  }
+
+  @Benchmark
+  public String lookupStringKey() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return this.stringKeys.get(
+        stringKey(random.nextLong(1, PARENT_COUNT + 1), "table_" + random.nextInt(CHILD_COUNT)));
+  }
+
+  @Benchmark
+  public String lookupTypedKey() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return this.typedKeys.get(
+        PolarisTreeMapKey.named(
+            "table_" + random.nextInt(CHILD_COUNT),
+            CATALOG_ID,
+            random.nextLong(1, PARENT_COUNT + 1),
+            TYPE_CODE));
+  }
+
+  @Benchmark
+  public List<String> rangeStringKey() {
+    long parentId = ThreadLocalRandom.current().nextLong(1, PARENT_COUNT + 1);
+    // prefix and end of the range built the way the slices used to build them
+    String prefix = String.format("%d::%d::%d::", CATALOG_ID, parentId, TYPE_CODE);
+    String endKey =
+        prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+    return new ArrayList<>(this.stringKeys.subMap(prefix, true, endKey, false).values());
+  }
+
+  @Benchmark
+  public List<String> rangeTypedKey() {
+    long parentId = ThreadLocalRandom.current().nextLong(1, PARENT_COUNT + 1);
+    PolarisTreeMapKey prefix = PolarisTreeMapKey.of(CATALOG_ID, parentId, TYPE_CODE);
+    List<String> values = new ArrayList<>();
+    for (Map.Entry<PolarisTreeMapKey, String> entry :
+        this.typedKeys.tailMap(prefix, true).entrySet()) {
+      if (!prefix.isPrefixOf(entry.getKey())) {
+        break;
+      }
+      values.add(entry.getValue());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.PolarisDiagnostics;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.PolarisEntitiesActiveKey;
+import io.polaris.core.entity.PolarisEntitySubType;
+import io.polaris.core.entity.PolarisEntityType;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the in-memory store with 1, 8 and 32 concurrent threads, for a read-only workload,
+ * for a workload where one transaction out of ten is a write and for a write-only workload, with a
+ * small and a large store. The cost of a write transaction should not depend on the number of
+ * entities in the store, and readers should scale with the number of threads.
+ *
+ * <p>Run with {@code ./gradlew :polaris-core:jmh}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolarisTreeMapStoreBenchmark {
+
+  // number of entities in the store
+  @Param({"1000", "100000"})
+  private int entityCount;
+
+  // id of the catalog all entities belong to
+  private static final long CATALOG_ID = 1;
+
+  private PolarisTreeMapMetaStoreSessionImpl session;
+
+  private PolarisCallContext callCtx;
+
+  @Setup
+  public void setup() {
+    PolarisDiagnostics diagServices = new PolarisDefaultDiagServiceImpl();
+    PolarisTreeMapStore store = new PolarisTreeMapStore(diagServices);
+    this.session = new PolarisTreeMapMetaStoreSessionImpl(store, Mockito.mock());
+    this.callCtx = new PolarisCallContext(this.session, diagServices);
+
+    // ids 1 to entityCount, all namespaces under the catalog
+    this.session.runActionInTransaction(
+        this.callCtx,
+        () -> {
+          for (long id = 1; id <= this.entityCount; id++) {
+            PolarisBaseEntity entity =
+                new PolarisBaseEntity(
+                    CATALOG_ID,
+                    id,
+                    PolarisEntityType.NAMESPACE,
+                    PolarisEntitySubType.NULL_SUBTYPE,
+                    CATALOG_ID,
+                    "ns" + id);
+            this.session.writeToEntities(this.callCtx, entity);
+            this.session.writeToEntitiesActive(this.callCtx, entity);
+          }
+        });
+  }
+
+  /** Lookup a random entity by id and by name, in a read transaction */
+  private Object read() {
+    long id = ThreadLocalRandom.current().nextLong(1, this.entityCount + 1);
+    return this.session.runInReadTransaction(
+        this.callCtx,
+        () -> {
+          this.session.lookupEntity(this.callCtx, CATALOG_ID, id);
+          return this.session.lookupEntityActive(
+              this.callCtx,
+              new PolarisEntitiesActiveKey(
+                  CATALOG_ID, CATALOG_ID, PolarisEntityType.NAMESPACE.getCode(), "ns" + id));
+        });
+  }
+
+  /** Bump the version of a random entity, in a read/write transaction */
+  private Object write() {
+    long id = ThreadLocalRandom.current().nextLong(1, this.entityCount + 1);
+    return this.session.runInTransaction(
+        this.callCtx,
+        () -> {
+          PolarisBaseEntity entity = this.session.lookupEntity(this.callCtx, CATALOG_ID, id);
+          entity.setEntityVersion(entity.getEntityVersion() + 1);
+          this.session.writeToEntities(this.callCtx, entity);
+          return entity;
+        });
+  }
+
+  /** One transaction out of ten is a write */
+  private Object mixed() {
+    return ThreadLocalRandom.current().nextInt(10) == 0 ? this.write() : this.read();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object readOnly1Thread() {
+    return this.read();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object readOnly8Threads() {
+    return this.read();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public Object readOnly32Threads() {
+    return this.read();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object mixed1Thread() {
+    return this.mixed();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object mixed8Threads() {
+    return this.mixed();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public Object mixed32Threads() {
+    return this.mixed();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object writeOnly1Thread() {
+    return this.write();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object writeOnly8Threads() {
+    return this.write();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public Object writeOnly32Threads() {
+    return this.write();
+  }
+}
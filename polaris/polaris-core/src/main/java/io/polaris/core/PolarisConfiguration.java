@@ -26,6 +26,14 @@ public class PolarisConfiguration {
 
   public static final String ALLOW_OVERLAPPING_CATALOG_URLS = "ALLOW_OVERLAPPING_CATALOG_URLS";
 
+  /*
+   * Maximum staleness, in milliseconds and per entity type name (i.e. PRINCIPAL, PRINCIPAL_ROLE,
+   * CATALOG or CATALOG_ROLE), for which an entity found in the entity cache is trusted by the
+   * resolver without being validated against the backend. Entity types which are not listed are
+   * always validated, which is the default.
+   */
+  public static final String ENTITY_CACHE_MAX_STALENESS_MS = "ENTITY_CACHE_MAX_STALENESS_MS";
+
   public static final String CATALOG_ALLOW_UNSTRUCTURED_TABLE_LOCATION =
       "allow.unstructured.table.location";
   public static final String CATALOG_ALLOW_EXTERNAL_TABLE_LOCATION =
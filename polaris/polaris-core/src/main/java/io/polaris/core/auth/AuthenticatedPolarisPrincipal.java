@@ -17,9 +17,11 @@ package io.polaris.core.auth;
 
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PrincipalRoleEntity;
+import io.polaris.core.persistence.cache.EntityCacheEntry;
 import java.util.List;
 import java.util.Set;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /** Holds the results of request authentication. */
 public class AuthenticatedPolarisPrincipal implements java.security.Principal {
@@ -28,12 +30,26 @@ public class AuthenticatedPolarisPrincipal implements java.security.Principal {
   // only known and set after the above set of principal role names have been resolved. Before
   // this, this list is null
   private List<PrincipalRoleEntity> activatedPrincipalRoles;
+  // if resolved when authenticating, cache entries of the principal and of its activated principal
+  // roles, so that resolving the entities of the request does not resolve them again
+  private final @Nullable EntityCacheEntry resolvedPrincipal;
+  private final @Nullable List<EntityCacheEntry> resolvedPrincipalRoles;
 
   public AuthenticatedPolarisPrincipal(
       @NotNull PolarisEntity principalEntity, @NotNull Set<String> activatedPrincipalRoles) {
+    this(principalEntity, activatedPrincipalRoles, null, null);
+  }
+
+  public AuthenticatedPolarisPrincipal(
+      @NotNull PolarisEntity principalEntity,
+      @NotNull Set<String> activatedPrincipalRoles,
+      @Nullable EntityCacheEntry resolvedPrincipal,
+      @Nullable List<EntityCacheEntry> resolvedPrincipalRoles) {
     this.principalEntity = principalEntity;
     this.activatedPrincipalRoleNames = activatedPrincipalRoles;
     this.activatedPrincipalRoles = null;
+    this.resolvedPrincipal = resolvedPrincipal;
+    this.resolvedPrincipalRoles = resolvedPrincipalRoles;
   }
 
   @Override
@@ -57,6 +73,14 @@ public class AuthenticatedPolarisPrincipal implements java.security.Principal {
     this.activatedPrincipalRoles = activatedPrincipalRoles;
   }
 
+  public @Nullable EntityCacheEntry getResolvedPrincipal() {
+    return resolvedPrincipal;
+  }
+
+  public @Nullable List<EntityCacheEntry> getResolvedPrincipalRoles() {
+    return resolvedPrincipalRoles;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
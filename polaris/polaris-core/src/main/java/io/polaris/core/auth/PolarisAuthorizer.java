@@ -92,10 +92,10 @@ import io.polaris.core.PolarisConfiguration;
 import io.polaris.core.PolarisConfigurationStore;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.entity.PolarisEntityConstants;
-import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrivilege;
 import io.polaris.core.persistence.PolarisResolvedPathWrapper;
 import io.polaris.core.persistence.ResolvedPolarisEntity;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 import org.apache.iceberg.exceptions.ForbiddenException;
@@ -452,6 +452,33 @@ public class PolarisAuthorizer {
         List.of(CATALOG_ROLE_MANAGE_GRANTS_FOR_GRANTEE, CATALOG_MANAGE_ACCESS));
   }
 
+  // by code of a granted privilege, the codes of the privileges it satisfies: itself and the
+  // privileges it subsumes
+  private static final BitSet[] SATISFIED_PRIVILEGES;
+
+  static {
+    int maxCode = 0;
+    for (PolarisPrivilege privilege : PolarisPrivilege.values()) {
+      maxCode = Math.max(maxCode, privilege.getCode());
+    }
+    SATISFIED_PRIVILEGES = new BitSet[maxCode + 1];
+    for (PolarisPrivilege privilege : PolarisPrivilege.values()) {
+      BitSet satisfied = new BitSet();
+      satisfied.set(privilege.getCode());
+      SATISFIED_PRIVILEGES[privilege.getCode()] = satisfied;
+    }
+    SUPER_PRIVILEGES.forEach(
+        (desired, granted) -> SATISFIED_PRIVILEGES[granted.getCode()].set(desired.getCode()));
+  }
+
+  /**
+   * @return the codes of the privileges satisfied by the {@code grantedPrivilege}, see {@link
+   *     #matchesOrIsSubsumedBy(PolarisPrivilege, PolarisPrivilege)}. Must not be modified
+   */
+  static BitSet privilegesSatisfiedBy(PolarisPrivilege grantedPrivilege) {
+    return SATISFIED_PRIVILEGES[grantedPrivilege.getCode()];
+  }
+
   private final PolarisConfigurationStore featureConfig;
 
   public PolarisAuthorizer(PolarisConfigurationStore featureConfig) {
@@ -505,7 +532,7 @@ public class PolarisAuthorizer {
     if (enforceCredentialRotationRequiredState
         && authenticatedPrincipal
             .getPrincipalEntity()
-            .getInternalPropertiesAsMap()
+            .getInternalPropertiesView()
             .containsKey(PolarisEntityConstants.PRINCIPAL_CREDENTIAL_ROTATION_REQUIRED_STATE)
         && authzOp != PolarisAuthorizableOperation.ROTATE_CREDENTIALS) {
       throw new ForbiddenException(
@@ -598,25 +625,19 @@ public class PolarisAuthorizer {
     // high up in the resource hierarchy as possible, so we expect earlier termination.
     for (ResolvedPolarisEntity resolvedSecurableEntity : resolvedPath.getResolvedFullPath()) {
       Preconditions.checkState(
-          resolvedSecurableEntity.getGrantRecordsAsSecurable() != null,
+          resolvedSecurableEntity.getPrivilegesAsSecurable() != null,
           "Got null grantRecordsAsSecurable for resolvedSecurableEntity %s",
           resolvedSecurableEntity);
-      for (PolarisGrantRecord grantRecord : resolvedSecurableEntity.getGrantRecordsAsSecurable()) {
-        if (matchesOrIsSubsumedBy(
-            desiredPrivilege, PolarisPrivilege.fromCode(grantRecord.getPrivilegeCode()))) {
-          // Found a potential candidate for satisfying our authz goal.
-          if (activatedGranteeIds.contains(grantRecord.getGranteeId())) {
-            LOG.debug(
-                "Satisfied privilege {} with grantRecord {} from securable {} for "
-                    + "principalName {} and activatedIds {}",
-                desiredPrivilege,
-                grantRecord,
-                resolvedSecurableEntity,
-                authenticatedPolarisPrincipal.getName(),
-                activatedGranteeIds);
-            return true;
-          }
-        }
+      if (resolvedSecurableEntity
+          .getPrivilegesAsSecurable()
+          .isGranted(activatedGranteeIds, desiredPrivilege)) {
+        LOG.debug(
+            "Satisfied privilege {} from securable {} for principalName {} and activatedIds {}",
+            desiredPrivilege,
+            resolvedSecurableEntity,
+            authenticatedPolarisPrincipal.getName(),
+            activatedGranteeIds);
+        return true;
       }
     }
 
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.auth;
+
+import io.polaris.core.entity.PolarisGrantRecord;
+import io.polaris.core.entity.PolarisPrivilege;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The privileges granted on a securable, indexed by grantee. The privileges of each grantee are a
+ * bitset of the codes of all the privileges its grants satisfy, including the privileges subsumed
+ * by the granted ones, so that checking a privilege does not go through the grant records. This is
+ * immutable.
+ */
+public final class SecurablePrivileges {
+  public static final SecurablePrivileges EMPTY =
+      new SecurablePrivileges(new long[0], new BitSet[0]);
+
+  // the grantees having grants on the securable and, at the same index, their privileges
+  private final long[] granteeIds;
+  private final BitSet[] privileges;
+
+  private SecurablePrivileges(long[] granteeIds, BitSet[] privileges) {
+    this.granteeIds = granteeIds;
+    this.privileges = privileges;
+  }
+
+  /**
+   * @param grantRecordsAsSecurable the grant records on a securable
+   * @return the privileges granted by these records
+   */
+  public static @NotNull SecurablePrivileges of(
+      @NotNull Collection<PolarisGrantRecord> grantRecordsAsSecurable) {
+    if (grantRecordsAsSecurable.isEmpty()) {
+      return EMPTY;
+    }
+    Map<Long, BitSet> privilegesByGrantee = new LinkedHashMap<>();
+    for (PolarisGrantRecord grantRecord : grantRecordsAsSecurable) {
+      PolarisPrivilege grantedPrivilege = PolarisPrivilege.fromCode(grantRecord.getPrivilegeCode());
+      if (grantedPrivilege != null) {
+        privilegesByGrantee
+            .computeIfAbsent(grantRecord.getGranteeId(), granteeId -> new BitSet())
+            .or(PolarisAuthorizer.privilegesSatisfiedBy(grantedPrivilege));
+      }
+    }
+    long[] granteeIds = new long[privilegesByGrantee.size()];
+    BitSet[] privileges = new BitSet[privilegesByGrantee.size()];
+    int index = 0;
+    for (Map.Entry<Long, BitSet> entry : privilegesByGrantee.entrySet()) {
+      granteeIds[index] = entry.getKey();
+      privileges[index] = entry.getValue();
+      index++;
+    }
+    return new SecurablePrivileges(granteeIds, privileges);
+  }
+
+  /**
+   * @param activatedGranteeIds the ids of the activated grantees of the caller
+   * @param desiredPrivilege the privilege to check
+   * @return true if any of the activated grantees is granted a privilege which matches or subsumes
+   *     the desired privilege on the securable
+   */
+  public boolean isGranted(
+      @NotNull Set<Long> activatedGranteeIds, @NotNull PolarisPrivilege desiredPrivilege) {
+    int code = desiredPrivilege.getCode();
+    for (int i = 0; i < granteeIds.length; i++) {
+      if (privileges[i].get(code) && activatedGranteeIds.contains(granteeIds[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
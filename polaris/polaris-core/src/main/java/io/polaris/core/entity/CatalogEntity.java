@@ -17,7 +17,6 @@ package io.polaris.core.entity;
 
 import static io.polaris.core.admin.model.StorageConfigInfo.StorageTypeEnum.AZURE;
 
-import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.admin.model.AwsStorageConfigInfo;
 import io.polaris.core.admin.model.AzureStorageConfigInfo;
 import io.polaris.core.admin.model.Catalog;
@@ -40,7 +39,6 @@ import java.util.Optional;
 import java.util.Set;
 import org.apache.iceberg.exceptions.BadRequestException;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,7 +118,7 @@ public class CatalogEntity extends PolarisEntity {
         : ExternalCatalog.builder()
             .setType(Catalog.TypeEnum.EXTERNAL)
             .setName(getName())
-            .setRemoteUrl(getInternalPropertiesAsMap().get(REMOTE_URL))
+            .setRemoteUrl(getInternalPropertiesView().get(REMOTE_URL))
             .setProperties(catalogProps)
             .setCreateTimestamp(getCreateTimestamp())
             .setLastUpdateTimestamp(getLastUpdateTimestamp())
@@ -172,25 +170,15 @@ public class CatalogEntity extends PolarisEntity {
   }
 
   public String getDefaultBaseLocation() {
-    return getPropertiesAsMap().get(DEFAULT_BASE_LOCATION_KEY);
+    return getPropertiesView().get(DEFAULT_BASE_LOCATION_KEY);
   }
 
   public String getReplaceNewLocationPrefixWithCatalogDefault() {
-    return getPropertiesAsMap().get(REPLACE_NEW_LOCATION_PREFIX_WITH_CATALOG_DEFAULT_KEY);
-  }
-
-  public @Nullable PolarisStorageConfigurationInfo getStorageConfigurationInfo() {
-    String configStr =
-        getInternalPropertiesAsMap().get(PolarisEntityConstants.getStorageConfigInfoPropertyName());
-    if (configStr != null) {
-      return PolarisStorageConfigurationInfo.deserialize(
-          new PolarisDefaultDiagServiceImpl(), configStr);
-    }
-    return null;
+    return getPropertiesView().get(REPLACE_NEW_LOCATION_PREFIX_WITH_CATALOG_DEFAULT_KEY);
   }
 
   public Catalog.TypeEnum getCatalogType() {
-    return Optional.ofNullable(getInternalPropertiesAsMap().get(CATALOG_TYPE_PROPERTY))
+    return Optional.ofNullable(getInternalPropertiesView().get(CATALOG_TYPE_PROPERTY))
         .map(Catalog.TypeEnum::valueOf)
         .orElse(null);
   }
@@ -40,7 +40,7 @@ public class NamespaceEntity extends PolarisEntity {
   }
 
   public Namespace getParentNamespace() {
-    String encodedNamespace = getInternalPropertiesAsMap().get(PARENT_NAMESPACE_KEY);
+    String encodedNamespace = getInternalPropertiesView().get(PARENT_NAMESPACE_KEY);
     if (encodedNamespace == null) {
       return Namespace.empty();
     }
@@ -59,7 +59,7 @@ public class NamespaceEntity extends PolarisEntity {
 
   @JsonIgnore
   public String getBaseLocation() {
-    return getPropertiesAsMap().get(PolarisEntityConstants.ENTITY_BASE_LOCATION);
+    return getPropertiesView().get(PolarisEntityConstants.ENTITY_BASE_LOCATION);
   }
 
   public static class Builder extends PolarisEntity.BaseBuilder<NamespaceEntity, Builder> {
@@ -19,9 +19,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.HashMap;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.storage.PolarisStorageConfigurationInfo;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Base polaris entity representing all attributes of a Polaris Entity. This is used to exchange
@@ -58,6 +62,10 @@ public class PolarisBaseEntity extends PolarisEntityCore {
   // internal properties, serialized as a JSON string
   protected String internalProperties;
 
+  // properties, internal properties and storage configuration parsed from the JSON strings above.
+  // Shared with the copies of this entity, so a cached entity is parsed at most once
+  transient ParsedProperties parsedProperties = new ParsedProperties();
+
   // current version for that entity, will be monotonically incremented
   protected int grantRecordsVersion;
 
@@ -115,15 +123,25 @@ public class PolarisBaseEntity extends PolarisEntityCore {
 
   @JsonIgnore
   public Map<String, String> getPropertiesAsMap() {
-    if (properties == null) {
-      return new HashMap<>();
+    return new LinkedHashMap<>(getPropertiesView());
+  }
+
+  /**
+   * @return an immutable view of the properties, parsed once per version of this entity and shared
+   *     with its copies. Prefer this to {@link #getPropertiesAsMap()} when only reading
+   */
+  @JsonIgnore
+  public Map<String, String> getPropertiesView() {
+    String json = this.properties;
+    if (json == null) {
+      return Map.of();
     }
-    try {
-      return MAPPER.readValue(properties, new TypeReference<>() {});
-    } catch (JsonProcessingException ex) {
-      throw new IllegalStateException(
-          String.format("Failed to deserialize json. properties %s", properties), ex);
+    Parsed<Map<String, String>> parsed = parsedProperties.properties;
+    if (parsed == null || parsed.json != json) {
+      parsed = new Parsed<>(json, deserializeProperties(json, "properties"));
+      parsedProperties.properties = parsed;
     }
+    return parsed.value;
   }
 
   /**
@@ -139,11 +157,13 @@ public class PolarisBaseEntity extends PolarisEntityCore {
   }
 
   public void setProperties(String properties) {
+    this.parsedProperties = parsedProperties.withoutProperties();
     this.properties = properties;
   }
 
   @JsonIgnore
   public void setPropertiesAsMap(Map<String, String> properties) {
+    this.parsedProperties = parsedProperties.withoutProperties();
     try {
       this.properties = properties == null ? null : MAPPER.writeValueAsString(properties);
     } catch (JsonProcessingException ex) {
@@ -158,16 +178,57 @@ public class PolarisBaseEntity extends PolarisEntityCore {
 
   @JsonIgnore
   public Map<String, String> getInternalPropertiesAsMap() {
-    if (this.internalProperties == null) {
-      return new HashMap<>();
+    return new LinkedHashMap<>(getInternalPropertiesView());
+  }
+
+  /**
+   * @return an immutable view of the internal properties, parsed once per version of this entity
+   *     and shared with its copies. Prefer this to {@link #getInternalPropertiesAsMap()} when only
+   *     reading
+   */
+  @JsonIgnore
+  public Map<String, String> getInternalPropertiesView() {
+    String json = this.internalProperties;
+    if (json == null) {
+      return Map.of();
+    }
+    Parsed<Map<String, String>> parsed = parsedProperties.internalProperties;
+    if (parsed == null || parsed.json != json) {
+      parsed = new Parsed<>(json, deserializeProperties(json, "internalProperties"));
+      parsedProperties.internalProperties = parsed;
     }
+    return parsed.value;
+  }
+
+  /**
+   * @return the storage configuration held in the internal properties of this entity, if any. It is
+   *     deserialized once per version of this entity and shared, so callers must not modify it
+   */
+  @JsonIgnore
+  public @Nullable PolarisStorageConfigurationInfo getStorageConfigurationInfo() {
+    String json = this.internalProperties;
+    Parsed<PolarisStorageConfigurationInfo> parsed = parsedProperties.storageConfiguration;
+    if (parsed == null || parsed.json != json) {
+      String configStr =
+          getInternalPropertiesView()
+              .get(PolarisEntityConstants.getStorageConfigInfoPropertyName());
+      PolarisStorageConfigurationInfo configInfo =
+          configStr == null
+              ? null
+              : PolarisStorageConfigurationInfo.deserialize(
+                  new PolarisDefaultDiagServiceImpl(), configStr);
+      parsed = new Parsed<>(json, configInfo);
+      parsedProperties.storageConfiguration = parsed;
+    }
+    return parsed.value;
+  }
+
+  private static Map<String, String> deserializeProperties(String json, String name) {
     try {
-      return MAPPER.readValue(this.internalProperties, new TypeReference<>() {});
+      return Collections.unmodifiableMap(MAPPER.readValue(json, new TypeReference<>() {}));
     } catch (JsonProcessingException ex) {
       throw new IllegalStateException(
-          String.format(
-              "Failed to deserialize json. internalProperties %s", this.internalProperties),
-          ex);
+          String.format("Failed to deserialize json. %s %s", name, json), ex);
     }
   }
 
@@ -184,11 +245,13 @@ public class PolarisBaseEntity extends PolarisEntityCore {
   }
 
   public void setInternalProperties(String internalProperties) {
+    this.parsedProperties = parsedProperties.withoutInternalProperties();
     this.internalProperties = internalProperties;
   }
 
   @JsonIgnore
   public void setInternalPropertiesAsMap(Map<String, String> internalProperties) {
+    this.parsedProperties = parsedProperties.withoutInternalProperties();
     try {
       this.internalProperties =
           internalProperties == null ? null : MAPPER.writeValueAsString(internalProperties);
@@ -238,6 +301,7 @@ public class PolarisBaseEntity extends PolarisEntityCore {
     this.lastUpdateTimestamp = entity.getLastUpdateTimestamp();
     this.properties = entity.getProperties();
     this.internalProperties = entity.getInternalProperties();
+    this.parsedProperties = entity.parsedProperties;
     this.grantRecordsVersion = entity.getGrantRecordsVersion();
   }
 
@@ -349,4 +413,35 @@ public class PolarisBaseEntity extends PolarisEntityCore {
         + grantRecordsVersion
         + '}';
   }
+
+  /** A value parsed from a JSON string, valid as long as the entity still holds that same string */
+  private static final class Parsed<T> {
+    private final String json;
+    private final T value;
+
+    private Parsed(String json, T value) {
+      this.json = json;
+      this.value = value;
+    }
+  }
+
+  /** The parsed values of an entity, shared between the copies of that entity */
+  static final class ParsedProperties {
+    private volatile Parsed<Map<String, String>> properties;
+    private volatile Parsed<Map<String, String>> internalProperties;
+    private volatile Parsed<PolarisStorageConfigurationInfo> storageConfiguration;
+
+    private ParsedProperties withoutProperties() {
+      ParsedProperties copy = new ParsedProperties();
+      copy.internalProperties = internalProperties;
+      copy.storageConfiguration = storageConfiguration;
+      return copy;
+    }
+
+    private ParsedProperties withoutInternalProperties() {
+      ParsedProperties copy = new ParsedProperties();
+      copy.properties = properties;
+      return copy;
+    }
+  }
 }
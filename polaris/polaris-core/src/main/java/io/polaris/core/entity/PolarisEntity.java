@@ -182,6 +182,7 @@ public class PolarisEntity extends PolarisBaseEntity {
     this.lastUpdateTimestamp = sourceEntity.getLastUpdateTimestamp();
     this.properties = sourceEntity.getProperties();
     this.internalProperties = sourceEntity.getInternalProperties();
+    this.parsedProperties = sourceEntity.parsedProperties;
     this.entityVersion = sourceEntity.getEntityVersion();
     this.grantRecordsVersion = sourceEntity.getGrantRecordsVersion();
   }
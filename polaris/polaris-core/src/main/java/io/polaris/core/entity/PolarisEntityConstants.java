@@ -54,6 +54,10 @@ public class PolarisEntityConstants {
   public static final String PRINCIPAL_CREDENTIAL_ROTATION_REQUIRED_STATE =
       "CREDENTIAL_ROTATION_REQUIRED";
 
+  // name of the record of the ENTITY_LOCATIONS index marking a catalog whose namespaces and tables
+  // are all in that index. Catalogs created before that index existed are backfilled on first use
+  public static final String ENTITY_LOCATIONS_INDEXED = "entity_locations_indexed";
+
   /**
    * Name format of storage integration for polaris entity: POLARIS_<catalog_id>_<entity_id> . This
    * name format gives us flexibility to switch to use integration name in the future if we want.
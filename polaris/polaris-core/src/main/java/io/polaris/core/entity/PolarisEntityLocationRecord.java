@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base location of a namespace or of a table-like entity, as recorded in the ENTITY_LOCATIONS index
+ * of its catalog. Locations are normalized to end with a '/' so that a location is under another
+ * one if and only if it starts with it.
+ */
+public class PolarisEntityLocationRecord {
+  // location of the record marking a catalog whose entities have all been indexed. It has no '/'
+  // so it is neither a normalized location nor under one, and never overlaps with a location
+  private static final String INDEXED_MARKER_LOCATION = "polaris:entity-locations-indexed";
+
+  // entity catalog id
+  private final long catalogId;
+
+  // id of the entity
+  private final long id;
+
+  // parent id of the entity
+  private final long parentId;
+
+  // name of the entity
+  private final String name;
+
+  // code representing the type of that entity
+  private final int typeCode;
+
+  // normalized base location of the entity
+  private final String location;
+
+  public long getCatalogId() {
+    return catalogId;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getParentId() {
+    return parentId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getTypeCode() {
+    return typeCode;
+  }
+
+  @JsonIgnore
+  public PolarisEntityType getType() {
+    return PolarisEntityType.fromCode(this.typeCode);
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  @JsonCreator
+  public PolarisEntityLocationRecord(
+      @JsonProperty("catalogId") long catalogId,
+      @JsonProperty("id") long id,
+      @JsonProperty("parentId") long parentId,
+      @JsonProperty("name") String name,
+      @JsonProperty("typeCode") int typeCode,
+      @JsonProperty("location") String location) {
+    this.catalogId = catalogId;
+    this.id = id;
+    this.parentId = parentId;
+    this.name = name;
+    this.typeCode = typeCode;
+    this.location = location;
+  }
+
+  /**
+   * @param entity an entity
+   * @return the location record of the entity, null if it is not a namespace or a table-like entity
+   *     or if it has no base location which can be parsed as a URI
+   */
+  public static @Nullable PolarisEntityLocationRecord of(@NotNull PolarisBaseEntity entity) {
+    if (entity.getType() != PolarisEntityType.NAMESPACE
+        && entity.getType() != PolarisEntityType.TABLE_LIKE) {
+      return null;
+    }
+    // properties are opaque to the persistence layer, those which are not a JSON map have no base
+    // location
+    String baseLocation;
+    try {
+      baseLocation = entity.getPropertiesView().get(PolarisEntityConstants.ENTITY_BASE_LOCATION);
+    } catch (IllegalStateException e) {
+      return null;
+    }
+    if (baseLocation == null) {
+      return null;
+    }
+    // the persistence layer does not validate locations, those which are not a valid URI cannot
+    // overlap with another one and are not indexed
+    String location;
+    try {
+      location = normalizeLocation(baseLocation);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    return new PolarisEntityLocationRecord(
+        entity.getCatalogId(),
+        entity.getId(),
+        entity.getParentId(),
+        entity.getName(),
+        entity.getTypeCode(),
+        location);
+  }
+
+  /**
+   * @param catalogId id of a catalog
+   * @return the record marking that all the entities of this catalog have been indexed. Catalogs
+   *     created before the index existed are indexed when first checked for overlapping locations
+   */
+  public static @NotNull PolarisEntityLocationRecord indexedMarker(long catalogId) {
+    return new PolarisEntityLocationRecord(
+        catalogId,
+        catalogId,
+        PolarisEntityConstants.getNullId(),
+        PolarisEntityConstants.ENTITY_LOCATIONS_INDEXED,
+        PolarisEntityType.CATALOG.getCode(),
+        INDEXED_MARKER_LOCATION);
+  }
+
+  /**
+   * @param location a location
+   * @return the normalized form of that location, ending with a '/'
+   * @throws IllegalArgumentException if the location is not a valid URI
+   */
+  public static @NotNull String normalizeLocation(@NotNull String location) {
+    String normalized = URI.create(location).normalize().toString();
+    return normalized.endsWith("/") ? normalized : normalized + "/";
+  }
+
+  /**
+   * @param normalizedLocation a normalized location
+   * @return all the normalized locations this location is under, excluding itself, outermost first
+   */
+  public static @NotNull List<String> parentLocations(@NotNull String normalizedLocation) {
+    List<String> parents = new ArrayList<>();
+    for (int slash = normalizedLocation.indexOf('/');
+        slash >= 0 && slash < normalizedLocation.length() - 1;
+        slash = normalizedLocation.indexOf('/', slash + 1)) {
+      parents.add(normalizedLocation.substring(0, slash + 1));
+    }
+    return parents;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof PolarisEntityLocationRecord)) return false;
+    PolarisEntityLocationRecord that = (PolarisEntityLocationRecord) o;
+    return catalogId == that.catalogId
+        && id == that.id
+        && parentId == that.parentId
+        && typeCode == that.typeCode
+        && Objects.equals(name, that.name)
+        && Objects.equals(location, that.location);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(catalogId, id, parentId, name, typeCode, location);
+  }
+
+  @Override
+  public String toString() {
+    return "PolarisEntityLocationRecord{"
+        + "catalogId="
+        + catalogId
+        + ", id="
+        + id
+        + ", parentId="
+        + parentId
+        + ", name='"
+        + name
+        + '\''
+        + ", typeCode="
+        + typeCode
+        + ", location='"
+        + location
+        + '\''
+        + '}';
+  }
+}
@@ -19,6 +19,8 @@ package io.polaris.core.entity;
 public class PolarisTaskConstants {
   public static final long TASK_TIMEOUT_MILLIS = 300000;
   public static final String TASK_TIMEOUT_MILLIS_CONFIG = "POLARIS_TASK_TIMEOUT_MILLIS";
+  public static final int TASK_MAX_ATTEMPTS = 10;
+  public static final String TASK_MAX_ATTEMPTS_CONFIG = "POLARIS_TASK_MAX_ATTEMPTS";
   public static final String LAST_ATTEMPT_EXECUTOR_ID = "lastAttemptExecutorId";
   public static final String LAST_ATTEMPT_START_TIME = "lastAttemptStartTime";
   public static final String ATTEMPT_COUNT = "attemptCount";
@@ -49,7 +49,7 @@ public class PrincipalEntity extends PolarisEntity {
   }
 
   public String getClientId() {
-    return getInternalPropertiesAsMap().get(PolarisEntityConstants.getClientIdPropertyName());
+    return getInternalPropertiesView().get(PolarisEntityConstants.getClientIdPropertyName());
   }
 
   public static class Builder extends PolarisEntity.BaseBuilder<PrincipalEntity, Builder> {
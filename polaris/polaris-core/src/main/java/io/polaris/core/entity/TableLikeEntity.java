@@ -47,8 +47,7 @@ public class TableLikeEntity extends PolarisEntity {
 
   @JsonIgnore
   public Namespace getParentNamespace() {
-    String encodedNamespace =
-        getInternalPropertiesAsMap().get(NamespaceEntity.PARENT_NAMESPACE_KEY);
+    String encodedNamespace = getInternalPropertiesView().get(NamespaceEntity.PARENT_NAMESPACE_KEY);
     if (encodedNamespace == null) {
       return Namespace.empty();
     }
@@ -57,12 +56,12 @@ public class TableLikeEntity extends PolarisEntity {
 
   @JsonIgnore
   public String getMetadataLocation() {
-    return getInternalPropertiesAsMap().get(METADATA_LOCATION_KEY);
+    return getInternalPropertiesView().get(METADATA_LOCATION_KEY);
   }
 
   @JsonIgnore
   public String getBaseLocation() {
-    return getPropertiesAsMap().get(PolarisEntityConstants.ENTITY_BASE_LOCATION);
+    return getPropertiesView().get(PolarisEntityConstants.ENTITY_BASE_LOCATION);
   }
 
   public static class Builder extends PolarisEntity.BaseBuilder<TableLikeEntity, Builder> {
@@ -39,14 +39,14 @@ public class TaskEntity extends PolarisEntity {
   public <T> T readData(Class<T> klass) {
     PolarisCallContext polarisCallContext = CallContext.getCurrentContext().getPolarisCallContext();
     return PolarisObjectMapperUtil.deserialize(
-        polarisCallContext, getPropertiesAsMap().get(PolarisTaskConstants.TASK_DATA), klass);
+        polarisCallContext, getPropertiesView().get(PolarisTaskConstants.TASK_DATA), klass);
   }
 
   public AsyncTaskType getTaskType() {
     PolarisCallContext polarisCallContext = CallContext.getCurrentContext().getPolarisCallContext();
     return PolarisObjectMapperUtil.deserialize(
         polarisCallContext,
-        getPropertiesAsMap().get(PolarisTaskConstants.TASK_TYPE),
+        getPropertiesView().get(PolarisTaskConstants.TASK_TYPE),
         AsyncTaskType.class);
   }
 
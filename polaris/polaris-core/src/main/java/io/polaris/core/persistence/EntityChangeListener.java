@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.entity.PolarisBaseEntity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener notified by the {@link PolarisMetaStoreManager} each time the entity or grant records
+ * version of an entity is changed in the ENTITIES_CHANGE_TRACKING slice, or when the entity is
+ * removed from that slice. Used to invalidate cached copies of that entity.
+ */
+public interface EntityChangeListener {
+
+  /**
+   * Called when the versions of the specified entity have changed or when the entity was dropped.
+   * This is called once the transaction which made that change has committed, and never if it was
+   * rolled back, so that an entity reloaded after this call is guaranteed to include the change.
+   *
+   * @param callCtx call context
+   * @param entity the entity which has changed, with its new versions
+   */
+  void onEntityChanged(@NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity);
+}
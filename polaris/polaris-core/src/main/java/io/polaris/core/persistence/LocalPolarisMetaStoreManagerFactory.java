@@ -15,6 +15,7 @@
  */
 package io.polaris.core.persistence;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.PolarisDiagnostics;
@@ -28,11 +29,13 @@ import io.polaris.core.entity.PolarisPrincipalSecrets;
 import io.polaris.core.monitor.PolarisMetricRegistry;
 import io.polaris.core.storage.PolarisStorageIntegrationProvider;
 import io.polaris.core.storage.cache.StorageCredentialCache;
+import io.polaris.core.storage.cache.StorageCredentialCacheConfiguration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 /**
@@ -51,6 +54,12 @@ public abstract class LocalPolarisMetaStoreManagerFactory<StoreType>
 
   protected PolarisStorageIntegrationProvider storageIntegration;
 
+  protected @Nullable PolarisMetricRegistry metricRegistry;
+
+  @JsonProperty("storage-credential-cache")
+  private StorageCredentialCacheConfiguration storageCredentialCache =
+      new StorageCredentialCacheConfiguration();
+
   private Logger logger =
       org.slf4j.LoggerFactory.getLogger(LocalPolarisMetaStoreManagerFactory.class);
 
@@ -116,15 +125,26 @@ public abstract class LocalPolarisMetaStoreManagerFactory<StoreType>
       RealmContext realmContext) {
     if (!storageCredentialCacheMap.containsKey(realmContext.getRealmIdentifier())) {
       storageCredentialCacheMap.put(
-          realmContext.getRealmIdentifier(), new StorageCredentialCache());
+          realmContext.getRealmIdentifier(),
+          new StorageCredentialCache(
+              storageCredentialCache,
+              metricRegistry,
+              realmContext.getRealmIdentifier(),
+              getOrCreateSessionSupplier(realmContext)));
     }
 
     return storageCredentialCacheMap.get(realmContext.getRealmIdentifier());
   }
 
+  @Override
+  public synchronized void close() {
+    storageCredentialCacheMap.values().forEach(StorageCredentialCache::close);
+    storageCredentialCacheMap.clear();
+  }
+
   @Override
   public void setMetricRegistry(PolarisMetricRegistry metricRegistry) {
-    // no-op
+    this.metricRegistry = metricRegistry;
   }
 
   @Override
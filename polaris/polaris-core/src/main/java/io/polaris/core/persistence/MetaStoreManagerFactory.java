@@ -43,4 +43,7 @@ public interface MetaStoreManagerFactory extends Discoverable {
   void setMetricRegistry(PolarisMetricRegistry metricRegistry);
 
   Map<String, PolarisMetaStoreManager.PrincipalSecretsResult> bootstrapRealms(List<String> realms);
+
+  /** Release the resources held for all the realms, such as the threads refreshing creds */
+  default void close() {}
 }
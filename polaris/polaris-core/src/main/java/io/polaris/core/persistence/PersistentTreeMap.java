@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable sorted map, implemented as an AVL tree. Updates return a new map which shares all the
+ * nodes not on the path to the modified key with the original one, so that they cost O(log n)
+ * instead of a copy of the whole map, and the original map remains valid and unchanged.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+final class PersistentTreeMap<K extends Comparable<? super K>, V> {
+
+  /** Node of the tree, never modified once built */
+  static final class Node<K, V> implements Map.Entry<K, V> {
+    final K key;
+    final V value;
+    final Node<K, V> left;
+    final Node<K, V> right;
+    final int height;
+
+    private Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException("immutable entry");
+    }
+  }
+
+  private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null);
+
+  // root of the tree, null if the map is empty
+  final Node<K, V> root;
+
+  private PersistentTreeMap(Node<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+    return (PersistentTreeMap<K, V>) EMPTY;
+  }
+
+  /**
+   * @param key key to lookup
+   * @return the value of that key, null if not found
+   */
+  @Nullable
+  V get(@NotNull K key) {
+    Node<K, V> node = this.root;
+    while (node != null) {
+      int cmp = key.compareTo(node.key);
+      if (cmp == 0) {
+        return node.value;
+      }
+      node = cmp < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * @param key key to lookup
+   * @return the least key greater than or equal to that key, null if there is none
+   */
+  @Nullable
+  K ceilingKey(@NotNull K key) {
+    Node<K, V> node = this.root;
+    K ceiling = null;
+    while (node != null) {
+      int cmp = key.compareTo(node.key);
+      if (cmp == 0) {
+        return node.key;
+      } else if (cmp < 0) {
+        ceiling = node.key;
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return ceiling;
+  }
+
+  /**
+   * @param key key to add or replace
+   * @param value its value
+   * @return a new map with that mapping, this map is not modified
+   */
+  PersistentTreeMap<K, V> put(@NotNull K key, V value) {
+    return new PersistentTreeMap<>(put(this.root, key, value));
+  }
+
+  /**
+   * @param key key to remove
+   * @return a new map without that key, this map if it does not contain it
+   */
+  PersistentTreeMap<K, V> remove(@NotNull K key) {
+    Node<K, V> newRoot = remove(this.root, key);
+    return newRoot == this.root ? this : new PersistentTreeMap<>(newRoot);
+  }
+
+  /**
+   * @param fromKey low end of the entries to iterate over
+   * @param inclusive true if an entry with that key is included
+   * @return the entries with a key greater than (or equal to, if inclusive) fromKey, in key order
+   */
+  Iterable<Map.Entry<K, V>> tail(@NotNull K fromKey, boolean inclusive) {
+    return () -> new TailIterator<>(this.root, fromKey, inclusive);
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> put(
+      Node<K, V> node, K key, V value) {
+    if (node == null) {
+      return new Node<>(key, value, null, null);
+    }
+    int cmp = key.compareTo(node.key);
+    if (cmp < 0) {
+      return balance(node.key, node.value, put(node.left, key, value), node.right);
+    } else if (cmp > 0) {
+      return balance(node.key, node.value, node.left, put(node.right, key, value));
+    } else {
+      return new Node<>(key, value, node.left, node.right);
+    }
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> remove(Node<K, V> node, K key) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = key.compareTo(node.key);
+    if (cmp < 0) {
+      Node<K, V> left = remove(node.left, key);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    } else if (cmp > 0) {
+      Node<K, V> right = remove(node.right, key);
+      return right == node.right ? node : balance(node.key, node.value, node.left, right);
+    } else if (node.left == null) {
+      return node.right;
+    } else if (node.right == null) {
+      return node.left;
+    } else {
+      // replace this node by the smallest node of its right subtree
+      Node<K, V> min = node.right;
+      while (min.left != null) {
+        min = min.left;
+      }
+      return balance(min.key, min.value, node.left, removeMin(node.right));
+    }
+  }
+
+  private static <K, V> Node<K, V> removeMin(Node<K, V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.key, node.value, removeMin(node.left), node.right);
+  }
+
+  /** Build a node from two subtrees whose heights differ by at most 2, rotating if needed */
+  private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+    int leftHeight = height(left);
+    int rightHeight = height(right);
+    if (leftHeight > rightHeight + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(
+            left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+      } else {
+        return new Node<>(
+            left.right.key,
+            left.right.value,
+            new Node<>(left.key, left.value, left.left, left.right.left),
+            new Node<>(key, value, left.right.right, right));
+      }
+    } else if (rightHeight > leftHeight + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(
+            right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+      } else {
+        return new Node<>(
+            right.left.key,
+            right.left.value,
+            new Node<>(key, value, left, right.left.left),
+            new Node<>(right.key, right.value, right.left.right, right.right));
+      }
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  /** In-order iterator over the nodes of the tree starting at some key */
+  private static final class TailIterator<K extends Comparable<? super K>, V>
+      implements Iterator<Map.Entry<K, V>> {
+    // nodes left to visit, the next one on top. Their right subtrees are still to be visited
+    private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+    private TailIterator(Node<K, V> root, K fromKey, boolean inclusive) {
+      Node<K, V> node = root;
+      while (node != null) {
+        int cmp = node.key.compareTo(fromKey);
+        if (cmp > 0 || (cmp == 0 && inclusive)) {
+          this.stack.push(node);
+          node = node.left;
+        } else {
+          node = node.right;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !this.stack.isEmpty();
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (this.stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node<K, V> next = this.stack.pop();
+      for (Node<K, V> node = next.right; node != null; node = node.left) {
+        this.stack.push(node);
+      }
+      return next;
+    }
+  }
+}
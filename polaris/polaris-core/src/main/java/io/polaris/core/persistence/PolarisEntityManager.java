@@ -24,10 +24,13 @@ import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrivilege;
 import io.polaris.core.persistence.cache.EntityCache;
+import io.polaris.core.persistence.cache.EntityCacheInvalidationChannel;
 import io.polaris.core.persistence.resolver.PolarisResolutionManifest;
 import io.polaris.core.persistence.resolver.Resolver;
 import io.polaris.core.storage.cache.StorageCredentialCache;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -48,9 +51,15 @@ public class PolarisEntityManager {
 
   private final StorageCredentialCache credentialCache;
 
+  // channel keeping the entity cache in sync with the other nodes, null if there is none
+  private final @Nullable EntityCacheInvalidationChannel invalidationChannel;
+
   // Lazily instantiated only a single time per entity manager.
   private ResolvedPolarisEntity implicitResolvedRootContainerEntity = null;
 
+  // bounded staleness of the cached entities for this realm, parsed once per entity manager
+  private volatile Map<PolarisEntityType, Long> maxStalenessNanosByType = null;
+
   /**
    * @param sessionSupplier must return a new independent metastore session affiliated with the
    *     backing store under the {@code delegate} on each invocation.
@@ -59,10 +68,47 @@ public class PolarisEntityManager {
       PolarisMetaStoreManager metaStoreManager,
       Supplier<PolarisMetaStoreSession> sessionSupplier,
       StorageCredentialCache credentialCache) {
+    this(metaStoreManager, sessionSupplier, credentialCache, null);
+  }
+
+  /**
+   * @param sessionSupplier must return a new independent metastore session affiliated with the
+   *     backing store under the {@code delegate} on each invocation.
+   * @param invalidationChannel if not null, channel used to publish the changes written through
+   *     this entity manager to the other nodes and to receive the changes they write
+   */
+  public PolarisEntityManager(
+      PolarisMetaStoreManager metaStoreManager,
+      Supplier<PolarisMetaStoreSession> sessionSupplier,
+      StorageCredentialCache credentialCache,
+      @Nullable EntityCacheInvalidationChannel invalidationChannel) {
     this.metaStoreManager = metaStoreManager;
     this.sessionSupplier = sessionSupplier;
     this.entityCache = new EntityCache(metaStoreManager);
     this.credentialCache = credentialCache;
+    this.invalidationChannel = invalidationChannel;
+
+    // writes performed on this node invalidate the cache right away, and entries trusted without
+    // validation are revalidated in the background using their own sessions
+    metaStoreManager.addEntityChangeListener(this.entityCache);
+    this.entityCache.enableBackgroundRevalidation(sessionSupplier);
+
+    // keep the cache up-to-date with the changes written by the other nodes
+    if (invalidationChannel != null) {
+      metaStoreManager.addEntityChangeListener(invalidationChannel);
+      invalidationChannel.subscribe(this.entityCache, sessionSupplier);
+    }
+  }
+
+  /**
+   * Stop keeping the entity cache in sync with the other nodes and revalidating it in the
+   * background, and release the resources used to do so
+   */
+  public void close() {
+    if (this.invalidationChannel != null) {
+      this.invalidationChannel.close();
+    }
+    this.entityCache.disableBackgroundRevalidation();
   }
 
   public PolarisMetaStoreSession newMetaStoreSession() {
@@ -77,16 +123,72 @@ public class PolarisEntityManager {
       @NotNull CallContext callContext,
       @NotNull AuthenticatedPolarisPrincipal authenticatedPrincipal,
       @Nullable String referenceCatalogName) {
+    Resolver resolver =
+        new Resolver(
+            callContext.getPolarisCallContext(),
+            metaStoreManager,
+            authenticatedPrincipal.getPrincipalEntity().getId(),
+            null, /* callerPrincipalName */
+            authenticatedPrincipal.getActivatedPrincipalRoleNames().isEmpty()
+                ? null
+                : authenticatedPrincipal.getActivatedPrincipalRoleNames(),
+            entityCache,
+            referenceCatalogName,
+            getMaxStalenessNanosByType(callContext));
+
+    // the principal was resolved when authenticating this request, no need to resolve it again
+    if (authenticatedPrincipal.getResolvedPrincipal() != null
+        && authenticatedPrincipal.getResolvedPrincipalRoles() != null) {
+      resolver.setResolvedCallerPrincipal(
+          authenticatedPrincipal.getResolvedPrincipal(),
+          authenticatedPrincipal.getResolvedPrincipalRoles());
+    }
+    return resolver;
+  }
+
+  /**
+   * Prepare a resolver for the principal calling the service only, resolving it and its activated
+   * principal roles through the entity cache. Used to authenticate a caller.
+   *
+   * @param callContext the call context
+   * @param principalId if not 0, the id of the principal
+   * @param principalName if principalId is 0, the name of the principal
+   * @param activatedPrincipalRoleNames if not empty, the principal roles activated by the caller
+   * @return the resolver
+   */
+  public Resolver prepareCallerPrincipalResolver(
+      @NotNull CallContext callContext,
+      long principalId,
+      @Nullable String principalName,
+      @NotNull Set<String> activatedPrincipalRoleNames) {
     return new Resolver(
         callContext.getPolarisCallContext(),
         metaStoreManager,
-        authenticatedPrincipal.getPrincipalEntity().getId(),
-        null, /* callerPrincipalName */
-        authenticatedPrincipal.getActivatedPrincipalRoleNames().isEmpty()
-            ? null
-            : authenticatedPrincipal.getActivatedPrincipalRoleNames(),
+        principalId,
+        principalName,
+        activatedPrincipalRoleNames.isEmpty() ? null : activatedPrincipalRoleNames,
         entityCache,
-        referenceCatalogName);
+        null /* referenceCatalogName */,
+        getMaxStalenessNanosByType(callContext));
+  }
+
+  /**
+   * Returns the bounded staleness of the cached entities for this realm. The configuration is
+   * parsed on first use only; if it is not valid, an error is logged and every cached entity is
+   * validated against the backend.
+   */
+  private Map<PolarisEntityType, Long> getMaxStalenessNanosByType(CallContext callContext) {
+    Map<PolarisEntityType, Long> result = this.maxStalenessNanosByType;
+    if (result == null) {
+      try {
+        result = Resolver.parseMaxStalenessNanosByType(callContext.getPolarisCallContext());
+      } catch (RuntimeException e) {
+        LOG.error("Invalid entity cache max staleness configuration, ignoring it", e);
+        result = Map.of();
+      }
+      this.maxStalenessNanosByType = result;
+    }
+    return result;
   }
 
   public PolarisResolutionManifest prepareResolutionManifest(
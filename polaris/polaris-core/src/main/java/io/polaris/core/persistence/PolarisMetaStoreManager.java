@@ -25,6 +25,7 @@ import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
@@ -297,6 +298,9 @@ public interface PolarisMetaStoreManager {
     // null if not success. Else the list of entities being returned
     private final List<PolarisEntityActiveRecord> entities;
 
+    // null if not success or if this is the last page. Else the token to pass to get the next page
+    private final String nextPageToken;
+
     /**
      * Constructor for an error
      *
@@ -308,6 +312,7 @@ public interface PolarisMetaStoreManager {
         @Nullable String extraInformation) {
       super(errorCode, extraInformation);
       this.entities = null;
+      this.nextPageToken = null;
     }
 
     /**
@@ -316,22 +321,40 @@ public interface PolarisMetaStoreManager {
      * @param entities list of entities being returned, implies success
      */
     public ListEntitiesResult(@NotNull List<PolarisEntityActiveRecord> entities) {
+      this(entities, null);
+    }
+
+    /**
+     * Constructor for success
+     *
+     * @param entities list of entities being returned, implies success
+     * @param nextPageToken token to pass to get the next page, null if this is the last page
+     */
+    public ListEntitiesResult(
+        @NotNull List<PolarisEntityActiveRecord> entities, @Nullable String nextPageToken) {
       super(ReturnStatus.SUCCESS);
       this.entities = entities;
+      this.nextPageToken = nextPageToken;
     }
 
     @JsonCreator
     private ListEntitiesResult(
         @JsonProperty("returnStatus") @NotNull ReturnStatus returnStatus,
         @JsonProperty("extraInformation") String extraInformation,
-        @JsonProperty("entities") List<PolarisEntityActiveRecord> entities) {
+        @JsonProperty("entities") List<PolarisEntityActiveRecord> entities,
+        @JsonProperty("nextPageToken") String nextPageToken) {
       super(returnStatus, extraInformation);
       this.entities = entities;
+      this.nextPageToken = nextPageToken;
     }
 
     public List<PolarisEntityActiveRecord> getEntities() {
       return entities;
     }
+
+    public String getNextPageToken() {
+      return nextPageToken;
+    }
   }
 
   /**
@@ -353,6 +376,92 @@ public interface PolarisMetaStoreManager {
       @NotNull PolarisEntityType entityType,
       @NotNull PolarisEntitySubType entitySubType);
 
+  /** the return for a lookup of the entity locations overlapping with a location */
+  class EntityLocationsResult extends BaseResult {
+
+    // null if not success. Else the overlapping entity locations
+    private final List<PolarisEntityLocationRecord> entityLocations;
+
+    /**
+     * Constructor for an error
+     *
+     * @param errorCode error code, cannot be SUCCESS
+     * @param extraInformation extra information
+     */
+    public EntityLocationsResult(
+        @NotNull PolarisMetaStoreManager.ReturnStatus errorCode,
+        @Nullable String extraInformation) {
+      super(errorCode, extraInformation);
+      this.entityLocations = null;
+    }
+
+    /**
+     * Constructor for success
+     *
+     * @param entityLocations overlapping entity locations, implies success
+     */
+    public EntityLocationsResult(@NotNull List<PolarisEntityLocationRecord> entityLocations) {
+      super(ReturnStatus.SUCCESS);
+      this.entityLocations = entityLocations;
+    }
+
+    @JsonCreator
+    private EntityLocationsResult(
+        @JsonProperty("returnStatus") @NotNull ReturnStatus returnStatus,
+        @JsonProperty("extraInformation") String extraInformation,
+        @JsonProperty("entityLocations") List<PolarisEntityLocationRecord> entityLocations) {
+      super(returnStatus, extraInformation);
+      this.entityLocations = entityLocations;
+    }
+
+    public List<PolarisEntityLocationRecord> getEntityLocations() {
+      return entityLocations;
+    }
+  }
+
+  /**
+   * Load the namespaces and table-like entities of a catalog whose base location overlaps with the
+   * specified location, i.e. is equal to it, contains it or is contained in it. This is a lookup in
+   * an index of the base locations of the catalog, maintained transactionally with the entities
+   * themselves, so its cost depends on the length of the location and not on the number of entities
+   * in the catalog. The index of a catalog created before it existed is backfilled on first use.
+   *
+   * @param callCtx call context
+   * @param catalogId id of the catalog
+   * @param location location to check
+   * @return the overlapping entity locations, in no particular order. Their locations are
+   *     normalized to end with a '/'
+   * @throws IllegalArgumentException if the location is not a valid URI
+   */
+  @NotNull
+  EntityLocationsResult loadOverlappingEntityLocations(
+      @NotNull PolarisCallContext callCtx, long catalogId, @NotNull String location);
+
+  /**
+   * List one page of the entities of the specified type under the specified catalogPath, ordered by
+   * name. If the catalogPath is null, listed entities will be top-level entities like catalogs.
+   *
+   * @param callCtx call context
+   * @param catalogPath path inside a catalog. If null or empty, the entities to list are top-level,
+   *     like catalogs
+   * @param entityType entity type
+   * @param entitySubType entity subtype. Can be the special value ANY_SUBTYPE to match any subtype.
+   *     Else exact match will be performed.
+   * @param pageToken null to get the first page, else the next page token returned by the call
+   *     which returned the previous page
+   * @param pageSize max number of entities to return, must be positive
+   * @return the entities name, ids and subtype of that page, with the token of the next page if
+   *     there are more entities to list
+   */
+  @NotNull
+  ListEntitiesResult listEntities(
+      @NotNull PolarisCallContext callCtx,
+      @Nullable List<PolarisEntityCore> catalogPath,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String pageToken,
+      int pageSize);
+
   /** the return for a generate new entity id */
   class GenerateEntityIdResult extends BaseResult {
 
@@ -406,6 +515,61 @@ public interface PolarisMetaStoreManager {
   @NotNull
   GenerateEntityIdResult generateNewEntityId(@NotNull PolarisCallContext callCtx);
 
+  /** the return for a generate new entity ids */
+  class GenerateEntityIdsResult extends BaseResult {
+
+    // null if not success
+    private final List<Long> ids;
+
+    /**
+     * Constructor for an error
+     *
+     * @param errorCode error code, cannot be SUCCESS
+     * @param extraInformation extra information
+     */
+    public GenerateEntityIdsResult(
+        @NotNull PolarisMetaStoreManager.ReturnStatus errorCode,
+        @Nullable String extraInformation) {
+      super(errorCode, extraInformation);
+      this.ids = null;
+    }
+
+    /**
+     * Constructor for success
+     *
+     * @param ids the new ids which were generated
+     */
+    public GenerateEntityIdsResult(@NotNull List<Long> ids) {
+      super(ReturnStatus.SUCCESS);
+      this.ids = ids;
+    }
+
+    @JsonCreator
+    private GenerateEntityIdsResult(
+        @JsonProperty("returnStatus") @NotNull ReturnStatus returnStatus,
+        @JsonProperty("extraInformation") @Nullable String extraInformation,
+        @JsonProperty("ids") @Nullable List<Long> ids) {
+      super(returnStatus, extraInformation);
+      this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+      return ids;
+    }
+  }
+
+  /**
+   * Generate new unique ids in bulk, for a Polaris client which needs to create many entities at
+   * once. Cheaper than calling {@link #generateNewEntityId(PolarisCallContext)} for each entity,
+   * since the ids are reserved together from the backing store.
+   *
+   * @param callCtx call context
+   * @param count number of ids to generate
+   * @return the newly created ids, not expected to fail
+   */
+  @NotNull
+  GenerateEntityIdsResult generateNewEntityIds(@NotNull PolarisCallContext callCtx, int count);
+
   /** the return the result of a create-principal method */
   class CreatePrincipalResult extends BaseResult {
     // the principal which has been created. Null if error
@@ -767,6 +931,23 @@ public interface PolarisMetaStoreManager {
   EntitiesResult updateEntitiesPropertiesIfNotChanged(
       @NotNull PolarisCallContext callCtx, @NotNull List<EntityWithPath> entities);
 
+  /**
+   * This works exactly like {@link #updateEntitiesPropertiesIfNotChanged(PolarisCallContext, List)}
+   * but also checks, in the same transaction, that the entities which are not updated have not
+   * changed either, i.e. that their version is still the one specified.
+   *
+   * @param callCtx call context
+   * @param entities the set of entities to update
+   * @param unchangedEntities the set of entities which must not have been modified
+   * @return list of all entities we updated or null if the client should retry because one update
+   *     failed or one of the unchanged entities was modified
+   */
+  @NotNull
+  EntitiesResult updateEntitiesPropertiesIfNotChanged(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull List<EntityWithPath> entities,
+      @NotNull List<? extends PolarisEntityCore> unchangedEntities);
+
   /**
    * Rename an entity, potentially re-parenting it.
    *
@@ -1166,6 +1347,15 @@ public interface PolarisMetaStoreManager {
   ChangeTrackingResult loadEntitiesChangeTracking(
       @NotNull PolarisCallContext callCtx, @NotNull List<PolarisEntityId> entityIds);
 
+  /**
+   * Register a listener which will be notified each time the entity version or the grant records
+   * version of an entity is changed through this meta store manager, or when an entity is removed.
+   * Used to invalidate local caches right away when a write is performed on this node.
+   *
+   * @param listener the listener to register
+   */
+  void addEntityChangeListener(@NotNull EntityChangeListener listener);
+
   /**
    * Load the entity from backend store. Will return NULL if the entity does not exist, i.e. has
    * been purged. The entity being loaded might have been dropped
@@ -1178,7 +1368,9 @@ public interface PolarisMetaStoreManager {
   EntityResult loadEntity(@NotNull PolarisCallContext callCtx, long entityCatalogId, long entityId);
 
   /**
-   * Fetch a list of tasks to be completed. Tasks
+   * Fetch a list of tasks to be completed and lease them for the specified executor. Tasks which
+   * are leased by another executor whose lease has not expired are not returned, nor are the tasks
+   * which have already been attempted POLARIS_TASK_MAX_ATTEMPTS times.
    *
    * @param callCtx call context
    * @param executorId executor id
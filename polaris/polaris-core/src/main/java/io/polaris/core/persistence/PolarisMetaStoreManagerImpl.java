@@ -30,6 +30,7 @@ import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityConstants;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
@@ -40,7 +41,11 @@ import io.polaris.core.storage.PolarisCredentialProperty;
 import io.polaris.core.storage.PolarisStorageActions;
 import io.polaris.core.storage.PolarisStorageConfigurationInfo;
 import io.polaris.core.storage.PolarisStorageIntegration;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,7 +53,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -66,6 +74,90 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
   /** use synchronous drop for entities */
   private static final boolean USE_SYNCHRONOUS_DROP = true;
 
+  /** listeners notified each time the versions of an entity are changed */
+  private final List<EntityChangeListener> entityChangeListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * entities changed by the write transaction running on the current thread, listeners are only
+   * notified once it has committed
+   */
+  private final ThreadLocal<List<PolarisBaseEntity>> pendingEntityChanges = new ThreadLocal<>();
+
+  /** number of entities indexed by each transaction of the ENTITY_LOCATIONS index backfill */
+  private static final int LOCATIONS_BACKFILL_PAGE_SIZE = 1000;
+
+  /** ids of the catalogs whose ENTITY_LOCATIONS index is known to have been backfilled */
+  private final Set<Long> indexedCatalogIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Run inside a read/write transaction, then notify the listeners of all the entities changed by
+   * that transaction, if it committed. Notifying them earlier would let a concurrent reader cache
+   * again the version of an entity this transaction is about to replace.
+   *
+   * @param ms meta store
+   * @param callCtx call context to use
+   * @param transactionCode transaction code
+   * @return the result of the execution
+   */
+  private <T> T runInTransaction(
+      @NotNull PolarisMetaStoreSession ms,
+      @NotNull PolarisCallContext callCtx,
+      @NotNull Supplier<T> transactionCode) {
+    // like the meta stores, reject nesting before the state of the outer transaction is touched
+    callCtx
+        .getDiagServices()
+        .check(this.pendingEntityChanges.get() == null, "cannot nest transaction");
+
+    List<PolarisBaseEntity> changedEntities = new ArrayList<>();
+    this.pendingEntityChanges.set(changedEntities);
+    T result;
+    try {
+      result = ms.runInTransaction(callCtx, transactionCode);
+    } finally {
+      this.pendingEntityChanges.remove();
+    }
+
+    // the transaction committed, its changes are now visible to everyone
+    for (PolarisBaseEntity entity : changedEntities) {
+      this.notifyEntityChanged(callCtx, entity);
+    }
+    return result;
+  }
+
+  /**
+   * Run inside a read/write transaction, see {@link #runInTransaction(PolarisMetaStoreSession,
+   * PolarisCallContext, Supplier)}
+   *
+   * @param ms meta store
+   * @param callCtx call context to use
+   * @param transactionCode transaction code
+   */
+  private void runActionInTransaction(
+      @NotNull PolarisMetaStoreSession ms,
+      @NotNull PolarisCallContext callCtx,
+      @NotNull Runnable transactionCode) {
+    this.runInTransaction(
+        ms,
+        callCtx,
+        () -> {
+          transactionCode.run();
+          return null;
+        });
+  }
+
+  /**
+   * Rollback the current transaction, listeners will not be notified of the changes it made so far
+   *
+   * @param ms meta store in read/write mode
+   */
+  private void rollback(@NotNull PolarisMetaStoreSession ms) {
+    ms.rollback();
+    List<PolarisBaseEntity> changedEntities = this.pendingEntityChanges.get();
+    if (changedEntities != null) {
+      changedEntities.clear();
+    }
+  }
+
   /**
    * Lookup an entity by its name
    *
@@ -112,13 +204,109 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       @NotNull PolarisBaseEntity entity,
       boolean writeToActive) {
     ms.writeToEntities(callCtx, entity);
-    ms.writeToEntitiesChangeTracking(callCtx, entity);
+    this.writeToEntitiesChangeTracking(callCtx, ms, entity);
 
     if (writeToActive) {
       ms.writeToEntitiesActive(callCtx, entity);
     }
   }
 
+  /**
+   * Keep the ENTITY_LOCATIONS slice in sync with the base location of an entity which has been
+   * created, changed or dropped. Only namespaces and table-like entities with a base location are
+   * indexed.
+   *
+   * @param callCtx call context
+   * @param ms meta store in read/write mode
+   * @param previousLocation the location record of the entity as it was persisted before the
+   *     change, null if it is new or was not indexed
+   * @param entity the entity as it is persisted after the change, null if it has been dropped
+   */
+  private void updateEntityLocations(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull PolarisMetaStoreSession ms,
+      @Nullable PolarisEntityLocationRecord previousLocation,
+      @Nullable PolarisBaseEntity entity) {
+    PolarisEntityLocationRecord location =
+        (entity != null) ? PolarisEntityLocationRecord.of(entity) : null;
+    if (Objects.equals(previousLocation, location)) {
+      return;
+    }
+
+    // a record whose location has not changed is simply replaced
+    if (previousLocation != null
+        && (location == null || !previousLocation.getLocation().equals(location.getLocation()))) {
+      ms.deleteFromEntityLocations(callCtx, previousLocation);
+    }
+    if (location != null) {
+      ms.writeToEntityLocations(callCtx, location);
+    }
+  }
+
+  /**
+   * Write the new versions of this entity to the ENTITIES_CHANGE_TRACKING slice and notify all
+   * registered listeners that any cached copy of this entity is now stale, once the transaction
+   * commits.
+   *
+   * @param callCtx call context
+   * @param ms meta store in read/write mode
+   * @param entity entity whose versions have changed
+   */
+  private void writeToEntitiesChangeTracking(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull PolarisMetaStoreSession ms,
+      @NotNull PolarisBaseEntity entity) {
+    ms.writeToEntitiesChangeTracking(callCtx, entity);
+    this.entityChanged(callCtx, entity);
+  }
+
+  /**
+   * Remove this entity from the ENTITIES_CHANGE_TRACKING slice and notify all registered listeners
+   * that any cached copy of this entity is now stale, once the transaction commits.
+   *
+   * @param callCtx call context
+   * @param ms meta store in read/write mode
+   * @param entity entity being removed
+   */
+  private void deleteFromEntitiesChangeTracking(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull PolarisMetaStoreSession ms,
+      @NotNull PolarisBaseEntity entity) {
+    ms.deleteFromEntitiesChangeTracking(callCtx, entity);
+    this.entityChanged(callCtx, entity);
+  }
+
+  /**
+   * Record that the specified entity has been changed by the current transaction, listeners are
+   * notified once it commits
+   *
+   * @param callCtx call context
+   * @param entity entity which has changed
+   */
+  private void entityChanged(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity) {
+    List<PolarisBaseEntity> changedEntities = this.pendingEntityChanges.get();
+    if (changedEntities != null) {
+      changedEntities.add(new PolarisBaseEntity(entity));
+    } else {
+      // not running in a transaction started by this manager, we cannot tell when it commits
+      this.notifyEntityChanged(callCtx, entity);
+    }
+  }
+
+  /**
+   * Notify all registered listeners that the specified entity has changed
+   *
+   * @param callCtx call context
+   * @param entity entity which has changed
+   */
+  private void notifyEntityChanged(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity) {
+    for (EntityChangeListener listener : this.entityChangeListeners) {
+      listener.onEntityChanged(callCtx, entity);
+    }
+  }
+
   /**
    * Persist the specified new entity. Persist will write this entity in the ENTITIES, in the
    * ENTITIES_ACTIVE and finally in the ENTITIES_CHANGE_TRACKING tables
@@ -181,6 +369,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
     // write it
     this.writeEntity(callCtx, ms, entity, true);
+    this.updateEntityLocations(callCtx, ms, null, entity);
   }
 
   /**
@@ -191,12 +380,15 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
    * @param callCtx call context
    * @param ms meta store
    * @param entity the entity which has been changed
+   * @param previousLocation the location record of the entity before it was changed, as computed
+   *     by {@link PolarisEntityLocationRecord#of(PolarisBaseEntity)} when it was loaded
    * @return the entity with its version and lastUpdateTimestamp updated
    */
   private @NotNull PolarisBaseEntity persistEntityAfterChange(
       @NotNull PolarisCallContext callCtx,
       @NotNull PolarisMetaStoreSession ms,
-      @NotNull PolarisBaseEntity entity) {
+      @NotNull PolarisBaseEntity entity,
+      @Nullable PolarisEntityLocationRecord previousLocation) {
 
     // validate the entity type and subtype
     callCtx.getDiagServices().checkNotNull(entity, "unexpected_null_entity");
@@ -238,8 +430,10 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     entity.setLastUpdateTimestamp(now);
     entity.setEntityVersion(entity.getEntityVersion() + 1);
 
-    // persist it to the various slices
+    // persist it to the various slices. The base location of namespaces and table-like entities
+    // may have changed, as well as the name and the parent of the entity if it is being renamed
     this.writeEntity(callCtx, ms, entity, false);
+    this.updateEntityLocations(callCtx, ms, previousLocation, entity);
 
     // return it
     return entity;
@@ -271,8 +465,9 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     // creation timestamp must be filled
     callCtx.getDiagServices().check(entity.getDropTimestamp() == 0, "already_dropped");
 
-    // delete it from active slice
+    // delete it from active slice and from the entity locations
     ms.deleteFromEntitiesActive(callCtx, entity);
+    this.updateEntityLocations(callCtx, ms, PolarisEntityLocationRecord.of(entity), null);
 
     // for now drop all entities synchronously
     if (USE_SYNCHRONOUS_DROP) {
@@ -306,12 +501,12 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       for (PolarisBaseEntity entityGrantChanged : entities) {
         entityGrantChanged.setGrantRecordsVersion(entityGrantChanged.getGrantRecordsVersion() + 1);
         ms.writeToEntities(callCtx, entityGrantChanged);
-        ms.writeToEntitiesChangeTracking(callCtx, entityGrantChanged);
+        this.writeToEntitiesChangeTracking(callCtx, ms, entityGrantChanged);
       }
 
       // remove the entity being dropped now
       ms.deleteFromEntities(callCtx, entity);
-      ms.deleteFromEntitiesChangeTracking(callCtx, entity);
+      this.deleteFromEntitiesChangeTracking(callCtx, ms, entity);
 
       // if it is a principal, we also need to drop the secrets
       if (entity.getType() == PolarisEntityType.PRINCIPAL) {
@@ -341,7 +536,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       // write to the dropped slice and to purge slice
       ms.writeToEntities(callCtx, entity);
       ms.writeToEntitiesDropped(callCtx, entity);
-      ms.writeToEntitiesChangeTracking(callCtx, entity);
+      this.writeToEntitiesChangeTracking(callCtx, ms, entity);
     }
   }
 
@@ -564,8 +759,9 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
     ms.persistStorageIntegrationIfNeeded(callCtx, catalog, integration);
 
-    // now create and persist new catalog entity
+    // now create and persist new catalog entity, its location index starts empty and complete
     this.persistNewEntity(callCtx, ms, catalog);
+    ms.writeToEntityLocations(callCtx, PolarisEntityLocationRecord.indexedMarker(catalog.getId()));
 
     // create the catalog admin role for this new catalog
     long adminRoleId = ms.generateNewId(callCtx);
@@ -700,7 +896,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // run operation in a read/write transaction
-    ms.runActionInTransaction(callCtx, () -> this.bootstrapPolarisService(callCtx, ms));
+    this.runActionInTransaction(ms, callCtx, () -> this.bootstrapPolarisService(callCtx, ms));
 
     // all good
     return new BaseResult(ReturnStatus.SUCCESS);
@@ -761,14 +957,17 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
   }
 
   /**
-   * See {@link #listEntities(PolarisCallContext, List, PolarisEntityType, PolarisEntitySubType)}
+   * See {@link #listEntities(PolarisCallContext, List, PolarisEntityType, PolarisEntitySubType,
+   * String, int)}
    */
   private @NotNull ListEntitiesResult listEntities(
       @NotNull PolarisCallContext callCtx,
       @NotNull PolarisMetaStoreSession ms,
       @Nullable List<PolarisEntityCore> catalogPath,
       @NotNull PolarisEntityType entityType,
-      @NotNull PolarisEntitySubType entitySubType) {
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String pageToken,
+      int pageSize) {
     // first resolve again the catalogPath to that entity
     PolarisEntityResolver resolver = new PolarisEntityResolver(callCtx, ms, catalogPath);
 
@@ -777,21 +976,47 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       return new ListEntitiesResult(ReturnStatus.CATALOG_PATH_CANNOT_BE_RESOLVED, null);
     }
 
-    // return list of active entities
+    // list active entities, the subtype filter and the page size are pushed down to the store.
+    // Read one more entity than asked for to know if there is a next page
+    int readSize = (pageSize == Integer.MAX_VALUE) ? pageSize : pageSize + 1;
     List<PolarisEntityActiveRecord> toreturnList =
         ms.listActiveEntities(
-            callCtx, resolver.getCatalogIdOrNull(), resolver.getParentId(), entityType);
-
-    // prune the returned list with only entities matching the entity subtype
-    if (entitySubType != PolarisEntitySubType.ANY_SUBTYPE) {
-      toreturnList =
-          toreturnList.stream()
-              .filter(rec -> rec.getSubTypeCode() == entitySubType.getCode())
-              .collect(Collectors.toList());
+            callCtx,
+            resolver.getCatalogIdOrNull(),
+            resolver.getParentId(),
+            entityType,
+            entitySubType,
+            decodePageToken(pageToken),
+            readSize);
+
+    // if there are more entities, the next page starts after the last name of this page
+    String nextPageToken = null;
+    if (toreturnList.size() > pageSize) {
+      toreturnList = new ArrayList<>(toreturnList.subList(0, pageSize));
+      nextPageToken = encodePageToken(toreturnList.get(pageSize - 1).getName());
     }
 
     // done
-    return new ListEntitiesResult(toreturnList);
+    return new ListEntitiesResult(toreturnList, nextPageToken);
+  }
+
+  /** The page token is the opaque form of the name of the last entity of the previous page */
+  private static @NotNull String encodePageToken(@NotNull String lastName) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(lastName.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Decode a page token, return the name to resume listing after or null for the first page */
+  private static @Nullable String decodePageToken(@Nullable String pageToken) {
+    if (pageToken == null || pageToken.isEmpty()) {
+      return null;
+    }
+    try {
+      return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+    }
   }
 
   /** {@inheritDoc} */
@@ -801,12 +1026,159 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       @Nullable List<PolarisEntityCore> catalogPath,
       @NotNull PolarisEntityType entityType,
       @NotNull PolarisEntitySubType entitySubType) {
+    return listEntities(callCtx, catalogPath, entityType, entitySubType, null, Integer.MAX_VALUE);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull ListEntitiesResult listEntities(
+      @NotNull PolarisCallContext callCtx,
+      @Nullable List<PolarisEntityCore> catalogPath,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String pageToken,
+      int pageSize) {
+    // get meta store we should be using
+    PolarisMetaStoreSession ms = callCtx.getMetaStore();
+    callCtx.getDiagServices().check(pageSize > 0, "invalid_page_size", "pageSize={}", pageSize);
+
+    // run operation in a read transaction
+    return ms.runInReadTransaction(
+        callCtx,
+        () ->
+            listEntities(callCtx, ms, catalogPath, entityType, entitySubType, pageToken, pageSize));
+  }
+
+  /**
+   * Add all the namespaces and table-like entities of a catalog to the ENTITY_LOCATIONS index,
+   * unless that catalog has already been marked as indexed. Catalogs created before that index
+   * existed have none of their entities in it, those created since are marked as indexed when
+   * created. The namespace tree is walked one page of children at a time, each page in its own
+   * transaction, so that a large catalog neither holds a long transaction nor is held in memory.
+   * Once done, the catalog is marked with a record of the index, the catalog entity itself is left
+   * untouched. Entities created or changed meanwhile maintain their own records, and indexing an
+   * entity twice is harmless, hence so is a backfill run concurrently by another node.
+   *
+   * @param callCtx call context
+   * @param ms meta store
+   * @param catalogId id of the catalog
+   * @return true if the index of that catalog is complete, false if the catalog does not exist
+   */
+  private boolean backfillEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisMetaStoreSession ms, long catalogId) {
+    PolarisEntityLocationRecord indexedMarker =
+        PolarisEntityLocationRecord.indexedMarker(catalogId);
+    boolean[] indexed = new boolean[1];
+    PolarisBaseEntity catalog =
+        ms.runInReadTransaction(
+            callCtx,
+            () -> {
+              indexed[0] = ms.hasEntityLocation(callCtx, indexedMarker);
+              return ms.lookupEntity(callCtx, PolarisEntityConstants.getNullId(), catalogId);
+            });
+    if (catalog == null || catalog.getType() != PolarisEntityType.CATALOG) {
+      return false;
+    }
+    if (indexed[0]) {
+      return true;
+    }
+
+    // walk the namespace tree of the catalog, indexing every namespace and table-like entity
+    Deque<Long> parentIds = new ArrayDeque<>();
+    parentIds.add(catalogId);
+    while (!parentIds.isEmpty()) {
+      long parentId = parentIds.poll();
+      for (PolarisEntityType type :
+          List.of(PolarisEntityType.NAMESPACE, PolarisEntityType.TABLE_LIKE)) {
+        String startAfterName = null;
+        List<PolarisEntityActiveRecord> page;
+        do {
+          String pageStartAfterName = startAfterName;
+          page =
+              ms.runInTransaction(
+                  callCtx,
+                  () ->
+                      this.backfillEntityLocationsPage(
+                          callCtx, ms, catalogId, parentId, type, pageStartAfterName));
+          for (PolarisEntityActiveRecord child : page) {
+            if (type == PolarisEntityType.NAMESPACE) {
+              parentIds.add(child.getId());
+            }
+            startAfterName = child.getName();
+          }
+        } while (page.size() == LOCATIONS_BACKFILL_PAGE_SIZE);
+      }
+    }
+
+    try {
+      ms.runActionInTransaction(callCtx, () -> ms.writeToEntityLocations(callCtx, indexedMarker));
+    } catch (RuntimeException e) {
+      // fine if another node has just marked the catalog as well
+      if (!ms.runInReadTransaction(callCtx, () -> ms.hasEntityLocation(callCtx, indexedMarker))) {
+        throw e;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Index one page of the children of a parent entity, see {@link
+   * #backfillEntityLocations(PolarisCallContext, PolarisMetaStoreSession, long)}
+   *
+   * @param callCtx call context
+   * @param ms meta store in read/write mode
+   * @param catalogId id of the catalog
+   * @param parentId id of the parent entity
+   * @param type type of the children to index
+   * @param startAfterName name of the last child of the previous page, null for the first page
+   * @return the active records of the children of that page, ordered by name
+   */
+  private List<PolarisEntityActiveRecord> backfillEntityLocationsPage(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull PolarisMetaStoreSession ms,
+      long catalogId,
+      long parentId,
+      @NotNull PolarisEntityType type,
+      @Nullable String startAfterName) {
+    List<PolarisEntityActiveRecord> page =
+        ms.listActiveEntities(
+            callCtx,
+            catalogId,
+            parentId,
+            type,
+            PolarisEntitySubType.ANY_SUBTYPE,
+            startAfterName,
+            LOCATIONS_BACKFILL_PAGE_SIZE);
+    List<PolarisEntityId> ids =
+        page.stream().map(child -> new PolarisEntityId(catalogId, child.getId())).toList();
+    for (PolarisBaseEntity child : ms.lookupEntities(callCtx, ids)) {
+      if (child != null) {
+        this.updateEntityLocations(callCtx, ms, null, child);
+      }
+    }
+    return page;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull EntityLocationsResult loadOverlappingEntityLocations(
+      @NotNull PolarisCallContext callCtx, long catalogId, @NotNull String location) {
     // get meta store we should be using
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
+    String normalizedLocation = PolarisEntityLocationRecord.normalizeLocation(location);
+
+    // the index of catalogs created before it existed must be backfilled first
+    if (!this.indexedCatalogIds.contains(catalogId)
+        && this.backfillEntityLocations(callCtx, ms, catalogId)) {
+      this.indexedCatalogIds.add(catalogId);
+    }
 
     // run operation in a read transaction
     return ms.runInReadTransaction(
-        callCtx, () -> listEntities(callCtx, ms, catalogPath, entityType, entitySubType));
+        callCtx,
+        () ->
+            new EntityLocationsResult(
+                ms.lookupOverlappingEntityLocations(callCtx, catalogId, normalizedLocation)));
   }
 
   /** {@inheritDoc} */
@@ -818,6 +1190,16 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     return new GenerateEntityIdResult(ms.generateNewId(callCtx));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull GenerateEntityIdsResult generateNewEntityIds(
+      @NotNull PolarisCallContext callCtx, int count) {
+    // get meta store we should be using
+    PolarisMetaStoreSession ms = callCtx.getMetaStore();
+
+    return new GenerateEntityIdsResult(ms.generateNewIds(callCtx, count));
+  }
+
   /**
    * Given the internal property as a map of key/value pairs, serialize it to a String
    *
@@ -963,7 +1345,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(callCtx, () -> this.createPrincipal(callCtx, ms, principal));
+    return this.runInTransaction(ms, callCtx, () -> this.createPrincipal(callCtx, ms, principal));
   }
 
   /** See {@link #loadPrincipalSecrets(PolarisCallContext, String)} */
@@ -981,7 +1363,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
     // need to run inside a read/write transaction
     PolarisPrincipalSecrets secrets =
-        ms.runInTransaction(callCtx, () -> this.loadPrincipalSecrets(callCtx, ms, clientId));
+        this.runInTransaction(ms, callCtx, () -> this.loadPrincipalSecrets(callCtx, ms, clientId));
 
     return (secrets == null)
         ? new PrincipalSecretsResult(ReturnStatus.ENTITY_NOT_FOUND, null)
@@ -1050,7 +1432,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
     // need to run inside a read/write transaction
     PolarisPrincipalSecrets secrets =
-        ms.runInTransaction(
+        this.runInTransaction(
+            ms,
             callCtx,
             () ->
                 this.rotatePrincipalSecrets(callCtx, ms, clientId, principalId, mainSecret, reset));
@@ -1089,8 +1472,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       integration = null;
     }
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.createCatalog(callCtx, ms, catalog, integration, principalRoles));
+    return this.runInTransaction(
+        ms, callCtx, () -> this.createCatalog(callCtx, ms, catalog, integration, principalRoles));
   }
 
   /** {@link #createEntityIfNotExists(PolarisCallContext, List, PolarisBaseEntity)} */
@@ -1151,8 +1534,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.createEntityIfNotExists(callCtx, ms, catalogPath, entity));
+    return this.runInTransaction(
+        ms, callCtx, () -> this.createEntityIfNotExists(callCtx, ms, catalogPath, entity));
   }
 
   @Override
@@ -1164,7 +1547,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
+    return this.runInTransaction(
+        ms,
         callCtx,
         () -> {
           List<PolarisBaseEntity> createdEntities = new ArrayList<>(entities.size());
@@ -1173,7 +1557,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
                 createEntityIfNotExists(callCtx, ms, catalogPath, entity);
             // abort everything if error
             if (entityCreateResult.getReturnStatus() != ReturnStatus.SUCCESS) {
-              ms.rollback();
+              this.rollback(ms);
               return new EntitiesResult(
                   entityCreateResult.getReturnStatus(), entityCreateResult.getExtraInformation());
             }
@@ -1214,13 +1598,15 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
       return new EntityResult(ReturnStatus.TARGET_ENTITY_CONCURRENTLY_MODIFIED, null);
     }
 
-    // update the two properties
+    // update the two properties, the base location may change with them
+    PolarisEntityLocationRecord previousLocation = PolarisEntityLocationRecord.of(entityRefreshed);
     entityRefreshed.setInternalProperties(entity.getInternalProperties());
     entityRefreshed.setProperties(entity.getProperties());
 
     // persist this entity after changing it. This will update the version and update the last
     // updated time. Because the entity version is changed, we will update the change tracking table
-    PolarisBaseEntity persistedEntity = this.persistEntityAfterChange(callCtx, ms, entityRefreshed);
+    PolarisBaseEntity persistedEntity =
+        this.persistEntityAfterChange(callCtx, ms, entityRefreshed, previousLocation);
     return new EntityResult(persistedEntity);
   }
 
@@ -1234,18 +1620,31 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.updateEntityPropertiesIfNotChanged(callCtx, ms, catalogPath, entity));
+    return this.runInTransaction(
+        ms,
+        callCtx,
+        () -> this.updateEntityPropertiesIfNotChanged(callCtx, ms, catalogPath, entity));
   }
 
-  /** See {@link #updateEntitiesPropertiesIfNotChanged(PolarisCallContext, List)} */
+  /** See {@link #updateEntitiesPropertiesIfNotChanged(PolarisCallContext, List, List)} */
   private @NotNull EntitiesResult updateEntitiesPropertiesIfNotChanged(
       @NotNull PolarisCallContext callCtx,
       @NotNull PolarisMetaStoreSession ms,
-      @NotNull List<EntityWithPath> entities) {
+      @NotNull List<EntityWithPath> entities,
+      @NotNull List<? extends PolarisEntityCore> unchangedEntities) {
     // ensure that the entities list is not null
     callCtx.getDiagServices().checkNotNull(entities, "unexpected_null_entities");
 
+    // check first that the entities we do not update have not changed at all
+    for (PolarisEntityCore unchangedEntity : unchangedEntities) {
+      PolarisBaseEntity entityRefreshed =
+          ms.lookupEntity(callCtx, unchangedEntity.getCatalogId(), unchangedEntity.getId());
+      if (entityRefreshed == null
+          || entityRefreshed.getEntityVersion() != unchangedEntity.getEntityVersion()) {
+        return new EntitiesResult(ReturnStatus.TARGET_ENTITY_CONCURRENTLY_MODIFIED, null);
+      }
+    }
+
     // list of all updated entities
     List<PolarisBaseEntity> updatedEntities = new ArrayList<>(entities.size());
 
@@ -1258,7 +1657,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
       // if failed, rollback and return the last error
       if (updatedEntityResult.getReturnStatus() != ReturnStatus.SUCCESS) {
-        ms.rollback();
+        this.rollback(ms);
         return new EntitiesResult(
             updatedEntityResult.getReturnStatus(), updatedEntityResult.getExtraInformation());
       }
@@ -1279,8 +1678,26 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.updateEntitiesPropertiesIfNotChanged(callCtx, ms, entities));
+    return this.runInTransaction(
+        ms,
+        callCtx,
+        () -> this.updateEntitiesPropertiesIfNotChanged(callCtx, ms, entities, List.of()));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull EntitiesResult updateEntitiesPropertiesIfNotChanged(
+      @NotNull PolarisCallContext callCtx,
+      @NotNull List<EntityWithPath> entities,
+      @NotNull List<? extends PolarisEntityCore> unchangedEntities) {
+    // get metastore we should be using
+    PolarisMetaStoreSession ms = callCtx.getMetaStore();
+
+    // need to run inside a read/write transaction
+    return this.runInTransaction(
+        ms,
+        callCtx,
+        () -> this.updateEntitiesPropertiesIfNotChanged(callCtx, ms, entities, unchangedEntities));
   }
 
   /**
@@ -1367,6 +1784,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
     // all good, delete the existing entity from the active slice
     ms.deleteFromEntitiesActive(callCtx, refreshEntityToRename);
+    PolarisEntityLocationRecord previousLocation =
+        PolarisEntityLocationRecord.of(refreshEntityToRename);
 
     // change its name now
     refreshEntityToRename.setName(renamedEntity.getName());
@@ -1384,7 +1803,7 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     // persist the entity after change. This wil update the lastUpdateTimestamp and bump up the
     // version
     PolarisBaseEntity renamedEntityToReturn =
-        this.persistEntityAfterChange(callCtx, ms, refreshEntityToRename);
+        this.persistEntityAfterChange(callCtx, ms, refreshEntityToRename, previousLocation);
     return new EntityResult(renamedEntityToReturn);
   }
 
@@ -1400,7 +1819,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
+    return this.runInTransaction(
+        ms,
         callCtx,
         () ->
             this.renameEntity(
@@ -1477,6 +1897,9 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
         // drop the last catalog role in that catalog, should be the admin catalog role
         this.dropEntity(callCtx, ms, catalogRoles.get(0));
       }
+
+      // the catalog is empty, so the marker of its location index is the last record of it
+      ms.deleteFromEntityLocations(callCtx, PolarisEntityLocationRecord.indexedMarker(catalogId));
     } else if (refreshEntityToDrop.getType() == PolarisEntityType.NAMESPACE) {
       if (ms.hasChildren(
           callCtx, null, refreshEntityToDrop.getCatalogId(), refreshEntityToDrop.getId())) {
@@ -1532,7 +1955,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
+    return this.runInTransaction(
+        ms,
         callCtx,
         () ->
             this.dropEntityIfExists(
@@ -1670,8 +2094,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.grantUsageOnRoleToGrantee(callCtx, ms, catalog, role, grantee));
+    return this.runInTransaction(
+        ms, callCtx, () -> this.grantUsageOnRoleToGrantee(callCtx, ms, catalog, role, grantee));
   }
 
   /**
@@ -1732,8 +2156,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
-        callCtx, () -> this.revokeUsageOnRoleFromGrantee(callCtx, ms, catalog, role, grantee));
+    return this.runInTransaction(
+        ms, callCtx, () -> this.revokeUsageOnRoleFromGrantee(callCtx, ms, catalog, role, grantee));
   }
 
   /**
@@ -1775,7 +2199,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
+    return this.runInTransaction(
+        ms,
         callCtx,
         () ->
             this.grantPrivilegeOnSecurableToRole(
@@ -1837,7 +2262,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
 
     // need to run inside a read/write transaction
-    return ms.runInTransaction(
+    return this.runInTransaction(
+        ms,
         callCtx,
         () ->
             this.revokePrivilegeOnSecurableFromRole(
@@ -1965,6 +2391,12 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
         callCtx, () -> this.loadEntitiesChangeTracking(callCtx, ms, entityIds));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void addEntityChangeListener(@NotNull EntityChangeListener listener) {
+    this.entityChangeListeners.add(listener);
+  }
+
   /** Refer to {@link #loadEntity(PolarisCallContext, long, long)} */
   private @NotNull EntityResult loadEntity(
       @NotNull PolarisCallContext callCtx,
@@ -1990,62 +2422,116 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
         callCtx, () -> this.loadEntity(callCtx, ms, entityCatalogId, entityId));
   }
 
-  /** Refer to {@link #loadTasks(PolarisCallContext, String, int)} */
-  private @NotNull EntitiesResult loadTasks(
+  /**
+   * List the tasks which can be leased: those which have never been leased and those whose lease
+   * expired, unless they have already been attempted the maximum number of times.
+   *
+   * @param callCtx call context
+   * @param ms meta store
+   * @param limit maximum number of tasks to return
+   * @return the tasks which can be leased, at most limit of them
+   */
+  private @NotNull List<PolarisBaseEntity> listAvailableTasks(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisMetaStoreSession ms, int limit) {
+    long taskAgeTimeout =
+        callCtx
+            .getConfigurationStore()
+            .getConfiguration(
+                callCtx,
+                PolarisTaskConstants.TASK_TIMEOUT_MILLIS_CONFIG,
+                PolarisTaskConstants.TASK_TIMEOUT_MILLIS);
+    int maxAttempts =
+        callCtx
+            .getConfigurationStore()
+            .getConfiguration(
+                callCtx,
+                PolarisTaskConstants.TASK_MAX_ATTEMPTS_CONFIG,
+                PolarisTaskConstants.TASK_MAX_ATTEMPTS);
+    return ms.listActiveEntities(
+        callCtx,
+        PolarisEntityConstants.getRootEntityId(),
+        PolarisEntityConstants.getRootEntityId(),
+        PolarisEntityType.TASK,
+        limit,
+        entity -> {
+          PolarisObjectMapperUtil.TaskExecutionState taskState =
+              PolarisObjectMapperUtil.parseTaskState(entity);
+          if (taskState != null && taskState.attemptCount >= maxAttempts) {
+            return false;
+          }
+          return taskState == null
+              || taskState.executor == null
+              || callCtx.getClock().millis() - taskState.lastAttemptStartTime > taskAgeTimeout;
+        },
+        Function.identity());
+  }
+
+  /**
+   * Lease a task for the specified executor, unless it has been changed since it was listed, e.g.
+   * because another executor leased it in the meantime. Like {@link
+   * #updateEntityPropertiesIfNotChanged(PolarisCallContext, PolarisMetaStoreSession, List,
+   * PolarisBaseEntity)}, the task is only updated if its version has not changed.
+   *
+   * @param callCtx call context
+   * @param ms meta store in read/write mode
+   * @param task the task, as it was listed
+   * @param executorId id of the executor leasing the task
+   * @return the leased task, null if it has been changed or dropped since it was listed
+   */
+  private @Nullable PolarisBaseEntity leaseTask(
       @NotNull PolarisCallContext callCtx,
       @NotNull PolarisMetaStoreSession ms,
-      String executorId,
-      int limit) {
+      @NotNull PolarisBaseEntity task,
+      String executorId) {
+    PolarisBaseEntity taskRefreshed = ms.lookupEntity(callCtx, task.getCatalogId(), task.getId());
+    if (taskRefreshed == null || taskRefreshed.getEntityVersion() != task.getEntityVersion()) {
+      return null;
+    }
 
-    // find all available tasks
-    List<PolarisBaseEntity> availableTasks =
-        ms.listActiveEntities(
-            callCtx,
-            PolarisEntityConstants.getRootEntityId(),
-            PolarisEntityConstants.getRootEntityId(),
-            PolarisEntityType.TASK,
-            limit,
-            entity -> {
-              PolarisObjectMapperUtil.TaskExecutionState taskState =
-                  PolarisObjectMapperUtil.parseTaskState(entity);
-              long taskAgeTimeout =
-                  callCtx
-                      .getConfigurationStore()
-                      .getConfiguration(
-                          callCtx,
-                          PolarisTaskConstants.TASK_TIMEOUT_MILLIS_CONFIG,
-                          PolarisTaskConstants.TASK_TIMEOUT_MILLIS);
-              return taskState == null
-                  || taskState.executor == null
-                  || callCtx.getClock().millis() - taskState.lastAttemptStartTime > taskAgeTimeout;
-            },
-            Function.identity());
-
-    availableTasks.forEach(
-        task -> {
-          Map<String, String> properties =
-              PolarisObjectMapperUtil.deserializeProperties(callCtx, task.getProperties());
-          properties.put(PolarisTaskConstants.LAST_ATTEMPT_EXECUTOR_ID, executorId);
-          properties.put(
-              PolarisTaskConstants.LAST_ATTEMPT_START_TIME,
-              String.valueOf(callCtx.getClock().millis()));
-          properties.put(
-              PolarisTaskConstants.ATTEMPT_COUNT,
-              String.valueOf(
-                  Integer.parseInt(properties.getOrDefault(PolarisTaskConstants.ATTEMPT_COUNT, "0"))
-                      + 1));
-          task.setEntityVersion(task.getEntityVersion() + 1);
-          task.setProperties(PolarisObjectMapperUtil.serializeProperties(callCtx, properties));
-          writeEntity(callCtx, ms, task, false);
-        });
-    return new EntitiesResult(availableTasks);
+    Map<String, String> properties =
+        PolarisObjectMapperUtil.deserializeProperties(callCtx, taskRefreshed.getProperties());
+    properties.put(PolarisTaskConstants.LAST_ATTEMPT_EXECUTOR_ID, executorId);
+    properties.put(
+        PolarisTaskConstants.LAST_ATTEMPT_START_TIME, String.valueOf(callCtx.getClock().millis()));
+    properties.put(
+        PolarisTaskConstants.ATTEMPT_COUNT,
+        String.valueOf(
+            Integer.parseInt(properties.getOrDefault(PolarisTaskConstants.ATTEMPT_COUNT, "0"))
+                + 1));
+    taskRefreshed.setEntityVersion(taskRefreshed.getEntityVersion() + 1);
+    taskRefreshed.setProperties(PolarisObjectMapperUtil.serializeProperties(callCtx, properties));
+    writeEntity(callCtx, ms, taskRefreshed, false);
+    return taskRefreshed;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Each task is leased in its own transaction, with a conditional update on its version, so
+   * that a task leased concurrently by another executor is skipped rather than leased twice.
+   */
   @Override
   public @NotNull EntitiesResult loadTasks(
       @NotNull PolarisCallContext callCtx, String executorId, int limit) {
     PolarisMetaStoreSession ms = callCtx.getMetaStore();
-    return ms.runInTransaction(callCtx, () -> this.loadTasks(callCtx, ms, executorId, limit));
+    List<PolarisBaseEntity> availableTasks =
+        ms.runInReadTransaction(callCtx, () -> this.listAvailableTasks(callCtx, ms, limit));
+
+    List<PolarisBaseEntity> leasedTasks = new ArrayList<>();
+    for (PolarisBaseEntity task : availableTasks) {
+      PolarisBaseEntity leasedTask;
+      try {
+        leasedTask =
+            this.runInTransaction(ms, callCtx, () -> this.leaseTask(callCtx, ms, task, executorId));
+      } catch (RetryOnConcurrencyException e) {
+        // another executor updated the task after it was looked up, it leased it first
+        leasedTask = null;
+      }
+      if (leasedTask != null) {
+        leasedTasks.add(leasedTask);
+      }
+    }
+    return new EntitiesResult(leasedTasks);
   }
 
   /** {@inheritDoc} */
@@ -2156,22 +2642,17 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
 
   public static PolarisStorageConfigurationInfo readStorageConfiguration(
       @NotNull PolarisCallContext callCtx, PolarisBaseEntity reloadedEntity) {
-    Map<String, String> propMap =
-        PolarisObjectMapperUtil.deserializeProperties(
-            callCtx, reloadedEntity.getInternalProperties());
-    String storageConfigInfoStr =
-        propMap.get(PolarisEntityConstants.getStorageConfigInfoPropertyName());
+    PolarisStorageConfigurationInfo storageConfig = reloadedEntity.getStorageConfigurationInfo();
 
     callCtx
         .getDiagServices()
         .check(
-            storageConfigInfoStr != null,
+            storageConfig != null,
             "missing_storage_configuration_info",
             "catalogId={}, entityId={}",
             reloadedEntity.getCatalogId(),
             reloadedEntity.getId());
-    return PolarisStorageConfigurationInfo.deserialize(
-        callCtx.getDiagServices(), storageConfigInfoStr);
+    return storageConfig;
   }
 
   /**
@@ -2289,7 +2770,8 @@ public class PolarisMetaStoreManagerImpl implements PolarisMetaStoreManager {
         && entityType == PolarisEntityType.ROOT
         && !result.isSuccess()) {
       // Backfill rootContainer if needed.
-      ms.runActionInTransaction(
+      this.runActionInTransaction(
+          ms,
           callCtx,
           () -> {
             PolarisBaseEntity rootContainer =
@@ -22,6 +22,8 @@ import io.polaris.core.entity.PolarisEntitiesActiveKey;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
+import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrincipalSecrets;
@@ -98,6 +100,14 @@ public interface PolarisMetaStoreSession {
    */
   long generateNewId(@NotNull PolarisCallContext callCtx);
 
+  /**
+   * @param callCtx call context
+   * @param count number of identifiers to generate
+   * @return new unique entity identifiers, generated together
+   */
+  @NotNull
+  List<Long> generateNewIds(@NotNull PolarisCallContext callCtx, int count);
+
   /**
    * Write the base entity to the entities table. If there is a conflict (existing record with the
    * same id), all attributes of the new record will replace the existing one.
@@ -152,6 +162,17 @@ public interface PolarisMetaStoreSession {
   void writeToGrantRecords(
       @NotNull PolarisCallContext callCtx, @NotNull PolarisGrantRecord grantRec);
 
+  /**
+   * Write the specified location record to the entity_locations table. If there is a conflict
+   * (existing record with the same PK), all attributes of the new record will replace the existing
+   * one.
+   *
+   * @param callCtx call context
+   * @param locationRecord location record to write
+   */
+  void writeToEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord);
+
   /**
    * Delete the base entity from the entities table.
    *
@@ -196,6 +217,16 @@ public interface PolarisMetaStoreSession {
   void deleteFromGrantRecords(
       @NotNull PolarisCallContext callCtx, @NotNull PolarisGrantRecord grantRec);
 
+  /**
+   * Delete the specified location record from the entity_locations table. Nothing is done if it
+   * is not there, which is the case of the entities of a catalog which has not been backfilled yet.
+   *
+   * @param callCtx call context
+   * @param locationRecord location record to delete
+   */
+  void deleteFromEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord);
+
   /**
    * Delete the all grant records in the grant_records table for the specified entity. This method
    * will delete all grant records on that securable entity and also all grants to that grantee
@@ -293,6 +324,32 @@ public interface PolarisMetaStoreSession {
   List<PolarisEntityActiveRecord> lookupEntityActiveBatch(
       @NotNull PolarisCallContext callCtx, List<PolarisEntitiesActiveKey> entityActiveKeys);
 
+  /**
+   * Lookup in the entity_locations table the records of a catalog whose location overlaps with the
+   * specified one, i.e. is equal to it, is one of its parent locations or is under it. The parent
+   * locations are probed one by one and the locations under it read as a single range, hence the
+   * cost of this lookup depends on the length of the location, not on the size of the catalog.
+   *
+   * @param callCtx call context
+   * @param catalogId catalog id
+   * @param normalizedLocation location to check, normalized with {@link
+   *     PolarisEntityLocationRecord#normalizeLocation(String)}
+   * @return the overlapping location records, in no particular order
+   */
+  @NotNull
+  List<PolarisEntityLocationRecord> lookupOverlappingEntityLocations(
+      @NotNull PolarisCallContext callCtx, long catalogId, @NotNull String normalizedLocation);
+
+  /**
+   * Check if the specified record is in the entity_locations table
+   *
+   * @param callCtx call context
+   * @param locationRecord the location record, only its catalog id, location and id are compared
+   * @return true if that record is in the table
+   */
+  boolean hasEntityLocation(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord);
+
   /**
    * List all active entities of the specified type which are child entities of the specified parent
    *
@@ -309,6 +366,31 @@ public interface PolarisMetaStoreSession {
       long parentId,
       @NotNull PolarisEntityType entityType);
 
+  /**
+   * List one page of the active entities of the specified type and subtype which are child entities
+   * of the specified parent, ordered by name. Only the columns of the entities_active records are
+   * read, the type and subtype filters as well as the page size are applied by the backing store.
+   *
+   * @param callCtx call context
+   * @param catalogId catalog id for that entity, NULL_ID if the entity is top-level
+   * @param parentId id of the parent, can be the special 0 value representing the root entity
+   * @param entityType type of entities to list
+   * @param entitySubType subtype of entities to list, ANY_SUBTYPE to list entities of all subtypes
+   * @param startAfterName if not null, only entities whose name sorts after this name are returned.
+   *     Used to resume listing after the last entity of the previous page
+   * @param pageSize the max number of records to return
+   * @return the list of entities_active records for that page, ordered by name
+   */
+  @NotNull
+  List<PolarisEntityActiveRecord> listActiveEntities(
+      @NotNull PolarisCallContext callCtx,
+      long catalogId,
+      long parentId,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String startAfterName,
+      int pageSize);
+
   /**
    * List active entities where some predicate returns true
    *
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Key of a record in a slice of the {@link PolarisTreeMapStore}: a sequence of ids, optionally
+ * followed by a name. Keys are ordered id by id, then by name. A key with fewer ids and no name is
+ * a prefix of all the keys starting with the same ids, which sort right after it, hence all the
+ * records matching a prefix are found by scanning the slice from that prefix.
+ */
+public final class PolarisTreeMapKey implements Comparable<PolarisTreeMapKey> {
+
+  // the ids, compared first
+  private final long[] ids;
+
+  // the name, compared last, null if none
+  private final String name;
+
+  private PolarisTreeMapKey(long[] ids, @Nullable String name) {
+    this.ids = ids;
+    this.name = name;
+  }
+
+  /**
+   * @param ids ids making up the key
+   * @return a key made of the specified ids, can also be used as a prefix
+   */
+  public static PolarisTreeMapKey of(long... ids) {
+    return new PolarisTreeMapKey(ids, null);
+  }
+
+  /**
+   * @param name name which follows the ids
+   * @param ids ids making up the key
+   * @return a key made of the specified ids followed by the name
+   */
+  public static PolarisTreeMapKey named(@NotNull String name, long... ids) {
+    return new PolarisTreeMapKey(ids, name);
+  }
+
+  /**
+   * @param key a key
+   * @return true if the specified key starts with this key, or is equal to it
+   */
+  public boolean isPrefixOf(@NotNull PolarisTreeMapKey key) {
+    if (key.ids.length < this.ids.length) {
+      return false;
+    }
+    for (int i = 0; i < this.ids.length; i++) {
+      if (this.ids[i] != key.ids[i]) {
+        return false;
+      }
+    }
+    return this.name == null || (key.ids.length == this.ids.length && this.name.equals(key.name));
+  }
+
+  /**
+   * @param key a key
+   * @return true if the specified key has the same ids as this key and a name starting with the
+   *     name of this key. All such keys sort right after this key
+   */
+  public boolean isNamePrefixOf(@NotNull PolarisTreeMapKey key) {
+    return this.name != null
+        && key.name != null
+        && Arrays.equals(this.ids, key.ids)
+        && key.name.startsWith(this.name);
+  }
+
+  @Override
+  public int compareTo(@NotNull PolarisTreeMapKey other) {
+    int length = Math.min(this.ids.length, other.ids.length);
+    for (int i = 0; i < length; i++) {
+      int result = Long.compare(this.ids[i], other.ids[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    if (this.ids.length != other.ids.length) {
+      return Integer.compare(this.ids.length, other.ids.length);
+    }
+    if (this.name == null || other.name == null) {
+      return this.name == null ? (other.name == null ? 0 : -1) : 1;
+    }
+    return this.name.compareTo(other.name);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PolarisTreeMapKey)) {
+      return false;
+    }
+    PolarisTreeMapKey that = (PolarisTreeMapKey) o;
+    return Arrays.equals(this.ids, that.ids)
+        && (this.name == null ? that.name == null : this.name.equals(that.name));
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(this.ids) + (this.name == null ? 0 : this.name.hashCode());
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    for (long id : this.ids) {
+      if (result.length() != 0) {
+        result.append("::");
+      }
+      result.append(id);
+    }
+    if (this.name != null) {
+      result.append("::").append(this.name);
+    }
+    return result.toString();
+  }
+}
@@ -15,7 +15,6 @@
  */
 package io.polaris.core.persistence;
 
-import com.google.common.base.Predicates;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisChangeTrackingVersions;
@@ -23,6 +22,8 @@ import io.polaris.core.entity.PolarisEntitiesActiveKey;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
 import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntityId;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
+import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrincipalSecrets;
@@ -34,6 +35,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -94,6 +96,13 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
     return this.store.getNextSequence();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<Long> generateNewIds(@NotNull PolarisCallContext callCtx, int count) {
+    long firstId = this.store.reserveSequences(count);
+    return LongStream.range(firstId, firstId + count).boxed().toList();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void writeToEntities(
@@ -145,6 +154,14 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
     this.store.getSliceGrantRecordsByGrantee().write(grantRec);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void writeToEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    // write it
+    this.store.getSliceEntityLocations().write(locationRecord);
+  }
+
   /** {@inheritDoc} */
   @Override
   public void deleteFromEntities(
@@ -194,6 +211,14 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
     this.store.getSliceGrantRecordsByGrantee().delete(grantRec);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void deleteFromEntityLocations(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    // delete it
+    this.store.getSliceEntityLocations().delete(locationRecord);
+  }
+
   /** {@inheritDoc} */
   @Override
   public void deleteAllEntityGrantRecords(
@@ -203,7 +228,8 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
       @NotNull List<PolarisGrantRecord> grantsOnSecurable) {
 
     // build composite prefix key and delete grant records on the indexed side of each grant table
-    String prefix = this.store.buildPrefixKeyComposite(entity.getCatalogId(), entity.getId());
+    PolarisTreeMapKey prefix =
+        this.store.buildPrefixKeyComposite(entity.getCatalogId(), entity.getId());
     this.store.getSliceGrantRecords().deleteRange(prefix);
     this.store.getSliceGrantRecordsByGrantee().deleteRange(prefix);
 
@@ -283,7 +309,7 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
         this.store
             .getSliceEntitiesActive()
             .read(
-                this.store.buildKeyComposite(
+                this.store.buildEntitiesActiveKey(
                     entityActiveKey.getCatalogId(),
                     entityActiveKey.getParentId(),
                     entityActiveKey.getTypeCode(),
@@ -313,6 +339,40 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
         .collect(Collectors.toList());
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<PolarisEntityLocationRecord> lookupOverlappingEntityLocations(
+      @NotNull PolarisCallContext callCtx, long catalogId, @NotNull String normalizedLocation) {
+    // the location itself and all the locations under it, then each of its parent locations
+    List<PolarisEntityLocationRecord> locationRecords =
+        this.store
+            .getSliceEntityLocations()
+            .readNameRange(
+                PolarisTreeMapKey.named(
+                    PolarisTreeMapStore.buildEntityLocationsPrefix(normalizedLocation, false),
+                    catalogId));
+    for (String parentLocation : PolarisEntityLocationRecord.parentLocations(normalizedLocation)) {
+      locationRecords.addAll(
+          this.store
+              .getSliceEntityLocations()
+              .readNameRange(
+                  PolarisTreeMapKey.named(
+                      PolarisTreeMapStore.buildEntityLocationsPrefix(parentLocation, true),
+                      catalogId)));
+    }
+    return locationRecords;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasEntityLocation(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisEntityLocationRecord locationRecord) {
+    return this.store
+            .getSliceEntityLocations()
+            .read(this.store.buildEntityLocationsKey(locationRecord))
+        != null;
+  }
+
   /** {@inheritDoc} */
   @Override
   public @NotNull List<PolarisEntityActiveRecord> listActiveEntities(
@@ -320,7 +380,14 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
       long catalogId,
       long parentId,
       @NotNull PolarisEntityType entityType) {
-    return listActiveEntities(callCtx, catalogId, parentId, entityType, Predicates.alwaysTrue());
+    return listActiveEntities(
+        callCtx,
+        catalogId,
+        parentId,
+        entityType,
+        PolarisEntitySubType.ANY_SUBTYPE,
+        null,
+        Integer.MAX_VALUE);
   }
 
   @Override
@@ -348,6 +415,35 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
                 entity.getSubTypeCode()));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @NotNull List<PolarisEntityActiveRecord> listActiveEntities(
+      @NotNull PolarisCallContext callCtx,
+      long catalogId,
+      long parentId,
+      @NotNull PolarisEntityType entityType,
+      @NotNull PolarisEntitySubType entitySubType,
+      @Nullable String startAfterName,
+      int pageSize) {
+    // keys of the active slice are ordered by name under the parent, resume right after the last
+    // name of the previous page
+    return this.store
+        .getSliceEntitiesActive()
+        .readRange(
+            this.store.buildPrefixKeyComposite(catalogId, parentId, entityType.getCode()),
+            (startAfterName == null)
+                ? null
+                : this.store.buildEntitiesActiveKey(
+                    catalogId, parentId, entityType.getCode(), startAfterName),
+            entity ->
+                entitySubType == PolarisEntitySubType.ANY_SUBTYPE
+                    || entity.getSubTypeCode() == entitySubType.getCode(),
+            pageSize)
+        .stream()
+        .map(PolarisEntityActiveRecord::new)
+        .collect(Collectors.toList());
+  }
+
   @Override
   public @NotNull <T> List<T> listActiveEntities(
       @NotNull PolarisCallContext callCtx,
@@ -357,11 +453,13 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
       int limit,
       @NotNull Predicate<PolarisBaseEntity> entityFilter,
       @NotNull Function<PolarisBaseEntity, T> transformer) {
-    // full range scan under the parent for that type
+    // full range scan under the parent for that type. The active slice is only an index, the
+    // latest version of each entity is in the entities slice
     return this.store
         .getSliceEntitiesActive()
         .readRange(this.store.buildPrefixKeyComposite(catalogId, parentId, entityType.getCode()))
         .stream()
+        .map(entity -> this.lookupEntity(callCtx, entity.getCatalogId(), entity.getId()))
         .filter(entityFilter)
         .limit(limit)
         .map(transformer)
@@ -375,12 +473,12 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
       long catalogId,
       long parentId) {
     // determine key prefix, add type if one is passed-in
-    String prefixKey =
+    PolarisTreeMapKey prefixKey =
         entityType == null
             ? this.store.buildPrefixKeyComposite(catalogId, parentId)
             : this.store.buildPrefixKeyComposite(catalogId, parentId, entityType.getCode());
     // check if it has children
-    return !this.store.getSliceEntitiesActive().readRange(prefixKey).isEmpty();
+    return this.store.getSliceEntitiesActive().containsRange(prefixKey);
   }
 
   /** {@inheritDoc} */
@@ -437,7 +535,9 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
   @Override
   public @Nullable PolarisPrincipalSecrets loadPrincipalSecrets(
       @NotNull PolarisCallContext callCtx, @NotNull String clientId) {
-    return this.store.getSlicePrincipalSecrets().read(clientId);
+    return this.store
+        .getSlicePrincipalSecrets()
+        .read(this.store.buildPrincipalSecretsKey(clientId));
   }
 
   /** {@inheritDoc} */
@@ -453,7 +553,9 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
 
       // load the existing secrets
       lookupPrincipalSecrets =
-          this.store.getSlicePrincipalSecrets().read(principalSecrets.getPrincipalClientId());
+          this.store
+              .getSlicePrincipalSecrets()
+              .read(this.store.buildPrincipalSecretsKey(principalSecrets.getPrincipalClientId()));
     } while (lookupPrincipalSecrets != null);
 
     // write new principal secrets
@@ -473,7 +575,8 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
       boolean reset) {
 
     // load the existing secrets
-    PolarisPrincipalSecrets principalSecrets = this.store.getSlicePrincipalSecrets().read(clientId);
+    PolarisPrincipalSecrets principalSecrets =
+        this.store.getSlicePrincipalSecrets().read(this.store.buildPrincipalSecretsKey(clientId));
 
     // should be found
     callCtx
@@ -513,7 +616,8 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
   public void deletePrincipalSecrets(
       @NotNull PolarisCallContext callCtx, @NotNull String clientId, long principalId) {
     // load the existing secrets
-    PolarisPrincipalSecrets principalSecrets = this.store.getSlicePrincipalSecrets().read(clientId);
+    PolarisPrincipalSecrets principalSecrets =
+        this.store.getSlicePrincipalSecrets().read(this.store.buildPrincipalSecretsKey(clientId));
 
     // should be found
     callCtx
@@ -536,7 +640,7 @@ public class PolarisTreeMapMetaStoreSessionImpl implements PolarisMetaStoreSessi
             principalSecrets.getPrincipalId());
 
     // delete these secrets
-    this.store.getSlicePrincipalSecrets().delete(clientId);
+    this.store.getSlicePrincipalSecrets().delete(this.store.buildPrincipalSecretsKey(clientId));
   }
 
   /** {@inheritDoc} */
@@ -19,44 +19,72 @@ import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisEntityCore;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.entity.PolarisPrincipalSecrets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-/** Implements a simple in-memory store for Polaris, using tree-map */
+/**
+ * Implements a simple in-memory store for Polaris, using tree-map.
+ *
+ * <p>Concurrency is handled with copy-on-write snapshots. The committed content of all the slices
+ * is an immutable snapshot, atomically replaced by each write transaction when it commits. A read
+ * transaction simply works against the snapshot current when it started, hence readers never block
+ * and always see a consistent state. Write transactions are serialized. Slices are persistent maps,
+ * so each write builds a new version of its slice sharing everything but the path to the modified
+ * key with the previous one, and a transaction publishes the versions it built on commit.
+ */
 public class PolarisTreeMapStore {
 
   /** Slice of data, simple KV store. */
   public class Slice<T> {
-    // main KV slice
-    private final TreeMap<String, T> slice;
-
-    // if we need to rollback
-    private final TreeMap<String, T> undoSlice;
+    // position of this slice in the store snapshots
+    private final int sliceId;
 
     // the key builder
-    private final Function<T, String> buildKey;
+    private final Function<T, PolarisTreeMapKey> buildKey;
 
     // the key builder
     private final Function<T, T> copyRecord;
 
-    private Slice(Function<T, String> buildKey, Function<T, T> copyRecord) {
-      this.slice = new TreeMap<>();
-      this.undoSlice = new TreeMap<>();
+    private Slice(Function<T, PolarisTreeMapKey> buildKey, Function<T, T> copyRecord) {
+      this.sliceId = PolarisTreeMapStore.this.sliceCount++;
       this.buildKey = buildKey;
       this.copyRecord = copyRecord;
     }
 
-    public String buildKey(T value) {
+    public PolarisTreeMapKey buildKey(T value) {
       return this.buildKey.apply(value);
     }
 
+    /**
+     * @return the content of this slice as seen by the current transaction
+     */
+    @SuppressWarnings("unchecked")
+    private PersistentTreeMap<PolarisTreeMapKey, T> slice() {
+      return (PersistentTreeMap<PolarisTreeMapKey, T>)
+          PolarisTreeMapStore.this.ensureReadTr().slices[this.sliceId];
+    }
+
+    /**
+     * Replace the content of this slice in the current write transaction
+     *
+     * @param slice new content of the slice
+     */
+    private void updateSlice(PersistentTreeMap<PolarisTreeMapKey, T> slice) {
+      PolarisTreeMapStore.this.currentWriteTr().slices[this.sliceId] = slice;
+    }
+
     /**
      * read a value in the slice, will return null if not found
      *
@@ -64,9 +92,8 @@ public class PolarisTreeMapStore {
      *
      * @param key key for that value
      */
-    public T read(String key) {
-      PolarisTreeMapStore.this.ensureReadTr();
-      T value = this.slice.getOrDefault(key, null);
+    public T read(PolarisTreeMapKey key) {
+      T value = this.slice().get(key);
       return (value != null) ? this.copyRecord.apply(value) : null;
     }
 
@@ -75,15 +102,67 @@ public class PolarisTreeMapStore {
      *
      * @param prefix key prefix
      */
-    public List<T> readRange(String prefix) {
-      PolarisTreeMapStore.this.ensureReadTr();
-      // end of the key
-      String endKey =
-          prefix.substring(0, prefix.length() - 1)
-              + (char) (prefix.charAt(prefix.length() - 1) + 1);
-
-      // Get the sub-map with keys in the range [prefix, endKey)
-      return new ArrayList<>(slice.subMap(prefix, true, endKey, false).values());
+    public List<T> readRange(PolarisTreeMapKey prefix) {
+      return this.readRange(prefix, null, value -> true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * read a range of values in the slice corresponding to a key prefix, in key order, stopping as
+     * soon as limit values matching the filter have been read
+     *
+     * @param prefix key prefix
+     * @param startAfter if not null, only the keys greater than this one are read
+     * @param filter only values for which the filter returns true are returned
+     * @param limit max number of values to return
+     */
+    public List<T> readRange(
+        PolarisTreeMapKey prefix,
+        @Nullable PolarisTreeMapKey startAfter,
+        Predicate<T> filter,
+        int limit) {
+      // all the keys starting with the prefix sort right after it. Records are shared by all the
+      // snapshots which have not modified them, return copies so that they are never mutated
+      Iterable<Map.Entry<PolarisTreeMapKey, T>> range =
+          (startAfter == null || startAfter.compareTo(prefix) < 0)
+              ? this.slice().tail(prefix, true)
+              : this.slice().tail(startAfter, false);
+      List<T> values = new ArrayList<>();
+      for (Map.Entry<PolarisTreeMapKey, T> entry : range) {
+        if (values.size() >= limit || !prefix.isPrefixOf(entry.getKey())) {
+          break;
+        }
+        if (filter.test(entry.getValue())) {
+          values.add(this.copyRecord.apply(entry.getValue()));
+        }
+      }
+      return values;
+    }
+
+    /**
+     * read all the values in the slice whose key has the same ids as the specified key and a name
+     * starting with its name
+     *
+     * @param namePrefix key whose name is the prefix of the names to read
+     */
+    public List<T> readNameRange(PolarisTreeMapKey namePrefix) {
+      List<T> values = new ArrayList<>();
+      for (Map.Entry<PolarisTreeMapKey, T> entry : this.slice().tail(namePrefix, true)) {
+        if (!namePrefix.isNamePrefixOf(entry.getKey())) {
+          break;
+        }
+        values.add(this.copyRecord.apply(entry.getValue()));
+      }
+      return values;
+    }
+
+    /**
+     * check if the slice contains any value corresponding to a key prefix
+     *
+     * @param prefix key prefix
+     */
+    public boolean containsRange(PolarisTreeMapKey prefix) {
+      PolarisTreeMapKey firstKey = this.slice().ceilingKey(prefix);
+      return firstKey != null && prefix.isPrefixOf(firstKey);
     }
 
     /**
@@ -94,12 +173,8 @@ public class PolarisTreeMapStore {
     public void write(T value) {
       PolarisTreeMapStore.this.ensureReadWriteTr();
       T valueToWrite = (value != null) ? this.copyRecord.apply(value) : null;
-      String key = this.buildKey(valueToWrite);
-      // write undo if needs be
-      if (!this.undoSlice.containsKey(key)) {
-        this.undoSlice.put(key, this.slice.getOrDefault(key, null));
-      }
-      this.slice.put(key, valueToWrite);
+      PolarisTreeMapKey key = this.buildKey(valueToWrite);
+      this.updateSlice(this.slice().put(key, valueToWrite));
     }
 
     /**
@@ -107,15 +182,9 @@ public class PolarisTreeMapStore {
      *
      * @param key key for the record to remove
      */
-    public void delete(String key) {
+    public void delete(PolarisTreeMapKey key) {
       PolarisTreeMapStore.this.ensureReadWriteTr();
-      if (slice.containsKey(key)) {
-        // write undo if needs be
-        if (!this.undoSlice.containsKey(key)) {
-          this.undoSlice.put(key, this.slice.getOrDefault(key, null));
-        }
-        this.slice.remove(key);
-      }
+      this.updateSlice(this.slice().remove(key));
     }
 
     /**
@@ -123,7 +192,7 @@ public class PolarisTreeMapStore {
      *
      * @param prefix key prefix for the record to remove
      */
-    public void deleteRange(String prefix) {
+    public void deleteRange(PolarisTreeMapKey prefix) {
       PolarisTreeMapStore.this.ensureReadWriteTr();
       List<T> elements = this.readRange(prefix);
       for (T element : elements) {
@@ -132,9 +201,7 @@ public class PolarisTreeMapStore {
     }
 
     void deleteAll() {
-      PolarisTreeMapStore.this.ensureReadWriteTr();
-      slice.clear();
-      undoSlice.clear();
+      this.updateSlice(PersistentTreeMap.empty());
     }
 
     /**
@@ -145,23 +212,6 @@ public class PolarisTreeMapStore {
     public void delete(T value) {
       this.delete(this.buildKey(value));
     }
-
-    /** Rollback all changes made to this slice since transaction started */
-    private void rollback() {
-      PolarisTreeMapStore.this.ensureReadWriteTr();
-      undoSlice.forEach(
-          (key, value) -> {
-            if (value == null) {
-              slice.remove(key);
-            } else {
-              slice.put(key, value);
-            }
-          });
-    }
-
-    private void startWriteTransaction() {
-      undoSlice.clear();
-    }
   }
 
   /** Transaction on the tree-map store */
@@ -169,24 +219,44 @@ public class PolarisTreeMapStore {
     // if true, we have open a read/write transaction
     private final boolean isWrite;
 
+    // committed snapshot of all slices when the transaction was started
+    private final PersistentTreeMap<PolarisTreeMapKey, ?>[] snapshot;
+
+    // content of all slices as seen by this transaction. Same as the snapshot for read
+    // transactions, write transactions replace a slice by a new version each time they modify it
+    private final PersistentTreeMap<PolarisTreeMapKey, ?>[] slices;
+
     /** Constructor */
-    private Transaction(boolean isWrite) {
+    private Transaction(boolean isWrite, PersistentTreeMap<PolarisTreeMapKey, ?>[] snapshot) {
       this.isWrite = isWrite;
+      this.snapshot = snapshot;
+      this.slices = isWrite ? snapshot.clone() : snapshot;
     }
 
     public boolean isWrite() {
       return isWrite;
     }
+
+    /** Discard all changes made by this transaction */
+    private void rollback() {
+      System.arraycopy(this.snapshot, 0, this.slices, 0, this.snapshot.length);
+    }
   }
 
-  // synchronization lock to ensure that only one transaction can be started
-  private final Object lock;
+  // number of slices in the store
+  private int sliceCount = 0;
 
-  // transaction which was started, will be null if no transaction started
-  private Transaction tr;
+  // serialize write transactions, read transactions are never blocked
+  private final ReentrantLock writeLock;
+
+  // committed content of all slices, immutable once published
+  private volatile PersistentTreeMap<PolarisTreeMapKey, ?>[] committedSlices;
+
+  // transaction started by the current thread, will be null if no transaction started
+  private final ThreadLocal<Transaction> tr;
 
   // diagnostic services
-  private PolarisDiagnostics diagnosticServices;
+  private final PolarisDiagnostics diagnosticServices;
 
   // all entities
   private final Slice<PolarisBaseEntity> sliceEntities;
@@ -212,6 +282,9 @@ public class PolarisTreeMapStore {
   // slice to store principal secrets
   private final Slice<PolarisPrincipalSecrets> slicePrincipalSecrets;
 
+  // base locations of namespaces and table-like entities, indexed by catalog and location
+  private final Slice<PolarisEntityLocationRecord> sliceEntityLocations;
+
   // next id generator
   private final AtomicLong nextId = new AtomicLong();
 
@@ -223,10 +296,7 @@ public class PolarisTreeMapStore {
   public PolarisTreeMapStore(@NotNull PolarisDiagnostics diagnostics) {
 
     // the entities slice
-    this.sliceEntities =
-        new Slice<>(
-            entity -> String.format("%d::%d", entity.getCatalogId(), entity.getId()),
-            PolarisBaseEntity::new);
+    this.sliceEntities = new Slice<>(this::buildEntitiesKey, PolarisBaseEntity::new);
 
     // the entities active slice
     this.sliceEntitiesActive = new Slice<>(this::buildEntitiesActiveKey, PolarisBaseEntity::new);
@@ -235,11 +305,10 @@ public class PolarisTreeMapStore {
     this.sliceEntitiesDropped =
         new Slice<>(
             entity ->
-                String.format(
-                    "%d::%d::%s::%d::%d::%d",
+                PolarisTreeMapKey.named(
+                    entity.getName(),
                     entity.getCatalogId(),
                     entity.getParentId(),
-                    entity.getName(),
                     entity.getTypeCode(),
                     entity.getSubTypeCode(),
                     entity.getDropTimestamp()),
@@ -249,23 +318,18 @@ public class PolarisTreeMapStore {
     this.sliceEntitiesDroppedToPurge =
         new Slice<>(
             entity ->
-                String.format(
-                    "%d::%d::%s",
+                PolarisTreeMapKey.of(
                     entity.getToPurgeTimestamp(), entity.getCatalogId(), entity.getId()),
             PolarisBaseEntity::new);
 
     // change tracking
-    this.sliceEntitiesChangeTracking =
-        new Slice<>(
-            entity -> String.format("%d::%d", entity.getCatalogId(), entity.getId()),
-            PolarisBaseEntity::new);
+    this.sliceEntitiesChangeTracking = new Slice<>(this::buildEntitiesKey, PolarisBaseEntity::new);
 
     // grant records by securable
     this.sliceGrantRecords =
         new Slice<>(
             grantRecord ->
-                String.format(
-                    "%d::%d::%d::%d::%d",
+                PolarisTreeMapKey.of(
                     grantRecord.getSecurableCatalogId(),
                     grantRecord.getSecurableId(),
                     grantRecord.getGranteeCatalogId(),
@@ -277,8 +341,7 @@ public class PolarisTreeMapStore {
     this.sliceGrantRecordsByGrantee =
         new Slice<>(
             grantRecord ->
-                String.format(
-                    "%d::%d::%d::%d::%d",
+                PolarisTreeMapKey.of(
                     grantRecord.getGranteeCatalogId(),
                     grantRecord.getGranteeId(),
                     grantRecord.getSecurableCatalogId(),
@@ -289,13 +352,29 @@ public class PolarisTreeMapStore {
     // principal secrets
     slicePrincipalSecrets =
         new Slice<>(
-            principalSecrets -> String.format("%s", principalSecrets.getPrincipalClientId()),
+            principalSecrets ->
+                this.buildPrincipalSecretsKey(principalSecrets.getPrincipalClientId()),
             PolarisPrincipalSecrets::new);
 
-    // no transaction open yet
+    // entity locations, records are immutable
+    this.sliceEntityLocations = new Slice<>(this::buildEntityLocationsKey, record -> record);
+
+    // nothing committed yet, no transaction open yet
     this.diagnosticServices = diagnostics;
-    this.tr = null;
-    this.lock = new Object();
+    this.committedSlices = newEmptySlices(this.sliceCount);
+    this.tr = new ThreadLocal<>();
+    this.writeLock = new ReentrantLock();
+  }
+
+  /**
+   * @param sliceCount number of slices
+   * @return an empty content for all slices
+   */
+  @SuppressWarnings("unchecked")
+  private static PersistentTreeMap<PolarisTreeMapKey, ?>[] newEmptySlices(int sliceCount) {
+    PersistentTreeMap<PolarisTreeMapKey, ?>[] slices = new PersistentTreeMap[sliceCount];
+    Arrays.fill(slices, PersistentTreeMap.empty());
+    return slices;
   }
 
   /**
@@ -304,98 +383,149 @@ public class PolarisTreeMapStore {
    * @param coreEntity core entity
    * @return the key
    */
-  String buildEntitiesActiveKey(PolarisEntityCore coreEntity) {
-    return String.format(
-        "%d::%d::%d::%s",
+  PolarisTreeMapKey buildEntitiesActiveKey(PolarisEntityCore coreEntity) {
+    return this.buildEntitiesActiveKey(
         coreEntity.getCatalogId(),
         coreEntity.getParentId(),
         coreEntity.getTypeCode(),
         coreEntity.getName());
   }
 
+  /**
+   * Key for the entities_active slice
+   *
+   * @param catalogId catalog id
+   * @param parentId parent id
+   * @param typeCode entity type code
+   * @param name entity name
+   * @return the key
+   */
+  PolarisTreeMapKey buildEntitiesActiveKey(
+      long catalogId, long parentId, int typeCode, String name) {
+    return PolarisTreeMapKey.named(name, catalogId, parentId, typeCode);
+  }
+
   /**
    * Key for the entities slice
    *
    * @param coreEntity core entity
    * @return the key
    */
-  String buildEntitiesKey(PolarisEntityCore coreEntity) {
-    return String.format("%d::%d", coreEntity.getCatalogId(), coreEntity.getId());
+  PolarisTreeMapKey buildEntitiesKey(PolarisEntityCore coreEntity) {
+    return PolarisTreeMapKey.of(coreEntity.getCatalogId(), coreEntity.getId());
   }
 
   /**
-   * Build key from a set of value pairs
+   * Key for the entity locations slice. The id of the entity follows its location in the name, so
+   * that several entities can share a location, separated from it by a character which sorts before
+   * any character of a location. Hence the records of a location and then those of all the
+   * locations under it sort right after a key named after that location
    *
-   * @param keys string/long/integer values
-   * @return unique string identifier
+   * @param locationRecord location record
+   * @return the key
    */
-  String buildKeyComposite(Object... keys) {
-    StringBuilder result = new StringBuilder();
-    for (Object key : keys) {
-      if (result.length() != 0) {
-        result.append("::");
-      }
-      result.append(key.toString());
-    }
-    return result.toString();
+  PolarisTreeMapKey buildEntityLocationsKey(PolarisEntityLocationRecord locationRecord) {
+    return PolarisTreeMapKey.named(
+        buildEntityLocationsPrefix(locationRecord.getLocation(), true) + locationRecord.getId(),
+        locationRecord.getCatalogId());
   }
 
   /**
-   * Build prefix key from a set of value pairs; prefix key will end with the key separator
+   * @param normalizedLocation a normalized location
+   * @param exact if true, only match the records of that location, else also match the records of
+   *     all the locations under it
+   * @return the name prefix of the keys in the entity locations slice matching that location
+   */
+  static String buildEntityLocationsPrefix(String normalizedLocation, boolean exact) {
+    return exact ? normalizedLocation + '\0' : normalizedLocation;
+  }
+
+  /**
+   * Key for the principal secrets slice
    *
-   * @param keys string/long/integer values
-   * @return unique string identifier
+   * @param clientId principal client id
+   * @return the key
    */
-  String buildPrefixKeyComposite(Object... keys) {
-    StringBuilder result = new StringBuilder();
-    for (Object key : keys) {
-      result.append(key.toString());
-      result.append("::");
-    }
-    return result.toString();
+  PolarisTreeMapKey buildPrincipalSecretsKey(String clientId) {
+    return PolarisTreeMapKey.named(clientId);
+  }
+
+  /**
+   * Build key from a set of ids
+   *
+   * @param ids ids
+   * @return unique key
+   */
+  PolarisTreeMapKey buildKeyComposite(long... ids) {
+    return PolarisTreeMapKey.of(ids);
+  }
+
+  /**
+   * Build prefix key from a set of ids, matching all keys starting with these ids
+   *
+   * @param ids ids
+   * @return prefix key
+   */
+  PolarisTreeMapKey buildPrefixKeyComposite(long... ids) {
+    return PolarisTreeMapKey.of(ids);
+  }
+
+  /**
+   * Ensure that no transaction is running on this thread. Called before a transaction is started,
+   * so that a failed attempt to nest one leaves the state of the outer transaction untouched
+   *
+   * @param diagnostics diagnostic services of the caller
+   */
+  private void checkNoTransaction(PolarisDiagnostics diagnostics) {
+    diagnostics.check(this.tr.get() == null, "cannot nest transaction");
   }
 
-  /** Start a read transaction */
+  /** Start a read transaction on the latest committed snapshot */
   private void startReadTransaction() {
-    this.diagnosticServices.check(this.tr == null, "cannot nest transaction");
-    this.tr = new Transaction(false);
+    this.tr.set(new Transaction(false, this.committedSlices));
   }
 
-  /** Start a write transaction */
+  /** Start a write transaction, must hold the write lock */
   private void startWriteTransaction() {
-    this.diagnosticServices.check(this.tr == null, "cannot nest transaction");
-    this.tr = new Transaction(true);
-    this.sliceEntities.startWriteTransaction();
-    this.sliceEntitiesActive.startWriteTransaction();
-    this.sliceEntitiesDropped.startWriteTransaction();
-    this.sliceEntitiesDroppedToPurge.startWriteTransaction();
-    this.sliceEntitiesChangeTracking.startWriteTransaction();
-    this.sliceGrantRecords.startWriteTransaction();
-    this.sliceGrantRecordsByGrantee.startWriteTransaction();
-    this.slicePrincipalSecrets.startWriteTransaction();
+    this.tr.set(new Transaction(true, this.committedSlices));
+  }
+
+  /** Commit the current write transaction, publishing a new snapshot */
+  private void commit() {
+    this.committedSlices = this.currentWriteTr().slices;
   }
 
   /** Rollback transaction */
   void rollback() {
-    this.sliceEntities.rollback();
-    this.sliceEntitiesActive.rollback();
-    this.sliceEntitiesDropped.rollback();
-    this.sliceEntitiesDroppedToPurge.rollback();
-    this.sliceEntitiesChangeTracking.rollback();
-    this.sliceGrantRecords.rollback();
-    this.sliceGrantRecordsByGrantee.rollback();
-    this.slicePrincipalSecrets.rollback();
+    this.currentWriteTr().rollback();
   }
 
   /** Ensure that a read/write FDB transaction has been started */
   public void ensureReadWriteTr() {
+    this.currentWriteTr();
+  }
+
+  /**
+   * Ensure that a read/write FDB transaction has been started
+   *
+   * @return the current transaction
+   */
+  private Transaction currentWriteTr() {
+    Transaction transaction = this.tr.get();
     this.diagnosticServices.check(
-        this.tr != null && this.tr.isWrite(), "no_write_transaction_started");
+        transaction != null && transaction.isWrite(), "no_write_transaction_started");
+    return transaction;
   }
 
-  /** Ensure that a read FDB transaction has been started */
-  private void ensureReadTr() {
-    this.diagnosticServices.checkNotNull(this.tr, "no_read_transaction_started");
+  /**
+   * Ensure that a read FDB transaction has been started
+   *
+   * @return the current transaction
+   */
+  private Transaction ensureReadTr() {
+    Transaction transaction = this.tr.get();
+    this.diagnosticServices.checkNotNull(transaction, "no_read_transaction_started");
+    return transaction;
   }
 
   /**
@@ -408,20 +538,17 @@ public class PolarisTreeMapStore {
   public <T> T runInTransaction(
       @NotNull PolarisCallContext callCtx, @NotNull Supplier<T> transactionCode) {
 
-    synchronized (lock) {
-      // execute transaction
-      try {
-        // init diagnostic services
-        this.diagnosticServices = callCtx.getDiagServices();
-        this.startWriteTransaction();
-        return transactionCode.get();
-      } catch (Throwable e) {
-        this.rollback();
-        throw e;
-      } finally {
-        this.tr = null;
-        this.diagnosticServices = null;
-      }
+    this.checkNoTransaction(callCtx.getDiagServices());
+    this.writeLock.lock();
+    try {
+      // execute transaction, changes are only visible to others once committed
+      this.startWriteTransaction();
+      T result = transactionCode.get();
+      this.commit();
+      return result;
+    } finally {
+      this.tr.remove();
+      this.writeLock.unlock();
     }
   }
 
@@ -434,21 +561,16 @@ public class PolarisTreeMapStore {
   public void runActionInTransaction(
       @NotNull PolarisCallContext callCtx, @NotNull Runnable transactionCode) {
 
-    synchronized (lock) {
-
-      // execute transaction
-      try {
-        // init diagnostic services
-        this.diagnosticServices = callCtx.getDiagServices();
-        this.startWriteTransaction();
-        transactionCode.run();
-      } catch (Throwable e) {
-        this.rollback();
-        throw e;
-      } finally {
-        this.tr = null;
-        this.diagnosticServices = null;
-      }
+    this.checkNoTransaction(callCtx.getDiagServices());
+    this.writeLock.lock();
+    try {
+      // execute transaction, changes are only visible to others once committed
+      this.startWriteTransaction();
+      transactionCode.run();
+      this.commit();
+    } finally {
+      this.tr.remove();
+      this.writeLock.unlock();
     }
   }
 
@@ -461,18 +583,14 @@ public class PolarisTreeMapStore {
    */
   public <T> T runInReadTransaction(
       @NotNull PolarisCallContext callCtx, @NotNull Supplier<T> transactionCode) {
-    synchronized (lock) {
-
-      // execute transaction
-      try {
-        // init diagnostic services
-        this.diagnosticServices = callCtx.getDiagServices();
-        this.startReadTransaction();
-        return transactionCode.get();
-      } finally {
-        this.tr = null;
-        this.diagnosticServices = null;
-      }
+
+    // execute transaction against the current snapshot, no need to lock
+    this.checkNoTransaction(callCtx.getDiagServices());
+    try {
+      this.startReadTransaction();
+      return transactionCode.get();
+    } finally {
+      this.tr.remove();
     }
   }
 
@@ -484,18 +602,14 @@ public class PolarisTreeMapStore {
    */
   public void runActionInReadTransaction(
       @NotNull PolarisCallContext callCtx, @NotNull Runnable transactionCode) {
-    synchronized (lock) {
-
-      // execute transaction
-      try {
-        // init diagnostic services
-        this.diagnosticServices = callCtx.getDiagServices();
-        this.startReadTransaction();
-        transactionCode.run();
-      } finally {
-        this.tr = null;
-        this.diagnosticServices = null;
-      }
+
+    // execute transaction against the current snapshot, no need to lock
+    this.checkNoTransaction(callCtx.getDiagServices());
+    try {
+      this.startReadTransaction();
+      transactionCode.run();
+    } finally {
+      this.tr.remove();
     }
   }
 
@@ -527,6 +641,10 @@ public class PolarisTreeMapStore {
     return sliceGrantRecordsByGrantee;
   }
 
+  public Slice<PolarisEntityLocationRecord> getSliceEntityLocations() {
+    return sliceEntityLocations;
+  }
+
   public Slice<PolarisPrincipalSecrets> getSlicePrincipalSecrets() {
     return slicePrincipalSecrets;
   }
@@ -540,6 +658,16 @@ public class PolarisTreeMapStore {
     return this.nextId.incrementAndGet();
   }
 
+  /**
+   * Reserve a range of sequence numbers
+   *
+   * @param count number of sequence numbers to reserve
+   * @return first id of the reserved range, the range holds the next count ids
+   */
+  public long reserveSequences(int count) {
+    return this.nextId.getAndAdd(count) + 1;
+  }
+
   /** Clear all slices from data */
   void deleteAll() {
     this.ensureReadWriteTr();
@@ -551,5 +679,6 @@ public class PolarisTreeMapStore {
     this.sliceGrantRecordsByGrantee.deleteAll();
     this.sliceGrantRecords.deleteAll();
     this.slicePrincipalSecrets.deleteAll();
+    this.sliceEntityLocations.deleteAll();
   }
 }
@@ -16,6 +16,7 @@
 package io.polaris.core.persistence;
 
 import com.google.common.collect.ImmutableList;
+import io.polaris.core.auth.SecurablePrivileges;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisGrantRecord;
 import io.polaris.core.persistence.cache.EntityCacheEntry;
@@ -33,6 +34,9 @@ public class ResolvedPolarisEntity {
   // these are the grants like TABLE_READ_PROPERTIES, NAMESPACE_LIST, etc.
   private final List<PolarisGrantRecord> grantRecordsAsSecurable;
 
+  // the privileges of grantRecordsAsSecurable indexed by grantee, null if those are null
+  private final SecurablePrivileges privilegesAsSecurable;
+
   public ResolvedPolarisEntity(
       PolarisEntity entity,
       List<PolarisGrantRecord> grantRecordsAsGrantee,
@@ -42,12 +46,15 @@ public class ResolvedPolarisEntity {
     // expected.
     this.grantRecordsAsGrantee = grantRecordsAsGrantee;
     this.grantRecordsAsSecurable = grantRecordsAsSecurable;
+    this.privilegesAsSecurable =
+        grantRecordsAsSecurable == null ? null : SecurablePrivileges.of(grantRecordsAsSecurable);
   }
 
   public ResolvedPolarisEntity(EntityCacheEntry cacheEntry) {
     this.entity = PolarisEntity.of(cacheEntry.getEntity());
     this.grantRecordsAsGrantee = ImmutableList.copyOf(cacheEntry.getGrantRecordsAsGrantee());
     this.grantRecordsAsSecurable = ImmutableList.copyOf(cacheEntry.getGrantRecordsAsSecurable());
+    this.privilegesAsSecurable = cacheEntry.getPrivilegesAsSecurable();
   }
 
   public PolarisEntity getEntity() {
@@ -64,6 +71,11 @@ public class ResolvedPolarisEntity {
     return grantRecordsAsSecurable;
   }
 
+  /** The privileges granted on this entity as the securable, by grantee. */
+  public SecurablePrivileges getPrivilegesAsSecurable() {
+    return privilegesAsSecurable;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -18,20 +18,39 @@ package io.polaris.core.persistence.cache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.PolarisChangeTrackingVersions;
+import io.polaris.core.entity.PolarisEntityId;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisGrantRecord;
+import io.polaris.core.persistence.EntityChangeListener;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
+import java.time.Clock;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /** The entity cache, can be private or shared */
-public class EntityCache {
+public class EntityCache implements EntityChangeListener {
+  private static final Logger LOG = LoggerFactory.getLogger(EntityCache.class);
 
   // cache mode
   private EntityCacheMode cacheMode;
@@ -45,6 +64,18 @@ public class EntityCache {
   // index by name
   private final AbstractMap<EntityCacheByNameKey, EntityCacheEntry> byName;
 
+  // entries served without validation which should be revalidated in the background, by id
+  private final Map<Long, EntityCacheEntry> pendingRevalidation;
+
+  // true while a background revalidation pass has been submitted and has not yet completed
+  private final AtomicBoolean revalidationInProgress;
+
+  // supplies independent meta store sessions to the background revalidation, null if disabled
+  private volatile Supplier<PolarisMetaStoreSession> revalidationSessionSupplier;
+
+  // executor running the background revalidation passes, null if disabled
+  private volatile ExecutorService revalidationExecutor;
+
   /**
    * Constructor. Cache can be private or shared
    *
@@ -55,6 +86,10 @@ public class EntityCache {
     // by name cache
     this.byName = new ConcurrentHashMap<>();
 
+    // nothing to revalidate yet
+    this.pendingRevalidation = new ConcurrentHashMap<>();
+    this.revalidationInProgress = new AtomicBoolean(false);
+
     // When an entry is removed, we simply remove it from the byName map
     RemovalListener<Long, EntityCacheEntry> removalListener =
         (key, value, cause) -> {
@@ -99,6 +134,26 @@ public class EntityCache {
     this.byName.remove(nameKey, cacheEntry);
   }
 
+  /**
+   * Invalidate any cached copy of an entity whose versions have just been changed on this node, so
+   * that it is reloaded on next access instead of being served stale.
+   *
+   * @param callCtx call context
+   * @param entity the entity which has changed
+   */
+  @Override
+  public void onEntityChanged(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity) {
+    // no need to revalidate it anymore
+    this.pendingRevalidation.remove(entity.getId());
+
+    // remove the cached entry, if any
+    EntityCacheEntry cacheEntry = this.getEntityById(entity.getId());
+    if (cacheEntry != null) {
+      this.removeCacheEntry(cacheEntry);
+    }
+  }
+
   /**
    * Cache new entry
    *
@@ -400,6 +455,7 @@ public class EntityCache {
       this.cacheNewEntry(entry);
     } else {
       cacheHit = true;
+      entry.updateLastAccess();
     }
 
     // return what we found
@@ -459,9 +515,239 @@ public class EntityCache {
       this.cacheNewEntry(entry);
     } else {
       cacheHit = true;
+      entry.updateLastAccess();
     }
 
     // return what we found
     return new EntityCacheLookupResult(entry, cacheHit);
   }
+
+  /**
+   * Enable background revalidation of cache entries which were served without being validated
+   * against the backend, see {@link #scheduleRevalidation(PolarisCallContext, EntityCacheEntry)}
+   *
+   * @param sessionSupplier must return a new independent metastore session on each invocation, the
+   *     background revalidation cannot use the session of the request which scheduled it
+   */
+  public synchronized void enableBackgroundRevalidation(
+      @NotNull Supplier<PolarisMetaStoreSession> sessionSupplier) {
+    this.revalidationSessionSupplier = sessionSupplier;
+    if (this.revalidationExecutor == null) {
+      this.revalidationExecutor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("entity-cache-revalidation-%d")
+                  .build());
+    }
+  }
+
+  /** Disable the background revalidation, if enabled, and shut down its executor */
+  public synchronized void disableBackgroundRevalidation() {
+    ExecutorService executor = this.revalidationExecutor;
+    this.revalidationExecutor = null;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    this.pendingRevalidation.clear();
+  }
+
+  /**
+   * Schedule the asynchronous revalidation of a cache entry which has been served without being
+   * validated against the backend. All entries scheduled while a revalidation pass is running are
+   * validated together by the next pass, using a single change tracking lookup. This is a no-op if
+   * background revalidation has not been enabled.
+   *
+   * @param callContext the call context of the request, only used for its diagnostic services,
+   *     configuration store and clock
+   * @param cacheEntry cache entry to revalidate
+   */
+  public void scheduleRevalidation(
+      @NotNull PolarisCallContext callContext, @NotNull EntityCacheEntry cacheEntry) {
+    ExecutorService executor = this.revalidationExecutor;
+    if (executor == null) {
+      return;
+    }
+
+    // add it to the next batch
+    this.pendingRevalidation.put(cacheEntry.getEntity().getId(), cacheEntry);
+
+    // submit a revalidation pass if none is running
+    if (this.revalidationInProgress.compareAndSet(false, true)) {
+      PolarisDiagnostics diagnostics = callContext.getDiagServices();
+      PolarisConfigurationStore configurationStore = callContext.getConfigurationStore();
+      Clock clock = callContext.getClock();
+      try {
+        executor.execute(
+            () -> this.runBackgroundRevalidation(diagnostics, configurationStore, clock));
+      } catch (RejectedExecutionException e) {
+        // background revalidation was disabled concurrently
+        this.revalidationInProgress.set(false);
+      }
+    }
+  }
+
+  /**
+   * Body of the background revalidation, runs until there is nothing left to revalidate
+   *
+   * @param diagnostics diagnostic services
+   * @param configurationStore configuration store
+   * @param clock clock
+   */
+  private void runBackgroundRevalidation(
+      @NotNull PolarisDiagnostics diagnostics,
+      @NotNull PolarisConfigurationStore configurationStore,
+      @NotNull Clock clock) {
+    do {
+      try {
+        PolarisCallContext backgroundContext =
+            new PolarisCallContext(
+                this.revalidationSessionSupplier.get(), diagnostics, configurationStore, clock);
+        while (!this.pendingRevalidation.isEmpty()) {
+          this.revalidatePending(backgroundContext);
+        }
+      } catch (RuntimeException e) {
+        // entries we failed to revalidate will be validated synchronously once they are too stale
+        LOG.warn("Background revalidation of the entity cache failed", e);
+        this.pendingRevalidation.clear();
+      } finally {
+        this.revalidationInProgress.set(false);
+      }
+
+      // an entry may have been scheduled after we found the pending set empty but before we
+      // released the flag, in which case nobody else will submit a pass for it
+    } while (!this.pendingRevalidation.isEmpty()
+        && this.revalidationInProgress.compareAndSet(false, true));
+  }
+
+  /**
+   * Validate now, in one single change tracking lookup, all the entries which have been scheduled
+   * for revalidation. Entries which are up-to-date are marked as validated, the others are
+   * refreshed or removed from the cache if the entity has been purged.
+   *
+   * @param callContext call context, its meta store session is used to lookup the versions
+   */
+  public void revalidatePending(@NotNull PolarisCallContext callContext) {
+    // drain the set of entries to validate
+    List<EntityCacheEntry> toValidate = new ArrayList<>(this.pendingRevalidation.size());
+    for (Long entityId : this.pendingRevalidation.keySet()) {
+      EntityCacheEntry cacheEntry = this.pendingRevalidation.remove(entityId);
+      if (cacheEntry != null) {
+        toValidate.add(cacheEntry);
+      }
+    }
+
+    // nothing to do
+    if (toValidate.isEmpty()) {
+      return;
+    }
+
+    // now get the current backend versions of all these entities
+    List<PolarisEntityId> entityIds =
+        toValidate.stream()
+            .map(
+                cacheEntry ->
+                    new PolarisEntityId(
+                        cacheEntry.getEntity().getCatalogId(), cacheEntry.getEntity().getId()))
+            .toList();
+    PolarisMetaStoreManager.ChangeTrackingResult changeTrackingResult =
+        this.metaStoreManager.loadEntitiesChangeTracking(callContext, entityIds);
+
+    // refresh any entry which is not fresh, remove the ones which have been purged
+    Iterator<EntityCacheEntry> entryIterator = toValidate.iterator();
+    Iterator<PolarisChangeTrackingVersions> versionIterator =
+        changeTrackingResult.getChangeTrackingVersions().iterator();
+    while (entryIterator.hasNext()) {
+      EntityCacheEntry cacheEntry = entryIterator.next();
+      PolarisChangeTrackingVersions versions = versionIterator.next();
+      PolarisBaseEntity entity = cacheEntry.getEntity();
+      if (versions == null) {
+        this.removeCacheEntry(cacheEntry);
+      } else if (entity.getEntityVersion() == versions.getEntityVersion()
+          && entity.getGrantRecordsVersion() == versions.getGrantRecordsVersion()) {
+        cacheEntry.markValidated();
+      } else {
+        this.getAndRefreshIfNeeded(
+            callContext, entity, versions.getEntityVersion(), versions.getGrantRecordsVersion());
+      }
+    }
+  }
+
+  /**
+   * Validate all the entries currently in the cache against the change tracking versions of their
+   * entity, in batches. Entries which are up-to-date are marked as validated, the others are
+   * removed from the cache and will be reloaded on next access. Used to pick up changes written by
+   * other nodes.
+   *
+   * @param callContext call context, its meta store session is used to lookup the versions
+   * @param batchSize maximum number of entities to lookup in a single change tracking call
+   * @return the number of entries which were removed from the cache
+   */
+  public int validateCachedEntries(@NotNull PolarisCallContext callContext, int batchSize) {
+    return this.validateCachedEntries(callContext, batchSize, null);
+  }
+
+  /**
+   * Validate the entries of the cache which have been accessed since the specified time, as in
+   * {@link #validateCachedEntries(PolarisCallContext, int)}. The other entries are not marked as
+   * validated, so once they are older than the maximum staleness they are validated when they are
+   * next used.
+   *
+   * @param callContext call context, its meta store session is used to lookup the versions
+   * @param batchSize maximum number of entities to lookup in a single change tracking call
+   * @param accessedSinceNanoTimestamp if not null, only the entries accessed since that {@link
+   *     System#nanoTime()} are validated
+   * @return the number of entries which were removed from the cache
+   */
+  public int validateCachedEntries(
+      @NotNull PolarisCallContext callContext,
+      int batchSize,
+      @Nullable Long accessedSinceNanoTimestamp) {
+    callContext.getDiagServices().check(batchSize > 0, "invalid_batch_size", "{}", batchSize);
+
+    // snapshot of the entries, entries added after that were just loaded so are up-to-date
+    List<EntityCacheEntry> cacheEntries =
+        this.byId.asMap().values().stream()
+            .filter(
+                cacheEntry ->
+                    accessedSinceNanoTimestamp == null
+                        || cacheEntry.getLastAccessedNanoTimestamp() - accessedSinceNanoTimestamp
+                            >= 0)
+            .toList();
+
+    int removed = 0;
+    for (int start = 0; start < cacheEntries.size(); start += batchSize) {
+      List<EntityCacheEntry> batch =
+          cacheEntries.subList(start, Math.min(start + batchSize, cacheEntries.size()));
+      List<PolarisEntityId> entityIds =
+          batch.stream()
+              .map(
+                  cacheEntry ->
+                      new PolarisEntityId(
+                          cacheEntry.getEntity().getCatalogId(), cacheEntry.getEntity().getId()))
+              .toList();
+      List<PolarisChangeTrackingVersions> versionsList =
+          this.metaStoreManager
+              .loadEntitiesChangeTracking(callContext, entityIds)
+              .getChangeTrackingVersions();
+
+      // remove any entry which is not fresh anymore or whose entity has been purged
+      for (int i = 0; i < batch.size(); i++) {
+        EntityCacheEntry cacheEntry = batch.get(i);
+        PolarisChangeTrackingVersions versions = versionsList.get(i);
+        PolarisBaseEntity entity = cacheEntry.getEntity();
+        if (versions != null
+            && entity.getEntityVersion() >= versions.getEntityVersion()
+            && entity.getGrantRecordsVersion() >= versions.getGrantRecordsVersion()) {
+          cacheEntry.markValidated();
+        } else {
+          this.pendingRevalidation.remove(entity.getId(), cacheEntry);
+          this.removeCacheEntry(cacheEntry);
+          removed++;
+        }
+      }
+    }
+
+    return removed;
+  }
 }
@@ -17,6 +17,7 @@ package io.polaris.core.persistence.cache;
 
 import com.google.common.collect.ImmutableList;
 import io.polaris.core.PolarisDiagnostics;
+import io.polaris.core.auth.SecurablePrivileges;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisGrantRecord;
 import java.util.List;
@@ -28,8 +29,11 @@ public class EntityCacheEntry {
   // epoch time (ns) when the cache entry was added to the cache
   private long createdOnNanoTimestamp;
 
-  // epoch time (ns) when the cache entry was added to the cache
-  private long lastAccessedNanoTimestamp;
+  // epoch time (ns) when the cache entry was last accessed
+  private volatile long lastAccessedNanoTimestamp;
+
+  // epoch time (ns) when the cache entry was last known to be up-to-date with the backend
+  private volatile long lastValidatedNanoTimestamp;
 
   // the entity which have been cached.
   private PolarisBaseEntity entity;
@@ -41,6 +45,9 @@ public class EntityCacheEntry {
   // the grants on this securable.
   private List<PolarisGrantRecord> grantRecords;
 
+  // the privileges granted on this entity as a securable, indexed once for all the authz checks
+  private final SecurablePrivileges privilegesAsSecurable;
+
   /**
    * Constructor used when an entry is initially created after loading the entity and its grants
    * from the backend.
@@ -68,6 +75,9 @@ public class EntityCacheEntry {
     // last accessed time is now
     this.lastAccessedNanoTimestamp = System.nanoTime();
 
+    // the entity was just loaded from the backend, so it is up-to-date
+    this.lastValidatedNanoTimestamp = this.lastAccessedNanoTimestamp;
+
     // we copy all attributes of the entity to avoid any contamination
     this.entity = new PolarisBaseEntity(entity);
 
@@ -89,6 +99,7 @@ public class EntityCacheEntry {
 
     // the grants
     this.grantRecords = ImmutableList.copyOf(grantRecords);
+    this.privilegesAsSecurable = SecurablePrivileges.of(getGrantRecordsAsSecurable());
   }
 
   public long getCreatedOnNanoTimestamp() {
@@ -99,6 +110,10 @@ public class EntityCacheEntry {
     return lastAccessedNanoTimestamp;
   }
 
+  public long getLastValidatedNanoTimestamp() {
+    return lastValidatedNanoTimestamp;
+  }
+
   public @NotNull PolarisBaseEntity getEntity() {
     return entity;
   }
@@ -117,7 +132,17 @@ public class EntityCacheEntry {
         .toList();
   }
 
+  /** The privileges granted on this entity as a securable, by grantee */
+  public @NotNull SecurablePrivileges getPrivilegesAsSecurable() {
+    return privilegesAsSecurable;
+  }
+
   public void updateLastAccess() {
     this.lastAccessedNanoTimestamp = System.nanoTime();
   }
+
+  /** Record that this entry has just been found to be up-to-date with the backend */
+  public void markValidated() {
+    this.lastValidatedNanoTimestamp = System.nanoTime();
+  }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence.cache;
+
+import io.polaris.core.persistence.EntityChangeListener;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
+import java.io.Closeable;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Channel propagating entity changes to the entity caches of all the nodes serving the same realm,
+ * so that a change written on one node evicts the stale copies cached by the other nodes without
+ * waiting for them to validate those copies against the backend.
+ *
+ * <p>Changes written on this node are published through {@link
+ * EntityChangeListener#onEntityChanged}, the channel being registered as a change listener with the
+ * meta store manager. Each node subscribes its own cache with {@link #subscribe}.
+ */
+public interface EntityCacheInvalidationChannel extends EntityChangeListener, Closeable {
+
+  /**
+   * Subscribe an entity cache to this channel. From now on, entries of this cache will be evicted
+   * when their entity is changed on any node.
+   *
+   * @param cache the entity cache to keep up-to-date
+   * @param sessionSupplier must return a new independent metastore session on each invocation, for
+   *     implementations which need to read the backend outside of any request
+   */
+  void subscribe(
+      @NotNull EntityCache cache, @NotNull Supplier<PolarisMetaStoreSession> sessionSupplier);
+
+  /** Stop delivering invalidations and release any resource held by this channel */
+  @Override
+  void close();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence.cache;
+
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Invalidation channel delivering changes synchronously to all the caches subscribed in the same
+ * JVM. Mostly useful for testing, where several entity managers over the same meta store play the
+ * role of several nodes.
+ *
+ * <p>Invalidations are delivered once the transaction writing the change has committed, so a
+ * subscribed cache reloading the evicted entity gets the new version.
+ */
+public class InMemoryEntityCacheInvalidationChannel implements EntityCacheInvalidationChannel {
+
+  // all the caches subscribed to this channel
+  private final List<EntityCache> subscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void subscribe(
+      @NotNull EntityCache cache, @NotNull Supplier<PolarisMetaStoreSession> sessionSupplier) {
+    this.subscribers.add(cache);
+  }
+
+  @Override
+  public void onEntityChanged(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity) {
+    for (EntityCache cache : this.subscribers) {
+      cache.onEntityChanged(callCtx, entity);
+    }
+  }
+
+  @Override
+  public void close() {
+    this.subscribers.clear();
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence.cache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.PolarisDiagnostics;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invalidation channel which does not need any messaging infrastructure between the nodes: each
+ * node periodically compares the versions of the entities it has in its cache with the versions
+ * recorded in the ENTITIES_CHANGE_TRACKING slice, evicting the entries which have changed. Entries
+ * which are still up-to-date are marked as validated, so that they can keep being served without
+ * validation when bounded staleness is enabled.
+ *
+ * <p>Only the entries accessed since the previous poll are compared, in batches, so the cost of a
+ * poll depends on the entities in use and not on the size of the cache. An entry which is not in
+ * use is validated when it is next used, once it is older than the maximum staleness.
+ *
+ * <p>Nothing needs to be published, the change tracking slice is written as part of the change.
+ */
+public class PollingEntityCacheInvalidationChannel implements EntityCacheInvalidationChannel {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PollingEntityCacheInvalidationChannel.class);
+
+  // interval between two polls of the backend, in milliseconds
+  private final long pollingIntervalMs;
+
+  // maximum number of entities validated by a single change tracking lookup
+  private final int batchSize;
+
+  // diagnostic services used by the polling thread
+  private final PolarisDiagnostics diagnostics;
+
+  // runs the polling of all the subscribed caches
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Constructor
+   *
+   * @param pollingIntervalMs interval between two polls of the backend, in milliseconds
+   * @param batchSize maximum number of entities validated by a single change tracking lookup
+   */
+  public PollingEntityCacheInvalidationChannel(long pollingIntervalMs, int batchSize) {
+    this.pollingIntervalMs = pollingIntervalMs;
+    this.batchSize = batchSize;
+    this.diagnostics = new PolarisDefaultDiagServiceImpl();
+    this.diagnostics.check(pollingIntervalMs > 0, "invalid_polling_interval");
+    this.diagnostics.check(batchSize > 0, "invalid_batch_size");
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("entity-cache-invalidation-%d")
+                .build());
+  }
+
+  @Override
+  public void subscribe(
+      @NotNull EntityCache cache, @NotNull Supplier<PolarisMetaStoreSession> sessionSupplier) {
+    // the entries cached before the first poll may have been accessed before the subscription
+    AtomicReference<Long> previousPollNanoTimestamp = new AtomicReference<>();
+    this.executor.scheduleWithFixedDelay(
+        () -> this.poll(cache, sessionSupplier, previousPollNanoTimestamp),
+        this.pollingIntervalMs,
+        this.pollingIntervalMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Validate once the entries of the specified cache accessed since the previous poll
+   *
+   * @param cache the entity cache
+   * @param sessionSupplier supplies the session used to read the change tracking slice
+   * @param previousPollNanoTimestamp when the previous poll of that cache started, null for the
+   *     first poll, which validates all the entries. Updated to the start of this poll
+   */
+  private void poll(
+      @NotNull EntityCache cache,
+      @NotNull Supplier<PolarisMetaStoreSession> sessionSupplier,
+      @NotNull AtomicReference<Long> previousPollNanoTimestamp) {
+    try {
+      PolarisCallContext pollingContext =
+          new PolarisCallContext(sessionSupplier.get(), this.diagnostics);
+      long pollNanoTimestamp = System.nanoTime();
+      int removed =
+          cache.validateCachedEntries(
+              pollingContext, this.batchSize, previousPollNanoTimestamp.get());
+      previousPollNanoTimestamp.set(pollNanoTimestamp);
+      if (removed > 0) {
+        LOG.debug("Evicted {} stale entries from the entity cache", removed);
+      }
+    } catch (RuntimeException e) {
+      // never let an exception cancel the next polls
+      LOG.warn("Failed to poll entity changes", e);
+    }
+  }
+
+  @Override
+  public void onEntityChanged(
+      @NotNull PolarisCallContext callCtx, @NotNull PolarisBaseEntity entity) {
+    // nothing to publish, the other nodes will see the new versions in the change tracking slice
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+}
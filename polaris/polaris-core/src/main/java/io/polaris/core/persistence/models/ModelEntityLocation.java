@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence.models;
+
+import io.polaris.core.entity.PolarisEntityLocationRecord;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * EntityLocation model representing the base location of a namespace or of a table-like entity.
+ * This is used to exchange entity location information with ENTITY_LOCATIONS table
+ */
+@Entity
+@Table(name = "ENTITY_LOCATIONS")
+public class ModelEntityLocation {
+  // entity catalog id
+  @Id private long catalogId;
+
+  // normalized base location of the entity
+  @Id
+  @Column(length = 2048)
+  private String location;
+
+  // id of the entity
+  @Id private long id;
+
+  // parent id of the entity
+  private long parentId;
+
+  // name of the entity
+  private String name;
+
+  // code representing the type of that entity
+  private int typeCode;
+
+  public long getCatalogId() {
+    return catalogId;
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getParentId() {
+    return parentId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getTypeCode() {
+    return typeCode;
+  }
+
+  public void update(PolarisEntityLocationRecord record) {
+    if (record == null) return;
+
+    this.parentId = record.getParentId();
+    this.name = record.getName();
+    this.typeCode = record.getTypeCode();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private final ModelEntityLocation entity;
+
+    private Builder() {
+      entity = new ModelEntityLocation();
+    }
+
+    public Builder catalogId(long catalogId) {
+      entity.catalogId = catalogId;
+      return this;
+    }
+
+    public Builder location(String location) {
+      entity.location = location;
+      return this;
+    }
+
+    public Builder id(long id) {
+      entity.id = id;
+      return this;
+    }
+
+    public Builder parentId(long parentId) {
+      entity.parentId = parentId;
+      return this;
+    }
+
+    public Builder name(String name) {
+      entity.name = name;
+      return this;
+    }
+
+    public Builder typeCode(int typeCode) {
+      entity.typeCode = typeCode;
+      return this;
+    }
+
+    public ModelEntityLocation build() {
+      return entity;
+    }
+  }
+
+  public static ModelEntityLocation fromEntityLocation(PolarisEntityLocationRecord record) {
+    return ModelEntityLocation.builder()
+        .catalogId(record.getCatalogId())
+        .location(record.getLocation())
+        .id(record.getId())
+        .parentId(record.getParentId())
+        .name(record.getName())
+        .typeCode(record.getTypeCode())
+        .build();
+  }
+
+  public static PolarisEntityLocationRecord toEntityLocation(ModelEntityLocation model) {
+    if (model == null) {
+      return null;
+    }
+
+    return new PolarisEntityLocationRecord(
+        model.catalogId, model.id, model.parentId, model.name, model.typeCode, model.location);
+  }
+}
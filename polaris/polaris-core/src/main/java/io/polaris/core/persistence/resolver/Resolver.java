@@ -16,6 +16,7 @@
 package io.polaris.core.persistence.resolver;
 
 import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfiguration;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisChangeTrackingVersions;
@@ -31,12 +32,14 @@ import io.polaris.core.persistence.cache.EntityCacheEntry;
 import io.polaris.core.persistence.cache.EntityCacheLookupResult;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -86,6 +89,12 @@ public class Resolver {
   // all principal roles which have been resolved
   private List<EntityCacheEntry> resolvedCallerPrincipalRoles;
 
+  // if not null, caller principal already resolved in this request, used by the first pass
+  private EntityCacheEntry preResolvedCallerPrincipal;
+
+  // principal roles activated for the pre-resolved caller principal
+  private List<EntityCacheEntry> preResolvedCallerPrincipalRoles;
+
   // catalog to use as the reference catalog for role activation
   private EntityCacheEntry resolvedReferenceCatalog;
 
@@ -103,6 +112,9 @@ public class Resolver {
 
   private ResolverStatus resolverStatus;
 
+  // per entity type, maximum staleness (ns) of a cached entity which can be used without validation
+  private final Map<PolarisEntityType, Long> maxStalenessNanosByType;
+
   /**
    * Constructor, effectively starts an entity resolver session
    *
@@ -129,6 +141,35 @@ public class Resolver {
       @Nullable Set<String> callerPrincipalRoleNamesScope,
       @NotNull EntityCache cache,
       @Nullable String referenceCatalogName) {
+    this(
+        polarisCallContext,
+        metaStoreManager,
+        callerPrincipalId,
+        callerPrincipalName,
+        callerPrincipalRoleNamesScope,
+        cache,
+        referenceCatalogName,
+        Map.of());
+  }
+
+  /**
+   * Constructor, see {@link #Resolver(PolarisCallContext, PolarisMetaStoreManager, long, String,
+   * Set, EntityCache, String)}
+   *
+   * @param maxStalenessNanosByType maximum staleness in nanoseconds, by entity type, for which a
+   *     cached entity can be used without first validating it against the backend, as returned by
+   *     {@link #parseMaxStalenessNanosByType(PolarisCallContext)}. Empty if all the cached entities
+   *     must be validated
+   */
+  public Resolver(
+      @NotNull PolarisCallContext polarisCallContext,
+      @NotNull PolarisMetaStoreManager metaStoreManager,
+      long callerPrincipalId,
+      @Nullable String callerPrincipalName,
+      @Nullable Set<String> callerPrincipalRoleNamesScope,
+      @NotNull EntityCache cache,
+      @Nullable String referenceCatalogName,
+      @NotNull Map<PolarisEntityType, Long> maxStalenessNanosByType) {
     this.polarisCallContext = polarisCallContext;
     this.diagnostics = polarisCallContext.getDiagServices();
     this.metaStoreManager = metaStoreManager;
@@ -169,6 +210,66 @@ public class Resolver {
 
     // the resolver has not yet been called
     this.resolverStatus = null;
+
+    // bounded staleness for cached entities, if configured
+    this.maxStalenessNanosByType = maxStalenessNanosByType;
+  }
+
+  /**
+   * Parse the maximum staleness per entity type for which a cached entity can be used without first
+   * validating it against the backend. See {@link
+   * PolarisConfiguration#ENTITY_CACHE_MAX_STALENESS_MS}. This configuration is parsed once per
+   * realm, and not by each resolver.
+   *
+   * @param polarisCallContext the polaris call context
+   * @return maximum staleness in nanoseconds, by entity type. Empty if all entities must be
+   *     validated
+   * @throws IllegalArgumentException if the configuration is not valid
+   */
+  public static @NotNull Map<PolarisEntityType, Long> parseMaxStalenessNanosByType(
+      @NotNull PolarisCallContext polarisCallContext) {
+    Map<String, Object> maxStalenessMsByTypeName =
+        polarisCallContext
+            .getConfigurationStore()
+            .getConfiguration(
+                polarisCallContext, PolarisConfiguration.ENTITY_CACHE_MAX_STALENESS_MS, Map.of());
+    Map<PolarisEntityType, Long> maxStalenessNanosByType = new EnumMap<>(PolarisEntityType.class);
+    maxStalenessMsByTypeName.forEach(
+        (typeName, maxStalenessMs) -> {
+          long maxStalenessNanos =
+              TimeUnit.MILLISECONDS.toNanos(Long.parseLong(String.valueOf(maxStalenessMs)));
+          if (maxStalenessNanos > 0) {
+            maxStalenessNanosByType.put(PolarisEntityType.valueOf(typeName), maxStalenessNanos);
+          }
+        });
+    return maxStalenessNanosByType;
+  }
+
+  /**
+   * Use the caller principal and its activated principal roles which have already been resolved
+   * during this request, typically when authenticating the caller, instead of resolving them again.
+   * They are only used by the first resolve pass, another pass resolves them again.
+   *
+   * @param callerPrincipal the resolved caller principal
+   * @param callerPrincipalRoles the activated principal roles of the caller principal
+   */
+  public void setResolvedCallerPrincipal(
+      @NotNull EntityCacheEntry callerPrincipal,
+      @NotNull List<EntityCacheEntry> callerPrincipalRoles) {
+    // can only be called if the resolver has not yet been called
+    this.diagnostics.check(resolverStatus == null, "resolver_called");
+
+    // must be the principal this resolver was created for
+    this.diagnostics.check(
+        (this.callerPrincipalId != PolarisEntityConstants.getNullId())
+            ? callerPrincipal.getEntity().getId() == this.callerPrincipalId
+            : callerPrincipal.getEntity().getName().equals(this.callerPrincipalName),
+        "caller_principal_mismatch",
+        "callerPrincipal={}",
+        callerPrincipal.getEntity());
+
+    this.preResolvedCallerPrincipal = callerPrincipal;
+    this.preResolvedCallerPrincipalRoles = callerPrincipalRoles;
   }
 
   /**
@@ -404,13 +505,16 @@ public class Resolver {
     // all entries we found in the cache but that we need to validate since they might be stale
     List<EntityCacheEntry> toValidate = new ArrayList<>();
 
-    // first resolve the principal and determine the set of activated principal roles
+    // first resolve the principal and determine the set of activated principal roles, unless they
+    // were already resolved in this request
     ResolverStatus status =
-        this.resolveCallerPrincipalAndPrincipalRoles(
-            toValidate,
-            this.callerPrincipalId,
-            this.callerPrincipalName,
-            this.callerPrincipalRoleNamesScope);
+        (this.preResolvedCallerPrincipal != null)
+            ? this.usePreResolvedCallerPrincipalAndPrincipalRoles()
+            : this.resolveCallerPrincipalAndPrincipalRoles(
+                toValidate,
+                this.callerPrincipalId,
+                this.callerPrincipalName,
+                this.callerPrincipalRoleNamesScope);
 
     // if success, continue resolving
     if (status.getStatus() == ResolverStatus.StatusEnum.SUCCESS) {
@@ -591,6 +695,7 @@ public class Resolver {
         } else {
           // no need to refresh, it is up-to-date
           refreshedCacheEntry = cacheEntry;
+          refreshedCacheEntry.markValidated();
         }
 
         // if it was found, it has been resolved, so if there is another pass, we will not have to
@@ -605,6 +710,34 @@ public class Resolver {
     return validationStatus;
   }
 
+  /**
+   * Determine if an entry found in the cache can be used without validating it against the backend,
+   * i.e. if it was validated recently enough given the maximum staleness configured for its entity
+   * type. Entries which are trusted but are past half of their staleness window are scheduled for
+   * background revalidation, so that frequently used entries rarely need to be validated inline.
+   *
+   * @param cacheEntry the entry found in the cache
+   * @return true if the entry can be used as is
+   */
+  private boolean isTrusted(@NotNull EntityCacheEntry cacheEntry) {
+    Long maxStalenessNanos = this.maxStalenessNanosByType.get(cacheEntry.getEntity().getType());
+    if (maxStalenessNanos == null) {
+      return false;
+    }
+
+    // too stale, validate it now
+    long stalenessNanos = System.nanoTime() - cacheEntry.getLastValidatedNanoTimestamp();
+    if (stalenessNanos >= maxStalenessNanos) {
+      return false;
+    }
+
+    // revalidate it ahead of time
+    if (stalenessNanos >= maxStalenessNanos / 2) {
+      this.cache.scheduleRevalidation(this.polarisCallContext, cacheEntry);
+    }
+    return true;
+  }
+
   /**
    * Resolve a set of top-level service or catalog entities
    *
@@ -754,6 +887,28 @@ public class Resolver {
     return new ResolverStatus(ResolverStatus.StatusEnum.SUCCESS);
   }
 
+  /**
+   * Use the caller principal and principal roles set by {@link #setResolvedCallerPrincipal}. They
+   * have been resolved and validated during this request, hence do not need to be validated again.
+   *
+   * @return the status of resolution
+   */
+  private ResolverStatus usePreResolvedCallerPrincipalAndPrincipalRoles() {
+    this.resolvedCallerPrincipal = this.preResolvedCallerPrincipal;
+    this.addToResolved(this.resolvedCallerPrincipal);
+    for (EntityCacheEntry principalRole : this.preResolvedCallerPrincipalRoles) {
+      this.resolvedCallerPrincipalRoles.add(principalRole);
+      this.addToResolved(principalRole);
+    }
+
+    // if another pass is needed, it will resolve them again
+    this.preResolvedCallerPrincipal = null;
+    this.preResolvedCallerPrincipalRoles = null;
+
+    // total success
+    return new ResolverStatus(ResolverStatus.StatusEnum.SUCCESS);
+  }
+
   /**
    * Resolve the reference catalog and determine all activated role. The principal and principal
    * roles should have already been resolved
@@ -930,13 +1085,14 @@ public class Resolver {
     if (lookupResult == null) {
       // not found
       return null;
-    } else if (lookupResult.isCacheHit()) {
+    } else if (lookupResult.isCacheHit() && !this.isTrusted(lookupResult.getCacheEntry())) {
       // found in the cache, we will have to validate this entity
       toValidate.add(lookupResult.getCacheEntry());
     } else {
       // entry cannot be null
       this.diagnostics.checkNotNull(lookupResult.getCacheEntry(), "cache_entry_is_null");
-      // if not found in cache, it was loaded from backend, hence it has been resolved
+      // if not found in cache, it was loaded from backend, hence it has been resolved. Same if it
+      // is recent enough to be trusted without validation
       this.addToResolved(lookupResult.getCacheEntry());
     }
 
@@ -966,14 +1122,15 @@ public class Resolver {
     // if not found, return null
     if (lookupResult == null) {
       return null;
-    } else if (lookupResult.isCacheHit()) {
+    } else if (lookupResult.isCacheHit() && !this.isTrusted(lookupResult.getCacheEntry())) {
       // found in the cache, we will have to validate this entity
       toValidate.add(lookupResult.getCacheEntry());
     } else {
       // entry cannot be null
       this.diagnostics.checkNotNull(lookupResult.getCacheEntry(), "cache_entry_is_null");
 
-      // if not found in cache, it was loaded from backend, hence it has been resolved
+      // if not found in cache, it was loaded from backend, hence it has been resolved. Same if it
+      // is recent enough to be trusted without validation
       this.addToResolved(lookupResult.getCacheEntry());
     }
 
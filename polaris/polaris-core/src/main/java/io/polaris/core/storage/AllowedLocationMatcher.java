@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiled form of {@link PolarisStorageConfigurationInfo#getAllowedLocations()}. Each allowed
+ * location is split once into its scheme, authority and path segments; a location is allowed when
+ * it has the same scheme and authority as one of them and its path starts with all of that allowed
+ * location's segments. Matching walks the location in place and does not allocate.
+ *
+ * <p>Schemes compare case-insensitively, a missing authority is the same as an empty one (so
+ * "file:/a" and "file:///a" are equivalent) and empty path segments are ignored, so
+ * "s3://bucket/a/" allows "s3://bucket/a" and "s3://bucket/a/b" but not "s3://bucket/ab".
+ */
+final class AllowedLocationMatcher {
+  static final String WILDCARD = "*";
+
+  private final Prefix[] prefixes;
+  private final boolean hasWildcard;
+
+  AllowedLocationMatcher(@NotNull List<String> allowedLocations) {
+    List<Prefix> compiled = new ArrayList<>(allowedLocations.size());
+    boolean wildcard = false;
+    for (String allowedLocation : allowedLocations) {
+      if (WILDCARD.equals(allowedLocation)) {
+        // only honored when ALLOW_WILDCARD_LOCATION is enabled, otherwise it allows nothing
+        wildcard = true;
+      } else {
+        compiled.add(Prefix.compile(allowedLocation));
+      }
+    }
+    this.prefixes = compiled.toArray(new Prefix[0]);
+    this.hasWildcard = wildcard;
+  }
+
+  /** Whether the allowed locations contain the {@link #WILDCARD} location. */
+  boolean hasWildcard() {
+    return hasWildcard;
+  }
+
+  /** Whether the location is equal to or under one of the allowed locations. */
+  boolean matches(@NotNull String location) {
+    for (Prefix prefix : prefixes) {
+      if (prefix.matches(location)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Index of the ':' ending the scheme of the location, or -1 if it has no scheme. */
+  private static int schemeEnd(String location) {
+    for (int i = 0; i < location.length(); i++) {
+      char c = location.charAt(i);
+      if (c == ':') {
+        return i > 0 ? i : -1;
+      } else if (c == '/') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /** Index at which the authority of the location ends and its path starts. */
+  private static int authorityEnd(String location, int authorityStart) {
+    int end = location.indexOf('/', authorityStart);
+    return end < 0 ? location.length() : end;
+  }
+
+  /** One allowed location, split into its scheme, authority and path segments */
+  private static final class Prefix {
+    private final @Nullable String scheme;
+    private final String authority;
+    private final String[] segments;
+
+    private Prefix(@Nullable String scheme, String authority, String[] segments) {
+      this.scheme = scheme;
+      this.authority = authority;
+      this.segments = segments;
+    }
+
+    static Prefix compile(String location) {
+      int schemeEnd = schemeEnd(location);
+      String scheme = schemeEnd < 0 ? null : location.substring(0, schemeEnd);
+      int pathStart = schemeEnd + 1;
+      String authority = "";
+      if (location.startsWith("//", pathStart)) {
+        int authorityEnd = authorityEnd(location, pathStart + 2);
+        authority = location.substring(pathStart + 2, authorityEnd);
+        pathStart = authorityEnd;
+      }
+      List<String> segments = new ArrayList<>();
+      for (String segment : location.substring(pathStart).split("/")) {
+        if (!segment.isEmpty()) {
+          segments.add(segment);
+        }
+      }
+      return new Prefix(scheme, authority, segments.toArray(new String[0]));
+    }
+
+    boolean matches(String location) {
+      int schemeEnd = schemeEnd(location);
+      if (scheme == null) {
+        if (schemeEnd >= 0) {
+          return false;
+        }
+      } else if (schemeEnd != scheme.length()
+          || !location.regionMatches(true, 0, scheme, 0, schemeEnd)) {
+        return false;
+      }
+
+      int pathStart = schemeEnd + 1;
+      if (location.startsWith("//", pathStart)) {
+        int authorityEnd = authorityEnd(location, pathStart + 2);
+        if (authorityEnd - pathStart - 2 != authority.length()
+            || !location.regionMatches(pathStart + 2, authority, 0, authority.length())) {
+          return false;
+        }
+        pathStart = authorityEnd;
+      } else if (!authority.isEmpty()) {
+        return false;
+      }
+
+      int pos = pathStart;
+      for (String segment : segments) {
+        while (pos < location.length() && location.charAt(pos) == '/') {
+          pos++;
+        }
+        int segmentEnd = location.indexOf('/', pos);
+        if (segmentEnd < 0) {
+          segmentEnd = location.length();
+        }
+        if (segmentEnd - pos != segment.length()
+            || !location.regionMatches(pos, segment, 0, segment.length())) {
+          return false;
+        }
+        pos = segmentEnd;
+      }
+      return true;
+    }
+  }
+}
@@ -16,14 +16,12 @@
 package io.polaris.core.storage;
 
 import io.polaris.core.context.CallContext;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -31,13 +29,17 @@ import org.jetbrains.annotations.NotNull;
  * implementation of {@link #validateAccessToLocations(PolarisStorageConfigurationInfo, Set, Set)}
  * is provided that checks to see that the list of locations being accessed is among the list of
  * {@link PolarisStorageConfigurationInfo#getAllowedLocations()}. Locations being accessed must be
- * equal to or a subdirectory of at least one of the allowed locations.
+ * equal to or a subdirectory of at least one of the allowed locations, compared by scheme,
+ * authority and path segments.
  *
  * @param <T>
  */
 public abstract class InMemoryStorageIntegration<T extends PolarisStorageConfigurationInfo>
     extends PolarisStorageIntegration<T> {
 
+  private static final ValidationResult ALLOWED_LOCATION =
+      new ValidationResult(true, "Location is in the list of allowed locations");
+
   public InMemoryStorageIntegration(String identifierOrId) {
     super(identifierOrId);
   }
@@ -50,87 +52,58 @@ public abstract class InMemoryStorageIntegration<T extends PolarisStorageConfigu
    * @param locations a set of locations to get access to
    * @return a map of location to a validation result for each action passed in. In this
    *     implementation, all actions have the same validation result, as we only verify the
-   *     locations are equal to or subdirectories of the allowed locations.
+   *     locations are equal to or subdirectories of the allowed locations. The per-action maps are
+   *     unmodifiable and may be shared between locations.
    */
   public static Map<String, Map<PolarisStorageActions, ValidationResult>>
       validateSubpathsOfAllowedLocations(
           @NotNull PolarisStorageConfigurationInfo storageConfig,
           @NotNull Set<PolarisStorageActions> actions,
           @NotNull Set<String> locations) {
-    // trim trailing / from allowed locations so that locations missing the trailing slash still
-    // match
-    // TODO: Canonicalize with URI and compare scheme/authority/path components separately
-    TreeSet<String> allowedLocations =
-        storageConfig.getAllowedLocations().stream()
-            .map(
-                str -> {
-                  if (str.endsWith("/") && str.length() > 1) {
-                    return str.substring(0, str.length() - 1);
-                  } else {
-                    return str;
-                  }
-                })
-            .map(str -> str.replace("file:///", "file:/"))
-            .collect(Collectors.toCollection(TreeSet::new));
-    boolean allowWildcardLocation =
-        Optional.ofNullable(CallContext.getCurrentContext())
-            .flatMap(c -> Optional.ofNullable(c.getPolarisCallContext()))
-            .map(
-                pc ->
-                    pc.getConfigurationStore()
-                        .getConfiguration(pc, "ALLOW_WILDCARD_LOCATION", false))
-            .orElse(false);
+    AllowedLocationMatcher matcher = storageConfig.getAllowedLocationMatcher();
+    boolean allowAll = matcher.hasWildcard() && isWildcardLocationAllowed();
 
-    if (allowWildcardLocation && allowedLocations.contains("*")) {
-      return locations.stream()
-          .collect(
-              Collectors.toMap(
-                  Function.identity(),
-                  loc ->
-                      actions.stream()
-                          .collect(
-                              Collectors.toMap(
-                                  Function.identity(),
-                                  a ->
-                                      new ValidationResult(
-                                          true, loc + " in the list of allowed locations")))));
-    }
-    Map<String, Map<PolarisStorageActions, ValidationResult>> resultMap = new HashMap<>();
-    for (String rawLocation : locations) {
-      String location = rawLocation.replace("file:///", "file:/");
-      StringBuilder builder = new StringBuilder();
-      NavigableSet<String> prefixes = allowedLocations;
-      boolean validLocation = false;
-      for (char c : location.toCharArray()) {
-        builder.append(c);
-        prefixes = allowedLocations.tailSet(builder.toString(), true);
-        if (prefixes.isEmpty()) {
-          break;
-        } else if (prefixes.first().equals(builder.toString())) {
-          validLocation = true;
-          break;
+    // every allowed location shares the same per-action results, only denials carry details
+    Map<PolarisStorageActions, ValidationResult> allowedResult = null;
+    Map<String, Map<PolarisStorageActions, ValidationResult>> resultMap =
+        new HashMap<>(locations.size() * 2);
+    for (String location : locations) {
+      if (allowAll || matcher.matches(location)) {
+        if (allowedResult == null) {
+          allowedResult = resultForActions(actions, ALLOWED_LOCATION);
         }
+        resultMap.put(location, allowedResult);
+      } else {
+        resultMap.put(
+            location,
+            resultForActions(
+                actions,
+                new ValidationResult(
+                    false,
+                    location
+                        + " is not in the list of allowed locations: "
+                        + storageConfig.getAllowedLocations())));
       }
-      final boolean isValidLocation = validLocation;
-      Map<PolarisStorageActions, ValidationResult> locationResult =
-          actions.stream()
-              .collect(
-                  Collectors.toMap(
-                      Function.identity(),
-                      a ->
-                          new ValidationResult(
-                              isValidLocation,
-                              rawLocation
-                                  + " is "
-                                  + (isValidLocation ? "" : "not ")
-                                  + "in the list of allowed locations: "
-                                  + allowedLocations)));
-
-      resultMap.put(rawLocation, locationResult);
     }
     return resultMap;
   }
 
+  private static boolean isWildcardLocationAllowed() {
+    return Optional.ofNullable(CallContext.getCurrentContext())
+        .flatMap(c -> Optional.ofNullable(c.getPolarisCallContext()))
+        .map(
+            pc -> pc.getConfigurationStore().getConfiguration(pc, "ALLOW_WILDCARD_LOCATION", false))
+        .orElse(false);
+  }
+
+  private static Map<PolarisStorageActions, ValidationResult> resultForActions(
+      Set<PolarisStorageActions> actions, ValidationResult result) {
+    EnumMap<PolarisStorageActions, ValidationResult> actionResults =
+        new EnumMap<>(PolarisStorageActions.class);
+    actions.forEach(action -> actionResults.put(action, result));
+    return Collections.unmodifiableMap(actionResults);
+  }
+
   @Override
   @NotNull
   public Map<String, Map<PolarisStorageActions, ValidationResult>> validateAccessToLocations(
@@ -15,6 +15,7 @@
  */
 package io.polaris.core.storage;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -65,6 +66,9 @@ public abstract class PolarisStorageConfigurationInfo {
   // storage type
   private final StorageType storageType;
 
+  // allowedLocations compiled for matching, built on first use
+  private transient volatile AllowedLocationMatcher allowedLocationMatcher;
+
   public PolarisStorageConfigurationInfo(
       @JsonProperty(value = "storageType", required = true) @NotNull StorageType storageType,
       @JsonProperty(value = "allowedLocations", required = true) @NotNull
@@ -89,6 +93,20 @@ public abstract class PolarisStorageConfigurationInfo {
     return storageType;
   }
 
+  /**
+   * @return the allowed locations compiled for matching. They are compiled once per instance, and
+   *     so once per version of the entity holding this configuration.
+   */
+  @JsonIgnore
+  AllowedLocationMatcher getAllowedLocationMatcher() {
+    AllowedLocationMatcher matcher = allowedLocationMatcher;
+    if (matcher == null) {
+      matcher = new AllowedLocationMatcher(allowedLocations);
+      allowedLocationMatcher = matcher;
+    }
+    return matcher;
+  }
+
   private static final ObjectMapper DEFAULT_MAPPER;
 
   static {
@@ -126,13 +144,7 @@ public abstract class PolarisStorageConfigurationInfo {
   public static Optional<PolarisStorageConfigurationInfo> forEntityPath(
       PolarisDiagnostics diagnostics, List<PolarisEntity> entityPath) {
     return findStorageInfoFromHierarchy(entityPath)
-        .map(
-            storageInfo ->
-                deserialize(
-                    diagnostics,
-                    storageInfo
-                        .getInternalPropertiesAsMap()
-                        .get(PolarisEntityConstants.getStorageConfigInfoPropertyName())))
+        .map(PolarisEntity::getStorageConfigurationInfo)
         .map(
             configInfo -> {
               String baseLocation =
@@ -140,7 +152,7 @@ public abstract class PolarisStorageConfigurationInfo {
                       .flatMap(
                           e ->
                               Optional.ofNullable(
-                                  e.getPropertiesAsMap()
+                                  e.getPropertiesView()
                                       .get(PolarisEntityConstants.ENTITY_BASE_LOCATION))
                                   .stream())
                       .findFirst()
@@ -149,7 +161,7 @@ public abstract class PolarisStorageConfigurationInfo {
               boolean allowEscape =
                   Optional.ofNullable(
                           catalog
-                              .getPropertiesAsMap()
+                              .getPropertiesView()
                               .get(PolarisConfiguration.CATALOG_ALLOW_UNSTRUCTURED_TABLE_LOCATION))
                       .map(
                           val -> {
@@ -178,7 +190,7 @@ public abstract class PolarisStorageConfigurationInfo {
     return entityPath.reversed().stream()
         .filter(
             e ->
-                e.getInternalPropertiesAsMap()
+                e.getInternalPropertiesView()
                     .containsKey(PolarisEntityConstants.getStorageConfigInfoPropertyName()))
         .findFirst();
   }
@@ -19,23 +19,25 @@ import com.azure.core.credential.AccessToken;
 import com.azure.core.credential.TokenRequestContext;
 import com.azure.identity.DefaultAzureCredential;
 import com.azure.identity.DefaultAzureCredentialBuilder;
-import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.UserDelegationKey;
 import com.azure.storage.blob.sas.BlobSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
-import com.azure.storage.file.datalake.DataLakeFileSystemClientBuilder;
 import com.azure.storage.file.datalake.DataLakeServiceClient;
 import com.azure.storage.file.datalake.DataLakeServiceClientBuilder;
 import com.azure.storage.file.datalake.models.DataLakeStorageException;
 import com.azure.storage.file.datalake.sas.DataLakeServiceSasSignatureValues;
 import com.azure.storage.file.datalake.sas.PathSasPermission;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.storage.InMemoryStorageIntegration;
 import io.polaris.core.storage.PolarisCredentialProperty;
 import io.polaris.core.storage.PolarisStorageConfigurationInfo;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.Period;
@@ -45,24 +47,88 @@ import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
 
-/** Azure credential vendor that supports generating SAS token */
+/**
+ * Azure credential vendor that supports generating SAS token. The access tokens, service clients
+ * and user delegation keys are cached by each instance, which should be shared across requests.
+ */
 public class AzureCredentialsStorageIntegration
     extends InMemoryStorageIntegration<AzureStorageConfigurationInfo> {
 
   private final Logger LOGGER = LoggerFactory.getLogger(AzureCredentialsStorageIntegration.class);
 
+  /** Cached access tokens are renewed this long before they expire */
+  private static final Duration ACCESS_TOKEN_RENEWAL_MARGIN = Duration.ofMinutes(5);
+
+  /**
+   * Cached user delegation keys are renewed this long before they expire, which leaves enough
+   * validity for the SAS tokens signed with them
+   */
+  private static final Duration USER_DELEGATION_KEY_RENEWAL_MARGIN = Duration.ofDays(1);
+
+  private static final long MAX_CACHED_STORAGE_ACCOUNTS = 1000;
+
   final DefaultAzureCredential defaultAzureCredential;
 
+  /** Access tokens to the storage service, by tenant */
+  private final LoadingCache<String, AccessToken> accessTokens;
+
+  // service clients and user delegation keys of each storage account, reused across the SAS tokens
+  // generated for it so that only signing the SAS token is done for each request
+  private final LoadingCache<StorageAccount, BlobServiceClient> blobServiceClients;
+  private final LoadingCache<StorageAccount, UserDelegationKey> blobUserDelegationKeys;
+  private final LoadingCache<StorageAccount, DataLakeServiceClient> dataLakeServiceClients;
+  private final LoadingCache<
+          StorageAccount, com.azure.storage.file.datalake.models.UserDelegationKey>
+      dataLakeUserDelegationKeys;
+
   public AzureCredentialsStorageIntegration() {
     super(AzureCredentialsStorageIntegration.class.getName());
     // The DefaultAzureCredential will by default load the environment variables for client id,
     // client secret, tenant id
     defaultAzureCredential = new DefaultAzureCredentialBuilder().build();
+    accessTokens =
+        Caffeine.newBuilder()
+            .expireAfter(
+                AzureCredentialsStorageIntegration.<String, AccessToken>expireBefore(
+                    AccessToken::getExpiresAt, ACCESS_TOKEN_RENEWAL_MARGIN))
+            .build(this::getAccessToken);
+    blobServiceClients =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_STORAGE_ACCOUNTS)
+            .build(
+                storageAccount ->
+                    createBlobServiceClient(storageAccount.endpoint(), storageAccount.tenantId()));
+    blobUserDelegationKeys =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_STORAGE_ACCOUNTS)
+            .expireAfter(
+                AzureCredentialsStorageIntegration.<StorageAccount, UserDelegationKey>expireBefore(
+                    UserDelegationKey::getSignedExpiry, USER_DELEGATION_KEY_RENEWAL_MARGIN))
+            .build(this::getBlobUserDelegationKey);
+    dataLakeServiceClients =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_STORAGE_ACCOUNTS)
+            .build(
+                storageAccount ->
+                    createDataLakeServiceClient(
+                        storageAccount.endpoint(), storageAccount.tenantId()));
+    dataLakeUserDelegationKeys =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_STORAGE_ACCOUNTS)
+            .expireAfter(
+                AzureCredentialsStorageIntegration
+                    .<StorageAccount, com.azure.storage.file.datalake.models.UserDelegationKey>
+                        expireBefore(
+                            com.azure.storage.file.datalake.models.UserDelegationKey
+                                ::getSignedExpiry,
+                            USER_DELEGATION_KEY_RENEWAL_MARGIN))
+            .build(this::getAdlsUserDelegationKey);
   }
 
   @Override
@@ -86,8 +152,8 @@ public class AzureCredentialsStorageIntegration
     validateAccountAndContainer(location, allowedReadLocations, allowedWriteLocations);
 
     String storageDnsName = location.getStorageAccount() + "." + location.getEndpoint();
-    String endpoint = "https://" + storageDnsName;
     String filePath = location.getFilePath();
+    StorageAccount storageAccount = new StorageAccount(storageConfig.getTenantId(), storageDnsName);
 
     BlobSasPermission blobSasPermission = new BlobSasPermission();
     // pathSasPermission is for Data lake storage
@@ -116,14 +182,6 @@ public class AzureCredentialsStorageIntegration
         OffsetDateTime.ofInstant(
             start.plusSeconds(3600), ZoneOffset.UTC); // 1 hr to sync with AWS and GCP Access token
 
-    AccessToken accessToken = getAccessToken(storageConfig.getTenantId());
-    // Get user delegation key.
-    // Set the new generated user delegation key expiry to 7 days and minute 1 min
-    // Azure strictly requires the end time to be <= 7 days from the current time, -1 min to avoid
-    // clock skew between the client and server,
-    OffsetDateTime startTime = start.truncatedTo(ChronoUnit.SECONDS).atOffset(ZoneOffset.UTC);
-    OffsetDateTime sanitizedEndTime =
-        start.plus(Period.ofDays(7)).minusSeconds(60).atOffset(ZoneOffset.UTC);
     LOGGER
         .atDebug()
         .addKeyValue("allowedListAction", allowListOperation)
@@ -137,25 +195,22 @@ public class AzureCredentialsStorageIntegration
         .log("Subscope Azure SAS");
     String sasToken = "";
     if (location.getEndpoint().equalsIgnoreCase(AzureLocation.BLOB_ENDPOINT)) {
+      // scoped to the container
       sasToken =
-          getBlobUserDelegationSas(
-              startTime,
-              sanitizedEndTime,
-              expiry,
-              storageDnsName,
-              location.getContainer(),
-              blobSasPermission,
-              Mono.just(accessToken));
+          blobServiceClients
+              .get(storageAccount)
+              .getBlobContainerClient(location.getContainer())
+              .generateUserDelegationSas(
+                  new BlobServiceSasSignatureValues(expiry, blobSasPermission),
+                  blobUserDelegationKeys.get(storageAccount));
     } else if (location.getEndpoint().equalsIgnoreCase(AzureLocation.ADLS_ENDPOINT)) {
       sasToken =
-          getAdlsUserDelegationSas(
-              startTime,
-              sanitizedEndTime,
-              expiry,
-              storageDnsName,
-              location.getContainer(),
-              pathSasPermission,
-              Mono.just(accessToken));
+          dataLakeServiceClients
+              .get(storageAccount)
+              .getFileSystemClient(location.getContainer())
+              .generateUserDelegationSas(
+                  new DataLakeServiceSasSignatureValues(expiry, pathSasPermission),
+                  dataLakeUserDelegationKeys.get(storageAccount));
     } else {
       throw new RuntimeException(
           String.format("Endpoint %s not supported", location.getEndpoint()));
@@ -165,76 +220,67 @@ public class AzureCredentialsStorageIntegration
     return credentialMap;
   }
 
-  private String getBlobUserDelegationSas(
-      OffsetDateTime startTime,
-      OffsetDateTime keyEndtime,
-      OffsetDateTime sasExpiry,
-      String storageDnsName,
-      String container,
-      BlobSasPermission blobSasPermission,
-      Mono<AccessToken> accessTokenMono) {
-    String endpoint = "https://" + storageDnsName;
+  /**
+   * @param endpoint endpoint of the storage account
+   * @param tenantId tenant issuing the credentials of the storage account
+   * @return a client of the blob service of that storage account
+   */
+  protected BlobServiceClient createBlobServiceClient(String endpoint, String tenantId) {
+    return new BlobServiceClientBuilder()
+        .endpoint(endpoint)
+        .credential(c -> getCachedAccessToken(tenantId))
+        .buildClient();
+  }
+
+  /**
+   * @param endpoint endpoint of the storage account
+   * @param tenantId tenant issuing the credentials of the storage account
+   * @return a client of the data lake service of that storage account
+   */
+  protected DataLakeServiceClient createDataLakeServiceClient(String endpoint, String tenantId) {
+    return new DataLakeServiceClientBuilder()
+        .endpoint(endpoint)
+        .credential(c -> getCachedAccessToken(tenantId))
+        .buildClient();
+  }
+
+  private UserDelegationKey getBlobUserDelegationKey(StorageAccount storageAccount) {
+    // Set the new generated user delegation key expiry to 7 days and minute 1 min
+    // Azure strictly requires the end time to be <= 7 days from the current time, -1 min to avoid
+    // clock skew between the client and server,
+    Instant start = Instant.now();
+    OffsetDateTime startTime = start.truncatedTo(ChronoUnit.SECONDS).atOffset(ZoneOffset.UTC);
+    OffsetDateTime keyEndtime =
+        start.plus(Period.ofDays(7)).minusSeconds(60).atOffset(ZoneOffset.UTC);
     try {
-      BlobServiceClient serviceClient =
-          new BlobServiceClientBuilder()
-              .endpoint(endpoint)
-              .credential(c -> accessTokenMono)
-              .buildClient();
-      UserDelegationKey userDelegationKey =
-          serviceClient.getUserDelegationKey(startTime, keyEndtime);
-      BlobServiceSasSignatureValues sigValues =
-          new BlobServiceSasSignatureValues(sasExpiry, blobSasPermission);
-      // scoped to the container
-      return new BlobContainerClientBuilder()
-          .endpoint(endpoint)
-          .containerName(container)
-          .buildClient()
-          .generateUserDelegationSas(sigValues, userDelegationKey);
+      return blobServiceClients.get(storageAccount).getUserDelegationKey(startTime, keyEndtime);
     } catch (BlobStorageException ex) {
       LOGGER.debug(
-          "Azure DataLakeStorageException for getBlobUserDelegationSas. keyStart={} keyEnd={}, storageDns={}, container={}",
+          "Azure DataLakeStorageException for getBlobUserDelegationKey. keyStart={} keyEnd={},"
+              + " storageDns={}",
           startTime,
           keyEndtime,
-          storageDnsName,
-          container,
+          storageAccount.storageDnsName(),
           ex);
       throw ex;
     }
   }
 
-  private String getAdlsUserDelegationSas(
-      OffsetDateTime startTime,
-      OffsetDateTime endTime,
-      OffsetDateTime sasExpiry,
-      String storageDnsName,
-      String fileSystemNameOrContainer,
-      PathSasPermission pathSasPermission,
-      Mono<AccessToken> accessTokenMono) {
-    String endpoint = "https://" + storageDnsName;
+  private com.azure.storage.file.datalake.models.UserDelegationKey getAdlsUserDelegationKey(
+      StorageAccount storageAccount) {
+    // same validity as the keys of the blob endpoint
+    Instant start = Instant.now();
+    OffsetDateTime startTime = start.truncatedTo(ChronoUnit.SECONDS).atOffset(ZoneOffset.UTC);
+    OffsetDateTime endTime = start.plus(Period.ofDays(7)).minusSeconds(60).atOffset(ZoneOffset.UTC);
     try {
-      DataLakeServiceClient dataLakeServiceClient =
-          new DataLakeServiceClientBuilder()
-              .endpoint(endpoint)
-              .credential(c -> accessTokenMono)
-              .buildClient();
-      com.azure.storage.file.datalake.models.UserDelegationKey userDelegationKey =
-          dataLakeServiceClient.getUserDelegationKey(startTime, endTime);
-
-      DataLakeServiceSasSignatureValues signatureValues =
-          new DataLakeServiceSasSignatureValues(sasExpiry, pathSasPermission);
-
-      return new DataLakeFileSystemClientBuilder()
-          .endpoint(endpoint)
-          .fileSystemName(fileSystemNameOrContainer)
-          .buildClient()
-          .generateUserDelegationSas(signatureValues, userDelegationKey);
+      return dataLakeServiceClients.get(storageAccount).getUserDelegationKey(startTime, endTime);
     } catch (DataLakeStorageException ex) {
       LOGGER.debug(
-          "Azure DataLakeStorageException for getAdlsUserDelegationSas. keyStart={} keyEnd={}, storageDns={}, fileSystemName={}",
+          "Azure DataLakeStorageException for getAdlsUserDelegationKey. keyStart={} keyEnd={},"
+              + " storageDns={}",
           startTime,
           endTime,
-          storageDnsName,
-          fileSystemNameOrContainer,
+          storageAccount.storageDnsName(),
           ex);
       throw ex;
     }
@@ -258,6 +304,10 @@ public class AzureCredentialsStorageIntegration
         });
   }
 
+  private Mono<AccessToken> getCachedAccessToken(String tenantId) {
+    return Mono.fromSupplier(() -> accessTokens.get(tenantId));
+  }
+
   private AccessToken getAccessToken(String tenantId) {
     String scope = "https://storage.azure.com/.default";
     AccessToken accessToken =
@@ -271,9 +321,39 @@ public class AzureCredentialsStorageIntegration
     return accessToken;
   }
 
+  /** Expire cached values the given margin before their own expiration time */
+  private static <K, V> Expiry<K, V> expireBefore(
+      Function<V, OffsetDateTime> expiresAt, Duration margin) {
+    return new Expiry<>() {
+      @Override
+      public long expireAfterCreate(K key, V value, long currentTime) {
+        Duration duration =
+            Duration.between(OffsetDateTime.now(), expiresAt.apply(value)).minus(margin);
+        return duration.isNegative() ? 0 : duration.toNanos();
+      }
+
+      @Override
+      public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+      }
+
+      @Override
+      public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+      }
+    };
+  }
+
   @Override
   public EnumMap<PolarisStorageConfigurationInfo.DescribeProperty, String>
       descPolarisStorageConfiguration(@NotNull PolarisStorageConfigurationInfo storageConfigInfo) {
     return null;
   }
+
+  /** A storage account, whose credentials are issued by the given tenant */
+  private record StorageAccount(String tenantId, String storageDnsName) {
+    String endpoint() {
+      return "https://" + storageDnsName;
+    }
+  }
 }
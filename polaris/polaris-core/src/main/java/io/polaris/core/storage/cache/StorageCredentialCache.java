@@ -19,35 +19,105 @@ import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Expiry;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.monitor.PolarisMetricRegistry;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.core.persistence.PolarisMetaStoreSession;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.function.Supplier;
 import org.apache.iceberg.exceptions.UnprocessableEntityException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Storage subscoped credential cache. */
+/**
+ * Storage subscoped credential cache. The cached creds are refreshed ahead of their expiration:
+ * once half of their lifetime, or the configured time to live, has passed, the next request for
+ * them triggers a refresh on a dedicated executor and is served the cached creds, which are still
+ * valid. Concurrent loads or refreshes of the same entry are coalesced into a single call to the
+ * creds vending service. Creds which are not refreshed are evicted once three quarters of their
+ * lifetime, or twice the time to live, have passed. Refreshes only happen if the cache can open
+ * its own metastore sessions, they never reuse the session of the request which triggered them.
+ */
 public class StorageCredentialCache {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StorageCredentialCache.class);
 
-  private static final long CACHE_MAX_DURATION_MS = 30 * 60 * 1000L; // 30 minutes
-  private static final long CACHE_MAX_NUMBER_OF_ENTRIES = 10_000L;
+  static final String HIT_METRIC = "polaris.storage_credential.cache.hit";
+  static final String MISS_METRIC = "polaris.storage_credential.cache.miss";
+  static final String REFRESH_METRIC = "polaris.storage_credential.cache.refresh";
+  static final String LOAD_METRIC = "polaris.storage_credential.cache.load";
+  static final String HIT_RATIO_METRIC = "polaris.storage_credential.cache.hit_ratio";
+
   private final LoadingCache<StorageCredentialCacheKey, StorageCredentialCacheEntry> cache;
+  private final long ttlMs;
+  private final @Nullable PolarisMetricRegistry metricRegistry;
+  private final @Nullable String realmId;
+
+  // opens a new session on the realm of this cache for each refresh, null if creds are not
+  // refreshed ahead of their expiration
+  private final @Nullable Supplier<PolarisMetaStoreSession> refreshSessionSupplier;
+  private final ExecutorService refreshExecutor;
 
-  /** Initialize the creds cache, max cache duration is half an hr. */
+  /** Initialize the creds cache with the default configuration, without metrics. */
   public StorageCredentialCache() {
+    this(new StorageCredentialCacheConfiguration(), null, null);
+  }
+
+  /**
+   * Initialize the creds cache without refreshing the creds ahead of their expiration
+   *
+   * @param configuration size, time to live and refresh threads of the cache
+   * @param metricRegistry if not null, registry the cache metrics are reported to
+   * @param realmId realm of the cache, tagging its metrics
+   */
+  public StorageCredentialCache(
+      @NotNull StorageCredentialCacheConfiguration configuration,
+      @Nullable PolarisMetricRegistry metricRegistry,
+      @Nullable String realmId) {
+    this(configuration, metricRegistry, realmId, null);
+  }
+
+  /**
+   * @param configuration size, time to live and refresh threads of the cache
+   * @param metricRegistry if not null, registry the cache metrics are reported to
+   * @param realmId realm of the cache, tagging its metrics
+   * @param refreshSessionSupplier if not null, returns a new metastore session on the realm of the
+   *     cache on each invocation, used to refresh the creds ahead of their expiration
+   */
+  public StorageCredentialCache(
+      @NotNull StorageCredentialCacheConfiguration configuration,
+      @Nullable PolarisMetricRegistry metricRegistry,
+      @Nullable String realmId,
+      @Nullable Supplier<PolarisMetaStoreSession> refreshSessionSupplier) {
+    this.ttlMs = configuration.getTtlMs();
+    this.metricRegistry = metricRegistry;
+    this.realmId = realmId;
+    this.refreshSessionSupplier = refreshSessionSupplier;
+    this.refreshExecutor =
+        Executors.newFixedThreadPool(
+            configuration.getRefreshThreads(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("storage-credential-refresh-%d")
+                .build());
     cache =
         Caffeine.newBuilder()
-            .maximumSize(CACHE_MAX_NUMBER_OF_ENTRIES)
+            .maximumSize(configuration.getMaxEntries())
+            .executor(refreshExecutor)
+            .recordStats()
             .expireAfter(
                 new Expiry<StorageCredentialCacheKey, StorageCredentialCacheEntry>() {
                   @Override
@@ -55,13 +125,7 @@ public class StorageCredentialCache {
                       StorageCredentialCacheKey key,
                       StorageCredentialCacheEntry entry,
                       long currentTime) {
-                    long expireAfterMillis =
-                        Math.max(
-                            0,
-                            Math.min(
-                                (entry.getExpirationTime() - System.currentTimeMillis()) / 2,
-                                CACHE_MAX_DURATION_MS));
-                    return TimeUnit.MILLISECONDS.toNanos(expireAfterMillis);
+                    return TimeUnit.MILLISECONDS.toNanos(expireAfterMillis(entry));
                   }
 
                   @Override
@@ -70,7 +134,8 @@ public class StorageCredentialCache {
                       StorageCredentialCacheEntry entry,
                       long currentTime,
                       long currentDuration) {
-                    return currentDuration;
+                    // the creds have been refreshed
+                    return TimeUnit.MILLISECONDS.toNanos(expireAfterMillis(entry));
                   }
 
                   @Override
@@ -86,10 +151,22 @@ public class StorageCredentialCache {
                 new CacheLoader<StorageCredentialCacheKey, StorageCredentialCacheEntry>() {
                   @Override
                   public StorageCredentialCacheEntry load(StorageCredentialCacheKey key) {
-                    // the load happen at getOrGenerateSubScopeCreds()
-                    return null;
+                    return loadCreds(key, newRefreshCallContext(key));
+                  }
+
+                  @Override
+                  public StorageCredentialCacheEntry reload(
+                      StorageCredentialCacheKey key, StorageCredentialCacheEntry oldValue) {
+                    LOGGER.atDebug().addKeyValue("key", key).log("StorageCredentialCache::reload");
+                    incrementCounter(REFRESH_METRIC);
+                    return loadCreds(key, newRefreshCallContext(key));
                   }
                 });
+    if (metricRegistry != null) {
+      Gauge.builder(HIT_RATIO_METRIC, cache, c -> c.stats().hitRate())
+          .tag("REALM_ID", String.valueOf(realmId))
+          .register(metricRegistry.getMeterRegistry());
+    }
   }
 
   /**
@@ -121,37 +198,109 @@ public class StorageCredentialCache {
             allowListOperation,
             allowedReadLocations,
             allowedWriteLocations,
-            callCtx);
+            callCtx,
+            metaStoreManager);
     LOGGER.atDebug().addKeyValue("key", key).log("subscopedCredsCache");
-    Function<StorageCredentialCacheKey, StorageCredentialCacheEntry> loader =
-        k -> {
-          LOGGER.atDebug().log("StorageCredentialCache::load");
-          PolarisMetaStoreManager.ScopedCredentialsResult scopedCredentialsResult =
-              metaStoreManager.getSubscopedCredsForEntity(
-                  k.getCallContext(),
+    boolean[] loaded = new boolean[1];
+    StorageCredentialCacheEntry entry =
+        cache.get(
+            key,
+            k -> {
+              loaded[0] = true;
+              return loadCreds(k, callCtx);
+            });
+    incrementCounter(loaded[0] ? MISS_METRIC : HIT_METRIC);
+    if (!loaded[0]
+        && refreshSessionSupplier != null
+        && System.currentTimeMillis() - entry.getLoadTime() >= refreshAfterMillis(entry)) {
+      // serve the cached creds, which are still valid, while they are refreshed. A refresh already
+      // in progress for this key is not started again
+      try {
+        cache.refresh(key);
+      } catch (RejectedExecutionException e) {
+        // the cache is closed, the creds will be loaded again once they expire
+        LOGGER.atDebug().addKeyValue("key", key).log("StorageCredentialCache closed, no refresh");
+      }
+    }
+    return entry.convertToMapOfString();
+  }
+
+  public Map<String, String> getIfPresent(StorageCredentialCacheKey key) {
+    return Optional.ofNullable(cache.getIfPresent(key))
+        .map(value -> value.convertToMapOfString())
+        .orElse(null);
+  }
+
+  /**
+   * Stop refreshing the creds ahead of their expiration and release the threads used to do so. The
+   * cache keeps serving the creds it holds, and loads the missing ones on the calling thread.
+   */
+  public void close() {
+    this.refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Call context of a refresh, which runs on a refresh thread after the request which triggered it
+   * has completed. It opens its own session on the realm of this cache, and only borrows the
+   * stateless services of the request context.
+   */
+  private PolarisCallContext newRefreshCallContext(StorageCredentialCacheKey key) {
+    PolarisCallContext requestCallContext = key.getCallContext();
+    if (refreshSessionSupplier == null) {
+      return requestCallContext;
+    }
+    return new PolarisCallContext(
+        refreshSessionSupplier.get(),
+        requestCallContext.getDiagServices(),
+        requestCallContext.getConfigurationStore(),
+        requestCallContext.getClock());
+  }
+
+  private StorageCredentialCacheEntry loadCreds(
+      StorageCredentialCacheKey k, PolarisCallContext callCtx) {
+    LOGGER.atDebug().log("StorageCredentialCache::load");
+    long start = System.currentTimeMillis();
+    try {
+      PolarisMetaStoreManager.ScopedCredentialsResult scopedCredentialsResult =
+          k.getMetaStoreManager()
+              .getSubscopedCredsForEntity(
+                  callCtx,
                   k.getCatalogId(),
                   k.getEntityId(),
                   k.isAllowedListAction(),
                   k.getAllowedReadLocations(),
                   k.getAllowedWriteLocations());
-          if (scopedCredentialsResult.isSuccess()) {
-            return new StorageCredentialCacheEntry(scopedCredentialsResult);
-          }
-          LOGGER
-              .atDebug()
-              .addKeyValue("errorMessage", scopedCredentialsResult.getExtraInformation())
-              .log("Failed to get subscoped credentials");
-          throw new UnprocessableEntityException(
-              "Failed to get subscoped credentials: "
-                  + scopedCredentialsResult.getExtraInformation());
-        };
-    return cache.get(key, loader).convertToMapOfString();
+      if (scopedCredentialsResult.isSuccess()) {
+        return new StorageCredentialCacheEntry(scopedCredentialsResult);
+      }
+      LOGGER
+          .atDebug()
+          .addKeyValue("errorMessage", scopedCredentialsResult.getExtraInformation())
+          .log("Failed to get subscoped credentials");
+      throw new UnprocessableEntityException(
+          "Failed to get subscoped credentials: " + scopedCredentialsResult.getExtraInformation());
+    } finally {
+      if (metricRegistry != null) {
+        metricRegistry.recordTimer(LOAD_METRIC, System.currentTimeMillis() - start, realmId);
+      }
+    }
   }
 
-  public Map<String, String> getIfPresent(StorageCredentialCacheKey key) {
-    return Optional.ofNullable(cache.getIfPresent(key))
-        .map(value -> value.convertToMapOfString())
-        .orElse(null);
+  /** Time after which the creds of an entry are refreshed ahead of their expiration */
+  private long refreshAfterMillis(StorageCredentialCacheEntry entry) {
+    return Math.max(0, Math.min((entry.getExpirationTime() - entry.getLoadTime()) / 2, ttlMs));
+  }
+
+  /** Time after which the creds of an entry which has not been refreshed are evicted */
+  private long expireAfterMillis(StorageCredentialCacheEntry entry) {
+    long lifetime = entry.getExpirationTime() - System.currentTimeMillis();
+    return Math.max(0, Math.min(lifetime - lifetime / 4, 2 * ttlMs));
+  }
+
+  private void incrementCounter(String metric) {
+    if (metricRegistry != null) {
+      metricRegistry.incrementCounter(metric, realmId);
+    }
   }
 
   private boolean isTypeSupported(PolarisEntityType type) {
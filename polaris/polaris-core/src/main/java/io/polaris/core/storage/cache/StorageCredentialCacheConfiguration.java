@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.storage.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Configuration of the {@link StorageCredentialCache} of each realm, which caches the subscoped
+ * credentials vended to clients for their storage locations.
+ */
+public class StorageCredentialCacheConfiguration {
+  /** Maximum number of cached credentials */
+  @JsonProperty("max-entries")
+  private long maxEntries = 10_000L;
+
+  /**
+   * Maximum age of cached credentials before they are refreshed, they are refreshed sooner once
+   * half of their lifetime has passed
+   */
+  @JsonProperty("ttl-ms")
+  private long ttlMs = 30 * 60 * 1000L; // 30 minutes
+
+  /** Number of threads refreshing the cached credentials in the background */
+  @JsonProperty("refresh-threads")
+  private int refreshThreads = 4;
+
+  public long getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(long maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public long getTtlMs() {
+    return ttlMs;
+  }
+
+  public void setTtlMs(long ttlMs) {
+    this.ttlMs = ttlMs;
+  }
+
+  public int getRefreshThreads() {
+    return refreshThreads;
+  }
+
+  public void setRefreshThreads(int refreshThreads) {
+    this.refreshThreads = refreshThreads;
+  }
+}
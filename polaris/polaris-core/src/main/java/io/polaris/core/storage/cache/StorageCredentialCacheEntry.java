@@ -28,10 +28,19 @@ public class StorageCredentialCacheEntry {
 
   private final PolarisMetaStoreManager.ScopedCredentialsResult scopedCredentialsResult;
 
+  /** The time in millisecond the creds were fetched at */
+  private final long loadTime;
+
   public StorageCredentialCacheEntry(
       PolarisMetaStoreManager.ScopedCredentialsResult scopedCredentialsResult) {
     this.scopedCredentialsResult = scopedCredentialsResult;
     this.credsMap = scopedCredentialsResult.getCredentials();
+    this.loadTime = System.currentTimeMillis();
+  }
+
+  /** Get the time in millisecond the creds of the cached entry were fetched at */
+  public long getLoadTime() {
+    return loadTime;
   }
 
   /** Get the expiration time in millisecond for the cached entry */
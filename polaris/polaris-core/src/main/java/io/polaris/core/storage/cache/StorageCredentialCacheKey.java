@@ -19,6 +19,7 @@ import io.polaris.core.PolarisCallContext;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityConstants;
+import io.polaris.core.persistence.PolarisMetaStoreManager;
 import java.util.Objects;
 import java.util.Set;
 import org.jetbrains.annotations.Nullable;
@@ -47,22 +48,39 @@ public class StorageCredentialCacheKey {
    */
   private @Nullable PolarisCallContext callContext;
 
+  /**
+   * The metaStoreManager is passed to be used to fetch subscoped creds, but is not used to
+   * hash/equals as part of the cache key.
+   */
+  private final @Nullable PolarisMetaStoreManager metaStoreManager;
+
   public StorageCredentialCacheKey(
       PolarisEntity entity,
       boolean allowedListAction,
       Set<String> allowedReadLocations,
       Set<String> allowedWriteLocations,
       PolarisCallContext callContext) {
+    this(entity, allowedListAction, allowedReadLocations, allowedWriteLocations, callContext, null);
+  }
+
+  public StorageCredentialCacheKey(
+      PolarisEntity entity,
+      boolean allowedListAction,
+      Set<String> allowedReadLocations,
+      Set<String> allowedWriteLocations,
+      PolarisCallContext callContext,
+      @Nullable PolarisMetaStoreManager metaStoreManager) {
     this.catalogId = entity.getCatalogId();
     this.storageConfigSerializedStr =
         entity
-            .getInternalPropertiesAsMap()
+            .getInternalPropertiesView()
             .get(PolarisEntityConstants.getStorageConfigInfoPropertyName());
     this.entityId = entity.getId();
     this.allowedListAction = allowedListAction;
     this.allowedReadLocations = allowedReadLocations;
     this.allowedWriteLocations = allowedWriteLocations;
     this.callContext = callContext;
+    this.metaStoreManager = metaStoreManager;
     if (this.callContext == null) {
       this.callContext = CallContext.getCurrentContext().getPolarisCallContext();
     }
@@ -96,6 +114,10 @@ public class StorageCredentialCacheKey {
     return callContext;
   }
 
+  public @Nullable PolarisMetaStoreManager getMetaStoreManager() {
+    return metaStoreManager;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
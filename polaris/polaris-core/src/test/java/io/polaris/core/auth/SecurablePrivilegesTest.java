@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.auth;
+
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.entity.PolarisGrantRecord;
+import io.polaris.core.entity.PolarisPrivilege;
+import java.util.List;
+import java.util.Set;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SecurablePrivilegesTest {
+
+  private static final long SECURABLE_ID = 10;
+
+  private final PolarisAuthorizer authorizer =
+      new PolarisAuthorizer(new PolarisConfigurationStore() {});
+
+  @Test
+  public void testMatchesGrantRecords() {
+    // each privilege is granted to a different grantee, check them all against every privilege
+    for (PolarisPrivilege granted : PolarisPrivilege.values()) {
+      SecurablePrivileges privileges =
+          SecurablePrivileges.of(
+              List.of(new PolarisGrantRecord(1, SECURABLE_ID, 1, 100, granted.getCode())));
+      for (PolarisPrivilege desired : PolarisPrivilege.values()) {
+        Assertions.assertThat(privileges.isGranted(Set.of(100L), desired))
+            .as("privilege %s granted %s", desired, granted)
+            .isEqualTo(authorizer.matchesOrIsSubsumedBy(desired, granted));
+      }
+    }
+  }
+
+  @Test
+  public void testOnlyActivatedGrantees() {
+    SecurablePrivileges privileges =
+        SecurablePrivileges.of(
+            List.of(
+                new PolarisGrantRecord(
+                    1, SECURABLE_ID, 1, 100, PolarisPrivilege.TABLE_READ_DATA.getCode()),
+                new PolarisGrantRecord(
+                    1, SECURABLE_ID, 1, 200, PolarisPrivilege.TABLE_WRITE_DATA.getCode())));
+
+    Assertions.assertThat(privileges.isGranted(Set.of(100L), PolarisPrivilege.TABLE_READ_DATA))
+        .isTrue();
+    Assertions.assertThat(privileges.isGranted(Set.of(100L), PolarisPrivilege.TABLE_WRITE_DATA))
+        .isFalse();
+    Assertions.assertThat(
+            privileges.isGranted(Set.of(100L, 200L), PolarisPrivilege.TABLE_WRITE_DATA))
+        .isTrue();
+    Assertions.assertThat(privileges.isGranted(Set.of(300L), PolarisPrivilege.TABLE_READ_DATA))
+        .isFalse();
+    Assertions.assertThat(
+            SecurablePrivileges.EMPTY.isGranted(Set.of(100L), PolarisPrivilege.TABLE_READ_DATA))
+        .isFalse();
+  }
+}
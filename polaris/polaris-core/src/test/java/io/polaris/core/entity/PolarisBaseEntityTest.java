@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.entity;
+
+import io.polaris.core.storage.FileStorageConfigurationInfo;
+import io.polaris.core.storage.PolarisStorageConfigurationInfo;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PolarisBaseEntityTest {
+
+  private static PolarisBaseEntity newEntity() {
+    return new PolarisBaseEntity(
+        1, 2, PolarisEntityType.CATALOG, PolarisEntitySubType.NULL_SUBTYPE, 0, "catalog");
+  }
+
+  @Test
+  public void testPropertiesParsedOnceAcrossCopies() {
+    PolarisBaseEntity entity = newEntity();
+    entity.setPropertiesAsMap(Map.of("a", "1"));
+    entity.setInternalPropertiesAsMap(Map.of("b", "2"));
+
+    Map<String, String> properties = entity.getPropertiesView();
+    Map<String, String> internalProperties = entity.getInternalPropertiesView();
+    Assertions.assertThat(properties).containsExactly(Map.entry("a", "1"));
+    Assertions.assertThat(internalProperties).containsExactly(Map.entry("b", "2"));
+
+    // the copies made when resolving a cached entity reuse what the cached entity parsed
+    PolarisEntity copy = PolarisEntity.of(new PolarisBaseEntity(entity));
+    Assertions.assertThat(copy.getPropertiesView()).isSameAs(properties);
+    Assertions.assertThat(copy.getInternalPropertiesView()).isSameAs(internalProperties);
+  }
+
+  @Test
+  public void testViewsAreImmutable() {
+    PolarisBaseEntity entity = newEntity();
+    entity.setPropertiesAsMap(Map.of("a", "1"));
+
+    Assertions.assertThatThrownBy(() -> entity.getPropertiesView().put("a", "2"))
+        .isInstanceOf(UnsupportedOperationException.class);
+    Assertions.assertThatThrownBy(() -> entity.getInternalPropertiesView().put("a", "2"))
+        .isInstanceOf(UnsupportedOperationException.class);
+
+    // the map accessors still hand out a private, mutable copy
+    Map<String, String> properties = entity.getPropertiesAsMap();
+    properties.put("a", "2");
+    Assertions.assertThat(entity.getPropertiesView()).containsEntry("a", "1");
+  }
+
+  @Test
+  public void testUpdatingCopyDoesNotAffectOriginal() {
+    PolarisBaseEntity entity = newEntity();
+    entity.setPropertiesAsMap(Map.of("a", "1"));
+    Assertions.assertThat(entity.getPropertiesView()).containsEntry("a", "1");
+
+    PolarisBaseEntity copy = new PolarisBaseEntity(entity);
+    copy.addProperty("a", "2");
+    Assertions.assertThat(copy.getPropertiesView()).containsEntry("a", "2");
+    Assertions.assertThat(entity.getPropertiesView()).containsEntry("a", "1");
+  }
+
+  @Test
+  public void testStorageConfigurationDeserializedOnce() {
+    PolarisBaseEntity entity = newEntity();
+    Assertions.assertThat(entity.getStorageConfigurationInfo()).isNull();
+
+    PolarisStorageConfigurationInfo storageConfig =
+        new FileStorageConfigurationInfo(List.of("file:///tmp/"));
+    entity.addInternalProperty(
+        PolarisEntityConstants.getStorageConfigInfoPropertyName(), storageConfig.serialize());
+
+    PolarisStorageConfigurationInfo parsed = entity.getStorageConfigurationInfo();
+    Assertions.assertThat(parsed).isInstanceOf(FileStorageConfigurationInfo.class);
+    Assertions.assertThat(parsed.getAllowedLocations()).containsExactly("file:///tmp/");
+    Assertions.assertThat(CatalogEntity.of(entity).getStorageConfigurationInfo()).isSameAs(parsed);
+
+    entity.setInternalPropertiesAsMap(Map.of());
+    Assertions.assertThat(entity.getStorageConfigurationInfo()).isNull();
+  }
+}
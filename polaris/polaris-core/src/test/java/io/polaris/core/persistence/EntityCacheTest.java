@@ -27,7 +27,9 @@ import io.polaris.core.persistence.cache.EntityCache;
 import io.polaris.core.persistence.cache.EntityCacheByNameKey;
 import io.polaris.core.persistence.cache.EntityCacheEntry;
 import io.polaris.core.persistence.cache.EntityCacheLookupResult;
+import io.polaris.core.persistence.cache.InMemoryEntityCacheInvalidationChannel;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -460,4 +462,162 @@ public class EntityCacheTest {
     // now the loading by the old name should return null
     Assertions.assertNull(cache.getOrLoadEntityByName(callCtx, T4_name));
   }
+
+  @Test
+  void testInMemoryInvalidationChannel() {
+    // two caches playing the role of two nodes, sharing an invalidation channel
+    EntityCache cache1 = this.allocateNewCache();
+    EntityCache cache2 = this.allocateNewCache();
+    InMemoryEntityCacheInvalidationChannel channel = new InMemoryEntityCacheInvalidationChannel();
+    this.metaStoreManager.addEntityChangeListener(channel);
+    channel.subscribe(cache1, () -> this.metaStore);
+    channel.subscribe(cache2, () -> this.metaStore);
+
+    // load table N5/N6/T6 in both caches
+    PolarisBaseEntity catalog = this.tm.ensureExistsByName(null, PolarisEntityType.CATALOG, "test");
+    PolarisBaseEntity N5 =
+        this.tm.ensureExistsByName(List.of(catalog), PolarisEntityType.NAMESPACE, "N5");
+    PolarisBaseEntity N5_N6 =
+        this.tm.ensureExistsByName(List.of(catalog, N5), PolarisEntityType.NAMESPACE, "N6");
+    PolarisBaseEntity T6v1 =
+        this.tm.ensureExistsByName(
+            List.of(catalog, N5, N5_N6),
+            PolarisEntityType.TABLE_LIKE,
+            PolarisEntitySubType.TABLE,
+            "T6");
+    Assertions.assertNotNull(
+        cache1.getOrLoadEntityById(callCtx, T6v1.getCatalogId(), T6v1.getId()));
+    Assertions.assertNotNull(
+        cache2.getOrLoadEntityById(callCtx, T6v1.getCatalogId(), T6v1.getId()));
+
+    // update the entity, both caches should have been invalidated
+    this.tm.updateEntity(
+        List.of(catalog, N5, N5_N6), T6v1, "{\"v2_properties\": \"some value\"}", "{}");
+    Assertions.assertNull(cache1.getEntityById(T6v1.getId()));
+    Assertions.assertNull(cache2.getEntityById(T6v1.getId()));
+
+    // reload it, we should get the new version
+    EntityCacheLookupResult lookup =
+        cache2.getOrLoadEntityById(callCtx, T6v1.getCatalogId(), T6v1.getId());
+    Assertions.assertNotNull(lookup);
+    Assertions.assertFalse(lookup.isCacheHit());
+    Assertions.assertTrue(
+        lookup.getCacheEntry().getEntity().getEntityVersion() > T6v1.getEntityVersion());
+
+    // once closed, nothing is delivered anymore
+    channel.close();
+    PolarisBaseEntity T6v2 =
+        this.tm.ensureExistsByName(
+            List.of(catalog, N5, N5_N6),
+            PolarisEntityType.TABLE_LIKE,
+            PolarisEntitySubType.TABLE,
+            "T6");
+    this.tm.updateEntity(
+        List.of(catalog, N5, N5_N6), T6v2, "{\"v3_properties\": \"some value\"}", "{}");
+    Assertions.assertNotNull(cache2.getEntityById(T6v1.getId()));
+  }
+
+  @Test
+  void testValidateCachedEntries() {
+    // get a new cache, changes are not published to it
+    EntityCache cache = this.allocateNewCache();
+
+    // load the catalog and namespace N1 in the cache
+    EntityCacheLookupResult lookup =
+        cache.getOrLoadEntityByName(
+            this.callCtx, new EntityCacheByNameKey(PolarisEntityType.CATALOG, "test"));
+    Assertions.assertNotNull(lookup);
+    PolarisBaseEntity catalog = lookup.getCacheEntry().getEntity();
+    PolarisBaseEntity N1 =
+        this.tm.ensureExistsByName(List.of(catalog), PolarisEntityType.NAMESPACE, "N1");
+    Assertions.assertNotNull(cache.getOrLoadEntityById(callCtx, N1.getCatalogId(), N1.getId()));
+
+    // nothing has changed, nothing to evict
+    Assertions.assertEquals(0, cache.validateCachedEntries(this.callCtx, 1));
+    Assertions.assertNotNull(cache.getEntityById(catalog.getId()));
+    Assertions.assertNotNull(cache.getEntityById(N1.getId()));
+
+    // change N1 behind the back of the cache, it should be evicted but not the catalog
+    this.tm.updateEntity(List.of(catalog), N1, "{\"v2_properties\": \"some value\"}", "{}");
+    Assertions.assertNotNull(cache.getEntityById(N1.getId()));
+    Assertions.assertEquals(1, cache.validateCachedEntries(this.callCtx, 1));
+    Assertions.assertNotNull(cache.getEntityById(catalog.getId()));
+    Assertions.assertNull(cache.getEntityById(N1.getId()));
+  }
+
+  @Test
+  void testValidateCachedEntriesAccessedSince() {
+    // get a new cache, changes are not published to it
+    EntityCache cache = this.allocateNewCache();
+
+    // load the catalog and namespace N1 in the cache
+    EntityCacheLookupResult lookup =
+        cache.getOrLoadEntityByName(
+            this.callCtx, new EntityCacheByNameKey(PolarisEntityType.CATALOG, "test"));
+    Assertions.assertNotNull(lookup);
+    PolarisBaseEntity catalog = lookup.getCacheEntry().getEntity();
+    PolarisBaseEntity N1 =
+        this.tm.ensureExistsByName(List.of(catalog), PolarisEntityType.NAMESPACE, "N1");
+    Assertions.assertNotNull(cache.getOrLoadEntityById(callCtx, N1.getCatalogId(), N1.getId()));
+    long previousPollNanoTimestamp = System.nanoTime();
+
+    // change N1 behind the back of the cache, it is not validated until it is accessed again
+    this.tm.updateEntity(List.of(catalog), N1, "{\"v2_properties\": \"some value\"}", "{}");
+    Assertions.assertEquals(
+        0, cache.validateCachedEntries(this.callCtx, 1, previousPollNanoTimestamp));
+    Assertions.assertNotNull(cache.getEntityById(N1.getId()));
+    EntityCacheLookupResult N1Lookup =
+        cache.getOrLoadEntityById(callCtx, N1.getCatalogId(), N1.getId());
+    Assertions.assertNotNull(N1Lookup);
+    Assertions.assertTrue(N1Lookup.isCacheHit());
+    Assertions.assertEquals(
+        1, cache.validateCachedEntries(this.callCtx, 1, previousPollNanoTimestamp));
+    Assertions.assertNotNull(cache.getEntityById(catalog.getId()));
+    Assertions.assertNull(cache.getEntityById(N1.getId()));
+  }
+
+  @Test
+  void testBackgroundRevalidation() throws InterruptedException {
+    // get a new cache, changes are not published to it but it revalidates entries in the background
+    EntityCache cache = this.allocateNewCache();
+    cache.enableBackgroundRevalidation(() -> this.metaStore);
+
+    // load the catalog and namespace N1 in the cache
+    EntityCacheLookupResult lookup =
+        cache.getOrLoadEntityByName(
+            this.callCtx, new EntityCacheByNameKey(PolarisEntityType.CATALOG, "test"));
+    Assertions.assertNotNull(lookup);
+    EntityCacheEntry catalogEntry = lookup.getCacheEntry();
+    PolarisBaseEntity catalog = catalogEntry.getEntity();
+    PolarisBaseEntity N1 =
+        this.tm.ensureExistsByName(List.of(catalog), PolarisEntityType.NAMESPACE, "N1");
+    lookup = cache.getOrLoadEntityById(callCtx, N1.getCatalogId(), N1.getId());
+    Assertions.assertNotNull(lookup);
+    EntityCacheEntry N1Entry = lookup.getCacheEntry();
+    long catalogValidated = catalogEntry.getLastValidatedNanoTimestamp();
+
+    // change N1 behind the back of the cache, then revalidate both entries in the background
+    this.tm.updateEntity(List.of(catalog), N1, "{\"v2_properties\": \"some value\"}", "{}");
+    cache.scheduleRevalidation(this.callCtx, catalogEntry);
+    cache.scheduleRevalidation(this.callCtx, N1Entry);
+
+    // N1 is eventually refreshed and the catalog revalidated
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    EntityCacheEntry N1Refreshed = cache.getEntityById(N1.getId());
+    while ((N1Refreshed == null
+            || N1Refreshed == N1Entry
+            || catalogEntry.getLastValidatedNanoTimestamp() == catalogValidated)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      N1Refreshed = cache.getEntityById(N1.getId());
+    }
+    Assertions.assertNotNull(N1Refreshed);
+    Assertions.assertTrue(
+        N1Refreshed.getEntity().getEntityVersion() > N1.getEntityVersion(),
+        "N1 should have been refreshed");
+
+    // while the catalog, which has not changed, is kept and marked as validated
+    Assertions.assertSame(catalogEntry, cache.getEntityById(catalog.getId()));
+    Assertions.assertTrue(catalogEntry.getLastValidatedNanoTimestamp() > catalogValidated);
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Unit testing of the persistent sorted map backing the slices of the tree-map store */
+public class PersistentTreeMapTest {
+
+  private static <K extends Comparable<? super K>, V> List<Map.Entry<K, V>> tail(
+      PersistentTreeMap<K, V> map, K fromKey, boolean inclusive) {
+    List<Map.Entry<K, V>> entries = new ArrayList<>();
+    map.tail(fromKey, inclusive).forEach(e -> entries.add(Map.entry(e.getKey(), e.getValue())));
+    return entries;
+  }
+
+  private static void assertSameContent(
+      PersistentTreeMap<Integer, String> map, TreeMap<Integer, String> expected) {
+    Assertions.assertThat(tail(map, Integer.MIN_VALUE, true))
+        .containsExactlyElementsOf(new ArrayList<>(expected.entrySet()));
+  }
+
+  @Test
+  void testMatchesTreeMap() {
+    Random random = new Random(42);
+    PersistentTreeMap<Integer, String> map = PersistentTreeMap.empty();
+    TreeMap<Integer, String> expected = new TreeMap<>();
+    for (int i = 0; i < 5000; i++) {
+      int key = random.nextInt(1000);
+      if (random.nextInt(3) == 0) {
+        map = map.remove(key);
+        expected.remove(key);
+      } else {
+        map = map.put(key, "v" + i);
+        expected.put(key, "v" + i);
+      }
+
+      int probe = random.nextInt(1100) - 50;
+      Assertions.assertThat(map.get(probe)).isEqualTo(expected.get(probe));
+      Assertions.assertThat(map.ceilingKey(probe)).isEqualTo(expected.ceilingKey(probe));
+      boolean inclusive = random.nextBoolean();
+      Assertions.assertThat(tail(map, probe, inclusive))
+          .containsExactlyElementsOf(
+              new ArrayList<>(expected.tailMap(probe, inclusive).entrySet()));
+    }
+    assertSameContent(map, expected);
+  }
+
+  @Test
+  void testUpdatesDoNotModifyPreviousVersions() {
+    PersistentTreeMap<Integer, String> v1 = PersistentTreeMap.<Integer, String>empty().put(1, "a");
+    PersistentTreeMap<Integer, String> v2 = v1.put(2, "b").put(1, "c");
+    PersistentTreeMap<Integer, String> v3 = v2.remove(1);
+
+    Assertions.assertThat(tail(v1, 0, true)).containsExactly(Map.entry(1, "a"));
+    Assertions.assertThat(tail(v2, 0, true)).containsExactly(Map.entry(1, "c"), Map.entry(2, "b"));
+    Assertions.assertThat(tail(v3, 0, true)).containsExactly(Map.entry(2, "b"));
+
+    // removing a missing key returns the same map
+    Assertions.assertThat(v3.remove(1)).isSameAs(v3);
+  }
+
+  @Test
+  void testUpdatesShareUnmodifiedNodes() {
+    int size = 200_000;
+    PersistentTreeMap<Integer, String> map = PersistentTreeMap.empty();
+    for (int i = 0; i < size; i++) {
+      map = map.put(i, "v" + i);
+    }
+
+    // the tree stays balanced, an AVL tree is at most ~1.44 log2(n) high
+    int maxHeight = (int) Math.ceil(1.45 * Math.log(size + 2) / Math.log(2));
+    Assertions.assertThat(map.root.height).isLessThanOrEqualTo(maxHeight);
+
+    // an update only allocates the nodes on the path to the key and the rotated ones, whatever the
+    // size of the map, all the other nodes are shared with the previous version
+    Set<PersistentTreeMap.Node<Integer, String>> previousNodes = nodes(map);
+    Assertions.assertThat(newNodeCount(map.put(size / 3, "updated"), previousNodes))
+        .isLessThanOrEqualTo(maxHeight + 2);
+    Assertions.assertThat(newNodeCount(map.put(size, "added"), previousNodes))
+        .isLessThanOrEqualTo(maxHeight + 2);
+    Assertions.assertThat(newNodeCount(map.remove(size / 2), previousNodes))
+        .isLessThanOrEqualTo(3 * maxHeight);
+  }
+
+  private static Set<PersistentTreeMap.Node<Integer, String>> nodes(
+      PersistentTreeMap<Integer, String> map) {
+    Set<PersistentTreeMap.Node<Integer, String>> nodes =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    map.tail(Integer.MIN_VALUE, true)
+        .forEach(e -> nodes.add((PersistentTreeMap.Node<Integer, String>) e));
+    return nodes;
+  }
+
+  private static long newNodeCount(
+      PersistentTreeMap<Integer, String> map,
+      Set<PersistentTreeMap.Node<Integer, String>> previousNodes) {
+    return nodes(map).stream().filter(node -> !previousNodes.contains(node)).count();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import java.util.List;
+import java.util.TreeMap;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Unit testing of the keys of the tree-map store slices */
+public class PolarisTreeMapKeyTest {
+
+  @Test
+  void testOrdering() {
+    // ids are compared first, numerically, then the name
+    Assertions.assertThat(PolarisTreeMapKey.of(1, 2)).isLessThan(PolarisTreeMapKey.of(1, 10));
+    Assertions.assertThat(PolarisTreeMapKey.named("b", 1, 2))
+        .isLessThan(PolarisTreeMapKey.named("a", 1, 3));
+    Assertions.assertThat(PolarisTreeMapKey.named("a", 1, 2))
+        .isLessThan(PolarisTreeMapKey.named("b", 1, 2));
+
+    // a prefix sorts before all the keys it matches
+    Assertions.assertThat(PolarisTreeMapKey.of(1, 2))
+        .isLessThan(PolarisTreeMapKey.named("a", 1, 2));
+    Assertions.assertThat(PolarisTreeMapKey.of(1, 2)).isLessThan(PolarisTreeMapKey.of(1, 2, 0));
+    Assertions.assertThat(PolarisTreeMapKey.named("a", 1, 2))
+        .isEqualByComparingTo(PolarisTreeMapKey.named("a", 1, 2))
+        .isEqualTo(PolarisTreeMapKey.named("a", 1, 2))
+        .hasSameHashCodeAs(PolarisTreeMapKey.named("a", 1, 2));
+  }
+
+  @Test
+  void testPrefix() {
+    PolarisTreeMapKey prefix = PolarisTreeMapKey.of(1, 2);
+    Assertions.assertThat(prefix.isPrefixOf(PolarisTreeMapKey.of(1, 2))).isTrue();
+    Assertions.assertThat(prefix.isPrefixOf(PolarisTreeMapKey.of(1, 2, 3))).isTrue();
+    Assertions.assertThat(prefix.isPrefixOf(PolarisTreeMapKey.named("a", 1, 2, 3))).isTrue();
+    Assertions.assertThat(prefix.isPrefixOf(PolarisTreeMapKey.of(1, 20))).isFalse();
+    Assertions.assertThat(prefix.isPrefixOf(PolarisTreeMapKey.named("a", 1))).isFalse();
+
+    // names are not prefixes of longer names
+    Assertions.assertThat(
+            PolarisTreeMapKey.named("a", 1).isPrefixOf(PolarisTreeMapKey.named("ab", 1)))
+        .isFalse();
+
+    // all the keys matching a prefix are contiguous, right after the prefix
+    TreeMap<PolarisTreeMapKey, String> map = new TreeMap<>();
+    for (PolarisTreeMapKey key :
+        List.of(
+            PolarisTreeMapKey.named("x", 1),
+            PolarisTreeMapKey.named("y", 1, 1),
+            PolarisTreeMapKey.named("y", 1, 2),
+            PolarisTreeMapKey.named("z", 1, 2, 5),
+            PolarisTreeMapKey.named("y", 1, 3),
+            PolarisTreeMapKey.named("y", 1, 12))) {
+      map.put(key, key.toString());
+    }
+    Assertions.assertThat(map.tailMap(prefix, true).values())
+        .startsWith("1::2::y", "1::2::5::z", "1::3::y");
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.core.persistence;
+
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.PolarisDiagnostics;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.PolarisEntitySubType;
+import io.polaris.core.entity.PolarisEntityType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/** Unit testing of the transactions of the tree-map store */
+public class PolarisTreeMapStoreTest {
+
+  private final PolarisTreeMapStore store;
+
+  private final PolarisTreeMapMetaStoreSessionImpl session;
+
+  private final PolarisCallContext callCtx;
+
+  public PolarisTreeMapStoreTest() {
+    PolarisDiagnostics diagServices = new PolarisDefaultDiagServiceImpl();
+    store = new PolarisTreeMapStore(diagServices);
+    session = new PolarisTreeMapMetaStoreSessionImpl(store, Mockito.mock());
+    callCtx = new PolarisCallContext(session, diagServices);
+  }
+
+  private PolarisBaseEntity newEntity(long id, String name) {
+    return new PolarisBaseEntity(
+        1L, id, PolarisEntityType.NAMESPACE, PolarisEntitySubType.NULL_SUBTYPE, 1L, name);
+  }
+
+  private PolarisBaseEntity lookup(long id) {
+    return session.runInReadTransaction(callCtx, () -> session.lookupEntity(callCtx, 1L, id));
+  }
+
+  @Test
+  void testReadersSeeConsistentSnapshot() throws Exception {
+    session.runActionInTransaction(
+        callCtx, () -> session.writeToEntities(callCtx, newEntity(1L, "N1")));
+
+    // start a reader, which waits while a writer commits a new entity
+    CountDownLatch readerStarted = new CountDownLatch(1);
+    CountDownLatch writerCommitted = new CountDownLatch(1);
+    CompletableFuture<Boolean> reader =
+        CompletableFuture.supplyAsync(
+            () ->
+                session.runInReadTransaction(
+                    callCtx,
+                    () -> {
+                      Assertions.assertNotNull(session.lookupEntity(callCtx, 1L, 1L));
+                      readerStarted.countDown();
+                      try {
+                        Assertions.assertTrue(writerCommitted.await(10, TimeUnit.SECONDS));
+                      } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                      }
+                      // the write committed after we started is not visible
+                      return session.lookupEntity(callCtx, 1L, 2L) == null;
+                    }));
+
+    // the writer is not blocked by the reader
+    Assertions.assertTrue(readerStarted.await(10, TimeUnit.SECONDS));
+    session.runActionInTransaction(
+        callCtx, () -> session.writeToEntities(callCtx, newEntity(2L, "N2")));
+    writerCommitted.countDown();
+
+    Assertions.assertTrue(reader.get(10, TimeUnit.SECONDS));
+    Assertions.assertNotNull(lookup(2L));
+  }
+
+  @Test
+  void testRollback() {
+    // a rollback discards all the changes made so far in the transaction
+    session.runActionInTransaction(
+        callCtx,
+        () -> {
+          session.writeToEntities(callCtx, newEntity(1L, "N1"));
+          session.rollback();
+          session.writeToEntities(callCtx, newEntity(2L, "N2"));
+        });
+    Assertions.assertNull(lookup(1L));
+    Assertions.assertNotNull(lookup(2L));
+
+    // changes are only visible inside the transaction until it commits
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () ->
+            session.runActionInTransaction(
+                callCtx,
+                () -> {
+                  session.writeToEntities(callCtx, newEntity(3L, "N3"));
+                  session.deleteFromEntities(callCtx, newEntity(2L, "N2"));
+                  Assertions.assertNotNull(session.lookupEntity(callCtx, 1L, 3L));
+                  Assertions.assertNull(session.lookupEntity(callCtx, 1L, 2L));
+                  throw new IllegalStateException("abort");
+                }));
+    Assertions.assertNull(lookup(3L));
+    Assertions.assertNotNull(lookup(2L));
+  }
+
+  @Test
+  void testFailedNestedTransactionKeepsOuterTransaction() {
+    session.runActionInTransaction(
+        callCtx,
+        () -> {
+          session.writeToEntities(callCtx, newEntity(1L, "N1"));
+
+          // transactions cannot be nested
+          Assertions.assertThrows(
+              IllegalStateException.class, () -> session.runInReadTransaction(callCtx, () -> null));
+          Assertions.assertThrows(
+              IllegalStateException.class, () -> session.runActionInTransaction(callCtx, () -> {}));
+
+          // but the outer transaction is still running
+          session.writeToEntities(callCtx, newEntity(2L, "N2"));
+        });
+    Assertions.assertNotNull(lookup(1L));
+    Assertions.assertNotNull(lookup(2L));
+  }
+}
@@ -16,6 +16,8 @@
 package io.polaris.core.persistence;
 
 import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfiguration;
+import io.polaris.core.PolarisConfigurationStore;
 import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.entity.PolarisBaseEntity;
@@ -29,6 +31,7 @@ import io.polaris.core.persistence.cache.EntityCacheEntry;
 import io.polaris.core.persistence.resolver.Resolver;
 import io.polaris.core.persistence.resolver.ResolverPath;
 import io.polaris.core.persistence.resolver.ResolverStatus;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -365,6 +368,118 @@ public class ResolverTest {
         this.cache, "test", "R5", ResolverStatus.StatusEnum.ENTITY_COULD_NOT_BE_RESOLVED);
   }
 
+  /**
+   * Test that with a bounded staleness configured for principals, a cached principal is used
+   * without validation until it is invalidated
+   */
+  @Test
+  void testBoundedStaleness() {
+    // trust cached principals for up to one hour
+    PolarisCallContext boundedCallCtx =
+        new PolarisCallContext(
+            this.metaStore,
+            this.diagServices,
+            new PolarisConfigurationStore() {
+              @SuppressWarnings("unchecked")
+              @Override
+              public <T> @Nullable T getConfiguration(PolarisCallContext ctx, String configName) {
+                return PolarisConfiguration.ENTITY_CACHE_MAX_STALENESS_MS.equals(configName)
+                    ? (T) Map.of(PolarisEntityType.PRINCIPAL.name(), 3_600_000)
+                    : null;
+              }
+            },
+            Clock.systemUTC());
+    EntityCache boundedCache = new EntityCache(this.metaStoreManager);
+    Map<PolarisEntityType, Long> maxStalenessNanosByType =
+        Resolver.parseMaxStalenessNanosByType(boundedCallCtx);
+    Assertions.assertThat(maxStalenessNanosByType)
+        .containsExactly(Map.entry(PolarisEntityType.PRINCIPAL, 3_600_000_000_000L));
+
+    // resolve P2, this will load it into the cache
+    Resolver resolver =
+        new Resolver(
+            boundedCallCtx,
+            this.metaStoreManager,
+            0,
+            "P2",
+            null,
+            boundedCache,
+            null,
+            maxStalenessNanosByType);
+    Assertions.assertThat(resolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.SUCCESS);
+
+    // drop P2 without telling the cache, the cached copy is still trusted
+    PolarisBaseEntity P2 = this.tm.ensureExistsByName(null, PolarisEntityType.PRINCIPAL, "P2");
+    this.tm.dropEntity(null, P2);
+    resolver =
+        new Resolver(
+            boundedCallCtx,
+            this.metaStoreManager,
+            0,
+            "P2",
+            null,
+            boundedCache,
+            null,
+            maxStalenessNanosByType);
+    Assertions.assertThat(resolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.SUCCESS);
+
+    // once the cache is notified of the change, P2 is reloaded and cannot be resolved anymore
+    boundedCache.onEntityChanged(boundedCallCtx, P2);
+    resolver =
+        new Resolver(
+            boundedCallCtx,
+            this.metaStoreManager,
+            0,
+            "P2",
+            null,
+            boundedCache,
+            null,
+            maxStalenessNanosByType);
+    Assertions.assertThat(resolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.CALLER_PRINCIPAL_DOES_NOT_EXIST);
+  }
+
+  /**
+   * Test that a caller principal already resolved in the request, when authenticating, is not
+   * resolved nor validated again
+   */
+  @Test
+  void testPreResolvedCallerPrincipal() {
+    // resolve P1 and its principal roles, like when authenticating
+    Resolver callerResolver = this.allocateResolver();
+    Assertions.assertThat(callerResolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.SUCCESS);
+    Assertions.assertThat(callerResolver.getResolvedCallerPrincipalRoles()).hasSize(2);
+
+    // without the resolved principal, the cached principal and roles are validated again
+    PolarisMetaStoreManager spiedMetaStoreManager = Mockito.spy(this.metaStoreManager);
+    Resolver resolver =
+        new Resolver(
+            this.callCtx, spiedMetaStoreManager, this.P1.getId(), null, null, this.cache, null);
+    Assertions.assertThat(resolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.SUCCESS);
+    Mockito.verify(spiedMetaStoreManager, Mockito.times(1))
+        .loadEntitiesChangeTracking(Mockito.any(), Mockito.any());
+
+    // with it, they are used as is
+    spiedMetaStoreManager = Mockito.spy(this.metaStoreManager);
+    resolver =
+        new Resolver(
+            this.callCtx, spiedMetaStoreManager, this.P1.getId(), null, null, this.cache, null);
+    resolver.setResolvedCallerPrincipal(
+        callerResolver.getResolvedCallerPrincipal(),
+        callerResolver.getResolvedCallerPrincipalRoles());
+    Assertions.assertThat(resolver.resolveAll().getStatus())
+        .isEqualTo(ResolverStatus.StatusEnum.SUCCESS);
+    Mockito.verifyNoInteractions(spiedMetaStoreManager);
+    Assertions.assertThat(resolver.getResolvedCallerPrincipal())
+        .isSameAs(callerResolver.getResolvedCallerPrincipal());
+    Assertions.assertThat(resolver.getResolvedCallerPrincipalRoles())
+        .containsExactlyElementsOf(callerResolver.getResolvedCallerPrincipalRoles());
+  }
+
   /**
    * Create a simple resolver without a reference catalog, any principal roles sub-scope and using
    * P1 as the caller principal
@@ -179,6 +179,77 @@ class InMemoryStorageIntegrationTest {
                 new PolarisStorageIntegration.ValidationResult(false, "")));
   }
 
+  @Test
+  public void testValidateAccessToLocationsMatchesPathSegments() {
+    MockInMemoryStorageIntegration storage = new MockInMemoryStorageIntegration();
+    Map<String, Map<PolarisStorageActions, PolarisStorageIntegration.ValidationResult>> result =
+        storage.validateAccessToLocations(
+            new AwsStorageConfigurationInfo(
+                PolarisStorageConfigurationInfo.StorageType.S3,
+                List.of("s3://bucket/path/to/warehouse"),
+                "arn:aws:iam::012345678901:role/jdoe"),
+            Set.of(PolarisStorageActions.READ, PolarisStorageActions.WRITE),
+            Set.of(
+                "s3://bucket/path/to/warehouse",
+                "S3://bucket/path/to/warehouse//namespace/table/",
+                "s3://bucket/path/to/warehouse2",
+                "s3://bucket2/path/to/warehouse/namespace/table",
+                "s3://bucket/path/to"));
+    Assertions.assertThat(result)
+        .hasSize(5)
+        .containsEntry(
+            "s3://bucket/path/to/warehouse",
+            Map.of(
+                PolarisStorageActions.READ,
+                new PolarisStorageIntegration.ValidationResult(true, ""),
+                PolarisStorageActions.WRITE,
+                new PolarisStorageIntegration.ValidationResult(true, "")))
+        .containsEntry(
+            "S3://bucket/path/to/warehouse//namespace/table/",
+            Map.of(
+                PolarisStorageActions.READ,
+                new PolarisStorageIntegration.ValidationResult(true, ""),
+                PolarisStorageActions.WRITE,
+                new PolarisStorageIntegration.ValidationResult(true, "")))
+        .containsEntry(
+            "s3://bucket/path/to/warehouse2",
+            Map.of(
+                PolarisStorageActions.READ,
+                new PolarisStorageIntegration.ValidationResult(false, ""),
+                PolarisStorageActions.WRITE,
+                new PolarisStorageIntegration.ValidationResult(false, "")))
+        .containsEntry(
+            "s3://bucket2/path/to/warehouse/namespace/table",
+            Map.of(
+                PolarisStorageActions.READ,
+                new PolarisStorageIntegration.ValidationResult(false, ""),
+                PolarisStorageActions.WRITE,
+                new PolarisStorageIntegration.ValidationResult(false, "")))
+        .containsEntry(
+            "s3://bucket/path/to",
+            Map.of(
+                PolarisStorageActions.READ,
+                new PolarisStorageIntegration.ValidationResult(false, ""),
+                PolarisStorageActions.WRITE,
+                new PolarisStorageIntegration.ValidationResult(false, "")));
+  }
+
+  @Test
+  public void testAllowedLocationMatcher() {
+    FileStorageConfigurationInfo storageConfig =
+        new FileStorageConfigurationInfo(List.of("file:///tmp/warehouse/", "*"));
+    AllowedLocationMatcher matcher = storageConfig.getAllowedLocationMatcher();
+    Assertions.assertThat(storageConfig.getAllowedLocationMatcher()).isSameAs(matcher);
+    Assertions.assertThat(matcher.hasWildcard()).isTrue();
+    Assertions.assertThat(matcher.matches("file:/tmp/warehouse/ns/table")).isTrue();
+    Assertions.assertThat(matcher.matches("file:///tmp/warehouse")).isTrue();
+    Assertions.assertThat(matcher.matches("file:///tmp/warehouses")).isFalse();
+    Assertions.assertThat(matcher.matches("file://host/tmp/warehouse")).isFalse();
+    Assertions.assertThat(matcher.matches("/tmp/warehouse")).isFalse();
+    // without ALLOW_WILDCARD_LOCATION the wildcard location does not allow anything
+    Assertions.assertThat(matcher.matches("s3://bucket/path")).isFalse();
+  }
+
   private static final class MockInMemoryStorageIntegration
       extends InMemoryStorageIntegration<PolarisStorageConfigurationInfo> {
     public MockInMemoryStorageIntegration() {
@@ -15,6 +15,7 @@
  */
 package io.polaris.core.storage.cache;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.PolarisDiagnostics;
@@ -23,6 +24,7 @@ import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityConstants;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.monitor.PolarisMetricRegistry;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
 import io.polaris.core.persistence.PolarisMetaStoreManagerImpl;
 import io.polaris.core.persistence.PolarisMetaStoreSession;
@@ -36,10 +38,16 @@ import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class StorageCredentialCacheTest {
@@ -364,6 +372,217 @@ public class StorageCredentialCacheTest {
     }
   }
 
+  @Test
+  public void testCacheRefreshAhead() throws InterruptedException {
+    StorageCredentialCacheConfiguration configuration = new StorageCredentialCacheConfiguration();
+    configuration.setTtlMs(1000);
+    PolarisMetaStoreSession refreshSession = Mockito.mock(PolarisMetaStoreSession.class);
+    storageCredentialCache =
+        new StorageCredentialCache(configuration, null, null, () -> refreshSession);
+    List<PolarisMetaStoreManager.ScopedCredentialsResult> mockedScopedCreds =
+        getFakeScopedCreds(2, /* expireSoon= */ false);
+    Mockito.when(
+            metaStoreManager.getSubscopedCredsForEntity(
+                Mockito.any(),
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.anyBoolean(),
+                Mockito.anySet(),
+                Mockito.anySet()))
+        .thenReturn(mockedScopedCreds.get(0))
+        .thenReturn(mockedScopedCreds.get(1));
+    PolarisEntity polarisEntity =
+        new PolarisEntity(
+            new PolarisBaseEntity(
+                1, 2, PolarisEntityType.CATALOG, PolarisEntitySubType.TABLE, 0, "name"));
+    Supplier<Map<String, String>> getCreds =
+        () ->
+            storageCredentialCache.getOrGenerateSubScopeCreds(
+                metaStoreManager,
+                callCtx,
+                polarisEntity,
+                true,
+                new HashSet<>(Arrays.asList("s3://bucket1/path")),
+                new HashSet<>(Arrays.asList("s3://bucket3/path")));
+    Assertions.assertEquals(
+        "key_id_1", getCreds.get().get(PolarisCredentialProperty.AWS_KEY_ID.getPropertyName()));
+
+    // once the time to live has passed, the cached creds are still served while they are refreshed
+    Thread.sleep(1100);
+    Assertions.assertEquals(
+        "key_id_1", getCreds.get().get(PolarisCredentialProperty.AWS_KEY_ID.getPropertyName()));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (getCreds.get().containsKey(PolarisCredentialProperty.AWS_KEY_ID.getPropertyName())
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assertions.assertEquals(
+        "sas_token_1",
+        getCreds
+            .get()
+            .get(PolarisCredentialProperty.AZURE_SAS_TOKEN.getPropertyName() + "account_host"));
+    // the refresh did not reuse the session of the request which triggered it
+    ArgumentCaptor<PolarisCallContext> refreshCallCtx =
+        ArgumentCaptor.forClass(PolarisCallContext.class);
+    Mockito.verify(metaStoreManager, Mockito.atLeast(2))
+        .getSubscopedCredsForEntity(
+            refreshCallCtx.capture(),
+            Mockito.anyLong(),
+            Mockito.anyLong(),
+            Mockito.anyBoolean(),
+            Mockito.anySet(),
+            Mockito.anySet());
+    Assertions.assertSame(callCtx, refreshCallCtx.getAllValues().get(0));
+    Assertions.assertSame(refreshSession, refreshCallCtx.getValue().getMetaStore());
+    storageCredentialCache.close();
+  }
+
+  @Test
+  public void testNoRefreshAfterClose() throws InterruptedException {
+    StorageCredentialCacheConfiguration configuration = new StorageCredentialCacheConfiguration();
+    configuration.setTtlMs(200);
+    storageCredentialCache =
+        new StorageCredentialCache(
+            configuration, null, null, () -> Mockito.mock(PolarisMetaStoreSession.class));
+    Mockito.when(
+            metaStoreManager.getSubscopedCredsForEntity(
+                Mockito.any(),
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.anyBoolean(),
+                Mockito.anySet(),
+                Mockito.anySet()))
+        .thenReturn(getFakeScopedCreds(1, /* expireSoon= */ false).get(0));
+    PolarisEntity polarisEntity =
+        new PolarisEntity(
+            new PolarisBaseEntity(
+                1, 2, PolarisEntityType.CATALOG, PolarisEntitySubType.TABLE, 0, "name"));
+    Supplier<Map<String, String>> getCreds =
+        () ->
+            storageCredentialCache.getOrGenerateSubScopeCreds(
+                metaStoreManager,
+                callCtx,
+                polarisEntity,
+                true,
+                new HashSet<>(Arrays.asList("s3://bucket1/path")),
+                new HashSet<>(Arrays.asList("s3://bucket3/path")));
+    getCreds.get();
+    storageCredentialCache.close();
+
+    // the cached creds are still served once they are due for a refresh, which does not happen
+    Thread.sleep(250);
+    Assertions.assertEquals(
+        "key_id_1", getCreds.get().get(PolarisCredentialProperty.AWS_KEY_ID.getPropertyName()));
+    Mockito.verify(metaStoreManager, Mockito.times(1))
+        .getSubscopedCredsForEntity(
+            Mockito.any(),
+            Mockito.anyLong(),
+            Mockito.anyLong(),
+            Mockito.anyBoolean(),
+            Mockito.anySet(),
+            Mockito.anySet());
+  }
+
+  @Test
+  public void testConcurrentMissesCoalesced() throws Exception {
+    storageCredentialCache = new StorageCredentialCache();
+    PolarisMetaStoreManager.ScopedCredentialsResult scopedCreds =
+        getFakeScopedCreds(1, /* expireSoon= */ false).get(0);
+    Mockito.when(
+            metaStoreManager.getSubscopedCredsForEntity(
+                Mockito.any(),
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.anyBoolean(),
+                Mockito.anySet(),
+                Mockito.anySet()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(200);
+              return scopedCreds;
+            });
+    PolarisEntity polarisEntity =
+        new PolarisEntity(
+            new PolarisBaseEntity(
+                1, 2, PolarisEntityType.CATALOG, PolarisEntitySubType.TABLE, 0, "name"));
+    CountDownLatch start = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      List<Future<Map<String, String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return storageCredentialCache.getOrGenerateSubScopeCreds(
+                      metaStoreManager,
+                      callCtx,
+                      polarisEntity,
+                      true,
+                      new HashSet<>(Arrays.asList("s3://bucket1/path")),
+                      new HashSet<>(Arrays.asList("s3://bucket3/path")));
+                }));
+      }
+      start.countDown();
+      for (Future<Map<String, String>> future : futures) {
+        Assertions.assertEquals(
+            "key_id_1", future.get().get(PolarisCredentialProperty.AWS_KEY_ID.getPropertyName()));
+      }
+    }
+    Mockito.verify(metaStoreManager, Mockito.times(1))
+        .getSubscopedCredsForEntity(
+            Mockito.any(),
+            Mockito.anyLong(),
+            Mockito.anyLong(),
+            Mockito.anyBoolean(),
+            Mockito.anySet(),
+            Mockito.anySet());
+  }
+
+  @Test
+  public void testCacheMetrics() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    storageCredentialCache =
+        new StorageCredentialCache(
+            new StorageCredentialCacheConfiguration(),
+            new PolarisMetricRegistry(meterRegistry),
+            "test-realm");
+    Mockito.when(
+            metaStoreManager.getSubscopedCredsForEntity(
+                Mockito.any(),
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.anyBoolean(),
+                Mockito.anySet(),
+                Mockito.anySet()))
+        .thenReturn(getFakeScopedCreds(1, /* expireSoon= */ false).get(0));
+    PolarisEntity polarisEntity =
+        new PolarisEntity(
+            new PolarisBaseEntity(
+                1, 2, PolarisEntityType.CATALOG, PolarisEntitySubType.TABLE, 0, "name"));
+    for (int i = 0; i < 2; i++) {
+      storageCredentialCache.getOrGenerateSubScopeCreds(
+          metaStoreManager,
+          callCtx,
+          polarisEntity,
+          true,
+          new HashSet<>(Arrays.asList("s3://bucket1/path")),
+          new HashSet<>(Arrays.asList("s3://bucket3/path")));
+    }
+    Assertions.assertEquals(
+        1, meterRegistry.get(StorageCredentialCache.MISS_METRIC + ".count").counter().count());
+    Assertions.assertEquals(
+        1, meterRegistry.get(StorageCredentialCache.HIT_METRIC + ".count").counter().count());
+    Assertions.assertEquals(
+        1, meterRegistry.get(StorageCredentialCache.LOAD_METRIC).timer().count());
+    Assertions.assertEquals(
+        0.5,
+        meterRegistry
+            .get(StorageCredentialCache.HIT_RATIO_METRIC)
+            .tag("REALM_ID", "test-realm")
+            .gauge()
+            .value());
+  }
+
   private static List<PolarisMetaStoreManager.ScopedCredentialsResult> getFakeScopedCreds(
       int number, boolean expireSoon) {
     List<PolarisMetaStoreManager.ScopedCredentialsResult> res = new ArrayList<>();
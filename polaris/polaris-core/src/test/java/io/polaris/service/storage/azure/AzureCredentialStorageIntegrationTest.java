@@ -22,6 +22,7 @@ import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.models.UserDelegationKey;
 import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.azure.storage.common.Utility;
 import com.azure.storage.file.datalake.DataLakeFileClient;
@@ -41,12 +42,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.util.Strings;
@@ -56,6 +59,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,6 +113,46 @@ public class AzureCredentialStorageIntegrationTest {
         .isInstanceOf(RuntimeException.class);
   }
 
+  @Test
+  public void testUserDelegationKeyReusedAcrossVends() {
+    BlobServiceClient blobServiceClient = Mockito.mock(BlobServiceClient.class);
+    BlobContainerClient containerClient = Mockito.mock(BlobContainerClient.class);
+    UserDelegationKey userDelegationKey =
+        new UserDelegationKey().setSignedExpiry(OffsetDateTime.now().plusDays(7));
+    Mockito.when(blobServiceClient.getUserDelegationKey(Mockito.any(), Mockito.any()))
+        .thenReturn(userDelegationKey);
+    Mockito.when(blobServiceClient.getBlobContainerClient("container")).thenReturn(containerClient);
+    Mockito.when(
+            containerClient.generateUserDelegationSas(
+                Mockito.any(), Mockito.same(userDelegationKey)))
+        .thenReturn("sas-token");
+    AzureCredentialsStorageIntegration azureCredsIntegration =
+        new AzureCredentialsStorageIntegration() {
+          @Override
+          protected BlobServiceClient createBlobServiceClient(String endpoint, String tenantId) {
+            Assertions.assertThat(endpoint).isEqualTo("https://account.blob.core.windows.net");
+            return blobServiceClient;
+          }
+        };
+    String location = "abfss://container@account.blob.core.windows.net/polaris-test/";
+    AzureStorageConfigurationInfo azureConfig =
+        new AzureStorageConfigurationInfo(List.of(location), tenantId);
+
+    // the second vend for the same storage account reuses the cached user delegation key
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertThat(
+              azureCredsIntegration.getSubscopedCreds(
+                  new PolarisDefaultDiagServiceImpl(),
+                  azureConfig,
+                  false,
+                  Set.of(location),
+                  Set.of()))
+          .containsEntry(PolarisCredentialProperty.AZURE_SAS_TOKEN, "sas-token");
+    }
+    Mockito.verify(blobServiceClient, Mockito.times(1))
+        .getUserDelegationKey(Mockito.any(), Mockito.any());
+  }
+
   @TestWithAzureArgs
   public void testGetSubscopedTokenList(boolean allowListAction, String service) {
 
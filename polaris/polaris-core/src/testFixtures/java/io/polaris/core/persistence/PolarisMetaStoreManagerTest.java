@@ -21,8 +21,12 @@ import io.polaris.core.entity.AsyncTaskType;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityActiveRecord;
+import io.polaris.core.entity.PolarisEntityConstants;
+import io.polaris.core.entity.PolarisEntityCore;
+import io.polaris.core.entity.PolarisEntityLocationRecord;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.entity.PolarisTaskConstants;
 import io.polaris.core.entity.TaskEntity;
 import java.time.Clock;
 import java.time.Duration;
@@ -270,6 +274,13 @@ public abstract class PolarisMetaStoreManagerTest {
     polarisTestMetaStoreManager.testRename();
   }
 
+  /** test listing entities one page at a time */
+  @Test
+  void testListEntitiesPaginated() {
+    // allocate test driver
+    polarisTestMetaStoreManager.testListEntitiesPaginated();
+  }
+
   /** Test the set of functions for the entity cache */
   @Test
   void testEntityCache() {
@@ -363,6 +374,27 @@ public abstract class PolarisMetaStoreManagerTest {
     Assertions.assertThat(finalList).isNotNull().isEmpty();
   }
 
+  @Test
+  void testLoadTasksStopsAtMaxAttempts() {
+    polarisTestMetaStoreManager.createEntity(
+        null, PolarisEntityType.TASK, PolarisEntitySubType.NULL_SUBTYPE, "task");
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+
+    // a task which always fails is leased again each time its lease expires, up to a maximum
+    for (int attempt = 1; attempt <= PolarisTaskConstants.TASK_MAX_ATTEMPTS; attempt++) {
+      Assertions.assertThat(metaStoreManager.loadTasks(callCtx, "executor", 5).getEntities())
+          .singleElement()
+          .extracting(
+              e -> PolarisObjectMapperUtil.deserializeProperties(callCtx, e.getProperties()))
+          .asInstanceOf(InstanceOfAssertFactories.map(String.class, String.class))
+          .containsEntry(PolarisTaskConstants.ATTEMPT_COUNT, String.valueOf(attempt));
+      timeSource.updateClock(Clock.offset(timeSource.currentClock, Duration.ofMinutes(10)));
+    }
+    Assertions.assertThat(metaStoreManager.loadTasks(callCtx, "executor", 5).getEntities())
+        .isEmpty();
+  }
+
   @Test
   void testLoadTasksInParallel() {
     for (int i = 0; i < 100; i++) {
@@ -469,6 +501,268 @@ public abstract class PolarisMetaStoreManagerTest {
     }
   }
 
+  /** Test generateNewEntityIds() function that generates unique ids in bulk */
+  @Test
+  void testGenerateNewEntityIds() {
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    List<Long> ids = new ArrayList<>(metaStoreManager.generateNewEntityIds(callCtx, 10).getIds());
+    ids.add(metaStoreManager.generateNewEntityId(callCtx).getId());
+    ids.addAll(metaStoreManager.generateNewEntityIds(callCtx, 5).getIds());
+    Assertions.assertThat(ids).hasSize(16).doesNotHaveDuplicates();
+    Assertions.assertThat(metaStoreManager.generateNewEntityIds(callCtx, 0).getIds()).isEmpty();
+  }
+
+  @Test
+  void testLoadOverlappingEntityLocations() {
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    PolarisBaseEntity catalog = polarisTestMetaStoreManager.createTestCatalog("test");
+    PolarisBaseEntity ns =
+        createEntityWithLocation(List.of(catalog), PolarisEntityType.NAMESPACE, "ns", "s3://b/ns");
+    PolarisBaseEntity t1 =
+        createEntityWithLocation(
+            List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t1", "s3://b/ns/t1");
+    createEntityWithLocation(
+        List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t2", "s3://b/other/t2");
+    Function<String, List<String>> overlapping =
+        location ->
+            metaStoreManager
+                .loadOverlappingEntityLocations(callCtx, catalog.getId(), location)
+                .getEntityLocations()
+                .stream()
+                .map(PolarisEntityLocationRecord::getName)
+                .collect(Collectors.toList());
+
+    // parent locations, the location itself and the locations under it, on path boundaries only
+    Assertions.assertThat(overlapping.apply("s3://b/ns/t1/data"))
+        .containsExactlyInAnyOrder("ns", "t1");
+    Assertions.assertThat(overlapping.apply("s3://b/ns/")).containsExactlyInAnyOrder("ns", "t1");
+    Assertions.assertThat(overlapping.apply("s3://b/")).containsExactlyInAnyOrder("ns", "t1", "t2");
+    Assertions.assertThat(overlapping.apply("s3://b/n")).isEmpty();
+    Assertions.assertThat(overlapping.apply("s3://b/ns/t10")).containsExactly("ns");
+
+    // the index follows the entity when its location changes and when it is renamed
+    PolarisBaseEntity t1Moved = new PolarisBaseEntity(t1);
+    t1Moved.addProperty(PolarisEntityConstants.ENTITY_BASE_LOCATION, "s3://b/moved/t1");
+    t1Moved =
+        metaStoreManager
+            .updateEntityPropertiesIfNotChanged(callCtx, List.of(catalog, ns), t1Moved)
+            .getEntity();
+    Assertions.assertThat(overlapping.apply("s3://b/ns/t1")).containsExactly("ns");
+    Assertions.assertThat(overlapping.apply("s3://b/moved")).containsExactly("t1");
+    metaStoreManager.renameEntity(
+        callCtx,
+        List.of(catalog, ns),
+        t1Moved,
+        null,
+        new PolarisEntity.Builder(PolarisEntity.of(t1Moved)).setName("t3").build());
+    Assertions.assertThat(overlapping.apply("s3://b/moved")).containsExactly("t3");
+
+    // and it is removed when the entity is dropped
+    PolarisBaseEntity t3 =
+        metaStoreManager
+            .readEntityByName(
+                callCtx,
+                List.of(catalog, ns),
+                PolarisEntityType.TABLE_LIKE,
+                PolarisEntitySubType.ANY_SUBTYPE,
+                "t3")
+            .getEntity();
+    metaStoreManager.dropEntityIfExists(callCtx, List.of(catalog, ns), t3, null, false);
+    Assertions.assertThat(overlapping.apply("s3://b/")).containsExactlyInAnyOrder("ns", "t2");
+
+    // characters which are wildcards in a database pattern only match themselves
+    createEntityWithLocation(
+        List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t4", "s3://b/w_x/t4");
+    Assertions.assertThat(overlapping.apply("s3://b/wax")).isEmpty();
+    Assertions.assertThat(overlapping.apply("s3://b/w_x")).containsExactly("t4");
+  }
+
+  @Test
+  void testLoadOverlappingEntityLocationsBackfillsIndex() {
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    long catalogId = polarisTestMetaStoreManager.createTestCatalog("test").getId();
+    PolarisBaseEntity catalog =
+        metaStoreManager
+            .loadEntity(callCtx, PolarisEntityConstants.getNullId(), catalogId)
+            .getEntity();
+    PolarisBaseEntity ns =
+        createEntityWithLocation(List.of(catalog), PolarisEntityType.NAMESPACE, "ns", "s3://b/ns");
+    PolarisBaseEntity t1 =
+        createEntityWithLocation(
+            List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t1", "s3://b/ns/t1");
+
+    // locations which are not a valid URI are not indexed, and do not fail the write
+    Assertions.assertThat(
+            createEntityWithLocation(
+                List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t2", "s3://b/ns/t 2"))
+        .isNotNull();
+
+    // make the catalog look as if it had been created before the location index existed
+    unindexCatalog(catalog, ns, t1);
+
+    // the first lookup backfills the index and marks the catalog, without changing the catalog
+    Assertions.assertThat(
+            metaStoreManager
+                .loadOverlappingEntityLocations(callCtx, catalogId, "s3://b/ns/t1")
+                .getEntityLocations())
+        .containsExactlyInAnyOrder(
+            PolarisEntityLocationRecord.of(ns), PolarisEntityLocationRecord.of(t1));
+    PolarisMetaStoreSession ms = callCtx.getMetaStore();
+    Assertions.assertThat(
+            ms.runInReadTransaction(
+                callCtx,
+                () ->
+                    ms.hasEntityLocation(
+                        callCtx, PolarisEntityLocationRecord.indexedMarker(catalogId))))
+        .isTrue();
+    Assertions.assertThat(
+            metaStoreManager
+                .loadEntity(callCtx, PolarisEntityConstants.getNullId(), catalogId)
+                .getEntity()
+                .getEntityVersion())
+        .isEqualTo(catalog.getEntityVersion());
+
+    // the marker never overlaps with a location
+    Assertions.assertThat(
+            metaStoreManager
+                .loadOverlappingEntityLocations(
+                    callCtx, catalogId, "polaris:entity-locations-indexed")
+                .getEntityLocations())
+        .isEmpty();
+  }
+
+  @Test
+  void testChangeEntityLocationsInCatalogNotIndexed() {
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    long catalogId = polarisTestMetaStoreManager.createTestCatalog("test").getId();
+    PolarisBaseEntity catalog =
+        metaStoreManager
+            .loadEntity(callCtx, PolarisEntityConstants.getNullId(), catalogId)
+            .getEntity();
+    PolarisBaseEntity ns =
+        createEntityWithLocation(List.of(catalog), PolarisEntityType.NAMESPACE, "ns", "s3://b/ns");
+    PolarisBaseEntity t1 =
+        createEntityWithLocation(
+            List.of(catalog, ns), PolarisEntityType.TABLE_LIKE, "t1", "s3://b/ns/t1");
+    unindexCatalog(catalog, ns, t1);
+
+    // entities which were never indexed can be dropped and moved before the index is backfilled
+    Assertions.assertThat(
+            metaStoreManager
+                .dropEntityIfExists(callCtx, List.of(catalog, ns), t1, null, false)
+                .isSuccess())
+        .isTrue();
+    PolarisBaseEntity nsMoved = new PolarisBaseEntity(ns);
+    nsMoved.addProperty(PolarisEntityConstants.ENTITY_BASE_LOCATION, "s3://b/moved");
+    Assertions.assertThat(
+            metaStoreManager
+                .updateEntityPropertiesIfNotChanged(callCtx, List.of(catalog), nsMoved)
+                .isSuccess())
+        .isTrue();
+    Assertions.assertThat(
+            metaStoreManager
+                .loadOverlappingEntityLocations(callCtx, catalogId, "s3://b/")
+                .getEntityLocations())
+        .extracting(PolarisEntityLocationRecord::getLocation)
+        .containsExactly("s3://b/moved/");
+  }
+
+  @Test
+  void testEntityChangeListenersNotifiedAfterCommit() {
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    PolarisBaseEntity catalog = polarisTestMetaStoreManager.createTestCatalog("test");
+
+    // each notified version must already be visible to a new transaction
+    List<Integer> notifiedVersions = new ArrayList<>();
+    List<Integer> committedVersions = new ArrayList<>();
+    metaStoreManager.addEntityChangeListener(
+        (ctx, entity) -> {
+          notifiedVersions.add(entity.getEntityVersion());
+          PolarisBaseEntity committed =
+              metaStoreManager
+                  .loadEntity(callCtx, entity.getCatalogId(), entity.getId())
+                  .getEntity();
+          committedVersions.add(committed == null ? -1 : committed.getEntityVersion());
+        });
+    PolarisBaseEntity ns1 =
+        createEntityWithLocation(List.of(catalog), PolarisEntityType.NAMESPACE, "ns1", "s3://b/1");
+    PolarisBaseEntity ns2 =
+        createEntityWithLocation(List.of(catalog), PolarisEntityType.NAMESPACE, "ns2", "s3://b/2");
+    PolarisBaseEntity ns1Updated = new PolarisBaseEntity(ns1);
+    ns1Updated.addProperty("key", "value");
+    ns1Updated =
+        metaStoreManager
+            .updateEntityPropertiesIfNotChanged(callCtx, List.of(catalog), ns1Updated)
+            .getEntity();
+    Assertions.assertThat(notifiedVersions)
+        .containsExactly(
+            ns1.getEntityVersion(), ns2.getEntityVersion(), ns1Updated.getEntityVersion())
+        .isEqualTo(committedVersions);
+
+    // nothing is notified for the changes of a transaction which was rolled back
+    notifiedVersions.clear();
+    PolarisBaseEntity ns1Changed = new PolarisBaseEntity(ns1Updated);
+    ns1Changed.addProperty("key", "value2");
+    PolarisBaseEntity ns2Stale = new PolarisBaseEntity(ns2);
+    ns2Stale.setEntityVersion(ns2.getEntityVersion() + 1);
+    Assertions.assertThat(
+            metaStoreManager
+                .updateEntitiesPropertiesIfNotChanged(
+                    callCtx,
+                    List.of(
+                        new PolarisMetaStoreManager.EntityWithPath(List.of(catalog), ns1Changed),
+                        new PolarisMetaStoreManager.EntityWithPath(List.of(catalog), ns2Stale)))
+                .isSuccess())
+        .isFalse();
+    Assertions.assertThat(notifiedVersions).isEmpty();
+  }
+
+  /**
+   * Make a catalog look as if it had been created before the ENTITY_LOCATIONS index existed
+   *
+   * @param catalog the catalog
+   * @param entities the entities of that catalog to remove from the index
+   */
+  private void unindexCatalog(PolarisBaseEntity catalog, PolarisBaseEntity... entities) {
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    PolarisMetaStoreSession ms = callCtx.getMetaStore();
+    PolarisEntityLocationRecord indexedMarker =
+        PolarisEntityLocationRecord.indexedMarker(catalog.getId());
+    ms.runActionInTransaction(
+        callCtx,
+        () -> {
+          Assertions.assertThat(ms.hasEntityLocation(callCtx, indexedMarker)).isTrue();
+          ms.deleteFromEntityLocations(callCtx, indexedMarker);
+          for (PolarisBaseEntity entity : entities) {
+            ms.deleteFromEntityLocations(callCtx, PolarisEntityLocationRecord.of(entity));
+          }
+        });
+  }
+
+  private PolarisBaseEntity createEntityWithLocation(
+      List<PolarisEntityCore> catalogPath, PolarisEntityType type, String name, String location) {
+    PolarisCallContext callCtx = polarisTestMetaStoreManager.polarisCallContext;
+    PolarisMetaStoreManager metaStoreManager = polarisTestMetaStoreManager.polarisMetaStoreManager;
+    PolarisBaseEntity entity =
+        new PolarisBaseEntity(
+            catalogPath.get(0).getId(),
+            metaStoreManager.generateNewEntityId(callCtx).getId(),
+            type,
+            type == PolarisEntityType.TABLE_LIKE
+                ? PolarisEntitySubType.TABLE
+                : PolarisEntitySubType.NULL_SUBTYPE,
+            catalogPath.get(catalogPath.size() - 1).getId(),
+            name);
+    entity.setCreateTimestamp(System.currentTimeMillis());
+    entity.addProperty(PolarisEntityConstants.ENTITY_BASE_LOCATION, location);
+    return metaStoreManager.createEntityIfNotExists(callCtx, catalogPath, entity).getEntity();
+  }
+
   protected static final class MockInstantSource implements InstantSource {
     private Clock currentClock = Clock.system(ZoneId.systemDefault());
 
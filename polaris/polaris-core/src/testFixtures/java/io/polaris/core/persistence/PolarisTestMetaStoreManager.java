@@ -2304,6 +2304,77 @@ public class PolarisTestMetaStoreManager {
     this.renameEntity(List.of(catalog, N1, N1_N2), N1_N2_T1, List.of(catalog, N5), "T7");
   }
 
+  /** Test listing entities one page at a time */
+  void testListEntitiesPaginated() {
+    // create test catalog
+    PolarisBaseEntity catalog = this.createTestCatalog("test");
+    PolarisBaseEntity N5 =
+        this.ensureExistsByName(List.of(catalog), PolarisEntityType.NAMESPACE, "N5");
+
+    // add tables and views under N5, not created in name order
+    List<String> tableNames = List.of("T17", "T10", "T14", "T11", "T16", "T12", "T13", "T15");
+    for (String tableName : tableNames) {
+      this.createEntity(
+          List.of(catalog, N5),
+          PolarisEntityType.TABLE_LIKE,
+          PolarisEntitySubType.TABLE,
+          tableName);
+    }
+    this.createEntity(
+        List.of(catalog, N5), PolarisEntityType.TABLE_LIKE, PolarisEntitySubType.VIEW, "T125");
+
+    // list tables 3 at a time, only tables should be returned, in name order
+    List<String> listedNames = new ArrayList<>();
+    String pageToken = null;
+    int pageCount = 0;
+    do {
+      PolarisMetaStoreManager.ListEntitiesResult page =
+          polarisMetaStoreManager.listEntities(
+              this.polarisCallContext,
+              List.of(catalog, N5),
+              PolarisEntityType.TABLE_LIKE,
+              PolarisEntitySubType.TABLE,
+              pageToken,
+              3);
+      Assertions.assertTrue(page.isSuccess());
+      Assertions.assertTrue(page.getEntities().size() <= 3);
+      page.getEntities().forEach(entity -> listedNames.add(entity.getName()));
+      pageToken = page.getNextPageToken();
+      pageCount++;
+    } while (pageToken != null);
+    Assertions.assertEquals(3, pageCount);
+    Assertions.assertEquals(
+        List.of("T10", "T11", "T12", "T13", "T14", "T15", "T16", "T17"), listedNames);
+
+    // with any subtype, the view is returned too and a page that exactly fits has no next page
+    PolarisMetaStoreManager.ListEntitiesResult all =
+        polarisMetaStoreManager.listEntities(
+            this.polarisCallContext,
+            List.of(catalog, N5),
+            PolarisEntityType.TABLE_LIKE,
+            PolarisEntitySubType.ANY_SUBTYPE,
+            null,
+            9);
+    Assertions.assertTrue(all.isSuccess());
+    Assertions.assertNull(all.getNextPageToken());
+    Assertions.assertEquals(9, all.getEntities().size());
+    Assertions.assertEquals("T125", all.getEntities().get(3).getName());
+    Assertions.assertEquals(
+        PolarisEntitySubType.VIEW.getCode(), all.getEntities().get(3).getSubTypeCode());
+
+    // invalid page tokens are rejected
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            polarisMetaStoreManager.listEntities(
+                this.polarisCallContext,
+                List.of(catalog, N5),
+                PolarisEntityType.TABLE_LIKE,
+                PolarisEntitySubType.ANY_SUBTYPE,
+                "not a valid token!",
+                3));
+  }
+
   /** Test the set of functions for the entity cache */
   public void testEntityCache() {
     // create test catalog
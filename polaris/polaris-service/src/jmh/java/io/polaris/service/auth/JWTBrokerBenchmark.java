@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.context.CallContext;
+import io.polaris.core.context.RealmContext;
+import io.polaris.service.config.DefaultConfigurationStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the token verification done on each authenticated request, and of the
+ * token generation done for each token request, with the RSA key pair and the symmetric key brokers
+ * of a realm looked up in a {@link TokenBrokerRegistry}. The RSA verification is also measured as
+ * it was done before the keys and verifiers were cached: parsing both PEM files and building a new
+ * verifier for each token.
+ *
+ * <p>Run with {@code ./gradlew :polaris-service:jmh}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTBrokerBenchmark {
+  private static final RealmContext REALM = () -> "benchmark-realm";
+
+  private String privateKeyLocation;
+  private String publicKeyLocation;
+  private TokenBrokerRegistry rsaBrokers;
+  private TokenBrokerRegistry symmetricBrokers;
+  private String rsaToken;
+  private String symmetricToken;
+
+  @Setup
+  public void setup() throws Exception {
+    Path keyDir = Files.createTempDirectory("jwt-benchmark");
+    privateKeyLocation = keyDir.resolve("private.pem").toString();
+    publicKeyLocation = keyDir.resolve("public.pem").toString();
+    KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+    kpg.initialize(2048);
+    KeyPair keyPair = kpg.generateKeyPair();
+    writePem(privateKeyLocation, "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+    writePem(publicKeyLocation, "PUBLIC KEY", keyPair.getPublic().getEncoded());
+
+    DefaultConfigurationStore store =
+        new DefaultConfigurationStore(
+            Map.of(
+                "LOCAL_PRIVATE_KEY_LOCATION_KEY", privateKeyLocation,
+                "LOCAL_PUBLIC_LOCATION_KEY", publicKeyLocation));
+    PolarisCallContext polarisCallContext = new PolarisCallContext(null, null, store, null);
+    CallContext.setCurrentContext(
+        new CallContext() {
+          @Override
+          public RealmContext getRealmContext() {
+            return REALM;
+          }
+
+          @Override
+          public PolarisCallContext getPolarisCallContext() {
+            return polarisCallContext;
+          }
+
+          @Override
+          public Map<String, Object> contextVariables() {
+            return Map.of();
+          }
+        });
+
+    rsaBrokers = new TokenBrokerRegistry(realm -> new JWTRSAKeyPair(null, 3600));
+    symmetricBrokers =
+        new TokenBrokerRegistry(realm -> new JWTSymmetricKeyBroker(null, 3600, () -> "polaris"));
+    rsaToken = newToken(rsaBroker().getAlgorithm());
+    symmetricToken = newToken(symmetricBroker().getAlgorithm());
+  }
+
+  private JWTBroker rsaBroker() {
+    return (JWTBroker) rsaBrokers.getOrCreateTokenBroker(REALM);
+  }
+
+  private JWTBroker symmetricBroker() {
+    return (JWTBroker) symmetricBrokers.getOrCreateTokenBroker(REALM);
+  }
+
+  private static void writePem(String location, String type, byte[] encoded) throws IOException {
+    Files.writeString(
+        Path.of(location),
+        "-----BEGIN "
+            + type
+            + "-----\n"
+            + Base64.getMimeEncoder().encodeToString(encoded)
+            + "\n-----END "
+            + type
+            + "-----\n");
+  }
+
+  private static String newToken(Algorithm algorithm) {
+    Instant now = Instant.now();
+    return JWT.create()
+        .withIssuer("polaris")
+        .withSubject("1")
+        .withIssuedAt(now)
+        .withExpiresAt(now.plus(1, ChronoUnit.DAYS))
+        .withClaim("active", true)
+        .withClaim("client_id", "client")
+        .withClaim("principalId", 1L)
+        .withClaim("scope", "PRINCIPAL_ROLE:ALL")
+        .sign(algorithm);
+  }
+
+  @Benchmark
+  public DecodedToken verifyRsa() {
+    return rsaBroker().verify(rsaToken);
+  }
+
+  @Benchmark
+  public DecodedToken verifySymmetric() {
+    return symmetricBroker().verify(symmetricToken);
+  }
+
+  @Benchmark
+  public String issueRsa() {
+    return newToken(rsaBroker().getAlgorithm());
+  }
+
+  @Benchmark
+  public String issueSymmetric() {
+    return newToken(symmetricBroker().getAlgorithm());
+  }
+
+  /** RSA verification as it was done before the keys and verifiers were cached */
+  @Benchmark
+  public DecodedJWT verifyRsaUncached() throws IOException {
+    Algorithm algorithm =
+        Algorithm.RSA256(
+            (RSAPublicKey) PemUtils.readPublicKeyFromFile(publicKeyLocation, "RSA"),
+            (RSAPrivateKey) PemUtils.readPrivateKeyFromFile(privateKeyLocation, "RSA"));
+    return JWT.require(algorithm).build().verify(rsaToken);
+  }
+}
@@ -31,6 +31,7 @@ import io.dropwizard.configuration.SubstitutingSourceProvider;
 import io.dropwizard.core.Application;
 import io.dropwizard.core.setup.Bootstrap;
 import io.dropwizard.core.setup.Environment;
+import io.dropwizard.lifecycle.Managed;
 import io.micrometer.prometheusmetrics.PrometheusConfig;
 import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 import io.opentelemetry.api.OpenTelemetry;
@@ -55,7 +56,12 @@ import io.polaris.service.admin.PolarisServiceImpl;
 import io.polaris.service.admin.api.PolarisCatalogsApi;
 import io.polaris.service.admin.api.PolarisPrincipalRolesApi;
 import io.polaris.service.admin.api.PolarisPrincipalsApi;
+import io.polaris.service.auth.DefaultOAuth2ApiService;
+import io.polaris.service.auth.DefaultPolarisAuthenticator;
 import io.polaris.service.auth.DiscoverableAuthenticator;
+import io.polaris.service.auth.RotateTokenKeysTask;
+import io.polaris.service.auth.TokenBrokerRegistry;
+import io.polaris.service.catalog.FileIOCache;
 import io.polaris.service.catalog.IcebergCatalogAdapter;
 import io.polaris.service.catalog.api.IcebergRestCatalogApi;
 import io.polaris.service.catalog.api.IcebergRestConfigurationApi;
@@ -78,6 +84,7 @@ import io.polaris.service.task.ManifestFileCleanupTaskHandler;
 import io.polaris.service.task.TableCleanupTaskHandler;
 import io.polaris.service.task.TaskExecutorImpl;
 import io.polaris.service.task.TaskFileIOSupplier;
+import io.polaris.service.task.TaskPoller;
 import io.polaris.service.tracing.OpenTelemetryAware;
 import io.polaris.service.tracing.TracingFilter;
 import io.prometheus.metrics.exporter.servlet.jakarta.PrometheusMetricsServlet;
@@ -93,8 +100,10 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Executors;
@@ -168,8 +177,19 @@ public class PolarisApplication extends Application<PolarisApplicationConfig> {
     if (metaStoreManagerFactory instanceof ConfigurationStoreAware) {
       ((ConfigurationStoreAware) metaStoreManagerFactory).setConfigurationStore(configurationStore);
     }
+    environment
+        .lifecycle()
+        .manage(
+            new Managed() {
+              @Override
+              public void stop() {
+                metaStoreManagerFactory.close();
+              }
+            });
     RealmEntityManagerFactory entityManagerFactory =
-        new RealmEntityManagerFactory(metaStoreManagerFactory);
+        new RealmEntityManagerFactory(
+            metaStoreManagerFactory, configuration.getEntityCacheInvalidation()::newChannel);
+    environment.lifecycle().manage(entityManagerFactory);
     CallContextResolver callContextResolver = configuration.getCallContextResolver();
     callContextResolver.setEntityManagerFactory(entityManagerFactory);
     if (callContextResolver instanceof ConfigurationStoreAware csa) {
@@ -188,11 +208,25 @@ public class PolarisApplication extends Application<PolarisApplicationConfig> {
     TaskExecutorImpl taskExecutor =
         new TaskExecutorImpl(taskConfig.executorService(), metaStoreManagerFactory);
     TaskFileIOSupplier fileIOSupplier = new TaskFileIOSupplier(metaStoreManagerFactory);
+    // stopped after the poller, which is registered after it
+    environment.lifecycle().manage(taskExecutor);
     taskExecutor.addTaskHandler(
         new TableCleanupTaskHandler(taskExecutor, metaStoreManagerFactory, fileIOSupplier));
     taskExecutor.addTaskHandler(
         new ManifestFileCleanupTaskHandler(
             fileIOSupplier, Executors.newVirtualThreadPerTaskExecutor()));
+    TaskPoller taskPoller =
+        taskConfig.newPoller(
+            taskExecutor,
+            metaStoreManagerFactory,
+            configurationStore,
+            configuration.getDefaultRealms() != null
+                ? configuration.getDefaultRealms()
+                : List.of(configuration.getDefaultRealm()),
+            polarisMetricRegistry);
+    if (taskPoller != null) {
+      environment.lifecycle().manage(taskPoller);
+    }
 
     CallContextCatalogFactory catalogFactory;
     if ("polaris".equals(configuration.getBaseCatalogType())) {
@@ -200,7 +234,25 @@ public class PolarisApplication extends Application<PolarisApplicationConfig> {
           "Initializing PolarisCallContextCatalogFactory for baseCatalogType {}, metaStoreManagerType {}",
           configuration.getBaseCatalogType(),
           metaStoreManagerFactory);
-      catalogFactory = new PolarisCallContextCatalogFactory(entityManagerFactory, taskExecutor);
+      FileIOCache fileIOCache = configuration.getFileIOCache().newCache(polarisMetricRegistry);
+      if (fileIOCache != null) {
+        // close the pooled FileIOs, those still in use are closed once released
+        environment
+            .lifecycle()
+            .manage(
+                new Managed() {
+                  @Override
+                  public void stop() {
+                    fileIOCache.invalidateAll();
+                  }
+                });
+      }
+      catalogFactory =
+          new PolarisCallContextCatalogFactory(
+              entityManagerFactory,
+              taskExecutor,
+              fileIOCache,
+              configuration.getTableMetadataCache().newCache(polarisMetricRegistry));
     } else if ("jdbc".equals(configuration.getBaseCatalogType())) {
       LOGGER.info(
           "Initializing SqlliteCallContextCatalogFactory for baseCatalogType {}",
@@ -260,6 +312,18 @@ public class PolarisApplication extends Application<PolarisApplicationConfig> {
       emfAware.setEntityManagerFactory(entityManagerFactory);
     }
     environment.jersey().register(new IcebergRestOAuth2Api(oauth2Service));
+
+    // token brokers pick up rotated key files within seconds, or right away through this task
+    List<TokenBrokerRegistry> tokenBrokerRegistries = new ArrayList<>();
+    if (authenticator instanceof DefaultPolarisAuthenticator defaultAuthenticator
+        && defaultAuthenticator.getTokenBrokerRegistry() != null) {
+      tokenBrokerRegistries.add(defaultAuthenticator.getTokenBrokerRegistry());
+    }
+    if (oauth2Service instanceof DefaultOAuth2ApiService defaultOAuth2Service
+        && defaultOAuth2Service.getTokenBrokerRegistry() != null) {
+      tokenBrokerRegistries.add(defaultOAuth2Service.getTokenBrokerRegistry());
+    }
+    environment.admin().addTask(new RotateTokenKeysTask(tokenBrokerRegistries));
     environment.jersey().register(new IcebergExceptionMapper());
     PolarisServiceImpl polarisService = new PolarisServiceImpl(entityManagerFactory, authorizer);
     environment.jersey().register(new PolarisCatalogsApi(polarisService));
@@ -20,10 +20,11 @@ import io.polaris.core.auth.AuthenticatedPolarisPrincipal;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.context.RealmContext;
 import io.polaris.core.entity.PolarisEntity;
-import io.polaris.core.entity.PolarisEntitySubType;
-import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.entity.PolarisEntityConstants;
 import io.polaris.core.entity.PrincipalEntity;
-import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.core.persistence.PolarisEntityManager;
+import io.polaris.core.persistence.resolver.Resolver;
+import io.polaris.core.persistence.resolver.ResolverStatus;
 import io.polaris.service.config.RealmEntityManagerFactory;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -37,10 +38,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Base implementation of {@link DiscoverableAuthenticator} constructs a {@link
  * AuthenticatedPolarisPrincipal} from the token parsed by subclasses. The {@link
- * AuthenticatedPolarisPrincipal} is read from the {@link PolarisMetaStoreManager} for the current
- * {@link RealmContext}. If the token defines a non-empty set of scopes, only the principal roles
- * specified in the scopes will be active for the current principal. Only the grants assigned to
- * these roles will be active in the current request.
+ * AuthenticatedPolarisPrincipal} is resolved through the entity cache of the {@link
+ * PolarisEntityManager} for the current {@link RealmContext}. If the token defines a non-empty set
+ * of scopes, only the principal roles specified in the scopes will be active for the current
+ * principal. Only the grants assigned to these roles will be active in the current request.
  */
 public abstract class BasePolarisAuthenticator
     implements DiscoverableAuthenticator<String, AuthenticatedPolarisPrincipal> {
@@ -61,22 +62,40 @@ public abstract class BasePolarisAuthenticator
   protected Optional<AuthenticatedPolarisPrincipal> getPrincipal(DecodedToken tokenInfo) {
     LOGGER.debug("Resolving principal for tokenInfo client_id={}", tokenInfo.getClientId());
     RealmContext realmContext = CallContext.getCurrentContext().getRealmContext();
-    PolarisMetaStoreManager metaStoreManager =
-        entityManagerFactory.getOrCreateEntityManager(realmContext).getMetaStoreManager();
-    PolarisEntity principal;
+    PolarisEntityManager entityManager =
+        entityManagerFactory.getOrCreateEntityManager(realmContext);
+
+    Set<String> activatedPrincipalRoles = new HashSet<>();
+    // TODO: Consolidate the divergent "scopes" logic between test-bearer-token and token-exchange.
+    if (tokenInfo.getScope() != null && !tokenInfo.getScope().equals(PRINCIPAL_ROLE_ALL)) {
+      activatedPrincipalRoles.addAll(
+          Arrays.stream(tokenInfo.getScope().split(" "))
+              .map(
+                  s -> // strip the principal_role prefix, if present
+                  s.startsWith(PRINCIPAL_ROLE_PREFIX)
+                          ? s.substring(PRINCIPAL_ROLE_PREFIX.length())
+                          : s)
+              .toList());
+    }
+
+    // resolve the principal and its activated principal roles through the entity cache, the
+    // resolved entries are then reused to resolve the entities of the request
+    Resolver resolver;
+    ResolverStatus status;
     try {
-      principal =
+      resolver =
           tokenInfo.getPrincipalId() > 0
-              ? PolarisEntity.of(
-                  metaStoreManager.loadEntity(
-                      getCurrentPolarisContext(), 0L, tokenInfo.getPrincipalId()))
-              : PolarisEntity.of(
-                  metaStoreManager.readEntityByName(
-                      getCurrentPolarisContext(),
-                      null,
-                      PolarisEntityType.PRINCIPAL,
-                      PolarisEntitySubType.NULL_SUBTYPE,
-                      tokenInfo.getSub()));
+              ? entityManager.prepareCallerPrincipalResolver(
+                  CallContext.getCurrentContext(),
+                  tokenInfo.getPrincipalId(),
+                  null,
+                  activatedPrincipalRoles)
+              : entityManager.prepareCallerPrincipalResolver(
+                  CallContext.getCurrentContext(),
+                  PolarisEntityConstants.getNullId(),
+                  tokenInfo.getSub(),
+                  activatedPrincipalRoles);
+      status = resolver.resolveAll();
     } catch (Exception e) {
       LoggerFactory.getLogger(BasePolarisAuthenticator.class)
           .atError()
@@ -85,29 +104,21 @@ public abstract class BasePolarisAuthenticator
           .log("Unable to authenticate user with token");
       throw new NotAuthorizedException("Unable to authenticate");
     }
-    if (principal == null) {
+    if (status.getStatus() != ResolverStatus.StatusEnum.SUCCESS) {
       LOGGER.warn(
           "Failed to resolve principal from tokenInfo client_id={}", tokenInfo.getClientId());
       throw new NotAuthorizedException("Unable to authenticate");
     }
 
-    Set<String> activatedPrincipalRoles = new HashSet<>();
-    // TODO: Consolidate the divergent "scopes" logic between test-bearer-token and token-exchange.
-    if (tokenInfo.getScope() != null && !tokenInfo.getScope().equals(PRINCIPAL_ROLE_ALL)) {
-      activatedPrincipalRoles.addAll(
-          Arrays.stream(tokenInfo.getScope().split(" "))
-              .map(
-                  s -> // strip the principal_role prefix, if present
-                  s.startsWith(PRINCIPAL_ROLE_PREFIX)
-                          ? s.substring(PRINCIPAL_ROLE_PREFIX.length())
-                          : s)
-              .toList());
-    }
-
+    PolarisEntity principal = PolarisEntity.of(resolver.getResolvedCallerPrincipal().getEntity());
     LOGGER.debug("Resolved principal: {}", principal);
 
     AuthenticatedPolarisPrincipal authenticatedPrincipal =
-        new AuthenticatedPolarisPrincipal(new PrincipalEntity(principal), activatedPrincipalRoles);
+        new AuthenticatedPolarisPrincipal(
+            new PrincipalEntity(principal),
+            activatedPrincipalRoles,
+            resolver.getResolvedCallerPrincipal(),
+            resolver.getResolvedCallerPrincipalRoles());
     LOGGER.debug("Populating authenticatedPrincipal into CallContext: {}", authenticatedPrincipal);
     CallContext.getCurrentContext()
         .contextVariables()
@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 public class DefaultOAuth2ApiService implements OAuth2ApiService, HasEntityManagerFactory {
   public static final Logger LOGGER = LoggerFactory.getLogger(DefaultOAuth2ApiService.class);
   private TokenBrokerFactory tokenBrokerFactory;
+  private TokenBrokerRegistry tokenBrokerRegistry;
 
   public DefaultOAuth2ApiService() {}
 
@@ -58,7 +59,8 @@ public class DefaultOAuth2ApiService implements OAuth2ApiService, HasEntityManag
       SecurityContext securityContext) {
 
     TokenBroker tokenBroker =
-        tokenBrokerFactory.apply(CallContext.getCurrentContext().getRealmContext());
+        tokenBrokerRegistry.getOrCreateTokenBroker(
+            CallContext.getCurrentContext().getRealmContext());
     if (!tokenBroker.supportsGrantType(grantType)) {
       return OAuthUtils.getResponseFromError(OAuthTokenErrorResponse.Error.unsupported_grant_type);
     }
@@ -127,5 +129,10 @@ public class DefaultOAuth2ApiService implements OAuth2ApiService, HasEntityManag
 
   public void setTokenBroker(TokenBrokerFactory tokenBrokerFactory) {
     this.tokenBrokerFactory = tokenBrokerFactory;
+    this.tokenBrokerRegistry = new TokenBrokerRegistry(tokenBrokerFactory);
+  }
+
+  public TokenBrokerRegistry getTokenBrokerRegistry() {
+    return tokenBrokerRegistry;
   }
 }
@@ -24,11 +24,13 @@ import java.util.Optional;
 
 public class DefaultPolarisAuthenticator extends BasePolarisAuthenticator {
   private TokenBrokerFactory tokenBrokerFactory;
+  private TokenBrokerRegistry tokenBrokerRegistry;
 
   @Override
   public Optional<AuthenticatedPolarisPrincipal> authenticate(String credentials) {
     TokenBroker handler =
-        tokenBrokerFactory.apply(CallContext.getCurrentContext().getRealmContext());
+        tokenBrokerRegistry.getOrCreateTokenBroker(
+            CallContext.getCurrentContext().getRealmContext());
     DecodedToken decodedToken = handler.verify(credentials);
     return getPrincipal(decodedToken);
   }
@@ -44,5 +46,10 @@ public class DefaultPolarisAuthenticator extends BasePolarisAuthenticator {
   @JsonProperty("tokenBroker")
   public void setTokenBroker(TokenBrokerFactory tokenBrokerFactory) {
     this.tokenBrokerFactory = tokenBrokerFactory;
+    this.tokenBrokerRegistry = new TokenBrokerRegistry(tokenBrokerFactory);
+  }
+
+  public TokenBrokerRegistry getTokenBrokerRegistry() {
+    return tokenBrokerRegistry;
   }
 }
@@ -19,6 +19,8 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PrincipalEntity;
@@ -29,6 +31,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.iceberg.exceptions.NotAuthorizedException;
 
@@ -41,6 +44,14 @@ abstract class JWTBroker implements TokenBroker {
   private static final String CLAIM_KEY_PRINCIPAL_ID = "principalId";
   private static final String CLAIM_KEY_SCOPE = "scope";
 
+  // Algorithms and verifiers are immutable and thread-safe, hence shared by all the brokers. The
+  // algorithms are keyed by the key material they are built from, which only changes when the keys
+  // are rotated, and the verifiers by their algorithm
+  private static final Cache<Object, Algorithm> ALGORITHMS =
+      Caffeine.newBuilder().maximumSize(1000).build();
+  private static final Cache<Algorithm, JWTVerifier> VERIFIERS =
+      Caffeine.newBuilder().weakKeys().build();
+
   private final PolarisEntityManager entityManager;
   private final int maxTokenGenerationInSeconds;
 
@@ -51,8 +62,18 @@ abstract class JWTBroker implements TokenBroker {
 
   abstract Algorithm getAlgorithm();
 
+  /**
+   * @param keyMaterial the keys or secret the algorithm is built from, compared by value
+   * @param factory builds the algorithm from the key material
+   * @return the algorithm previously built from the same key material, or a new one
+   */
+  static Algorithm getCachedAlgorithm(Object keyMaterial, Function<Object, Algorithm> factory) {
+    return ALGORITHMS.get(keyMaterial, factory);
+  }
+
   public DecodedToken verify(String token) {
-    JWTVerifier verifier = JWT.require(getAlgorithm()).build();
+    JWTVerifier verifier =
+        VERIFIERS.get(getAlgorithm(), algorithm -> JWT.require(algorithm).build());
     DecodedJWT decodedJWT = verifier.verify(token);
     Boolean isActive = decodedJWT.getClaim(CLAIM_KEY_ACTIVE).asBoolean();
     if (isActive == null || !isActive) {
@@ -22,19 +22,24 @@ import java.security.interfaces.RSAPublicKey;
 
 /** Generates a JWT using a Public/Private RSA Key */
 public class JWTRSAKeyPair extends JWTBroker {
+  private final KeyProvider keyProvider = new LocalRSAKeyProvider();
 
   JWTRSAKeyPair(PolarisEntityManager entityManager, int maxTokenGenerationInSeconds) {
     super(entityManager, maxTokenGenerationInSeconds);
   }
 
   KeyProvider getKeyProvider() {
-    return new LocalRSAKeyProvider();
+    return keyProvider;
   }
 
   @Override
   Algorithm getAlgorithm() {
     KeyProvider keyProvider = getKeyProvider();
-    return Algorithm.RSA256(
-        (RSAPublicKey) keyProvider.getPublicKey(), (RSAPrivateKey) keyProvider.getPrivateKey());
+    return getCachedAlgorithm(
+        new RSAKeys(
+            (RSAPublicKey) keyProvider.getPublicKey(), (RSAPrivateKey) keyProvider.getPrivateKey()),
+        keys -> Algorithm.RSA256(((RSAKeys) keys).publicKey(), ((RSAKeys) keys).privateKey()));
   }
+
+  private record RSAKeys(RSAPublicKey publicKey, RSAPrivateKey privateKey) {}
 }
@@ -36,6 +36,11 @@ public class JWTRSAKeyPairFactory implements TokenBrokerFactory, HasEntityManage
         maxTokenGenerationInSeconds);
   }
 
+  @Override
+  public void rotateKeys() {
+    LocalRSAKeyProvider.reloadKeys();
+  }
+
   @Override
   public void setEntityManagerFactory(RealmEntityManagerFactory entityManagerFactory) {
     this.realmEntityManagerFactory = entityManagerFactory;
@@ -33,6 +33,6 @@ public class JWTSymmetricKeyBroker extends JWTBroker {
 
   @Override
   Algorithm getAlgorithm() {
-    return Algorithm.HMAC256(secretSupplier.get());
+    return getCachedAlgorithm(secretSupplier.get(), secret -> Algorithm.HMAC256((String) secret));
   }
 }
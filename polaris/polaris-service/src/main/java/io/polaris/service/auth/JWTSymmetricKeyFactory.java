@@ -21,16 +21,21 @@ import io.polaris.service.config.HasEntityManagerFactory;
 import io.polaris.service.config.RealmEntityManagerFactory;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.function.Supplier;
 
 @JsonTypeName("symmetric-key")
 public class JWTSymmetricKeyFactory implements TokenBrokerFactory, HasEntityManagerFactory {
+  private static final long SECRET_FILE_CHECK_INTERVAL_MS = 1000;
+
   private RealmEntityManagerFactory realmEntityManagerFactory;
   private int maxTokenGenerationInSeconds = 3600;
   private String file;
   private String secret;
 
+  // the secret file is only read again when it changes, to pick up rotated secrets
+  private final ReloadingFileCache<String> secretFiles =
+      new ReloadingFileCache<>(Files::readString, SECRET_FILE_CHECK_INTERVAL_MS);
+
   @Override
   public TokenBroker apply(RealmContext realmContext) {
     if (file == null && secret == null) {
@@ -43,10 +48,15 @@ public class JWTSymmetricKeyFactory implements TokenBrokerFactory, HasEntityMana
         secretSupplier);
   }
 
+  @Override
+  public void rotateKeys() {
+    secretFiles.invalidateAll();
+  }
+
   private Supplier<String> readSecretFromDisk() {
     return () -> {
       try {
-        return Files.readString(Paths.get(file));
+        return secretFiles.get(file);
       } catch (IOException e) {
         throw new RuntimeException("Failed to read secret from file: " + file, e);
       }
@@ -18,6 +18,7 @@ package io.polaris.service.auth;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.context.CallContext;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import org.slf4j.Logger;
@@ -34,6 +35,26 @@ public class LocalRSAKeyProvider implements KeyProvider {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LocalRSAKeyProvider.class);
 
+  // how often the key files are checked for changes, to pick up rotated keys
+  private static final long KEY_FILE_CHECK_INTERVAL_MS = 1000;
+
+  // keys are shared by all the providers and all the realms reading the same files, and are only
+  // parsed again when their file changes
+  private static final ReloadingFileCache<PublicKey> PUBLIC_KEYS =
+      new ReloadingFileCache<>(
+          (Path path) -> PemUtils.readPublicKeyFromFile(path.toString(), "RSA"),
+          KEY_FILE_CHECK_INTERVAL_MS);
+  private static final ReloadingFileCache<PrivateKey> PRIVATE_KEYS =
+      new ReloadingFileCache<>(
+          (Path path) -> PemUtils.readPrivateKeyFromFile(path.toString(), "RSA"),
+          KEY_FILE_CHECK_INTERVAL_MS);
+
+  /** Drop the loaded keys, so that rotated key files are read again on their next use. */
+  static void reloadKeys() {
+    PUBLIC_KEYS.invalidateAll();
+    PRIVATE_KEYS.invalidateAll();
+  }
+
   private String getLocation(String configKey) {
     CallContext callContext = CallContext.getCurrentContext();
     PolarisCallContext pCtx = callContext.getPolarisCallContext();
@@ -53,7 +74,7 @@ public class LocalRSAKeyProvider implements KeyProvider {
   public PublicKey getPublicKey() {
     final String publicKeyFileLocation = getLocation(LOCAL_PUBLIC_KEY_LOCATION_KEY);
     try {
-      return PemUtils.readPublicKeyFromFile(publicKeyFileLocation, "RSA");
+      return PUBLIC_KEYS.get(publicKeyFileLocation);
     } catch (IOException e) {
       LOGGER.error("Unable to read public key from file {}", publicKeyFileLocation, e);
       throw new RuntimeException("Unable to read public key from file " + publicKeyFileLocation, e);
@@ -69,7 +90,7 @@ public class LocalRSAKeyProvider implements KeyProvider {
   public PrivateKey getPrivateKey() {
     final String privateKeyFileLocation = getLocation(LOCAL_PRIVATE_KEY_LOCATION_KEY);
     try {
-      return PemUtils.readPrivateKeyFromFile(privateKeyFileLocation, "RSA");
+      return PRIVATE_KEYS.get(privateKeyFileLocation);
     } catch (IOException e) {
       LOGGER.error("Unable to read private key from file {}", privateKeyFileLocation, e);
       throw new RuntimeException(
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the values parsed from local files, such as keys or secrets, by file location. A file is
+ * parsed again once its modification time, size or identity changes, so that rotated keys are
+ * picked up without restarting the server. The file attributes are checked at most once per check
+ * interval, hence a rotated file is picked up at most one check interval after it was replaced.
+ *
+ * @param <T> type of the parsed values
+ */
+class ReloadingFileCache<T> {
+
+  /** Parses the content of a file. */
+  @FunctionalInterface
+  interface FileParser<T> {
+    T parse(Path path) throws IOException;
+  }
+
+  private final FileParser<T> parser;
+  private final long checkIntervalNanos;
+  private final ConcurrentMap<String, CachedFile<T>> files = new ConcurrentHashMap<>();
+
+  /**
+   * @param parser parses the content of a file
+   * @param checkIntervalMs minimum time between two checks of the attributes of the same file
+   */
+  ReloadingFileCache(FileParser<T> parser, long checkIntervalMs) {
+    this.parser = parser;
+    this.checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMs);
+  }
+
+  /**
+   * @param location location of the file
+   * @return the value parsed from the current content of the file
+   * @throws IOException if the file cannot be read or parsed
+   */
+  T get(String location) throws IOException {
+    long now = System.nanoTime();
+    CachedFile<T> cached = files.get(location);
+    if (cached != null && now - cached.checkedAtNanos() < checkIntervalNanos) {
+      return cached.value();
+    }
+
+    Path path = Paths.get(location);
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (cached != null && cached.matches(attributes)) {
+      files.put(location, cached.checkedAt(now));
+      return cached.value();
+    }
+
+    // concurrent callers may both parse a changed file, which is harmless
+    T value = parser.parse(path);
+    files.put(
+        location,
+        new CachedFile<>(
+            value, attributes.lastModifiedTime(), attributes.size(), attributes.fileKey(), now));
+    return value;
+  }
+
+  /** Drop all the parsed values, files are parsed again on their next use. */
+  void invalidateAll() {
+    files.clear();
+  }
+
+  private record CachedFile<T>(
+      T value, FileTime lastModifiedTime, long size, Object fileKey, long checkedAtNanos) {
+
+    boolean matches(BasicFileAttributes attributes) {
+      return lastModifiedTime.equals(attributes.lastModifiedTime())
+          && size == attributes.size()
+          && Objects.equals(fileKey, attributes.fileKey());
+    }
+
+    CachedFile<T> checkedAt(long nanos) {
+      return new CachedFile<>(value, lastModifiedTime, size, fileKey, nanos);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import io.dropwizard.servlets.tasks.Task;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin task making the token brokers pick up rotated keys right away, run with {@code POST
+ * /tasks/rotate-token-keys} on the admin port.
+ */
+public class RotateTokenKeysTask extends Task {
+  private final List<TokenBrokerRegistry> tokenBrokerRegistries;
+
+  public RotateTokenKeysTask(List<TokenBrokerRegistry> tokenBrokerRegistries) {
+    super("rotate-token-keys");
+    this.tokenBrokerRegistries = tokenBrokerRegistries;
+  }
+
+  @Override
+  public void execute(Map<String, List<String>> parameters, PrintWriter output) {
+    tokenBrokerRegistries.forEach(TokenBrokerRegistry::rotateKeys);
+    output.println("Token keys reloaded");
+  }
+}
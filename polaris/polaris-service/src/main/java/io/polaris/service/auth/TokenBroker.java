@@ -21,8 +21,11 @@ import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PrincipalEntity;
 import io.polaris.core.persistence.PolarisEntityManager;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.core.persistence.resolver.Resolver;
+import io.polaris.core.persistence.resolver.ResolverStatus;
 import io.polaris.service.types.TokenType;
 import java.util.Optional;
+import java.util.Set;
 import org.jetbrains.annotations.NotNull;
 
 /** Generic token class intended to be extended by different token types */
@@ -54,12 +57,19 @@ public interface TokenBroker {
         && !principalSecrets.getPrincipalSecrets().getSecondarySecret().equals(clientSecret)) {
       return Optional.empty();
     }
-    PolarisMetaStoreManager.EntityResult result =
-        metaStoreManager.loadEntity(
-            polarisCallContext, 0L, principalSecrets.getPrincipalSecrets().getPrincipalId());
-    if (!result.isSuccess() || result.getEntity().getType() != PolarisEntityType.PRINCIPAL) {
+    // the secrets are always read from the metastore, but the principal is resolved through the
+    // entity cache, which it is then served from to the requests authenticated with the new token
+    Resolver resolver =
+        entityManager.prepareCallerPrincipalResolver(
+            CallContext.getCurrentContext(),
+            principalSecrets.getPrincipalSecrets().getPrincipalId(),
+            null,
+            Set.of());
+    if (resolver.resolveAll().getStatus() != ResolverStatus.StatusEnum.SUCCESS
+        || resolver.getResolvedCallerPrincipal().getEntity().getType()
+            != PolarisEntityType.PRINCIPAL) {
       return Optional.empty();
     }
-    return Optional.of(PrincipalEntity.of(result.getEntity()));
+    return Optional.of(PrincipalEntity.of(resolver.getResolvedCallerPrincipal().getEntity()));
   }
 }
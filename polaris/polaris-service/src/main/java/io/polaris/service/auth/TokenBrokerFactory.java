@@ -25,4 +25,11 @@ import java.util.function.Function;
  * created based on the realm context.
  */
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
-public interface TokenBrokerFactory extends Function<RealmContext, TokenBroker>, Discoverable {}
+public interface TokenBrokerFactory extends Function<RealmContext, TokenBroker>, Discoverable {
+
+  /**
+   * Drop the keys loaded by this factory and the brokers it created, so that they are loaded again
+   * on their next use. Called when the keys have been rotated, see {@link TokenBrokerRegistry}.
+   */
+  default void rotateKeys() {}
+}
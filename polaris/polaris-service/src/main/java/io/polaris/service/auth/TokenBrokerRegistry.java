@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import io.polaris.core.context.RealmContext;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registry of the {@link TokenBroker} of each realm. The broker of a realm is created by the {@link
+ * TokenBrokerFactory} the first time the realm is used, then shared by all the requests of the
+ * realm, so that verifying or generating a token does not build a new broker, key provider and
+ * algorithm each time. Looking up the broker of a realm which has already been used does not lock.
+ */
+public class TokenBrokerRegistry {
+  private final TokenBrokerFactory tokenBrokerFactory;
+  private final ConcurrentMap<String, TokenBroker> tokenBrokers = new ConcurrentHashMap<>();
+
+  public TokenBrokerRegistry(@NotNull TokenBrokerFactory tokenBrokerFactory) {
+    this.tokenBrokerFactory = tokenBrokerFactory;
+  }
+
+  /**
+   * @param realmContext the realm
+   * @return the token broker of the realm, created if it does not exist yet
+   */
+  public TokenBroker getOrCreateTokenBroker(@NotNull RealmContext realmContext) {
+    TokenBroker tokenBroker = tokenBrokers.get(realmContext.getRealmIdentifier());
+    if (tokenBroker == null) {
+      tokenBroker =
+          tokenBrokers.computeIfAbsent(
+              realmContext.getRealmIdentifier(), realm -> tokenBrokerFactory.apply(realmContext));
+    }
+    return tokenBroker;
+  }
+
+  /**
+   * Pick up rotated keys right away: the keys held by the factory are dropped, and the brokers of
+   * all the realms are created again on their next use. Without it, rotated key files are picked up
+   * within a few seconds.
+   */
+  public void rotateKeys() {
+    tokenBrokerFactory.rotateKeys();
+    tokenBrokers.clear();
+  }
+}
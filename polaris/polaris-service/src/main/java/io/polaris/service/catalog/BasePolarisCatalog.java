@@ -21,6 +21,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisConfiguration;
@@ -31,6 +32,7 @@ import io.polaris.core.entity.CatalogEntity;
 import io.polaris.core.entity.NamespaceEntity;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityConstants;
+import io.polaris.core.entity.PolarisEntityCore;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PolarisTaskConstants;
@@ -38,22 +40,22 @@ import io.polaris.core.entity.TableLikeEntity;
 import io.polaris.core.persistence.PolarisEntityManager;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
 import io.polaris.core.persistence.PolarisResolvedPathWrapper;
-import io.polaris.core.persistence.resolver.PolarisResolutionManifest;
 import io.polaris.core.persistence.resolver.PolarisResolutionManifestCatalogView;
-import io.polaris.core.persistence.resolver.ResolverPath;
-import io.polaris.core.persistence.resolver.ResolverStatus;
 import io.polaris.core.storage.InMemoryStorageIntegration;
 import io.polaris.core.storage.PolarisStorageActions;
 import io.polaris.core.storage.PolarisStorageConfigurationInfo;
 import io.polaris.core.storage.PolarisStorageIntegration;
 import io.polaris.core.storage.aws.PolarisS3FileIOClientFactory;
 import io.polaris.service.task.TaskExecutor;
+import io.polaris.service.types.ListNamespacesPageResponse;
+import io.polaris.service.types.ListTablesPageResponse;
 import io.polaris.service.types.NotificationRequest;
 import io.polaris.service.types.NotificationType;
 import jakarta.ws.rs.BadRequestException;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -62,10 +64,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.iceberg.BaseMetastoreTableOperations;
@@ -81,6 +87,7 @@ import org.apache.iceberg.catalog.SupportsNamespaces;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.exceptions.AlreadyExistsException;
 import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
 import org.apache.iceberg.exceptions.ForbiddenException;
 import org.apache.iceberg.exceptions.NamespaceNotEmptyException;
 import org.apache.iceberg.exceptions.NoSuchNamespaceException;
@@ -91,6 +98,7 @@ import org.apache.iceberg.exceptions.UnprocessableEntityException;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.io.CloseableGroup;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.rest.requests.UpdateTableRequest;
 import org.apache.iceberg.view.BaseMetastoreViewCatalog;
 import org.apache.iceberg.view.BaseViewOperations;
 import org.apache.iceberg.view.ViewBuilder;
@@ -98,6 +106,7 @@ import org.apache.iceberg.view.ViewMetadata;
 import org.apache.iceberg.view.ViewMetadataParser;
 import org.apache.iceberg.view.ViewUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -139,6 +148,8 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
   private final CatalogEntity catalogEntity;
   private final TaskExecutor taskExecutor;
   private final AuthenticatedPolarisPrincipal authenticatedPrincipal;
+  private final FileIOCache fileIOCache;
+  private final TableMetadataCache tableMetadataCache;
   private String ioImplClassName;
   private FileIO catalogFileIO;
   private String catalogName;
@@ -161,6 +172,35 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
       PolarisResolutionManifestCatalogView resolvedEntityView,
       AuthenticatedPolarisPrincipal authenticatedPrincipal,
       TaskExecutor taskExecutor) {
+    this(
+        entityManager,
+        callContext,
+        resolvedEntityView,
+        authenticatedPrincipal,
+        taskExecutor,
+        null,
+        null);
+  }
+
+  /**
+   * @param entityManager provides handle to underlying PolarisMetaStoreManager with which to
+   *     perform mutations on entities.
+   * @param callContext the current CallContext
+   * @param resolvedEntityView accessor to resolved entity paths that have been pre-vetted to ensure
+   *     this catalog instance only interacts with authorized resolved paths.
+   * @param taskExecutor Executor we use to register cleanup task handlers
+   * @param fileIOCache if not null, pool the FileIO instances are borrowed from instead of being
+   *     loaded and closed by each catalog instance
+   * @param tableMetadataCache if not null, cache the table metadata is read from and written to
+   */
+  public BasePolarisCatalog(
+      PolarisEntityManager entityManager,
+      CallContext callContext,
+      PolarisResolutionManifestCatalogView resolvedEntityView,
+      AuthenticatedPolarisPrincipal authenticatedPrincipal,
+      TaskExecutor taskExecutor,
+      @Nullable FileIOCache fileIOCache,
+      @Nullable TableMetadataCache tableMetadataCache) {
     this.entityManager = entityManager;
     this.callContext = callContext;
     this.resolvedEntityView = resolvedEntityView;
@@ -168,6 +208,8 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
         CatalogEntity.of(resolvedEntityView.getResolvedReferenceCatalogEntity().getRawLeafEntity());
     this.authenticatedPrincipal = authenticatedPrincipal;
     this.taskExecutor = taskExecutor;
+    this.fileIOCache = fileIOCache;
+    this.tableMetadataCache = tableMetadataCache;
     this.catalogId = catalogEntity.getId();
     this.catalogName = catalogEntity.getName();
   }
@@ -228,13 +270,11 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
           ioImplClassName,
           storageConfigurationInfo);
     }
-    this.catalogFileIO = loadFileIO(ioImplClassName, properties);
-
     this.closeableGroup = CallContext.getCurrentContext().closeables();
     closeableGroup.addCloseable(metricsReporter());
     // TODO: FileIO initialization should should happen later depending on the operation so
     // we'd also add it to the closeableGroup later.
-    closeableGroup.addCloseable(this.catalogFileIO);
+    this.catalogFileIO = loadFileIO(ioImplClassName, properties);
     closeableGroup.setSuppressCloseFailure(true);
     catalogProperties = properties;
   }
@@ -327,8 +367,6 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
       tableProperties.putAll(credentialsMap);
       if (!tableProperties.isEmpty()) {
         catalogFileIO = loadFileIO(ioImplClassName, tableProperties);
-        // ensure the new fileIO is closed when the catalog is closed
-        closeableGroup.addCloseable(catalogFileIO);
       }
     }
     Map<String, String> storageProperties =
@@ -376,7 +414,26 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
           "Cannot list tables for namespace. Namespace does not exist: %s", namespace);
     }
 
-    return listTableLike(catalogId, PolarisEntitySubType.TABLE, namespace);
+    return listTableLike(catalogId, PolarisEntitySubType.TABLE, namespace, null, Integer.MAX_VALUE)
+        .identifiers();
+  }
+
+  /**
+   * List one page of the tables under the specified namespace, ordered by name
+   *
+   * @param namespace the namespace to list tables from
+   * @param pageToken null for the first page, else the token returned with the previous page
+   * @param pageSize max number of tables to return
+   * @return the tables of that page and the token of the next page if any
+   */
+  public ListTablesPageResponse listTables(
+      Namespace namespace, @Nullable String pageToken, int pageSize) {
+    if (!namespaceExists(namespace) && !namespace.isEmpty()) {
+      throw new NoSuchNamespaceException(
+          "Cannot list tables for namespace. Namespace does not exist: %s", namespace);
+    }
+
+    return listTableLike(catalogId, PolarisEntitySubType.TABLE, namespace, pageToken, pageSize);
   }
 
   @Override
@@ -671,23 +728,41 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
 
   @Override
   public List<Namespace> listNamespaces(Namespace namespace) throws NoSuchNamespaceException {
+    return listNamespaces(namespace, null, Integer.MAX_VALUE).namespaces();
+  }
+
+  /**
+   * List one page of the namespaces under the specified namespace, ordered by name
+   *
+   * @param namespace the parent namespace, empty to list top-level namespaces
+   * @param pageToken null for the first page, else the token returned with the previous page
+   * @param pageSize max number of namespaces to return
+   * @return the namespaces of that page and the token of the next page if any
+   */
+  public ListNamespacesPageResponse listNamespaces(
+      Namespace namespace, @Nullable String pageToken, int pageSize)
+      throws NoSuchNamespaceException {
     PolarisResolvedPathWrapper resolvedEntities = resolvedEntityView.getResolvedPath(namespace);
     if (resolvedEntities == null) {
       throw new NoSuchNamespaceException("Namespace does not exist: %s", namespace);
     }
 
     List<PolarisEntity> catalogPath = resolvedEntities.getRawFullPath();
+    PolarisMetaStoreManager.ListEntitiesResult listResult =
+        entityManager
+            .getMetaStoreManager()
+            .listEntities(
+                getCurrentPolarisContext(),
+                PolarisEntity.toCoreList(catalogPath),
+                PolarisEntityType.NAMESPACE,
+                PolarisEntitySubType.NULL_SUBTYPE,
+                pageToken,
+                pageSize);
     List<PolarisEntity.NameAndId> entities =
-        PolarisEntity.toNameAndIdList(
-            entityManager
-                .getMetaStoreManager()
-                .listEntities(
-                    getCurrentPolarisContext(),
-                    PolarisEntity.toCoreList(catalogPath),
-                    PolarisEntityType.NAMESPACE,
-                    PolarisEntitySubType.NULL_SUBTYPE)
-                .getEntities());
-    return PolarisCatalogHelpers.nameAndIdToNamespaces(catalogPath, entities);
+        PolarisEntity.toNameAndIdList(listResult.getEntities());
+    return new ListNamespacesPageResponse(
+        PolarisCatalogHelpers.nameAndIdToNamespaces(catalogPath, entities),
+        listResult.getNextPageToken());
   }
 
   @Override
@@ -700,7 +775,26 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
           "Cannot list views for namespace. Namespace does not exist: %s", namespace);
     }
 
-    return listTableLike(catalogId, PolarisEntitySubType.VIEW, namespace);
+    return listTableLike(catalogId, PolarisEntitySubType.VIEW, namespace, null, Integer.MAX_VALUE)
+        .identifiers();
+  }
+
+  /**
+   * List one page of the views under the specified namespace, ordered by name
+   *
+   * @param namespace the namespace to list views from
+   * @param pageToken null for the first page, else the token returned with the previous page
+   * @param pageSize max number of views to return
+   * @return the views of that page and the token of the next page if any
+   */
+  public ListTablesPageResponse listViews(
+      Namespace namespace, @Nullable String pageToken, int pageSize) {
+    if (!namespaceExists(namespace) && !namespace.isEmpty()) {
+      throw new NoSuchNamespaceException(
+          "Cannot list views for namespace. Namespace does not exist: %s", namespace);
+    }
+
+    return listTableLike(catalogId, PolarisEntitySubType.VIEW, namespace, pageToken, pageSize);
   }
 
   @Override
@@ -771,6 +865,127 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     return specifiedTableLikeLocation;
   }
 
+  /**
+   * Commit the changes of several tables atomically. The new metadata files of all the tables are
+   * written in parallel, then all the tables are updated to point to them in a single metastore
+   * transaction, which fails if any of them was concurrently modified. Tables with requirements but
+   * no updates are not written, but the same transaction checks that they were not concurrently
+   * modified either.
+   *
+   * @param tableChanges the requirements and updates of each table, which must all exist
+   */
+  public void commitTransaction(List<UpdateTableRequest> tableChanges) {
+    List<TableCommit> commits = new ArrayList<>();
+    List<TableCommit> unchangedTables = new ArrayList<>();
+    for (UpdateTableRequest change : tableChanges) {
+      BasePolarisTableOperations ops =
+          (BasePolarisTableOperations) newTableOps(change.identifier());
+      TableMetadata base = ops.current();
+      if (base == null) {
+        throw new NoSuchTableException("Table does not exist: %s", change.identifier());
+      }
+      change.requirements().forEach(requirement -> requirement.validate(base));
+      TableMetadata.Builder builder = TableMetadata.buildFrom(base);
+      change.updates().forEach(update -> update.applyTo(builder));
+      TableMetadata metadata = builder.build();
+      if (metadata.changes().isEmpty()) {
+        unchangedTables.add(new TableCommit(change.identifier(), ops, base, base));
+        continue;
+      }
+      ops.validateCommit(base, metadata);
+      commits.add(new TableCommit(change.identifier(), ops, base, metadata));
+    }
+    if (commits.isEmpty()) {
+      return;
+    }
+
+    // the metadata files are written before any table is updated, as for a single table commit
+    List<String> newLocations = new ArrayList<>(commits.size());
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<String>> writes =
+          commits.stream()
+              .map(
+                  commit -> executor.submit(() -> commit.ops().writeNewMetadata(commit.metadata())))
+              .toList();
+      for (Future<String> write : writes) {
+        newLocations.add(write.get());
+      }
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    List<PolarisMetaStoreManager.EntityWithPath> entities = new ArrayList<>(commits.size());
+    List<PolarisEntityCore> unchangedEntities = new ArrayList<>(unchangedTables.size());
+    try {
+      for (int i = 0; i < commits.size(); i++) {
+        TableCommit commit = commits.get(i);
+        TableLikeEntity entity =
+            commit.ops().committedEntity(commit.base(), commit.metadata(), newLocations.get(i));
+        entities.add(toEntityWithPath(commit.identifier(), entity));
+      }
+      for (TableCommit unchanged : unchangedTables) {
+        unchangedEntities.add(
+            unchanged
+                .ops()
+                .committedEntity(
+                    unchanged.base(), unchanged.base(), unchanged.base().metadataFileLocation()));
+      }
+    } catch (RuntimeException e) {
+      // nothing was committed yet
+      deleteNewMetadataFiles(commits, newLocations);
+      throw e;
+    }
+
+    PolarisMetaStoreManager.EntitiesResult result;
+    try {
+      result =
+          entityManager
+              .getMetaStoreManager()
+              .updateEntitiesPropertiesIfNotChanged(
+                  getCurrentPolarisContext(), entities, unchangedEntities);
+    } catch (RuntimeException e) {
+      // the metastore transaction may have committed, in which case the tables point to the new
+      // metadata files, so they must be kept
+      throw new CommitStateUnknownException(e);
+    }
+    if (!result.isSuccess()) {
+      // none of the tables point to the new metadata files
+      deleteNewMetadataFiles(commits, newLocations);
+      throw new CommitFailedException(
+          "Cannot commit transaction on tables %s: %s",
+          commits.stream().map(TableCommit::identifier).toList(), result.getReturnStatus());
+    }
+
+    if (tableMetadataCache != null) {
+      String realmId = callContext.getRealmContext().getRealmIdentifier();
+      for (int i = 0; i < commits.size(); i++) {
+        tableMetadataCache.put(realmId, newLocations.get(i), commits.get(i).metadata());
+      }
+    }
+  }
+
+  /** Delete the metadata files written for a multi-table commit which failed */
+  private void deleteNewMetadataFiles(List<TableCommit> commits, List<String> newLocations) {
+    for (int i = 0; i < commits.size(); i++) {
+      try {
+        commits.get(i).ops().io().deleteFile(newLocations.get(i));
+      } catch (RuntimeException deleteFailure) {
+        LOG.warn("Failed to delete metadata file {}", newLocations.get(i), deleteFailure);
+      }
+    }
+  }
+
+  /** The new metadata of a table committed as part of a multi-table commit */
+  private record TableCommit(
+      TableIdentifier identifier,
+      BasePolarisTableOperations ops,
+      TableMetadata base,
+      TableMetadata metadata) {}
+
   private @NotNull Optional<PolarisEntity> findStorageInfo(TableIdentifier tableIdentifier) {
     PolarisResolvedPathWrapper resolvedTableEntities =
         resolvedEntityView.getResolvedPath(tableIdentifier, PolarisEntitySubType.TABLE);
@@ -937,124 +1152,40 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
   }
 
   /**
-   * Validate no location overlap exists between the entity path and its sibling entities. This
-   * resolves all siblings at the same level as the target entity (namespaces if the target entity
-   * is a namespace whose parent is the catalog, namespaces and tables otherwise) and checks the
-   * base-location property of each. The target entity's base location may not be a prefix or a
-   * suffix of any sibling entity's base location.
+   * Validate no location overlap exists between the entity path and its sibling entities. The
+   * siblings of the target entity are the namespaces and tables having the same parent, the target
+   * entity's base location may not be a prefix or a suffix of the base location of any of them.
+   * Rather than resolving all the siblings, this looks up the entities whose base location overlaps
+   * with the target one in the location index of the catalog, and then checks whether any of them
+   * is a sibling.
    */
   private void validateNoLocationOverlap(
       String location, List<PolarisEntity> parentPath, String name) {
-    PolarisMetaStoreManager.ListEntitiesResult siblingNamespacesResult =
+    try {
+      URI.create(location);
+    } catch (IllegalArgumentException e) {
+      throw new org.apache.iceberg.exceptions.BadRequestException(
+          e, "Unable to create table at location '%s' because it is not a valid URI", location);
+    }
+    PolarisEntity parent = parentPath.get(parentPath.size() - 1);
+    PolarisMetaStoreManager.EntityLocationsResult overlappingLocationsResult =
         entityManager
             .getMetaStoreManager()
-            .listEntities(
-                callContext.getPolarisCallContext(),
-                parentPath.stream().map(PolarisEntity::toCore).collect(Collectors.toList()),
-                PolarisEntityType.NAMESPACE,
-                PolarisEntitySubType.ANY_SUBTYPE);
-    if (!siblingNamespacesResult.isSuccess()) {
+            .loadOverlappingEntityLocations(
+                callContext.getPolarisCallContext(), parentPath.get(0).getId(), location);
+    if (!overlappingLocationsResult.isSuccess()) {
       throw new IllegalStateException(
-          "Unable to resolve siblings entities to validate location - could not list namespaces");
-    }
-
-    // if the entity path has more than just the catalog, check for tables as well as other
-    // namespaces
-    Optional<NamespaceEntity> parentNamespace =
-        parentPath.size() > 1
-            ? Optional.of(NamespaceEntity.of(parentPath.get(parentPath.size() - 1)))
-            : Optional.empty();
-
-    List<TableIdentifier> siblingTables =
-        parentNamespace
-            .map(
-                ns -> {
-                  PolarisMetaStoreManager.ListEntitiesResult siblingTablesResult =
-                      entityManager
-                          .getMetaStoreManager()
-                          .listEntities(
-                              callContext.getPolarisCallContext(),
-                              parentPath.stream()
-                                  .map(PolarisEntity::toCore)
-                                  .collect(Collectors.toList()),
-                              PolarisEntityType.TABLE_LIKE,
-                              PolarisEntitySubType.ANY_SUBTYPE);
-                  if (!siblingTablesResult.isSuccess()) {
-                    throw new IllegalStateException(
-                        "Unable to resolve siblings entities to validate location - could not list tables");
-                  }
-                  return siblingTablesResult.getEntities().stream()
-                      .map(tbl -> TableIdentifier.of(ns.asNamespace(), tbl.getName()))
-                      .collect(Collectors.toList());
-                })
-            .orElse(List.of());
-    ;
-
-    List<Namespace> siblingNamespaces =
-        siblingNamespacesResult.getEntities().stream()
-            .map(
-                ns -> {
-                  String[] nsLevels =
-                      parentNamespace
-                          .map(parent -> parent.asNamespace().levels())
-                          .orElse(new String[0]);
-                  String[] newLevels = Arrays.copyOf(nsLevels, nsLevels.length + 1);
-                  newLevels[nsLevels.length] = ns.getName();
-                  return Namespace.of(newLevels);
-                })
-            .collect(Collectors.toList());
-    LOG.debug(
-        "Resolving {} sibling entities to validate location",
-        siblingTables.size() + siblingNamespaces.size());
-    PolarisResolutionManifest resolutionManifest =
-        new PolarisResolutionManifest(
-            callContext, entityManager, authenticatedPrincipal, parentPath.get(0).getName());
-    siblingTables.forEach(
-        tbl ->
-            resolutionManifest.addPath(
-                new ResolverPath(
-                    PolarisCatalogHelpers.tableIdentifierToList(tbl), PolarisEntityType.TABLE_LIKE),
-                tbl));
-    siblingNamespaces.forEach(
-        ns ->
-            resolutionManifest.addPath(
-                new ResolverPath(Arrays.asList(ns.levels()), PolarisEntityType.NAMESPACE), ns));
-    ResolverStatus status = resolutionManifest.resolveAll();
-    if (!status.getStatus().equals(ResolverStatus.StatusEnum.SUCCESS)) {
-      throw new IllegalStateException(
-          "Unable to resolve sibling entities to validate location - could not resolve"
-              + status.getFailedToResolvedEntityName());
-    }
-    Stream.concat(
-            siblingTables.stream()
-                .filter(tbl -> !tbl.name().equals(name))
-                .map(
-                    tbl -> {
-                      PolarisResolvedPathWrapper resolveTablePath =
-                          resolutionManifest.getResolvedPath(tbl);
-                      return TableLikeEntity.of(resolveTablePath.getRawLeafEntity())
-                          .getBaseLocation();
-                    }),
-            siblingNamespaces.stream()
-                .filter(ns -> !ns.level(ns.length() - 1).equals(name))
-                .map(
-                    ns -> {
-                      PolarisResolvedPathWrapper resolveNamespacePath =
-                          resolutionManifest.getResolvedPath(ns);
-                      return NamespaceEntity.of(resolveNamespacePath.getRawLeafEntity())
-                          .getBaseLocation();
-                    }))
-        .filter(java.util.Objects::nonNull)
-        .forEach(
-            siblingLocation -> {
-              URI target = URI.create(location);
-              URI existing = URI.create(siblingLocation);
-              if (isUnderParentLocation(target, existing)
-                  || isUnderParentLocation(existing, target)) {
-                throw new org.apache.iceberg.exceptions.BadRequestException(
-                    "Unable to create table at location '%s' because it conflicts with existing table or namespace at location '%s'",
-                    target, existing);
-              }
+          "Unable to validate location - could not load the overlapping entity locations");
+    }
+    overlappingLocationsResult.getEntityLocations().stream()
+        .filter(
+            sibling -> sibling.getParentId() == parent.getId() && !sibling.getName().equals(name))
+        .findFirst()
+        .ifPresent(
+            sibling -> {
+              throw new org.apache.iceberg.exceptions.BadRequestException(
+                  "Unable to create table at location '%s' because it conflicts with existing table or namespace at location '%s'",
+                  location, sibling.getLocation());
             });
   }
 
@@ -1092,6 +1223,11 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     private final String fullTableName;
     private FileIO tableFileIO;
 
+    // passthrough resolution of the table done by the last doRefresh(), which the following
+    // doCommit() uses to pick the storage configuration instead of resolving the table again
+    private PolarisResolvedPathWrapper refreshedTableEntities;
+    private boolean hasRefreshedTableEntities = false;
+
     BasePolarisTableOperations(FileIO defaultFileIO, TableIdentifier tableIdentifier) {
       LOG.debug("new BasePolarisTableOperations for {}", tableIdentifier);
       this.tableIdentifier = tableIdentifier;
@@ -1107,6 +1243,8 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
       PolarisResolvedPathWrapper resolvedEntities =
           resolvedEntityView.getPassthroughResolvedPath(
               tableIdentifier, PolarisEntitySubType.TABLE);
+      refreshedTableEntities = resolvedEntities;
+      hasRefreshedTableEntities = true;
       TableLikeEntity entity = null;
 
       if (resolvedEntities != null) {
@@ -1128,24 +1266,26 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
             latestLocation,
             SHOULD_RETRY_REFRESH_PREDICATE,
             MAX_RETRIES,
-            metadataLocation -> {
-              FileIO fileIO = this.tableFileIO;
-              boolean closeFileIO = false;
-              PolarisResolvedPathWrapper resolvedStorageEntity =
-                  resolvedEntities == null
-                      ? resolvedEntityView.getResolvedPath(tableIdentifier.namespace())
-                      : resolvedEntities;
-              String latestLocationDir =
-                  latestLocation.substring(0, latestLocation.lastIndexOf('/'));
-              fileIO =
-                  refreshIOWithCredentials(
-                      tableIdentifier,
-                      Set.of(latestLocationDir),
-                      resolvedStorageEntity,
-                      new HashMap<>(),
-                      fileIO);
-              return TableMetadataParser.read(fileIO, metadataLocation);
-            });
+            metadataLocation ->
+                readTableMetadata(
+                    metadataLocation,
+                    location -> {
+                      FileIO fileIO = this.tableFileIO;
+                      PolarisResolvedPathWrapper resolvedStorageEntity =
+                          resolvedEntities == null
+                              ? resolvedEntityView.getResolvedPath(tableIdentifier.namespace())
+                              : resolvedEntities;
+                      String latestLocationDir =
+                          latestLocation.substring(0, latestLocation.lastIndexOf('/'));
+                      fileIO =
+                          refreshIOWithCredentials(
+                              tableIdentifier,
+                              Set.of(latestLocationDir),
+                              resolvedStorageEntity,
+                              new HashMap<>(),
+                              fileIO);
+                      return TableMetadataParser.read(fileIO, location);
+                    }));
       }
     }
 
@@ -1153,15 +1293,42 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     public void doCommit(TableMetadata base, TableMetadata metadata) {
       LOG.debug("doCommit for {} with base {}, metadata {}", tableIdentifier, base, metadata);
       // TODO: Maybe avoid writing metadata if there's definitely a transaction conflict
+      validateCommit(base, metadata);
+      String newLocation = writeNewMetadataIfRequired(base == null, metadata);
+      TableLikeEntity entity = committedEntity(base, metadata, newLocation);
+      if (null == base || null == base.metadataFileLocation()) {
+        createTableLike(catalogId, tableIdentifier, entity);
+      } else {
+        updateTableLike(catalogId, tableIdentifier, entity);
+      }
+
+      // the next refresh reads back the metadata we just wrote
+      if (tableMetadataCache != null) {
+        tableMetadataCache.put(
+            callContext.getRealmContext().getRealmIdentifier(), newLocation, metadata);
+      }
+    }
+
+    /**
+     * Validate the commit of the given metadata, and refresh the credentials of the table to write
+     * it
+     */
+    private void validateCommit(TableMetadata base, TableMetadata metadata) {
       if (null == base && !namespaceExists(tableIdentifier.namespace())) {
         throw new NoSuchNamespaceException(
             "Cannot create table %s. Namespace does not exist: %s",
             tableIdentifier, tableIdentifier.namespace());
       }
 
+      // The commit is based on the metadata loaded by the last refresh, so reuse the table it
+      // resolved; concurrent changes are detected below with a fresh resolution.
       PolarisResolvedPathWrapper resolvedTableEntities =
-          resolvedEntityView.getPassthroughResolvedPath(
-              tableIdentifier, PolarisEntitySubType.TABLE);
+          hasRefreshedTableEntities
+              ? refreshedTableEntities
+              : resolvedEntityView.getPassthroughResolvedPath(
+                  tableIdentifier, PolarisEntitySubType.TABLE);
+      refreshedTableEntities = null;
+      hasRefreshedTableEntities = false;
 
       // Fetch credentials for the resolved entity. The entity could be the table itself (if it has
       // already been stored and credentials have been configured directly) or it could be the
@@ -1197,13 +1364,27 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
           validateMetadataFileInTableDir(tableIdentifier, metadata, catalog);
         }
       }
+    }
 
-      String newLocation = writeNewMetadataIfRequired(base == null, metadata);
+    /** Write the given metadata of a table which already exists, for a multi-table commit */
+    private String writeNewMetadata(TableMetadata metadata) {
+      return writeNewMetadataIfRequired(false, metadata);
+    }
+
+    /**
+     * @return the entity of the table pointing to its new metadata location, after checking that
+     *     the table was not concurrently modified
+     */
+    private TableLikeEntity committedEntity(
+        TableMetadata base, TableMetadata metadata, String newLocation) {
       String oldLocation = base == null ? null : base.metadataFileLocation();
 
-      PolarisResolvedPathWrapper resolvedView =
-          resolvedEntityView.getPassthroughResolvedPath(tableIdentifier, PolarisEntitySubType.VIEW);
-      if (resolvedView != null) {
+      // A single resolution of the table-like entity detects both a conflicting view and a
+      // concurrent modification of the table
+      PolarisResolvedPathWrapper resolvedTableLike =
+          resolvedEntityView.getPassthroughResolvedPath(
+              tableIdentifier, PolarisEntitySubType.ANY_SUBTYPE);
+      if (filterBySubType(resolvedTableLike, PolarisEntitySubType.VIEW) != null) {
         throw new AlreadyExistsException("View with same name already exists: %s", tableIdentifier);
       }
 
@@ -1214,8 +1395,7 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
       // modification between our checking of unchanged metadataLocation here and actual
       // persistence-layer commit).
       PolarisResolvedPathWrapper resolvedEntities =
-          resolvedEntityView.getPassthroughResolvedPath(
-              tableIdentifier, PolarisEntitySubType.TABLE);
+          filterBySubType(resolvedTableLike, PolarisEntitySubType.TABLE);
       TableLikeEntity entity =
           TableLikeEntity.of(resolvedEntities == null ? null : resolvedEntities.getRawLeafEntity());
       String existingLocation;
@@ -1254,11 +1434,7 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
                 + "because it has been concurrently modified to %s",
             tableIdentifier, oldLocation, newLocation, existingLocation);
       }
-      if (null == existingLocation) {
-        createTableLike(catalogId, tableIdentifier, entity);
-      } else {
-        updateTableLike(catalogId, tableIdentifier, entity);
-      }
+      return entity;
     }
 
     @Override
@@ -1301,13 +1477,26 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     }
   }
 
+  /**
+   * @return the resolved path if its leaf entity is of the given subType, null otherwise
+   */
+  private static @Nullable PolarisResolvedPathWrapper filterBySubType(
+      @Nullable PolarisResolvedPathWrapper resolvedPath, PolarisEntitySubType subType) {
+    if (resolvedPath == null
+        || resolvedPath.getRawLeafEntity() == null
+        || resolvedPath.getRawLeafEntity().getSubType() != subType) {
+      return null;
+    }
+    return resolvedPath;
+  }
+
   private static @NotNull Optional<PolarisEntity> findStorageInfoFromHierarchy(
       PolarisResolvedPathWrapper resolvedStorageEntity) {
     Optional<PolarisEntity> storageInfoEntity =
         resolvedStorageEntity.getRawFullPath().reversed().stream()
             .filter(
                 e ->
-                    e.getInternalPropertiesAsMap()
+                    e.getInternalPropertiesView()
                         .containsKey(PolarisEntityConstants.getStorageConfigInfoPropertyName()))
             .findFirst();
     return storageInfoEntity;
@@ -1351,7 +1540,6 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
             MAX_RETRIES,
             metadataLocation -> {
               FileIO fileIO = this.viewFileIO;
-              boolean closeFileIO = false;
               PolarisResolvedPathWrapper resolvedStorageEntity =
                   resolvedEntities == null
                       ? resolvedEntityView.getResolvedPath(identifier.namespace())
@@ -1373,15 +1561,8 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
               if (!credentialsMap.isEmpty()) {
                 String ioImpl = fileIO.getClass().getName();
                 fileIO = loadFileIO(ioImpl, credentialsMap);
-                closeFileIO = true;
-              }
-              try {
-                return ViewMetadataParser.read(fileIO.newInputFile(metadataLocation));
-              } finally {
-                if (closeFileIO) {
-                  fileIO.close();
-                }
               }
+              return ViewMetadataParser.read(fileIO.newInputFile(metadataLocation));
             });
       }
     }
@@ -1396,14 +1577,17 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
             identifier, identifier.namespace());
       }
 
-      PolarisResolvedPathWrapper resolvedTable =
-          resolvedEntityView.getPassthroughResolvedPath(identifier, PolarisEntitySubType.TABLE);
-      if (resolvedTable != null) {
+      // A single resolution of the table-like entity detects both a conflicting table and the
+      // current view
+      PolarisResolvedPathWrapper resolvedTableLike =
+          resolvedEntityView.getPassthroughResolvedPath(
+              identifier, PolarisEntitySubType.ANY_SUBTYPE);
+      if (filterBySubType(resolvedTableLike, PolarisEntitySubType.TABLE) != null) {
         throw new AlreadyExistsException("Table with same name already exists: %s", identifier);
       }
 
       PolarisResolvedPathWrapper resolvedEntities =
-          resolvedEntityView.getPassthroughResolvedPath(identifier, PolarisEntitySubType.VIEW);
+          filterBySubType(resolvedTableLike, PolarisEntitySubType.VIEW);
 
       // Fetch credentials for the resolved entity. The entity could be the view itself (if it has
       // already been stored and credentials have been configured directly) or it could be the
@@ -1494,6 +1678,23 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     }
   }
 
+  /**
+   * Read the table metadata stored at the given location, from the table metadata cache when there
+   * is one.
+   *
+   * @param metadataLocation location of the metadata file
+   * @param reader reads and parses the metadata file at the given location
+   * @return the table metadata
+   */
+  private TableMetadata readTableMetadata(
+      String metadataLocation, Function<String, TableMetadata> reader) {
+    if (tableMetadataCache == null) {
+      return reader.apply(metadataLocation);
+    }
+    return tableMetadataCache.getOrLoad(
+        callContext.getRealmContext().getRealmIdentifier(), metadataLocation, reader);
+  }
+
   private FileIO refreshIOWithCredentials(
       TableIdentifier identifier,
       Set<String> readLocations,
@@ -1519,8 +1720,6 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     tableProperties.putAll(credentialsMap);
     if (!tableProperties.isEmpty()) {
       fileIO = loadFileIO(ioImplClassName, tableProperties);
-      // ensure the new fileIO is closed when the catalog is closed
-      closeableGroup.addCloseable(fileIO);
     }
     return fileIO;
   }
@@ -1705,6 +1904,29 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
   }
 
   private void updateTableLike(long catalogId, TableIdentifier identifier, PolarisEntity entity) {
+    PolarisMetaStoreManager.EntityWithPath entityWithPath = toEntityWithPath(identifier, entity);
+    PolarisEntity returnedEntity =
+        Optional.ofNullable(
+                entityManager
+                    .getMetaStoreManager()
+                    .updateEntityPropertiesIfNotChanged(
+                        getCurrentPolarisContext(),
+                        entityWithPath.getCatalogPath(),
+                        entityWithPath.getEntity())
+                    .getEntity())
+            .map(PolarisEntity::new)
+            .orElse(null);
+    if (returnedEntity == null) {
+      // TODO: Error or retry?
+    }
+  }
+
+  /**
+   * @return the updated table-like entity with its catalog path, after checking that its metadata
+   *     file is valid for our allowed locations
+   */
+  private PolarisMetaStoreManager.EntityWithPath toEntityWithPath(
+      TableIdentifier identifier, PolarisEntity entity) {
     PolarisResolvedPathWrapper resolvedEntities =
         resolvedEntityView.getResolvedPath(identifier, entity.getSubType());
     if (resolvedEntities == null) {
@@ -1718,18 +1940,8 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     validateLocationForTableLike(identifier, metadataLocation, resolvedEntities);
 
     List<PolarisEntity> catalogPath = resolvedEntities.getRawParentPath();
-    PolarisEntity returnedEntity =
-        Optional.ofNullable(
-                entityManager
-                    .getMetaStoreManager()
-                    .updateEntityPropertiesIfNotChanged(
-                        getCurrentPolarisContext(), PolarisEntity.toCoreList(catalogPath), entity)
-                    .getEntity())
-            .map(PolarisEntity::new)
-            .orElse(null);
-    if (returnedEntity == null) {
-      // TODO: Error or retry?
-    }
+    return new PolarisMetaStoreManager.EntityWithPath(
+        PolarisEntity.toCoreList(catalogPath), entity);
   }
 
   private @NotNull PolarisMetaStoreManager.DropEntityResult dropTableLike(
@@ -1863,8 +2075,12 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     }
   }
 
-  private List<TableIdentifier> listTableLike(
-      long catalogId, PolarisEntitySubType subType, Namespace namespace) {
+  private ListTablesPageResponse listTableLike(
+      long catalogId,
+      PolarisEntitySubType subType,
+      Namespace namespace,
+      @Nullable String pageToken,
+      int pageSize) {
     PolarisResolvedPathWrapper resolvedEntities = resolvedEntityView.getResolvedPath(namespace);
     if (resolvedEntities == null) {
       // Illegal state because the namespace should've already been in the static resolution set.
@@ -1873,21 +2089,27 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     }
 
     List<PolarisEntity> catalogPath = resolvedEntities.getRawFullPath();
+    PolarisMetaStoreManager.ListEntitiesResult listResult =
+        entityManager
+            .getMetaStoreManager()
+            .listEntities(
+                getCurrentPolarisContext(),
+                PolarisEntity.toCoreList(catalogPath),
+                PolarisEntityType.TABLE_LIKE,
+                subType,
+                pageToken,
+                pageSize);
     List<PolarisEntity.NameAndId> entities =
-        PolarisEntity.toNameAndIdList(
-            entityManager
-                .getMetaStoreManager()
-                .listEntities(
-                    getCurrentPolarisContext(),
-                    PolarisEntity.toCoreList(catalogPath),
-                    PolarisEntityType.TABLE_LIKE,
-                    subType)
-                .getEntities());
-    return PolarisCatalogHelpers.nameAndIdToTableIdentifiers(catalogPath, entities);
+        PolarisEntity.toNameAndIdList(listResult.getEntities());
+    return new ListTablesPageResponse(
+        PolarisCatalogHelpers.nameAndIdToTableIdentifiers(catalogPath, entities),
+        listResult.getNextPageToken());
   }
 
   /**
-   * Load FileIO with provided impl and properties
+   * Load FileIO with provided impl and properties, or borrow an identical one from the FileIO pool
+   * when there is one. Either way, the FileIO is closed or returned to the pool when the catalog is
+   * closed.
    *
    * @param ioImpl full class name of a custom FileIO implementation
    * @param properties used to initialize the FileIO implementation
@@ -1898,8 +2120,20 @@ public class BasePolarisCatalog extends BaseMetastoreViewCatalog
     Map<String, String> propertiesWithS3CustomizedClientFactory = new HashMap<>(properties);
     propertiesWithS3CustomizedClientFactory.put(
         S3FileIOProperties.CLIENT_FACTORY, PolarisS3FileIOClientFactory.class.getName());
-    return CatalogUtil.loadFileIO(
-        ioImpl, propertiesWithS3CustomizedClientFactory, new Configuration());
+    if (fileIOCache != null) {
+      FileIOCache.Lease lease =
+          fileIOCache.acquire(
+              ioImpl,
+              propertiesWithS3CustomizedClientFactory,
+              callContext.getRealmContext().getRealmIdentifier());
+      closeableGroup.addCloseable(lease);
+      return lease.fileIO();
+    }
+    FileIO fileIO =
+        CatalogUtil.loadFileIO(
+            ioImpl, propertiesWithS3CustomizedClientFactory, new Configuration());
+    closeableGroup.addCloseable(fileIO);
+    return fileIO;
   }
 
   private void blockedUserSpecifiedWriteLocation(Map<String, String> properties) {
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.storage.PolarisCredentialProperty;
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.CatalogUtil;
+import org.apache.iceberg.io.FileIO;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of FileIO instances shared across requests. FileIOs are keyed by their
+ * implementation class and by the full set of properties they are initialized with, which includes
+ * the storage configuration and the vended credentials, so two requests only share a FileIO (and
+ * its storage clients) when they would have built an identical one.
+ *
+ * <p>Each FileIO is reference-counted: callers acquire a {@link Lease} and close the lease instead
+ * of the FileIO once they are done. A FileIO is only closed once it has been evicted from the pool
+ * and its last lease has been released. Entries are evicted once half of the lifetime of the
+ * credentials they hold has elapsed, the same way the storage credential cache does, so a pooled
+ * FileIO is never handed out with credentials about to expire.
+ */
+public class FileIOCache {
+  private static final Logger LOG = LoggerFactory.getLogger(FileIOCache.class);
+
+  static final String HIT_METRIC = "polaris.fileio.cache.hit";
+  static final String MISS_METRIC = "polaris.fileio.cache.miss";
+
+  private final Cache<FileIOKey, PooledFileIO> cache;
+  private final BiFunction<String, Map<String, String>, FileIO> loader;
+  private final @Nullable PolarisMetricRegistry metricRegistry;
+
+  /**
+   * @param maxEntries maximum number of FileIO instances kept in the pool
+   * @param maxAgeMs maximum time a FileIO is kept in the pool, regardless of its credentials
+   * @param metricRegistry if not null, registry the hit and miss counters are reported to
+   */
+  public FileIOCache(
+      long maxEntries, long maxAgeMs, @Nullable PolarisMetricRegistry metricRegistry) {
+    this(
+        maxEntries,
+        maxAgeMs,
+        metricRegistry,
+        (ioImpl, properties) -> CatalogUtil.loadFileIO(ioImpl, properties, new Configuration()));
+  }
+
+  @VisibleForTesting
+  FileIOCache(
+      long maxEntries,
+      long maxAgeMs,
+      @Nullable PolarisMetricRegistry metricRegistry,
+      BiFunction<String, Map<String, String>, FileIO> loader) {
+    this.loader = loader;
+    this.metricRegistry = metricRegistry;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(
+                new Expiry<FileIOKey, PooledFileIO>() {
+                  @Override
+                  public long expireAfterCreate(
+                      FileIOKey key, PooledFileIO value, long currentTime) {
+                    long expireAfterMillis =
+                        Math.max(
+                            0,
+                            Math.min(
+                                (key.getCredentialsExpirationTime() - System.currentTimeMillis())
+                                    / 2,
+                                maxAgeMs));
+                    return TimeUnit.MILLISECONDS.toNanos(expireAfterMillis);
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(
+                      FileIOKey key, PooledFileIO value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                  }
+
+                  @Override
+                  public long expireAfterRead(
+                      FileIOKey key, PooledFileIO value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                  }
+                })
+            // close the evicted FileIOs right away instead of on the common pool
+            .executor(Runnable::run)
+            .removalListener(
+                (key, value, cause) -> {
+                  if (value != null) {
+                    value.evict();
+                  }
+                })
+            .build();
+  }
+
+  /**
+   * Get a FileIO from the pool, loading a new one if there is no FileIO with the same
+   * implementation and properties.
+   *
+   * @param ioImpl full class name of the FileIO implementation
+   * @param properties used to initialize the FileIO implementation
+   * @param realmId realm of the caller, used to tag the hit and miss metrics
+   * @return a lease on the FileIO, to be closed once the caller is done with the FileIO
+   */
+  public Lease acquire(
+      @NotNull String ioImpl, @NotNull Map<String, String> properties, @NotNull String realmId) {
+    FileIOKey key = new FileIOKey(ioImpl, ImmutableMap.copyOf(properties));
+    while (true) {
+      boolean[] loaded = new boolean[1];
+      PooledFileIO pooled =
+          cache.get(
+              key,
+              k -> {
+                loaded[0] = true;
+                return new PooledFileIO(loader.apply(k.ioImpl(), k.properties()));
+              });
+
+      // a FileIO evicted concurrently may have been closed already, in which case load a new one
+      if (pooled.retain()) {
+        incrementCounter(loaded[0] ? MISS_METRIC : HIT_METRIC, realmId);
+        return new Lease(pooled);
+      }
+      cache.asMap().remove(key, pooled);
+    }
+  }
+
+  /** Evict all the FileIOs, which are closed once their last lease is released. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @VisibleForTesting
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  private void incrementCounter(String metric, String realmId) {
+    if (metricRegistry != null) {
+      metricRegistry.incrementCounter(metric, realmId);
+    }
+  }
+
+  /** A reference on a pooled FileIO, released when closed. */
+  public static final class Lease implements Closeable {
+    private final PooledFileIO pooled;
+    private boolean released = false;
+
+    private Lease(PooledFileIO pooled) {
+      this.pooled = pooled;
+    }
+
+    public FileIO fileIO() {
+      return pooled.fileIO;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!released) {
+        released = true;
+        pooled.release();
+      }
+    }
+  }
+
+  /**
+   * Key of the pool. Holds the vended credentials, hence its string representation only includes
+   * the FileIO implementation.
+   */
+  private record FileIOKey(String ioImpl, Map<String, String> properties) {
+
+    /**
+     * @return the time in milliseconds at which the vended credentials expire, Long.MAX_VALUE if
+     *     there is no vended credentials or if they do not expire
+     */
+    long getCredentialsExpirationTime() {
+      String expiresAt =
+          properties.get(PolarisCredentialProperty.GCS_ACCESS_TOKEN_EXPIRES_AT.getPropertyName());
+      if (expiresAt == null) {
+        expiresAt = properties.get(PolarisCredentialProperty.EXPIRATION_TIME.getPropertyName());
+      }
+      if (expiresAt == null) {
+        return Long.MAX_VALUE;
+      }
+      try {
+        return Long.parseLong(expiresAt);
+      } catch (NumberFormatException e) {
+        return Long.MAX_VALUE;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "FileIOKey{ioImpl=" + ioImpl + "}";
+    }
+  }
+
+  /** A pooled FileIO along with the number of leases currently held on it. */
+  private static final class PooledFileIO {
+    private final FileIO fileIO;
+    private int references = 0;
+    private boolean evicted = false;
+    private boolean closed = false;
+
+    private PooledFileIO(FileIO fileIO) {
+      this.fileIO = fileIO;
+    }
+
+    synchronized boolean retain() {
+      if (closed) {
+        return false;
+      }
+      references++;
+      return true;
+    }
+
+    synchronized void release() {
+      references--;
+      closeIfUnused();
+    }
+
+    synchronized void evict() {
+      evicted = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+      if (evicted && references == 0 && !closed) {
+        closed = true;
+        try {
+          fileIO.close();
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to close evicted FileIO {}", fileIO.getClass().getName(), e);
+        }
+      }
+    }
+  }
+}
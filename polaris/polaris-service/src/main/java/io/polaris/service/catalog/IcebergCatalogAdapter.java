@@ -125,9 +125,15 @@ public class IcebergCatalogAdapter
       SecurityContext securityContext) {
     Optional<Namespace> namespaceOptional =
         Optional.ofNullable(parent).map(IcebergCatalogAdapter::decodeNamespace);
+    if (pageToken == null && pageSize == null) {
+      return Response.ok(
+              newHandlerWrapper(securityContext, prefix)
+                  .listNamespaces(namespaceOptional.orElse(Namespace.of())))
+          .build();
+    }
     return Response.ok(
             newHandlerWrapper(securityContext, prefix)
-                .listNamespaces(namespaceOptional.orElse(Namespace.of())))
+                .listNamespaces(namespaceOptional.orElse(Namespace.of()), pageToken, pageSize))
         .build();
   }
 
@@ -212,7 +218,12 @@ public class IcebergCatalogAdapter
       Integer pageSize,
       SecurityContext securityContext) {
     Namespace ns = decodeNamespace(namespace);
-    return Response.ok(newHandlerWrapper(securityContext, prefix).listTables(ns)).build();
+    if (pageToken == null && pageSize == null) {
+      return Response.ok(newHandlerWrapper(securityContext, prefix).listTables(ns)).build();
+    }
+    return Response.ok(
+            newHandlerWrapper(securityContext, prefix).listTables(ns, pageToken, pageSize))
+        .build();
   }
 
   @Override
@@ -347,7 +358,12 @@ public class IcebergCatalogAdapter
       Integer pageSize,
       SecurityContext securityContext) {
     Namespace ns = decodeNamespace(namespace);
-    return Response.ok(newHandlerWrapper(securityContext, prefix).listViews(ns)).build();
+    if (pageToken == null && pageSize == null) {
+      return Response.ok(newHandlerWrapper(securityContext, prefix).listViews(ns)).build();
+    }
+    return Response.ok(
+            newHandlerWrapper(securityContext, prefix).listViews(ns, pageToken, pageSize))
+        .build();
   }
 
   @Override
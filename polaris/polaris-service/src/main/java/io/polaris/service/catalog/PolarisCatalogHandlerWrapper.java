@@ -31,6 +31,8 @@ import io.polaris.core.persistence.resolver.ResolverPath;
 import io.polaris.core.persistence.resolver.ResolverStatus;
 import io.polaris.core.storage.PolarisStorageActions;
 import io.polaris.service.context.CallContextCatalogFactory;
+import io.polaris.service.types.ListNamespacesPageResponse;
+import io.polaris.service.types.ListTablesPageResponse;
 import io.polaris.service.types.NotificationRequest;
 import java.io.Closeable;
 import java.io.IOException;
@@ -47,14 +49,11 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.iceberg.BaseMetadataTable;
 import org.apache.iceberg.BaseTable;
-import org.apache.iceberg.BaseTransaction;
 import org.apache.iceberg.MetadataUpdate;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableMetadata;
-import org.apache.iceberg.Transaction;
-import org.apache.iceberg.Transactions;
 import org.apache.iceberg.UpdateRequirement;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.Namespace;
@@ -83,6 +82,7 @@ import org.apache.iceberg.rest.responses.ListTablesResponse;
 import org.apache.iceberg.rest.responses.LoadTableResponse;
 import org.apache.iceberg.rest.responses.LoadViewResponse;
 import org.apache.iceberg.rest.responses.UpdateNamespacePropertiesResponse;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -416,6 +416,27 @@ public class PolarisCatalogHandlerWrapper {
     return doCatalogOperation(() -> CatalogHandlers.listNamespaces(namespaceCatalog, parent));
   }
 
+  /**
+   * List one page of the namespaces under the parent. Catalogs which are not Polaris catalogs
+   * return all the namespaces in a single page.
+   */
+  public ListNamespacesPageResponse listNamespaces(
+      Namespace parent, @Nullable String pageToken, @Nullable Integer pageSize) {
+    PolarisAuthorizableOperation op = PolarisAuthorizableOperation.LIST_NAMESPACES;
+    authorizeBasicNamespaceOperationOrThrow(op, parent);
+
+    int validPageSize = validatePageSize(pageSize);
+    if (namespaceCatalog instanceof BasePolarisCatalog polarisCatalog) {
+      return doCatalogOperation(
+          () -> polarisCatalog.listNamespaces(parent, pageToken, validPageSize));
+    } else {
+      return doCatalogOperation(
+          () ->
+              new ListNamespacesPageResponse(
+                  CatalogHandlers.listNamespaces(namespaceCatalog, parent).namespaces(), null));
+    }
+  }
+
   public CreateNamespaceResponse createNamespace(CreateNamespaceRequest request) {
     PolarisAuthorizableOperation op = PolarisAuthorizableOperation.CREATE_NAMESPACE;
 
@@ -453,6 +474,17 @@ public class PolarisCatalogHandlerWrapper {
     }
   }
 
+  /** Without a page size, the rest of the list is returned in a single page */
+  private static int validatePageSize(@Nullable Integer pageSize) {
+    if (pageSize == null) {
+      return Integer.MAX_VALUE;
+    }
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Invalid page size, must be positive: " + pageSize);
+    }
+    return pageSize;
+  }
+
   private static boolean isExternal(CatalogEntity catalog) {
     return io.polaris.core.admin.model.Catalog.TypeEnum.EXTERNAL.equals(catalog.getCatalogType());
   }
@@ -528,6 +560,27 @@ public class PolarisCatalogHandlerWrapper {
     return doCatalogOperation(() -> CatalogHandlers.listTables(baseCatalog, namespace));
   }
 
+  /**
+   * List one page of the tables under the namespace. Catalogs which are not Polaris catalogs return
+   * all the tables in a single page.
+   */
+  public ListTablesPageResponse listTables(
+      Namespace namespace, @Nullable String pageToken, @Nullable Integer pageSize) {
+    PolarisAuthorizableOperation op = PolarisAuthorizableOperation.LIST_TABLES;
+    authorizeBasicNamespaceOperationOrThrow(op, namespace);
+
+    int validPageSize = validatePageSize(pageSize);
+    if (baseCatalog instanceof BasePolarisCatalog polarisCatalog) {
+      return doCatalogOperation(
+          () -> polarisCatalog.listTables(namespace, pageToken, validPageSize));
+    } else {
+      return doCatalogOperation(
+          () ->
+              new ListTablesPageResponse(
+                  CatalogHandlers.listTables(baseCatalog, namespace).identifiers(), null));
+    }
+  }
+
   public LoadTableResponse createTableDirect(Namespace namespace, CreateTableRequest request) {
     PolarisAuthorizableOperation op = PolarisAuthorizableOperation.CREATE_TABLE_DIRECT;
     authorizeCreateTableLikeUnderNamespaceOperationOrThrow(
@@ -951,27 +1004,17 @@ public class PolarisCatalogHandlerWrapper {
       throw new BadRequestException("Cannot update table on external catalogs.");
     }
 
-    // TODO: Implement this properly
-    List<Transaction> transactions =
-        commitTransactionRequest.tableChanges().stream()
-            .map(
-                change -> {
-                  Table table = baseCatalog.loadTable(change.identifier());
-                  if (!(table instanceof BaseTable)) {
-                    throw new IllegalStateException(
-                        "Cannot wrap catalog that does not produce BaseTable");
-                  }
-                  Transaction transaction =
-                      Transactions.newTransaction(
-                          change.identifier().toString(), ((BaseTable) table).operations());
-                  BaseTransaction.TransactionTable txTable =
-                      (BaseTransaction.TransactionTable) transaction.table();
-                  CatalogHandlers.updateTable(baseCatalog, change.identifier(), change);
-                  return transaction;
-                })
-            .toList();
-
-    transactions.forEach(Transaction::commitTransaction);
+    List<UpdateTableRequest> tableChanges =
+        commitTransactionRequest.tableChanges().stream().map(this::applyUpdateFilters).toList();
+    if (baseCatalog instanceof BasePolarisCatalog polarisCatalog) {
+      doCatalogOperation(() -> polarisCatalog.commitTransaction(tableChanges));
+    } else {
+      // other catalogs commit each table on its own
+      doCatalogOperation(
+          () ->
+              tableChanges.forEach(
+                  change -> CatalogHandlers.updateTable(baseCatalog, change.identifier(), change)));
+    }
   }
 
   public ListTablesResponse listViews(Namespace namespace) {
@@ -981,6 +1024,27 @@ public class PolarisCatalogHandlerWrapper {
     return doCatalogOperation(() -> CatalogHandlers.listViews(viewCatalog, namespace));
   }
 
+  /**
+   * List one page of the views under the namespace. Catalogs which are not Polaris catalogs return
+   * all the views in a single page.
+   */
+  public ListTablesPageResponse listViews(
+      Namespace namespace, @Nullable String pageToken, @Nullable Integer pageSize) {
+    PolarisAuthorizableOperation op = PolarisAuthorizableOperation.LIST_VIEWS;
+    authorizeBasicNamespaceOperationOrThrow(op, namespace);
+
+    int validPageSize = validatePageSize(pageSize);
+    if (viewCatalog instanceof BasePolarisCatalog polarisCatalog) {
+      return doCatalogOperation(
+          () -> polarisCatalog.listViews(namespace, pageToken, validPageSize));
+    } else {
+      return doCatalogOperation(
+          () ->
+              new ListTablesPageResponse(
+                  CatalogHandlers.listViews(viewCatalog, namespace).identifiers(), null));
+    }
+  }
+
   public LoadViewResponse createView(Namespace namespace, CreateViewRequest request) {
     PolarisAuthorizableOperation op = PolarisAuthorizableOperation.CREATE_VIEW;
     authorizeCreateTableLikeUnderNamespaceOperationOrThrow(
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.StatisticsFile;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.types.TypeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cache of parsed TableMetadata, keyed by the location of the metadata file they were read from.
+ * Metadata files are never modified once written, so an entry never needs to be invalidated: a
+ * table pointing to new metadata simply looks up a different location. The cache is bounded by the
+ * estimated in-memory size of the cached metadata, since the size of a single metadata file grows
+ * with the number of snapshots of the table.
+ */
+public class TableMetadataCache {
+  static final String HIT_METRIC = "polaris.table_metadata.cache.hit";
+  static final String MISS_METRIC = "polaris.table_metadata.cache.miss";
+
+  // rough per-element footprints, used to estimate the size of a TableMetadata without serializing
+  private static final int BASE_BYTES = 1024;
+  private static final int SNAPSHOT_BYTES = 256;
+  private static final int SNAPSHOT_LOG_ENTRY_BYTES = 48;
+  private static final int METADATA_LOG_ENTRY_BYTES = 48;
+  private static final int FIELD_BYTES = 128;
+  private static final int STATISTICS_FILE_BYTES = 256;
+
+  private final Cache<TableMetadataKey, TableMetadata> cache;
+  private final @Nullable PolarisMetricRegistry metricRegistry;
+
+  /**
+   * @param maxSizeBytes maximum estimated size of all the cached metadata, in bytes
+   * @param metricRegistry if not null, registry the hit and miss counters are reported to
+   */
+  public TableMetadataCache(long maxSizeBytes, @Nullable PolarisMetricRegistry metricRegistry) {
+    this.metricRegistry = metricRegistry;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxSizeBytes)
+            .weigher(
+                (TableMetadataKey key, TableMetadata metadata) ->
+                    (int) Math.min(Integer.MAX_VALUE, estimateSizeInBytes(metadata)))
+            .build();
+  }
+
+  /**
+   * Get the metadata stored at the given location, loading it if it is not cached. Concurrent
+   * callers loading the same location wait for a single load.
+   *
+   * @param realmId realm of the table
+   * @param metadataLocation location of the metadata file
+   * @param loader reads and parses the metadata file at the given location
+   * @return the table metadata
+   */
+  public TableMetadata getOrLoad(
+      @NotNull String realmId,
+      @NotNull String metadataLocation,
+      @NotNull Function<String, TableMetadata> loader) {
+    boolean[] loaded = new boolean[1];
+    TableMetadata metadata =
+        cache.get(
+            new TableMetadataKey(realmId, metadataLocation),
+            key -> {
+              loaded[0] = true;
+              return loader.apply(key.metadataLocation());
+            });
+    incrementCounter(loaded[0] ? MISS_METRIC : HIT_METRIC, realmId);
+    return metadata;
+  }
+
+  /**
+   * Cache metadata which has just been written to the given location.
+   *
+   * @param realmId realm of the table
+   * @param metadataLocation location the metadata was written to
+   * @param metadata the written metadata, which may still hold the changes it was built from
+   */
+  public void put(
+      @NotNull String realmId, @NotNull String metadataLocation, @NotNull TableMetadata metadata) {
+    // make the cached copy identical to what reading the metadata file would return. Rebuilding it
+    // with TableMetadata.Builder would reset its last-updated timestamp, so parse it back instead,
+    // which is still much cheaper than reading the file back from the object storage
+    TableMetadata written =
+        metadataLocation.equals(metadata.metadataFileLocation()) && metadata.changes().isEmpty()
+            ? metadata
+            : TableMetadataParser.fromJson(metadataLocation, TableMetadataParser.toJson(metadata));
+    cache.put(new TableMetadataKey(realmId, metadataLocation), written);
+  }
+
+  @VisibleForTesting
+  @Nullable
+  TableMetadata getIfPresent(String realmId, String metadataLocation) {
+    return cache.getIfPresent(new TableMetadataKey(realmId, metadataLocation));
+  }
+
+  @VisibleForTesting
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  /**
+   * Estimate the in-memory size of the metadata. Dominated by the snapshots and their summaries for
+   * tables with a long history, and by the schemas for wide tables.
+   */
+  @VisibleForTesting
+  static long estimateSizeInBytes(TableMetadata metadata) {
+    long size = BASE_BYTES + metadata.location().length();
+    for (Snapshot snapshot : metadata.snapshots()) {
+      size += SNAPSHOT_BYTES;
+      if (snapshot.manifestListLocation() != null) {
+        size += snapshot.manifestListLocation().length();
+      }
+      if (snapshot.summary() != null) {
+        size += sizeOf(snapshot.summary());
+      }
+    }
+    size += (long) metadata.snapshotLog().size() * SNAPSHOT_LOG_ENTRY_BYTES;
+    for (TableMetadata.MetadataLogEntry entry : metadata.previousFiles()) {
+      size += METADATA_LOG_ENTRY_BYTES + entry.file().length();
+    }
+    for (Schema schema : metadata.schemas()) {
+      size += (long) TypeUtil.indexById(schema.asStruct()).size() * FIELD_BYTES;
+    }
+    for (PartitionSpec spec : metadata.specs()) {
+      size += (long) spec.fields().size() * FIELD_BYTES;
+    }
+    for (StatisticsFile statisticsFile : metadata.statisticsFiles()) {
+      size += STATISTICS_FILE_BYTES + statisticsFile.path().length();
+    }
+    size += sizeOf(metadata.properties());
+    return size;
+  }
+
+  private static long sizeOf(Map<String, String> map) {
+    long size = 0;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      // two bytes per char for the keys and values, plus the entry itself
+      size += 2L * (entry.getKey().length() + entry.getValue().length()) + 64;
+    }
+    return size;
+  }
+
+  private void incrementCounter(String metric, String realmId) {
+    if (metricRegistry != null) {
+      metricRegistry.incrementCounter(metric, realmId);
+    }
+  }
+
+  private record TableMetadataKey(String realmId, String metadataLocation) {}
+}
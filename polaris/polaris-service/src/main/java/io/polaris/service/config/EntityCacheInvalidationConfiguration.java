@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.config;
+
+import io.polaris.core.persistence.cache.EntityCacheInvalidationChannel;
+import io.polaris.core.persistence.cache.PollingEntityCacheInvalidationChannel;
+
+/**
+ * Configuration of the channel used to propagate entity changes to the entity caches of all the
+ * nodes. The type is either "none", the default, where each node only relies on validating its
+ * cache against the backend, or "polling" where each node periodically polls the entity change
+ * tracking versions of the entries it has cached.
+ */
+public class EntityCacheInvalidationConfiguration {
+  private String type = "none";
+  private long pollingIntervalMs = 1000;
+  private int batchSize = 1000;
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public void setPollingIntervalMs(long pollingIntervalMs) {
+    this.pollingIntervalMs = pollingIntervalMs;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @return a new invalidation channel for one realm, null if no channel is configured
+   */
+  public EntityCacheInvalidationChannel newChannel() {
+    return switch (type) {
+      case "none" -> null;
+      case "polling" -> new PollingEntityCacheInvalidationChannel(pollingIntervalMs, batchSize);
+      default ->
+          throw new IllegalArgumentException("Unknown entity cache invalidation type: " + type);
+    };
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.config;
+
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.service.catalog.FileIOCache;
+
+/**
+ * Configuration of the pool of FileIO instances shared by the catalog requests. When disabled, each
+ * request loads its own FileIO instances and closes them when it completes.
+ */
+public class FileIOCacheConfiguration {
+  private boolean enabled = true;
+  private long maxEntries = 1000;
+  private long maxAgeMs = 30 * 60 * 1000L;
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public void setMaxEntries(long maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public void setMaxAgeMs(long maxAgeMs) {
+    this.maxAgeMs = maxAgeMs;
+  }
+
+  /**
+   * @return a new FileIO pool reporting to the given registry, null if the pool is disabled
+   */
+  public FileIOCache newCache(PolarisMetricRegistry metricRegistry) {
+    return enabled ? new FileIOCache(maxEntries, maxAgeMs, metricRegistry) : null;
+  }
+}
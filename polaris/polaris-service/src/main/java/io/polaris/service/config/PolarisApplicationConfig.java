@@ -47,6 +47,11 @@ public class PolarisApplicationConfig extends Configuration {
   private DiscoverableAuthenticator<String, AuthenticatedPolarisPrincipal> polarisAuthenticator;
   private CorsConfiguration corsConfiguration = new CorsConfiguration();
   private TaskHandlerConfiguration taskHandler = new TaskHandlerConfiguration();
+  private EntityCacheInvalidationConfiguration entityCacheInvalidation =
+      new EntityCacheInvalidationConfiguration();
+  private FileIOCacheConfiguration fileIOCache = new FileIOCacheConfiguration();
+  private TableMetadataCacheConfiguration tableMetadataCache =
+      new TableMetadataCacheConfiguration();
   private PolarisConfigurationStore configurationStore =
       new DefaultConfigurationStore(new HashMap<>());
   private List<String> defaultRealms;
@@ -147,6 +152,31 @@ public class PolarisApplicationConfig extends Configuration {
     return taskHandler;
   }
 
+  public void setEntityCacheInvalidation(
+      EntityCacheInvalidationConfiguration entityCacheInvalidation) {
+    this.entityCacheInvalidation = entityCacheInvalidation;
+  }
+
+  public EntityCacheInvalidationConfiguration getEntityCacheInvalidation() {
+    return entityCacheInvalidation;
+  }
+
+  public void setFileIOCache(FileIOCacheConfiguration fileIOCache) {
+    this.fileIOCache = fileIOCache;
+  }
+
+  public FileIOCacheConfiguration getFileIOCache() {
+    return fileIOCache;
+  }
+
+  public void setTableMetadataCache(TableMetadataCacheConfiguration tableMetadataCache) {
+    this.tableMetadataCache = tableMetadataCache;
+  }
+
+  public TableMetadataCacheConfiguration getTableMetadataCache() {
+    return tableMetadataCache;
+  }
+
   @JsonProperty("featureConfiguration")
   public void setFeatureConfiguration(Map<String, Object> featureConfiguration) {
     this.configurationStore = new DefaultConfigurationStore(featureConfiguration);
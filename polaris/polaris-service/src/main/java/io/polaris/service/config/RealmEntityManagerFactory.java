@@ -15,18 +15,25 @@
  */
 package io.polaris.service.config;
 
+import io.dropwizard.lifecycle.Managed;
 import io.polaris.core.context.RealmContext;
 import io.polaris.core.persistence.MetaStoreManagerFactory;
 import io.polaris.core.persistence.PolarisEntityManager;
+import io.polaris.core.persistence.cache.EntityCacheInvalidationChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Gets or creates PolarisEntityManager instances based on config values and RealmContext. */
-public class RealmEntityManagerFactory {
+/**
+ * Gets or creates PolarisEntityManager instances based on config values and RealmContext. The
+ * entity managers it created are closed when it is stopped.
+ */
+public class RealmEntityManagerFactory implements Managed {
   private static final Logger LOG = LoggerFactory.getLogger(RealmEntityManagerFactory.class);
   private final MetaStoreManagerFactory metaStoreManagerFactory;
+  private final Supplier<EntityCacheInvalidationChannel> invalidationChannelFactory;
 
   // Key: realmIdentifier
   private Map<String, PolarisEntityManager> cachedEntityManagers = new HashMap<>();
@@ -34,10 +41,22 @@ public class RealmEntityManagerFactory {
   // Subclasses for test injection.
   protected RealmEntityManagerFactory() {
     this.metaStoreManagerFactory = null;
+    this.invalidationChannelFactory = () -> null;
   }
 
   public RealmEntityManagerFactory(MetaStoreManagerFactory metaStoreManagerFactory) {
+    this(metaStoreManagerFactory, () -> null);
+  }
+
+  /**
+   * @param invalidationChannelFactory creates the entity cache invalidation channel of each realm,
+   *     may return null if entity caches should not be kept in sync across nodes
+   */
+  public RealmEntityManagerFactory(
+      MetaStoreManagerFactory metaStoreManagerFactory,
+      Supplier<EntityCacheInvalidationChannel> invalidationChannelFactory) {
     this.metaStoreManagerFactory = metaStoreManagerFactory;
+    this.invalidationChannelFactory = invalidationChannelFactory;
   }
 
   public PolarisEntityManager getOrCreateEntityManager(RealmContext context) {
@@ -52,10 +71,19 @@ public class RealmEntityManagerFactory {
           new PolarisEntityManager(
               metaStoreManagerFactory.getOrCreateMetaStoreManager(context),
               metaStoreManagerFactory.getOrCreateSessionSupplier(context),
-              metaStoreManagerFactory.getOrCreateStorageCredentialCache(context));
+              metaStoreManagerFactory.getOrCreateStorageCredentialCache(context),
+              invalidationChannelFactory.get());
 
       cachedEntityManagers.put(realm, entityManagerInstance);
     }
     return entityManagerInstance;
   }
+
+  @Override
+  public void start() {}
+
+  @Override
+  public void stop() {
+    cachedEntityManagers.values().forEach(PolarisEntityManager::close);
+  }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.config;
+
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.service.catalog.TableMetadataCache;
+
+/**
+ * Configuration of the cache of parsed table metadata shared by the catalog requests. When
+ * disabled, each table refresh reads and parses the table's metadata file.
+ */
+public class TableMetadataCacheConfiguration {
+  private boolean enabled = true;
+  private long maxSizeBytes = 256 * 1024 * 1024L;
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public void setMaxSizeBytes(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  /**
+   * @return a new metadata cache reporting to the given registry, null if the cache is disabled
+   */
+  public TableMetadataCache newCache(PolarisMetricRegistry metricRegistry) {
+    return enabled ? new TableMetadataCache(maxSizeBytes, metricRegistry) : null;
+  }
+}
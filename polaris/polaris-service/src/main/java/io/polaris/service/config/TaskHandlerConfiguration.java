@@ -16,14 +16,27 @@
 package io.polaris.service.config;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.persistence.MetaStoreManagerFactory;
+import io.polaris.service.task.TaskExecutorImpl;
+import io.polaris.service.task.TaskPoller;
+import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
+/**
+ * Configuration of the executor of the asynchronous tasks. When a polling interval is configured,
+ * each node also polls the metastore for the pending tasks of its realms, so that the tasks of a
+ * node which was restarted are not lost, and leases at most maxInFlightTasks tasks at a time.
+ */
 public class TaskHandlerConfiguration {
   private int poolSize = 10;
   private boolean fixedSize = true;
   private String threadNamePattern = "taskHandler-%d";
+  private long pollingIntervalMs = 0;
+  private int maxInFlightTasks = 20;
 
   public void setPoolSize(int poolSize) {
     this.poolSize = poolSize;
@@ -37,12 +50,42 @@ public class TaskHandlerConfiguration {
     this.threadNamePattern = threadNamePattern;
   }
 
+  public void setPollingIntervalMs(long pollingIntervalMs) {
+    this.pollingIntervalMs = pollingIntervalMs;
+  }
+
+  public void setMaxInFlightTasks(int maxInFlightTasks) {
+    this.maxInFlightTasks = maxInFlightTasks;
+  }
+
   public ExecutorService executorService() {
     return fixedSize
         ? Executors.newFixedThreadPool(poolSize, threadFactory())
         : Executors.newCachedThreadPool(threadFactory());
   }
 
+  /**
+   * @return a new poller of the pending tasks of the given realms, null if polling is disabled
+   */
+  public TaskPoller newPoller(
+      TaskExecutorImpl taskExecutor,
+      MetaStoreManagerFactory metaStoreManagerFactory,
+      PolarisConfigurationStore configurationStore,
+      Collection<String> realmIds,
+      PolarisMetricRegistry metricRegistry) {
+    if (pollingIntervalMs <= 0) {
+      return null;
+    }
+    return new TaskPoller(
+        taskExecutor,
+        metaStoreManagerFactory,
+        configurationStore,
+        realmIds,
+        pollingIntervalMs,
+        maxInFlightTasks,
+        metricRegistry);
+  }
+
   private ThreadFactory threadFactory() {
     return new ThreadFactoryBuilder().setNameFormat(threadNamePattern).setDaemon(true).build();
   }
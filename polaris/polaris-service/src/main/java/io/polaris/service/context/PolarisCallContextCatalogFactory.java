@@ -22,6 +22,8 @@ import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.persistence.PolarisEntityManager;
 import io.polaris.core.persistence.resolver.PolarisResolutionManifest;
 import io.polaris.service.catalog.BasePolarisCatalog;
+import io.polaris.service.catalog.FileIOCache;
+import io.polaris.service.catalog.TableMetadataCache;
 import io.polaris.service.config.RealmEntityManagerFactory;
 import io.polaris.service.task.TaskExecutor;
 import java.nio.file.Paths;
@@ -29,6 +31,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.apache.iceberg.CatalogProperties;
 import org.apache.iceberg.catalog.Catalog;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,11 +43,28 @@ public class PolarisCallContextCatalogFactory implements CallContextCatalogFacto
 
   private final RealmEntityManagerFactory entityManagerFactory;
   private final TaskExecutor taskExecutor;
+  private final FileIOCache fileIOCache;
+  private final TableMetadataCache tableMetadataCache;
 
   public PolarisCallContextCatalogFactory(
       RealmEntityManagerFactory entityManagerFactory, TaskExecutor taskExecutor) {
+    this(entityManagerFactory, taskExecutor, null, null);
+  }
+
+  /**
+   * @param fileIOCache if not null, pool of FileIO instances shared by all the catalogs created
+   * @param tableMetadataCache if not null, cache of table metadata shared by all the catalogs
+   *     created
+   */
+  public PolarisCallContextCatalogFactory(
+      RealmEntityManagerFactory entityManagerFactory,
+      TaskExecutor taskExecutor,
+      @Nullable FileIOCache fileIOCache,
+      @Nullable TableMetadataCache tableMetadataCache) {
     this.entityManagerFactory = entityManagerFactory;
     this.taskExecutor = taskExecutor;
+    this.fileIOCache = fileIOCache;
+    this.tableMetadataCache = tableMetadataCache;
   }
 
   @Override
@@ -65,7 +85,13 @@ public class PolarisCallContextCatalogFactory implements CallContextCatalogFacto
 
     BasePolarisCatalog catalogInstance =
         new BasePolarisCatalog(
-            entityManager, context, resolvedManifest, authenticatedPrincipal, taskExecutor);
+            entityManager,
+            context,
+            resolvedManifest,
+            authenticatedPrincipal,
+            taskExecutor,
+            fileIOCache,
+            tableMetadataCache);
 
     context.contextVariables().put(CallContext.REQUEST_PATH_CATALOG_INSTANCE_KEY, catalogInstance);
 
@@ -19,6 +19,7 @@ import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.auth.http.HttpTransportFactory;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.ServiceOptions;
+import com.google.common.base.Suppliers;
 import io.polaris.core.PolarisDiagnostics;
 import io.polaris.core.storage.PolarisCredentialProperty;
 import io.polaris.core.storage.PolarisStorageActions;
@@ -41,8 +42,19 @@ public class PolarisStorageIntegrationProviderImpl implements PolarisStorageInte
 
   private final Supplier<StsClient> stsClientSupplier;
 
+  // shared by all the credential vends, so that its cached access tokens, service clients and user
+  // delegation keys are reused. Created on first use, as it loads the default Azure credential
+  private final Supplier<AzureCredentialsStorageIntegration> azureStorageIntegrationSupplier;
+
   public PolarisStorageIntegrationProviderImpl(Supplier<StsClient> stsClientSupplier) {
+    this(stsClientSupplier, AzureCredentialsStorageIntegration::new);
+  }
+
+  public PolarisStorageIntegrationProviderImpl(
+      Supplier<StsClient> stsClientSupplier,
+      Supplier<AzureCredentialsStorageIntegration> azureStorageIntegrationSupplier) {
     this.stsClientSupplier = stsClientSupplier;
+    this.azureStorageIntegrationSupplier = Suppliers.memoize(azureStorageIntegrationSupplier::get);
   }
 
   @Override
@@ -75,7 +87,7 @@ public class PolarisStorageIntegrationProviderImpl implements PolarisStorageInte
         break;
       case AZURE:
         storageIntegration =
-            (PolarisStorageIntegration<T>) new AzureCredentialsStorageIntegration();
+            (PolarisStorageIntegration<T>) azureStorageIntegrationSupplier.get();
         break;
       case FILE:
         storageIntegration =
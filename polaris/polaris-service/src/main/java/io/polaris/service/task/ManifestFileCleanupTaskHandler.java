@@ -18,6 +18,8 @@ package io.polaris.service.task;
 import io.polaris.core.entity.AsyncTaskType;
 import io.polaris.core.entity.TaskEntity;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Spliterator;
@@ -25,6 +27,7 @@ import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.StreamSupport;
@@ -34,7 +37,9 @@ import org.apache.iceberg.ManifestFile;
 import org.apache.iceberg.ManifestFiles;
 import org.apache.iceberg.ManifestReader;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.SupportsBulkOperations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,10 +47,16 @@ import org.slf4j.LoggerFactory;
  * {@link TaskHandler} responsible for deleting all of the files in a manifest and the manifest
  * itself. Since data files may be present in multiple manifests across different snapshots, we
  * assume a data file that doesn't exist is missing because it was already deleted by another task.
+ *
+ * <p>When the {@link FileIO} supports bulk operations, the data files are deleted in batches, such
+ * as a single S3 DeleteObjects request per batch, which treat missing files as deleted. A batch
+ * which fails is deleted again one file at a time.
  */
 public class ManifestFileCleanupTaskHandler implements TaskHandler {
   public static final int MAX_ATTEMPTS = 3;
   public static final int FILE_DELETION_RETRY_MILLIS = 100;
+  public static final int BULK_DELETION_BATCH_SIZE = 1000;
+  public static final int MAX_CONCURRENT_BULK_DELETIONS = 4;
   private final Logger LOGGER = LoggerFactory.getLogger(ManifestFileCleanupTaskHandler.class);
   private final Function<TaskEntity, FileIO> fileIOSupplier;
   private final ExecutorService executorService;
@@ -80,17 +91,28 @@ public class ManifestFileCleanupTaskHandler implements TaskHandler {
       }
 
       ManifestReader<DataFile> dataFiles = ManifestFiles.read(manifestFile, authorizedFileIO);
-      List<CompletableFuture<Void>> dataFileDeletes =
-          StreamSupport.stream(
-                  Spliterators.spliteratorUnknownSize(dataFiles.iterator(), Spliterator.IMMUTABLE),
-                  false)
-              .map(
-                  file ->
-                      tryDelete(
-                          tableId, authorizedFileIO, manifestFile, file.path().toString(), null, 1))
-              .toList();
+      List<CompletableFuture<Void>> dataFileDeletes;
+      if (authorizedFileIO instanceof SupportsBulkOperations bulkFileIO) {
+        dataFileDeletes = bulkDelete(tableId, bulkFileIO, manifestFile, dataFiles);
+      } else {
+        dataFileDeletes =
+            StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(
+                        dataFiles.iterator(), Spliterator.IMMUTABLE),
+                    false)
+                .map(
+                    file ->
+                        tryDelete(
+                            tableId,
+                            authorizedFileIO,
+                            manifestFile,
+                            file.path().toString(),
+                            null,
+                            1))
+                .toList();
+      }
       LOGGER.debug(
-          "Scheduled {} data files to be deleted from manifest {}",
+          "Scheduled {} deletions of data files from manifest {}",
           dataFileDeletes.size(),
           manifestFile.path());
       try {
@@ -126,6 +148,69 @@ public class ManifestFileCleanupTaskHandler implements TaskHandler {
     }
   }
 
+  /**
+   * Delete the data files of the manifest in batches, streaming the manifest entries. At most
+   * {@link #MAX_CONCURRENT_BULK_DELETIONS} batches are in flight, reading the manifest waits for a
+   * batch to complete beyond that.
+   *
+   * @return the deletions of each batch
+   */
+  private List<CompletableFuture<Void>> bulkDelete(
+      TableIdentifier tableId,
+      SupportsBulkOperations fileIO,
+      ManifestFile manifestFile,
+      ManifestReader<DataFile> dataFiles) {
+    Semaphore inFlightBatches = new Semaphore(MAX_CONCURRENT_BULK_DELETIONS);
+    List<CompletableFuture<Void>> batchDeletes = new ArrayList<>();
+    List<String> batch = new ArrayList<>(BULK_DELETION_BATCH_SIZE);
+    try (CloseableIterator<DataFile> files = dataFiles.iterator()) {
+      while (files.hasNext()) {
+        batch.add(files.next().path().toString());
+        if (batch.size() == BULK_DELETION_BATCH_SIZE) {
+          batchDeletes.add(tryBulkDelete(tableId, fileIO, manifestFile, batch, inFlightBatches));
+          batch = new ArrayList<>(BULK_DELETION_BATCH_SIZE);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (!batch.isEmpty()) {
+      batchDeletes.add(tryBulkDelete(tableId, fileIO, manifestFile, batch, inFlightBatches));
+    }
+    return batchDeletes;
+  }
+
+  private CompletableFuture<Void> tryBulkDelete(
+      TableIdentifier tableId,
+      SupportsBulkOperations fileIO,
+      ManifestFile manifestFile,
+      List<String> dataFiles,
+      Semaphore inFlightBatches) {
+    try {
+      inFlightBatches.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    return CompletableFuture.runAsync(() -> fileIO.deleteFiles(dataFiles), executorService)
+        .exceptionallyCompose(
+            e -> {
+              LOGGER
+                  .atWarn()
+                  .addKeyValue("tableIdentifer", tableId)
+                  .addKeyValue("manifestFile", manifestFile.path())
+                  .addKeyValue("dataFileCount", dataFiles.size())
+                  .log(
+                      "Exception caught deleting a batch of data files, deleting them one by one",
+                      e);
+              return CompletableFuture.allOf(
+                  dataFiles.stream()
+                      .map(file -> tryDelete(tableId, fileIO, manifestFile, file, null, 1))
+                      .toArray(CompletableFuture[]::new));
+            })
+        .whenComplete((v, e) -> inFlightBatches.release());
+  }
+
   private CompletableFuture<Void> tryDelete(
       TableIdentifier tableId,
       FileIO fileIO,
@@ -15,6 +15,7 @@
  */
 package io.polaris.service.task;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.entity.AsyncTaskType;
@@ -25,13 +26,19 @@ import io.polaris.core.entity.TableLikeEntity;
 import io.polaris.core.entity.TaskEntity;
 import io.polaris.core.persistence.MetaStoreManagerFactory;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.TableMetadata;
 import org.apache.iceberg.TableMetadataParser;
 import org.apache.iceberg.io.FileIO;
@@ -40,23 +47,46 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Table cleanup handler resolves the latest {@link TableMetadata} file for a dropped table and
- * schedules a deletion task for <i>each</i> Snapshot found in the {@link TableMetadata}. Manifest
- * cleanup tasks are scheduled in a batch so tasks should be stored atomically.
+ * schedules a deletion task for <i>each</i> manifest found in the Snapshots of the {@link
+ * TableMetadata}. The manifest lists of the Snapshots are read in parallel and the manifest cleanup
+ * tasks are stored in batches as the manifests are read, so that tables with a long history are
+ * neither read serially nor stored in a single huge transaction.
+ *
+ * <p>After each batch, the number of Snapshots whose manifests have all been scheduled is recorded
+ * in the properties of the cleanup task, so that a cleanup interrupted by a crash resumes from the
+ * first Snapshot not fully scheduled yet.
  */
 public class TableCleanupTaskHandler implements TaskHandler {
+  /** Property of the cleanup task holding the number of Snapshots already fully scheduled */
+  static final String SNAPSHOTS_SCHEDULED_PROPERTY = "snapshotsScheduled";
+
+  static final int DEFAULT_TASK_BATCH_SIZE = 500;
+  static final int MAX_CONCURRENT_MANIFEST_LIST_READS = 16;
+
   private final Logger LOGGER = LoggerFactory.getLogger(TableCleanupTaskHandler.class);
   private final TaskExecutor taskExecutor;
   private final MetaStoreManagerFactory metaStoreManagerFactory;
   private final Function<TaskEntity, FileIO> fileIOSupplier;
   private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+  private final int taskBatchSize;
 
   public TableCleanupTaskHandler(
       TaskExecutor taskExecutor,
       MetaStoreManagerFactory metaStoreManagerFactory,
       Function<TaskEntity, FileIO> fileIOSupplier) {
+    this(taskExecutor, metaStoreManagerFactory, fileIOSupplier, DEFAULT_TASK_BATCH_SIZE);
+  }
+
+  @VisibleForTesting
+  TableCleanupTaskHandler(
+      TaskExecutor taskExecutor,
+      MetaStoreManagerFactory metaStoreManagerFactory,
+      Function<TaskEntity, FileIO> fileIOSupplier,
+      int taskBatchSize) {
     this.taskExecutor = taskExecutor;
     this.metaStoreManagerFactory = metaStoreManagerFactory;
     this.fileIOSupplier = fileIOSupplier;
+    this.taskBatchSize = taskBatchSize;
   }
 
   @Override
@@ -98,71 +128,180 @@ public class TableCleanupTaskHandler implements TaskHandler {
 
       TableMetadata tableMetadata =
           TableMetadataParser.read(fileIO, tableEntity.getMetadataLocation());
-
-      // read the manifest list for each snapshot. dedupe the manifest files and schedule a
-      // cleanupTask
-      // for each manifest file and its data files to be deleted
-      List<TaskEntity> taskEntities =
-          tableMetadata.snapshots().stream()
-              .flatMap(sn -> sn.allManifests(fileIO).stream())
-              // distinct by manifest path, since multiple snapshots will contain the same
-              // manifest
-              .collect(Collectors.toMap(ManifestFile::path, Function.identity(), (mf1, mf2) -> mf1))
-              .values()
-              .stream()
-              .filter(mf -> TaskUtils.exists(mf.path(), fileIO))
-              .map(
-                  mf -> {
-                    // append a random uuid to the task name to avoid any potential conflict
-                    // when
-                    // storing the task entity. It's better to have duplicate tasks than to risk
-                    // not storing the rest of the task entities. If a duplicate deletion task
-                    // is
-                    // queued, it will check for the manifest file's existence and simply exit
-                    // if
-                    // the task has already been handled.
-                    String taskName =
-                        cleanupTask.getName() + "_" + mf.path() + "_" + UUID.randomUUID();
-                    LOGGER
-                        .atDebug()
-                        .addKeyValue("taskName", taskName)
-                        .addKeyValue("tableIdentifier", tableEntity.getTableIdentifier())
-                        .addKeyValue("metadataLocation", tableEntity.getMetadataLocation())
-                        .addKeyValue("manifestFile", mf.path())
-                        .log("Queueing task to delete manifest file");
-                    return new TaskEntity.Builder()
-                        .setName(taskName)
-                        .setId(metaStoreManager.generateNewEntityId(polarisCallContext).getId())
-                        .setCreateTimestamp(polarisCallContext.getClock().millis())
-                        .withTaskType(AsyncTaskType.FILE_CLEANUP)
-                        .withData(
-                            new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
-                                tableEntity.getTableIdentifier(), TaskUtils.encodeManifestFile(mf)))
-                        .setId(metaStoreManager.generateNewEntityId(polarisCallContext).getId())
-                        // copy the internal properties, which will have storage info
-                        .setInternalProperties(cleanupTask.getInternalPropertiesAsMap())
-                        .build();
-                  })
-              .toList();
-      List<PolarisBaseEntity> createdTasks =
-          metaStoreManager
-              .createEntitiesIfNotExist(polarisCallContext, null, taskEntities)
-              .getEntities();
-      if (createdTasks != null) {
+      List<Snapshot> snapshots = tableMetadata.snapshots();
+      int snapshotsScheduled =
+          Math.min(
+              snapshots.size(),
+              Integer.parseInt(
+                  cleanupTask
+                      .getPropertiesAsMap()
+                      .getOrDefault(SNAPSHOTS_SCHEDULED_PROPERTY, "0")));
+      if (snapshotsScheduled > 0) {
         LOGGER
             .atInfo()
             .addKeyValue("tableIdentifier", tableEntity.getTableIdentifier())
-            .addKeyValue("metadataLocation", tableEntity.getMetadataLocation())
-            .addKeyValue("taskCount", taskEntities.size())
-            .log("Successfully queued tasks to delete manifests - deleting table metadata file");
-        for (PolarisBaseEntity createdTask : createdTasks) {
-          taskExecutor.addTaskHandlerContext(createdTask.getId(), CallContext.getCurrentContext());
-        }
-        fileIO.deleteFile(tableEntity.getMetadataLocation());
+            .addKeyValue("snapshotsScheduled", snapshotsScheduled)
+            .addKeyValue("snapshotCount", snapshots.size())
+            .log("Resuming table metadata cleanup task");
+      }
 
-        return true;
+      // read the manifest list for each snapshot. The manifest lists are read ahead in parallel,
+      // but consumed in snapshot order so that the checkpoint always covers a prefix of the
+      // snapshots. Dedupe the manifest files and schedule a cleanupTask for each manifest file and
+      // its data files to be deleted
+      Deque<CompletableFuture<List<ManifestFile>>> manifestListReads = new ArrayDeque<>();
+      int nextRead = snapshotsScheduled;
+      Set<String> seenManifests = new HashSet<>();
+      List<PendingManifest> pendingManifests = new ArrayList<>();
+      int taskCount = 0;
+      try {
+        for (int i = snapshotsScheduled; i < snapshots.size(); i++) {
+          while (nextRead < snapshots.size() && nextRead - i < MAX_CONCURRENT_MANIFEST_LIST_READS) {
+            Snapshot snapshot = snapshots.get(nextRead++);
+            manifestListReads.add(
+                CompletableFuture.supplyAsync(
+                    () -> snapshot.allManifests(fileIO), executorService));
+          }
+          for (ManifestFile manifestFile : manifestListReads.remove().join()) {
+            // distinct by manifest path, since multiple snapshots will contain the same manifest
+            if (seenManifests.add(manifestFile.path())) {
+              pendingManifests.add(new PendingManifest(i, manifestFile));
+            }
+          }
+          while (pendingManifests.size() >= taskBatchSize) {
+            List<PendingManifest> batch = pendingManifests.subList(0, taskBatchSize);
+            if (!scheduleManifestCleanupTasks(
+                cleanupTask, tableEntity, batch, metaStoreManager, polarisCallContext)) {
+              return false;
+            }
+            taskCount += batch.size();
+            batch.clear();
+            checkpoint(
+                cleanupTask,
+                pendingManifests.isEmpty() ? i + 1 : pendingManifests.get(0).snapshotIndex(),
+                metaStoreManager,
+                polarisCallContext);
+          }
+        }
+        if (!pendingManifests.isEmpty()) {
+          if (!scheduleManifestCleanupTasks(
+              cleanupTask, tableEntity, pendingManifests, metaStoreManager, polarisCallContext)) {
+            return false;
+          }
+          taskCount += pendingManifests.size();
+        }
+      } finally {
+        // skip the manifest lists read ahead which have not started yet. Reads already running are
+        // not interrupted, they finish or fail on their own and their result is ignored
+        manifestListReads.forEach(read -> read.cancel(false));
       }
+
+      LOGGER
+          .atInfo()
+          .addKeyValue("tableIdentifier", tableEntity.getTableIdentifier())
+          .addKeyValue("metadataLocation", tableEntity.getMetadataLocation())
+          .addKeyValue("taskCount", taskCount)
+          .log("Successfully queued tasks to delete manifests - deleting table metadata file");
+      fileIO.deleteFile(tableEntity.getMetadataLocation());
+      return true;
+    }
+  }
+
+  /**
+   * Store a batch of manifest cleanup tasks in a single transaction, with ids reserved in bulk, and
+   * hand them to the task executor.
+   *
+   * @return false if the tasks could not be stored
+   */
+  private boolean scheduleManifestCleanupTasks(
+      TaskEntity cleanupTask,
+      TableLikeEntity tableEntity,
+      List<PendingManifest> manifests,
+      PolarisMetaStoreManager metaStoreManager,
+      PolarisCallContext polarisCallContext) {
+    List<Long> ids =
+        metaStoreManager.generateNewEntityIds(polarisCallContext, manifests.size()).getIds();
+    List<TaskEntity> taskEntities = new ArrayList<>(manifests.size());
+    for (int i = 0; i < manifests.size(); i++) {
+      ManifestFile mf = manifests.get(i).manifestFile();
+      // append a random uuid to the task name to avoid any potential conflict when storing the
+      // task entity. It's better to have duplicate tasks than to risk not storing the rest of the
+      // task entities. If a duplicate deletion task is queued, it will check for the manifest
+      // file's existence and simply exit if the task has already been handled.
+      String taskName = cleanupTask.getName() + "_" + mf.path() + "_" + UUID.randomUUID();
+      LOGGER
+          .atDebug()
+          .addKeyValue("taskName", taskName)
+          .addKeyValue("tableIdentifier", tableEntity.getTableIdentifier())
+          .addKeyValue("metadataLocation", tableEntity.getMetadataLocation())
+          .addKeyValue("manifestFile", mf.path())
+          .log("Queueing task to delete manifest file");
+      taskEntities.add(
+          new TaskEntity.Builder()
+              .setName(taskName)
+              .setId(ids.get(i))
+              .setCreateTimestamp(polarisCallContext.getClock().millis())
+              .withTaskType(AsyncTaskType.FILE_CLEANUP)
+              .withData(
+                  new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                      tableEntity.getTableIdentifier(), TaskUtils.encodeManifestFile(mf)))
+              // copy the internal properties, which will have storage info
+              .setInternalProperties(cleanupTask.getInternalPropertiesAsMap())
+              .build());
+    }
+    List<PolarisBaseEntity> createdTasks =
+        metaStoreManager
+            .createEntitiesIfNotExist(polarisCallContext, null, taskEntities)
+            .getEntities();
+    if (createdTasks == null) {
+      LOGGER
+          .atWarn()
+          .addKeyValue("tableIdentifier", tableEntity.getTableIdentifier())
+          .addKeyValue("taskCount", taskEntities.size())
+          .log("Unable to queue tasks to delete manifests");
+      return false;
+    }
+    for (PolarisBaseEntity createdTask : createdTasks) {
+      taskExecutor.addTaskHandlerContext(createdTask.getId(), CallContext.getCurrentContext());
+    }
+    return true;
+  }
+
+  /**
+   * Record the number of snapshots whose manifests have all been scheduled in the properties of the
+   * cleanup task. Failing to record it is harmless, a resumed cleanup would only schedule some
+   * manifests again.
+   */
+  private void checkpoint(
+      TaskEntity cleanupTask,
+      int snapshotsScheduled,
+      PolarisMetaStoreManager metaStoreManager,
+      PolarisCallContext polarisCallContext) {
+    // load the latest version of the task, its lease may have been renewed since it was loaded
+    PolarisBaseEntity latest =
+        metaStoreManager
+            .loadEntity(polarisCallContext, cleanupTask.getCatalogId(), cleanupTask.getId())
+            .getEntity();
+    if (latest == null || latest.getType() != PolarisEntityType.TASK) {
+      // the cleanup task is not persisted, there is nothing to resume
+      return;
+    }
+    TaskEntity checkpointed =
+        new TaskEntity.Builder(TaskEntity.of(latest))
+            .addProperty(SNAPSHOTS_SCHEDULED_PROPERTY, String.valueOf(snapshotsScheduled))
+            .build();
+    if (metaStoreManager
+            .updateEntityPropertiesIfNotChanged(polarisCallContext, null, checkpointed)
+            .getEntity()
+        == null) {
+      LOGGER
+          .atWarn()
+          .addKeyValue("taskEntityId", cleanupTask.getId())
+          .addKeyValue("snapshotsScheduled", snapshotsScheduled)
+          .log("Unable to checkpoint the table metadata cleanup task");
     }
-    return false;
   }
+
+  /** A manifest not scheduled for deletion yet, with the index of the snapshot it was read from */
+  private record PendingManifest(int snapshotIndex, ManifestFile manifestFile) {}
 }
@@ -15,10 +15,15 @@
  */
 package io.polaris.service.task;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntityType;
+import io.polaris.core.entity.PolarisTaskConstants;
 import io.polaris.core.entity.TaskEntity;
 import io.polaris.core.persistence.MetaStoreManagerFactory;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
@@ -26,9 +31,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,13 +49,27 @@ import org.slf4j.LoggerFactory;
 /**
  * Given a list of registered {@link TaskHandler}s, execute tasks asynchronously with the provided
  * {@link CallContext}.
+ *
+ * <p>A task is only executed once this executor holds its lease, recorded in the task entity as the
+ * id of the executor and the start time of the attempt, so that the same task is not executed
+ * concurrently by several nodes. The lease of a running task is renewed every half lease timeout, a
+ * task whose lease expired is handed to the next executor polling for tasks.
  */
-public class TaskExecutorImpl implements TaskExecutor {
+public class TaskExecutorImpl implements TaskExecutor, Managed {
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskExecutorImpl.class);
   public static final long TASK_RETRY_DELAY = 1000;
   private final ExecutorService executorService;
   private final MetaStoreManagerFactory metaStoreManagerFactory;
   private final List<TaskHandler> taskHandlers = new ArrayList<>();
+  private final String executorId = "polaris-" + UUID.randomUUID();
+  private final AtomicInteger inFlightTasks = new AtomicInteger();
+  private final Set<String> realmIds = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService leaseRenewer =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("task-lease-renewer-%d")
+              .build());
 
   public TaskExecutorImpl(
       ExecutorService executorService, MetaStoreManagerFactory metaStoreManagerFactory) {
@@ -59,6 +86,21 @@ public class TaskExecutorImpl implements TaskExecutor {
     taskHandlers.add(taskHandler);
   }
 
+  /** Id recorded as the lease owner in the tasks executed by this executor */
+  public String getExecutorId() {
+    return executorId;
+  }
+
+  /** Number of tasks submitted to this executor which have not completed yet */
+  public int getInFlightTasks() {
+    return inFlightTasks.get();
+  }
+
+  /** Realms this executor has been handed tasks for */
+  public Set<String> getRealmIds() {
+    return Set.copyOf(realmIds);
+  }
+
   /**
    * Register a {@link CallContext} for a specific task id. That task will be loaded and executed
    * asynchronously with a clone of the provided {@link CallContext}.
@@ -66,7 +108,49 @@ public class TaskExecutorImpl implements TaskExecutor {
   @Override
   public void addTaskHandlerContext(long taskEntityId, CallContext callContext) {
     CallContext clone = CallContext.copyOf(callContext);
-    tryHandleTask(taskEntityId, clone, null, 1);
+    realmIds.add(clone.getRealmContext().getRealmIdentifier());
+    inFlightTasks.incrementAndGet();
+    tryHandleTask(taskEntityId, clone, null, 1)
+        .whenComplete((result, t) -> inFlightTasks.decrementAndGet());
+  }
+
+  /**
+   * Execute asynchronously a task whose lease has already been acquired by this executor, such as
+   * the tasks returned by {@link PolarisMetaStoreManager#loadTasks}. A failed task is not retried
+   * here, it is picked up again once its lease expires.
+   *
+   * @param task the leased task
+   * @param callContext context the task is executed with
+   */
+  public CompletableFuture<Void> handleLeasedTask(TaskEntity task, CallContext callContext) {
+    realmIds.add(callContext.getRealmContext().getRealmIdentifier());
+    inFlightTasks.incrementAndGet();
+    return CompletableFuture.runAsync(
+            () -> {
+              try (CallContext ctx = CallContext.setCurrentContext(callContext)) {
+                runTask(
+                    task,
+                    metaStoreManagerFactory.getOrCreateMetaStoreManager(ctx.getRealmContext()),
+                    ctx);
+              }
+            },
+            executorService)
+        .whenComplete(
+            (result, t) -> {
+              inFlightTasks.decrementAndGet();
+              if (t != null) {
+                LOGGER.warn("Failed to handle task entity id {}", task.getId(), t);
+              }
+            });
+  }
+
+  @Override
+  public void start() {}
+
+  /** Stop renewing the leases of the running tasks */
+  @Override
+  public void stop() {
+    leaseRenewer.shutdownNow();
   }
 
   private @NotNull CompletableFuture<Void> tryHandleTask(
@@ -84,41 +168,22 @@ public class TaskExecutorImpl implements TaskExecutor {
                     metaStoreManager
                         .loadEntity(ctx.getPolarisCallContext(), 0L, taskEntityId)
                         .getEntity();
+                if (taskEntity == null) {
+                  // already handled by another executor
+                  return;
+                }
                 if (!PolarisEntityType.TASK.equals(taskEntity.getType())) {
                   throw new IllegalArgumentException("Provided taskId must be a task entity type");
                 }
-                TaskEntity task = TaskEntity.of(taskEntity);
-                Optional<TaskHandler> handlerOpt =
-                    taskHandlers.stream().filter(th -> th.canHandleTask(task)).findFirst();
-                if (handlerOpt.isEmpty()) {
+                TaskEntity task = tryLease(TaskEntity.of(taskEntity), metaStoreManager, ctx);
+                if (task == null) {
                   LOGGER
-                      .atWarn()
+                      .atDebug()
                       .addKeyValue("taskEntityId", taskEntityId)
-                      .addKeyValue("taskType", task.getTaskType())
-                      .log("Unable to find handler for task type");
+                      .log("Task is leased by another executor");
                   return;
                 }
-                TaskHandler handler = handlerOpt.get();
-                boolean success = handler.handleTask(task);
-                if (success) {
-                  LOGGER
-                      .atInfo()
-                      .addKeyValue("taskEntityId", taskEntityId)
-                      .addKeyValue("handlerClass", handler.getClass())
-                      .log("Task successfully handled");
-                  metaStoreManager.dropEntityIfExists(
-                      ctx.getPolarisCallContext(),
-                      null,
-                      PolarisEntity.toCore(taskEntity),
-                      Map.of(),
-                      false);
-                } else {
-                  LOGGER
-                      .atWarn()
-                      .addKeyValue("taskEntityId", taskEntityId)
-                      .addKeyValue("taskEntityName", taskEntity.getName())
-                      .log("Unable to execute async task");
-                }
+                runTask(task, metaStoreManager, ctx);
               }
             },
             executorService)
@@ -130,4 +195,171 @@ public class TaskExecutorImpl implements TaskExecutor {
             CompletableFuture.delayedExecutor(
                 TASK_RETRY_DELAY * (long) attempt, TimeUnit.MILLISECONDS, executorService));
   }
+
+  /**
+   * Acquire the lease of a task, unless another executor holds a lease which has not expired yet or
+   * the task has already been attempted the maximum number of times.
+   *
+   * @return the leased task, null if the task is leased by another executor or cannot be attempted
+   *     anymore
+   */
+  private TaskEntity tryLease(
+      TaskEntity task, PolarisMetaStoreManager metaStoreManager, CallContext ctx) {
+    PolarisCallContext polarisCallContext = ctx.getPolarisCallContext();
+    Map<String, String> properties = task.getPropertiesAsMap();
+    String leaseOwner = properties.get(PolarisTaskConstants.LAST_ATTEMPT_EXECUTOR_ID);
+    long now = polarisCallContext.getClock().millis();
+    if (leaseOwner != null && !leaseOwner.equals(executorId)) {
+      long leaseStart =
+          Long.parseLong(
+              properties.getOrDefault(PolarisTaskConstants.LAST_ATTEMPT_START_TIME, "0"));
+      if (now - leaseStart <= leaseTimeoutMs(polarisCallContext)) {
+        return null;
+      }
+    }
+    int attemptCount =
+        Integer.parseInt(properties.getOrDefault(PolarisTaskConstants.ATTEMPT_COUNT, "0"));
+    int maxAttempts =
+        polarisCallContext
+            .getConfigurationStore()
+            .getConfiguration(
+                polarisCallContext,
+                PolarisTaskConstants.TASK_MAX_ATTEMPTS_CONFIG,
+                PolarisTaskConstants.TASK_MAX_ATTEMPTS);
+    if (attemptCount >= maxAttempts) {
+      LOGGER
+          .atWarn()
+          .addKeyValue("taskEntityId", task.getId())
+          .addKeyValue("attemptCount", attemptCount)
+          .log("Task has reached the maximum number of attempts");
+      return null;
+    }
+    TaskEntity leased =
+        new TaskEntity.Builder(task)
+            .withLastAttemptExecutorId(executorId)
+            .withLastAttemptStartedTimestamp(now)
+            .withAttemptCount(attemptCount + 1)
+            .build();
+    // fails if another executor leased the task since it was loaded
+    return TaskEntity.of(
+        metaStoreManager
+            .updateEntityPropertiesIfNotChanged(polarisCallContext, null, leased)
+            .getEntity());
+  }
+
+  private void runTask(TaskEntity task, PolarisMetaStoreManager metaStoreManager, CallContext ctx) {
+    long taskEntityId = task.getId();
+    Optional<TaskHandler> handlerOpt =
+        taskHandlers.stream().filter(th -> th.canHandleTask(task)).findFirst();
+    if (handlerOpt.isEmpty()) {
+      LOGGER
+          .atWarn()
+          .addKeyValue("taskEntityId", taskEntityId)
+          .addKeyValue("taskType", task.getTaskType())
+          .log("Unable to find handler for task type");
+      return;
+    }
+    TaskHandler handler = handlerOpt.get();
+    AtomicReference<PolarisBaseEntity> leasedTask = new AtomicReference<>(task);
+    ScheduledFuture<?> leaseRenewal = scheduleLeaseRenewal(leasedTask, metaStoreManager, ctx);
+    boolean success;
+    try {
+      success = handler.handleTask(task);
+    } finally {
+      leaseRenewal.cancel(false);
+    }
+    if (success) {
+      LOGGER
+          .atInfo()
+          .addKeyValue("taskEntityId", taskEntityId)
+          .addKeyValue("handlerClass", handler.getClass())
+          .log("Task successfully handled");
+      metaStoreManager.dropEntityIfExists(
+          ctx.getPolarisCallContext(),
+          null,
+          PolarisEntity.toCore(leasedTask.get()),
+          Map.of(),
+          false);
+    } else {
+      LOGGER
+          .atWarn()
+          .addKeyValue("taskEntityId", taskEntityId)
+          .addKeyValue("taskEntityName", task.getName())
+          .log("Unable to execute async task");
+    }
+  }
+
+  /**
+   * Renew the lease of a running task every half lease timeout, so that long running tasks are not
+   * picked up by another executor. The lease is written with its own metastore session, since the
+   * session of the task is in use by the task handler. The task is loaded again before each
+   * renewal, since the task handler may update the properties of its task, e.g. to checkpoint its
+   * progress.
+   */
+  private ScheduledFuture<?> scheduleLeaseRenewal(
+      AtomicReference<PolarisBaseEntity> leasedTask,
+      PolarisMetaStoreManager metaStoreManager,
+      CallContext ctx) {
+    PolarisCallContext taskContext = ctx.getPolarisCallContext();
+    long renewalIntervalMs = Math.max(1, leaseTimeoutMs(taskContext) / 2);
+    return leaseRenewer.scheduleWithFixedDelay(
+        () -> {
+          try {
+            PolarisCallContext renewalContext =
+                new PolarisCallContext(
+                    metaStoreManagerFactory.getOrCreateSessionSupplier(ctx.getRealmContext()).get(),
+                    new PolarisDefaultDiagServiceImpl(),
+                    taskContext.getConfigurationStore(),
+                    taskContext.getClock());
+            PolarisBaseEntity latest =
+                metaStoreManager
+                    .loadEntity(
+                        renewalContext, leasedTask.get().getCatalogId(), leasedTask.get().getId())
+                    .getEntity();
+            if (latest == null
+                || !executorId.equals(
+                    TaskEntity.of(latest)
+                        .getPropertiesAsMap()
+                        .get(PolarisTaskConstants.LAST_ATTEMPT_EXECUTOR_ID))) {
+              LOGGER
+                  .atWarn()
+                  .addKeyValue("taskEntityId", leasedTask.get().getId())
+                  .log("Lease of a running task was lost");
+              return;
+            }
+            TaskEntity renewed =
+                new TaskEntity.Builder(TaskEntity.of(latest))
+                    .withLastAttemptStartedTimestamp(renewalContext.getClock().millis())
+                    .build();
+            PolarisBaseEntity persisted =
+                metaStoreManager
+                    .updateEntityPropertiesIfNotChanged(renewalContext, null, renewed)
+                    .getEntity();
+            if (persisted != null) {
+              leasedTask.set(persisted);
+            } else {
+              LOGGER
+                  .atWarn()
+                  .addKeyValue("taskEntityId", renewed.getId())
+                  .log("Unable to renew the lease of a running task");
+            }
+          } catch (RuntimeException e) {
+            // never let an exception cancel the next renewals
+            LOGGER.warn(
+                "Failed to renew the lease of task entity id {}", leasedTask.get().getId(), e);
+          }
+        },
+        renewalIntervalMs,
+        renewalIntervalMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  private static long leaseTimeoutMs(PolarisCallContext polarisCallContext) {
+    return polarisCallContext
+        .getConfigurationStore()
+        .getConfiguration(
+            polarisCallContext,
+            PolarisTaskConstants.TASK_TIMEOUT_MILLIS_CONFIG,
+            PolarisTaskConstants.TASK_TIMEOUT_MILLIS);
+  }
 }
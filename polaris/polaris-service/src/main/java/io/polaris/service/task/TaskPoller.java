@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.task;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.context.CallContext;
+import io.polaris.core.context.RealmContext;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.TaskEntity;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.persistence.MetaStoreManagerFactory;
+import io.polaris.core.persistence.PolarisMetaStoreManager;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically leases the pending tasks of each realm with {@link
+ * PolarisMetaStoreManager#loadTasks} and hands them to the {@link TaskExecutorImpl}. Tasks whose
+ * executor died, such as the tasks scheduled by a node before it was restarted, are leased again
+ * once their lease expired, and the tasks of a realm are spread across all the nodes polling it.
+ *
+ * <p>A node never leases more tasks than it has room for: a poll only leases up to the maximum
+ * number of in-flight tasks minus the tasks already submitted to the executor, so the backlog stays
+ * in the metastore where other nodes can pick it up.
+ */
+public class TaskPoller implements Managed {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskPoller.class);
+  static final String QUEUE_DEPTH_METRIC = "polaris.tasks.queue.depth";
+  static final String LAG_METRIC = "polaris.tasks.queue.lag";
+  static final String LEASED_METRIC = "polaris.tasks.leased";
+  private static final String TAG_REALM = "REALM_ID";
+
+  private final TaskExecutorImpl taskExecutor;
+  private final MetaStoreManagerFactory metaStoreManagerFactory;
+  private final PolarisConfigurationStore configurationStore;
+  private final Set<String> realmIds;
+  private final long pollingIntervalMs;
+  private final int maxInFlightTasks;
+  private final @Nullable PolarisMetricRegistry metricRegistry;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * @param taskExecutor executor running the leased tasks
+   * @param metaStoreManagerFactory factory of the metastores the tasks are leased from
+   * @param configurationStore configuration store of the call contexts the tasks are run with
+   * @param realmIds realms to poll, in addition to the realms the executor has been handed tasks
+   *     for
+   * @param pollingIntervalMs interval between two polls, in milliseconds
+   * @param maxInFlightTasks maximum number of tasks submitted to the executor and not completed
+   * @param metricRegistry if not null, registry the queue metrics are reported to
+   */
+  public TaskPoller(
+      @NotNull TaskExecutorImpl taskExecutor,
+      @NotNull MetaStoreManagerFactory metaStoreManagerFactory,
+      @NotNull PolarisConfigurationStore configurationStore,
+      @NotNull Collection<String> realmIds,
+      long pollingIntervalMs,
+      int maxInFlightTasks,
+      @Nullable PolarisMetricRegistry metricRegistry) {
+    if (pollingIntervalMs <= 0) {
+      throw new IllegalArgumentException("Invalid task polling interval: " + pollingIntervalMs);
+    }
+    if (maxInFlightTasks <= 0) {
+      throw new IllegalArgumentException("Invalid maximum in-flight tasks: " + maxInFlightTasks);
+    }
+    this.taskExecutor = taskExecutor;
+    this.metaStoreManagerFactory = metaStoreManagerFactory;
+    this.configurationStore = configurationStore;
+    this.realmIds = Set.copyOf(realmIds);
+    this.pollingIntervalMs = pollingIntervalMs;
+    this.maxInFlightTasks = maxInFlightTasks;
+    this.metricRegistry = metricRegistry;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("task-poller-%d").build());
+    if (metricRegistry != null) {
+      Gauge.builder(QUEUE_DEPTH_METRIC, taskExecutor, TaskExecutorImpl::getInFlightTasks)
+          .register(metricRegistry.getMeterRegistry());
+    }
+  }
+
+  @Override
+  public void start() {
+    scheduler.scheduleWithFixedDelay(
+        this::poll, pollingIntervalMs, pollingIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    scheduler.shutdownNow();
+  }
+
+  private void poll() {
+    Set<String> polledRealmIds = new TreeSet<>(realmIds);
+    polledRealmIds.addAll(taskExecutor.getRealmIds());
+    for (String realmId : polledRealmIds) {
+      try {
+        pollRealm(realmId);
+      } catch (RuntimeException e) {
+        // never let an exception cancel the next polls
+        LOGGER.warn("Failed to poll the tasks of realm {}", realmId, e);
+      }
+    }
+  }
+
+  /**
+   * Lease and submit the pending tasks of a realm, as many as the executor has room for.
+   *
+   * @return the number of leased tasks
+   */
+  @VisibleForTesting
+  int pollRealm(String realmId) {
+    int capacity = maxInFlightTasks - taskExecutor.getInFlightTasks();
+    if (capacity <= 0) {
+      LOGGER.debug("Not polling the tasks of realm {}, the executor is full", realmId);
+      return 0;
+    }
+    RealmContext realmContext = () -> realmId;
+    PolarisMetaStoreManager metaStoreManager =
+        metaStoreManagerFactory.getOrCreateMetaStoreManager(realmContext);
+    CallContext pollContext = newCallContext(realmContext);
+    List<PolarisBaseEntity> tasks =
+        metaStoreManager
+            .loadTasks(pollContext.getPolarisCallContext(), taskExecutor.getExecutorId(), capacity)
+            .getEntities();
+    if (tasks == null || tasks.isEmpty()) {
+      return 0;
+    }
+    LOGGER.debug("Leased {} tasks of realm {}", tasks.size(), realmId);
+    long now = pollContext.getPolarisCallContext().getClock().millis();
+    for (PolarisBaseEntity task : tasks) {
+      recordLease(realmId, now - task.getCreateTimestamp());
+      // each task gets its own session, the tasks run concurrently
+      taskExecutor.handleLeasedTask(TaskEntity.of(task), newCallContext(realmContext));
+    }
+    return tasks.size();
+  }
+
+  private CallContext newCallContext(RealmContext realmContext) {
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(
+            metaStoreManagerFactory.getOrCreateSessionSupplier(realmContext).get(),
+            new PolarisDefaultDiagServiceImpl(),
+            configurationStore,
+            Clock.system(ZoneId.systemDefault()));
+    return CallContext.of(realmContext, polarisCallContext);
+  }
+
+  private void recordLease(String realmId, long lagMs) {
+    if (metricRegistry != null) {
+      metricRegistry.incrementCounter(LEASED_METRIC, realmId);
+      Timer.builder(LAG_METRIC)
+          .tag(TAG_REALM, realmId)
+          .register(metricRegistry.getMeterRegistry())
+          .record(Math.max(0, lagMs), TimeUnit.MILLISECONDS);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.types;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.Objects;
+import org.apache.iceberg.catalog.Namespace;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One page of namespaces. Same payload as the Iceberg ListNamespacesResponse, plus the token to
+ * pass as the pageToken query parameter to get the next page, absent on the last page.
+ */
+public class ListNamespacesPageResponse {
+
+  private final List<Namespace> namespaces;
+  private final String nextPageToken;
+
+  public ListNamespacesPageResponse(List<Namespace> namespaces, @Nullable String nextPageToken) {
+    this.namespaces = namespaces;
+    this.nextPageToken = nextPageToken;
+  }
+
+  @JsonProperty("namespaces")
+  public List<Namespace> namespaces() {
+    return namespaces;
+  }
+
+  @JsonProperty("next-page-token")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public @Nullable String nextPageToken() {
+    return nextPageToken;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ListNamespacesPageResponse that = (ListNamespacesPageResponse) o;
+    return Objects.equals(this.namespaces, that.namespaces)
+        && Objects.equals(this.nextPageToken, that.nextPageToken);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(namespaces, nextPageToken);
+  }
+
+  @Override
+  public String toString() {
+    return "ListNamespacesPageResponse{namespaces="
+        + namespaces
+        + ", nextPageToken="
+        + nextPageToken
+        + "}";
+  }
+}
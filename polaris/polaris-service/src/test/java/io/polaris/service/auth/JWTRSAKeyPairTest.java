@@ -23,6 +23,7 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.context.RealmContext;
 import io.polaris.core.entity.PolarisBaseEntity;
@@ -42,6 +43,7 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -108,7 +110,8 @@ public class JWTRSAKeyPairTest {
     config.put("LOCAL_PUBLIC_LOCATION_KEY", publicFileLocation);
 
     DefaultConfigurationStore store = new DefaultConfigurationStore(config);
-    PolarisCallContext polarisCallContext = new PolarisCallContext(null, null, store, null);
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(null, new PolarisDefaultDiagServiceImpl(), store, null);
     CallContext.setCurrentContext(getTestCallContext(polarisCallContext));
     PolarisMetaStoreManager metastoreManager = Mockito.mock(PolarisMetaStoreManager.class);
     String mainSecret = "client-secret";
@@ -126,8 +129,8 @@ public class JWTRSAKeyPairTest {
             PolarisEntitySubType.NULL_SUBTYPE,
             0L,
             "principal");
-    Mockito.when(metastoreManager.loadEntity(polarisCallContext, 0L, 1L))
-        .thenReturn(new PolarisMetaStoreManager.EntityResult(principal));
+    Mockito.when(metastoreManager.loadCachedEntryById(polarisCallContext, 0L, 1L))
+        .thenReturn(new PolarisMetaStoreManager.CachedEntryResult(principal, 1, List.of()));
     TokenBroker tokenBroker = new JWTRSAKeyPair(entityManager, 420);
     TokenResponse token = null;
     try {
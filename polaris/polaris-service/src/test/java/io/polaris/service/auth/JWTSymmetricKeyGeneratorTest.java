@@ -22,6 +22,8 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
 import io.polaris.core.context.CallContext;
 import io.polaris.core.context.RealmContext;
 import io.polaris.core.entity.PolarisBaseEntity;
@@ -31,6 +33,7 @@ import io.polaris.core.entity.PolarisPrincipalSecrets;
 import io.polaris.core.persistence.PolarisEntityManager;
 import io.polaris.core.persistence.PolarisMetaStoreManager;
 import io.polaris.core.storage.cache.StorageCredentialCache;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -40,7 +43,9 @@ public class JWTSymmetricKeyGeneratorTest {
   /** Sanity test to verify that we can generate a token */
   @Test
   public void testJWTSymmetricKeyGenerator() {
-    PolarisCallContext polarisCallContext = new PolarisCallContext(null, null, null, null);
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(
+            null, new PolarisDefaultDiagServiceImpl(), new PolarisConfigurationStore() {}, null);
     CallContext.setCurrentContext(
         new CallContext() {
           @Override
@@ -75,8 +80,8 @@ public class JWTSymmetricKeyGeneratorTest {
             PolarisEntitySubType.NULL_SUBTYPE,
             0L,
             "principal");
-    Mockito.when(metastoreManager.loadEntity(polarisCallContext, 0L, 1L))
-        .thenReturn(new PolarisMetaStoreManager.EntityResult(principal));
+    Mockito.when(metastoreManager.loadCachedEntryById(polarisCallContext, 0L, 1L))
+        .thenReturn(new PolarisMetaStoreManager.CachedEntryResult(principal, 1, List.of()));
     TokenBroker generator = new JWTSymmetricKeyBroker(entityManager, 666, () -> "polaris");
     TokenResponse token =
         generator.generateFromClientSecrets(
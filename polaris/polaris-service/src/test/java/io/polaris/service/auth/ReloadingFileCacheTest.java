@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReloadingFileCacheTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testParsesFileOnlyWhenChanged() throws IOException {
+    Path file = tempDir.resolve("secret");
+    Files.writeString(file, "first");
+    AtomicInteger parses = new AtomicInteger();
+    ReloadingFileCache<String> cache =
+        new ReloadingFileCache<>(
+            path -> {
+              parses.incrementAndGet();
+              return Files.readString(path);
+            },
+            0);
+
+    assertThat(cache.get(file.toString())).isEqualTo("first");
+    assertThat(cache.get(file.toString())).isEqualTo("first");
+    assertThat(parses).hasValue(1);
+
+    // rotate the secret
+    Files.writeString(file, "second");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+    assertThat(cache.get(file.toString())).isEqualTo("second");
+    assertThat(cache.get(file.toString())).isEqualTo("second");
+    assertThat(parses).hasValue(2);
+  }
+
+  @Test
+  public void testChecksFileAtMostOncePerInterval() throws IOException {
+    Path file = tempDir.resolve("secret");
+    Files.writeString(file, "first");
+    ReloadingFileCache<String> cache = new ReloadingFileCache<>(Files::readString, 60_000);
+
+    assertThat(cache.get(file.toString())).isEqualTo("first");
+    Files.delete(file);
+    assertThat(cache.get(file.toString())).isEqualTo("first");
+  }
+
+  @Test
+  public void testMissingFile() {
+    ReloadingFileCache<String> cache = new ReloadingFileCache<>(Files::readString, 0);
+    assertThatThrownBy(() -> cache.get(tempDir.resolve("missing").toString()))
+        .isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.polaris.core.context.RealmContext;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class TokenBrokerRegistryTest {
+
+  /** Counts the brokers it creates and the key rotations */
+  private static class CountingTokenBrokerFactory implements TokenBrokerFactory {
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger rotations = new AtomicInteger();
+
+    @Override
+    public TokenBroker apply(RealmContext realmContext) {
+      created.incrementAndGet();
+      return Mockito.mock(TokenBroker.class);
+    }
+
+    @Override
+    public void rotateKeys() {
+      rotations.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testCreatesOneBrokerPerRealm() {
+    CountingTokenBrokerFactory factory = new CountingTokenBrokerFactory();
+    TokenBrokerRegistry registry = new TokenBrokerRegistry(factory);
+
+    TokenBroker broker = registry.getOrCreateTokenBroker(() -> "realm1");
+    assertThat(registry.getOrCreateTokenBroker(() -> "realm1")).isSameAs(broker);
+    assertThat(registry.getOrCreateTokenBroker(() -> "realm2")).isNotSameAs(broker);
+    assertThat(factory.created).hasValue(2);
+  }
+
+  @Test
+  public void testRotateKeys() {
+    CountingTokenBrokerFactory factory = new CountingTokenBrokerFactory();
+    TokenBrokerRegistry registry = new TokenBrokerRegistry(factory);
+    TokenBroker broker = registry.getOrCreateTokenBroker(() -> "realm1");
+
+    registry.rotateKeys();
+    assertThat(factory.rotations).hasValue(1);
+    assertThat(registry.getOrCreateTokenBroker(() -> "realm1")).isNotSameAs(broker);
+    assertThat(factory.created).hasValue(2);
+  }
+}
@@ -16,6 +16,8 @@
 package io.polaris.service.catalog;
 
 import static org.apache.iceberg.types.Types.NestedField.required;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +39,7 @@ import io.polaris.core.entity.PolarisEntity;
 import io.polaris.core.entity.PolarisEntitySubType;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.PrincipalEntity;
+import io.polaris.core.entity.TableLikeEntity;
 import io.polaris.core.entity.TaskEntity;
 import io.polaris.core.monitor.PolarisMetricRegistry;
 import io.polaris.core.persistence.MetaStoreManagerFactory;
@@ -53,11 +56,14 @@ import io.polaris.service.admin.PolarisAdminService;
 import io.polaris.service.persistence.InMemoryPolarisMetaStoreManagerFactory;
 import io.polaris.service.task.TaskExecutor;
 import io.polaris.service.task.TaskFileIOSupplier;
+import io.polaris.service.types.ListNamespacesPageResponse;
+import io.polaris.service.types.ListTablesPageResponse;
 import io.polaris.service.types.NotificationRequest;
 import io.polaris.service.types.NotificationType;
 import io.polaris.service.types.TableUpdateNotification;
 import java.io.IOException;
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -70,21 +76,27 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.MetadataUpdate;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableMetadata;
 import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.TableOperations;
+import org.apache.iceberg.UpdateRequirement;
 import org.apache.iceberg.catalog.CatalogTests;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.SupportsNamespaces;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.exceptions.BadRequestException;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
 import org.apache.iceberg.exceptions.ForbiddenException;
 import org.apache.iceberg.exceptions.NoSuchNamespaceException;
 import org.apache.iceberg.inmemory.InMemoryFileIO;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.rest.requests.UpdateTableRequest;
 import org.apache.iceberg.types.Types;
 import org.assertj.core.api.AbstractBooleanAssert;
 import org.assertj.core.api.Assertions;
@@ -292,6 +304,278 @@ public class BasePolarisCatalogTest extends CatalogTests<BasePolarisCatalog> {
         .isFalse();
   }
 
+  @Test
+  public void testCommitResolvesTableOnce() {
+    CallContext callContext = CallContext.getCurrentContext();
+    PolarisPassthroughResolutionView passthroughView =
+        Mockito.spy(
+            new PolarisPassthroughResolutionView(
+                callContext, entityManager, authenticatedRoot, CATALOG_NAME));
+    TaskExecutor taskExecutor = Mockito.mock();
+    BasePolarisCatalog catalog =
+        new BasePolarisCatalog(
+            entityManager, callContext, passthroughView, authenticatedRoot, taskExecutor);
+    catalog.initialize(
+        CATALOG_NAME,
+        ImmutableMap.of(
+            CatalogProperties.FILE_IO_IMPL, "org.apache.iceberg.inmemory.InMemoryFileIO"));
+    catalog.createNamespace(NS);
+    Table table = catalog.buildTable(TABLE, SCHEMA).create();
+    TableOperations ops = ((BaseTable) table).operations();
+    TableMetadata base = ops.refresh();
+
+    Mockito.clearInvocations(passthroughView);
+    ops.commit(base, TableMetadata.buildFrom(base).setProperties(Map.of("key", "value")).build());
+
+    // the commit reuses the table resolved by the refresh, and resolves it again only once
+    Mockito.verify(passthroughView, Mockito.times(1)).getPassthroughResolvedPath(eq(TABLE), any());
+    Assertions.assertThat(catalog.loadTable(TABLE).properties()).containsEntry("key", "value");
+  }
+
+  @Test
+  public void testCommitTransaction() {
+    BasePolarisCatalog catalog = catalog();
+    catalog.createNamespace(NS);
+    TableIdentifier table1 = TableIdentifier.of(NS, "table1");
+    TableIdentifier table2 = TableIdentifier.of(NS, "table2");
+    Table created1 = catalog.buildTable(table1, SCHEMA).create();
+    Table created2 = catalog.buildTable(table2, SCHEMA).create();
+
+    catalog.commitTransaction(
+        List.of(
+            UpdateTableRequest.create(
+                table1,
+                List.of(new UpdateRequirement.AssertTableUUID(created1.uuid().toString())),
+                List.of(new MetadataUpdate.SetProperties(Map.of("key", "value1")))),
+            UpdateTableRequest.create(
+                table2,
+                List.of(new UpdateRequirement.AssertTableUUID(created2.uuid().toString())),
+                List.of(new MetadataUpdate.SetProperties(Map.of("key", "value2"))))));
+
+    Assertions.assertThat(catalog.loadTable(table1).properties()).containsEntry("key", "value1");
+    Assertions.assertThat(catalog.loadTable(table2).properties()).containsEntry("key", "value2");
+  }
+
+  @Test
+  public void testCommitTransactionIsAtomic() {
+    BasePolarisCatalog catalog = catalog();
+    catalog.createNamespace(NS);
+    TableIdentifier table1 = TableIdentifier.of(NS, "table1");
+    TableIdentifier table2 = TableIdentifier.of(NS, "table2");
+    catalog.buildTable(table1, SCHEMA).create();
+    catalog.buildTable(table2, SCHEMA).create();
+
+    // the requirement of the second table fails, so the first one must not be updated either
+    Assertions.assertThatThrownBy(
+            () ->
+                catalog.commitTransaction(
+                    List.of(
+                        UpdateTableRequest.create(
+                            table1,
+                            List.of(),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value1")))),
+                        UpdateTableRequest.create(
+                            table2,
+                            List.of(
+                                new UpdateRequirement.AssertTableUUID(
+                                    UUID.randomUUID().toString())),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value2")))))))
+        .isInstanceOf(CommitFailedException.class);
+
+    Assertions.assertThat(catalog.loadTable(table1).properties()).doesNotContainKey("key");
+    Assertions.assertThat(catalog.loadTable(table2).properties()).doesNotContainKey("key");
+  }
+
+  /**
+   * @return a catalog whose multi-table commits run the given action right before their metastore
+   *     transaction, collecting the entities each of them tried to update
+   */
+  private BasePolarisCatalog catalogWithInterceptedTransactions(
+      Runnable beforeTransaction,
+      boolean failAfterTransaction,
+      List<PolarisMetaStoreManager.EntityWithPath> attemptedUpdates) {
+    PolarisMetaStoreManager interceptedManager = Mockito.spy(metaStoreManager);
+    Mockito.doAnswer(
+            invocation -> {
+              attemptedUpdates.addAll(invocation.getArgument(1));
+              beforeTransaction.run();
+              Object result = invocation.callRealMethod();
+              if (failAfterTransaction) {
+                throw new RuntimeException("connection lost");
+              }
+              return result;
+            })
+        .when(interceptedManager)
+        .updateEntitiesPropertiesIfNotChanged(any(), any(), any());
+    PolarisEntityManager interceptedEntityManager =
+        new PolarisEntityManager(
+            interceptedManager, polarisContext::getMetaStore, new StorageCredentialCache());
+    CallContext callContext = CallContext.getCurrentContext();
+    BasePolarisCatalog catalog =
+        new BasePolarisCatalog(
+            interceptedEntityManager,
+            callContext,
+            new PolarisPassthroughResolutionView(
+                callContext, interceptedEntityManager, authenticatedRoot, CATALOG_NAME),
+            authenticatedRoot,
+            Mockito.mock());
+    catalog.initialize(
+        CATALOG_NAME,
+        ImmutableMap.of(
+            CatalogProperties.FILE_IO_IMPL, "org.apache.iceberg.inmemory.InMemoryFileIO"));
+    return catalog;
+  }
+
+  private static boolean metadataFileExists(PolarisMetaStoreManager.EntityWithPath update) {
+    String metadataLocation =
+        TableLikeEntity.of(PolarisEntity.of(update.getEntity())).getMetadataLocation();
+    return new InMemoryFileIO().fileExists(metadataLocation);
+  }
+
+  @Test
+  public void testCommitTransactionRollsBackOnConcurrentUpdate() {
+    catalog().createNamespace(NS);
+    TableIdentifier table1 = TableIdentifier.of(NS, "table1");
+    TableIdentifier table2 = TableIdentifier.of(NS, "table2");
+    catalog().buildTable(table1, SCHEMA).create();
+    catalog().buildTable(table2, SCHEMA).create();
+
+    // the second table is modified after the transaction loaded and checked it, so the metastore
+    // transaction, which already updated the first table, must be rolled back
+    List<PolarisMetaStoreManager.EntityWithPath> attemptedUpdates = new ArrayList<>();
+    BasePolarisCatalog catalog =
+        catalogWithInterceptedTransactions(
+            () -> catalog().loadTable(table2).updateProperties().set("key", "concurrent").commit(),
+            false,
+            attemptedUpdates);
+    Assertions.assertThatThrownBy(
+            () ->
+                catalog.commitTransaction(
+                    List.of(
+                        UpdateTableRequest.create(
+                            table1,
+                            List.of(),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value1")))),
+                        UpdateTableRequest.create(
+                            table2,
+                            List.of(),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value2")))))))
+        .isInstanceOf(CommitFailedException.class);
+
+    Assertions.assertThat(catalog().loadTable(table1).properties()).doesNotContainKey("key");
+    Assertions.assertThat(catalog().loadTable(table2).properties())
+        .containsEntry("key", "concurrent");
+
+    // no table points to the metadata files written by the transaction, they were deleted
+    Assertions.assertThat(attemptedUpdates).hasSize(2);
+    Assertions.assertThat(attemptedUpdates).noneMatch(BasePolarisCatalogTest::metadataFileExists);
+  }
+
+  @Test
+  public void testCommitTransactionChecksTablesWithoutUpdates() {
+    catalog().createNamespace(NS);
+    TableIdentifier table1 = TableIdentifier.of(NS, "table1");
+    TableIdentifier table2 = TableIdentifier.of(NS, "table2");
+    catalog().buildTable(table1, SCHEMA).create();
+    Table created2 = catalog().buildTable(table2, SCHEMA).create();
+
+    // the second table only has requirements, it is modified after they were validated
+    List<PolarisMetaStoreManager.EntityWithPath> attemptedUpdates = new ArrayList<>();
+    BasePolarisCatalog catalog =
+        catalogWithInterceptedTransactions(
+            () -> catalog().loadTable(table2).updateProperties().set("key", "concurrent").commit(),
+            false,
+            attemptedUpdates);
+    Assertions.assertThatThrownBy(
+            () ->
+                catalog.commitTransaction(
+                    List.of(
+                        UpdateTableRequest.create(
+                            table1,
+                            List.of(),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value1")))),
+                        UpdateTableRequest.create(
+                            table2,
+                            List.of(
+                                new UpdateRequirement.AssertTableUUID(created2.uuid().toString())),
+                            List.of()))))
+        .isInstanceOf(CommitFailedException.class);
+
+    Assertions.assertThat(catalog().loadTable(table1).properties()).doesNotContainKey("key");
+    Assertions.assertThat(attemptedUpdates).hasSize(1);
+    Assertions.assertThat(attemptedUpdates).noneMatch(BasePolarisCatalogTest::metadataFileExists);
+  }
+
+  @Test
+  public void testCommitTransactionKeepsMetadataFilesWhenStateUnknown() {
+    catalog().createNamespace(NS);
+    TableIdentifier table1 = TableIdentifier.of(NS, "table1");
+    catalog().buildTable(table1, SCHEMA).create();
+
+    // the metastore transaction commits, but the caller gets an error
+    List<PolarisMetaStoreManager.EntityWithPath> attemptedUpdates = new ArrayList<>();
+    BasePolarisCatalog catalog =
+        catalogWithInterceptedTransactions(() -> {}, true, attemptedUpdates);
+    Assertions.assertThatThrownBy(
+            () ->
+                catalog.commitTransaction(
+                    List.of(
+                        UpdateTableRequest.create(
+                            table1,
+                            List.of(),
+                            List.of(new MetadataUpdate.SetProperties(Map.of("key", "value1")))))))
+        .isInstanceOf(CommitStateUnknownException.class);
+
+    // the table points to the new metadata file, which must not have been deleted
+    Assertions.assertThat(catalog().loadTable(table1).properties()).containsEntry("key", "value1");
+    Assertions.assertThat(attemptedUpdates).hasSize(1);
+    Assertions.assertThat(attemptedUpdates).allMatch(BasePolarisCatalogTest::metadataFileExists);
+  }
+
+  @Test
+  public void testListTablesAndNamespacesPaginated() {
+    BasePolarisCatalog catalog = catalog();
+    catalog.createNamespace(NS);
+    catalog.createNamespace(Namespace.of("otherdb"));
+    for (String name : List.of("t3", "t1", "t4", "t0", "t2")) {
+      catalog.buildTable(TableIdentifier.of(NS, name), SCHEMA).create();
+    }
+
+    // 5 tables by pages of 2, in name order
+    List<TableIdentifier> tables = new ArrayList<>();
+    String pageToken = null;
+    int pageCount = 0;
+    do {
+      ListTablesPageResponse page = catalog.listTables(NS, pageToken, 2);
+      Assertions.assertThat(page.identifiers()).hasSizeLessThanOrEqualTo(2);
+      tables.addAll(page.identifiers());
+      pageToken = page.nextPageToken();
+      pageCount++;
+    } while (pageToken != null);
+    Assertions.assertThat(pageCount).isEqualTo(3);
+    Assertions.assertThat(tables)
+        .containsExactly(
+            TableIdentifier.of(NS, "t0"),
+            TableIdentifier.of(NS, "t1"),
+            TableIdentifier.of(NS, "t2"),
+            TableIdentifier.of(NS, "t3"),
+            TableIdentifier.of(NS, "t4"));
+
+    // the second namespace page resumes after the first one
+    ListNamespacesPageResponse firstNamespaces = catalog.listNamespaces(Namespace.empty(), null, 1);
+    Assertions.assertThat(firstNamespaces.namespaces()).containsExactly(NS);
+    Assertions.assertThat(firstNamespaces.nextPageToken()).isNotNull();
+    ListNamespacesPageResponse secondNamespaces =
+        catalog.listNamespaces(Namespace.empty(), firstNamespaces.nextPageToken(), 1);
+    Assertions.assertThat(secondNamespaces.namespaces()).containsExactly(Namespace.of("otherdb"));
+    Assertions.assertThat(secondNamespaces.nextPageToken()).isNull();
+
+    // no view in that namespace
+    ListTablesPageResponse views = catalog.listViews(NS, null, 10);
+    Assertions.assertThat(views.identifiers()).isEmpty();
+    Assertions.assertThat(views.nextPageToken()).isNull();
+  }
+
   @Test
   public void testCreateNestedNamespaceUnderMissingParent() {
     Assumptions.assumeTrue(
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.storage.PolarisCredentialProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.iceberg.io.FileIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class FileIOCacheTest {
+  private static final String IO_IMPL = "org.apache.iceberg.inmemory.InMemoryFileIO";
+  private static final String REALM = "test-realm";
+
+  private final List<FileIO> loaded = new ArrayList<>();
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setup() {
+    loaded.clear();
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  private FileIOCache newCache(long maxEntries, long maxAgeMs) {
+    return new FileIOCache(
+        maxEntries,
+        maxAgeMs,
+        new PolarisMetricRegistry(meterRegistry),
+        (ioImpl, properties) -> {
+          FileIO fileIO = Mockito.mock(FileIO.class);
+          loaded.add(fileIO);
+          return fileIO;
+        });
+  }
+
+  private double count(String metric) {
+    return meterRegistry.counter(metric + ".count").count();
+  }
+
+  @Test
+  public void testSharesFileIOWithSameProperties() {
+    FileIOCache cache = newCache(10, 60_000);
+    Map<String, String> properties = Map.of("s3.access-key-id", "key1");
+
+    FileIOCache.Lease first = cache.acquire(IO_IMPL, properties, REALM);
+    FileIOCache.Lease second = cache.acquire(IO_IMPL, Map.copyOf(properties), REALM);
+    FileIOCache.Lease other = cache.acquire(IO_IMPL, Map.of("s3.access-key-id", "key2"), REALM);
+
+    assertThat(second.fileIO()).isSameAs(first.fileIO());
+    assertThat(other.fileIO()).isNotSameAs(first.fileIO());
+    assertThat(loaded).hasSize(2);
+    assertThat(count(FileIOCache.HIT_METRIC)).isEqualTo(1);
+    assertThat(count(FileIOCache.MISS_METRIC)).isEqualTo(2);
+
+    // releasing the leases doesn't close the pooled FileIOs
+    first.close();
+    second.close();
+    other.close();
+    loaded.forEach(fileIO -> Mockito.verify(fileIO, Mockito.never()).close());
+  }
+
+  @Test
+  public void testClosesEvictedFileIOOnceReleased() {
+    FileIOCache cache = newCache(10, 60_000);
+    FileIOCache.Lease lease = cache.acquire(IO_IMPL, Map.of(), REALM);
+    FileIOCache.Lease idle = cache.acquire(IO_IMPL, Map.of("k", "v"), REALM);
+    idle.close();
+
+    cache.invalidateAll();
+    Mockito.verify(idle.fileIO()).close();
+    Mockito.verify(lease.fileIO(), Mockito.never()).close();
+
+    // the FileIO still leased is closed with its last lease, even if released more than once
+    lease.close();
+    lease.close();
+    Mockito.verify(lease.fileIO(), Mockito.times(1)).close();
+
+    // and a new FileIO is loaded for the next caller
+    FileIOCache.Lease next = cache.acquire(IO_IMPL, Map.of(), REALM);
+    assertThat(next.fileIO()).isNotSameAs(lease.fileIO());
+    assertThat(loaded).hasSize(3);
+  }
+
+  @Test
+  public void testEvictsFileIOWithExpiredCredentials() {
+    FileIOCache cache = newCache(10, 60_000);
+    Map<String, String> expiredCredentials =
+        Map.of(
+            PolarisCredentialProperty.EXPIRATION_TIME.getPropertyName(),
+            String.valueOf(System.currentTimeMillis() - 1000));
+
+    FileIOCache.Lease first = cache.acquire(IO_IMPL, expiredCredentials, REALM);
+    first.close();
+    FileIOCache.Lease second = cache.acquire(IO_IMPL, expiredCredentials, REALM);
+
+    assertThat(second.fileIO()).isNotSameAs(first.fileIO());
+    Mockito.verify(first.fileIO()).close();
+    assertThat(count(FileIOCache.MISS_METRIC)).isEqualTo(2);
+  }
+
+  @Test
+  public void testBoundedSize() {
+    FileIOCache cache = newCache(2, 60_000);
+    for (int i = 0; i < 10; i++) {
+      cache.acquire(IO_IMPL, Map.of("k", String.valueOf(i)), REALM).close();
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(2);
+    assertThat(
+            loaded.stream()
+                .filter(
+                    fileIO ->
+                        Mockito.mockingDetails(fileIO).getInvocations().stream()
+                            .anyMatch(i -> i.getMethod().getName().equals("close"))))
+        .hasSizeGreaterThanOrEqualTo(8);
+  }
+}
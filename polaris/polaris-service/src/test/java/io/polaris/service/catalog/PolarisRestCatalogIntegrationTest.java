@@ -779,4 +779,47 @@ public class PolarisRestCatalogIntegrationTest extends CatalogTests<RESTCatalog>
           .returns("Cannot update internal catalog via notifications", ErrorResponse::message);
     }
   }
+
+  @Test
+  public void testListNamespacesPaginated() {
+    restCatalog.createNamespace(Namespace.of("ns1"));
+    restCatalog.createNamespace(Namespace.of("ns2"));
+    restCatalog.createNamespace(Namespace.of("ns3"));
+
+    Map<String, Object> firstPage = listNamespacesPage("pageSize=2");
+    assertThat(firstPage)
+        .containsEntry("namespaces", List.of(List.of("ns1"), List.of("ns2")))
+        .containsKey("next-page-token");
+
+    Map<String, Object> secondPage =
+        listNamespacesPage("pageSize=2&pageToken=" + firstPage.get("next-page-token"));
+    assertThat(secondPage)
+        .containsEntry("namespaces", List.of(List.of("ns3")))
+        .doesNotContainKey("next-page-token");
+
+    try (Response response = listNamespacesRequest("pageSize=0")) {
+      assertThat(response)
+          .returns(Response.Status.BAD_REQUEST.getStatusCode(), Response::getStatus);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> listNamespacesPage(String query) {
+    try (Response response = listNamespacesRequest(query)) {
+      assertThat(response).returns(Response.Status.OK.getStatusCode(), Response::getStatus);
+      return response.readEntity(Map.class);
+    }
+  }
+
+  private Response listNamespacesRequest(String query) {
+    return EXT.client()
+        .target(
+            String.format(
+                "http://localhost:%d/api/catalog/v1/%s/namespaces?%s",
+                EXT.getLocalPort(), currentCatalogName, query))
+        .request("application/json")
+        .header("Authorization", "Bearer " + userToken)
+        .header(REALM_PROPERTY_KEY, realm)
+        .get();
+  }
 }
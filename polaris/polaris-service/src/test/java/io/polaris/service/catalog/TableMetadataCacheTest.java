@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.inmemory.InMemoryFileIO;
+import org.apache.iceberg.types.Types;
+import org.junit.jupiter.api.Test;
+
+public class TableMetadataCacheTest {
+  private static final String REALM = "test-realm";
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "id", Types.IntegerType.get()),
+          Types.NestedField.required(2, "data", Types.StringType.get()));
+
+  private static TableMetadata newMetadata(String location) {
+    return TableMetadata.newTableMetadata(
+        SCHEMA, PartitionSpec.unpartitioned(), SortOrder.unsorted(), location, Map.of("k", "v"));
+  }
+
+  @Test
+  public void testLoadsEachLocationOnce() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TableMetadataCache cache =
+        new TableMetadataCache(1024 * 1024, new PolarisMetricRegistry(meterRegistry));
+    AtomicInteger loads = new AtomicInteger();
+    TableMetadata metadata = newMetadata("memory://table");
+
+    TableMetadata first =
+        cache.getOrLoad(
+            REALM,
+            "memory://table/metadata/v1.json",
+            location -> {
+              loads.incrementAndGet();
+              return metadata;
+            });
+    TableMetadata second =
+        cache.getOrLoad(
+            REALM,
+            "memory://table/metadata/v1.json",
+            location -> {
+              loads.incrementAndGet();
+              return metadata;
+            });
+    // the same location in another realm is cached separately
+    cache.getOrLoad(
+        "other-realm",
+        "memory://table/metadata/v1.json",
+        location -> {
+          loads.incrementAndGet();
+          return metadata;
+        });
+
+    assertThat(first).isSameAs(metadata);
+    assertThat(second).isSameAs(metadata);
+    assertThat(loads).hasValue(2);
+    assertThat(meterRegistry.counter(TableMetadataCache.HIT_METRIC + ".count").count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.counter(TableMetadataCache.MISS_METRIC + ".count").count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testPutMatchesWrittenMetadata() {
+    InMemoryFileIO fileIO = new InMemoryFileIO();
+    String tableLocation = "memory://table-" + UUID.randomUUID();
+    String metadataLocation = tableLocation + "/metadata/v1.metadata.json";
+    TableMetadata metadata = newMetadata(tableLocation);
+    assertThat(metadata.changes()).isNotEmpty();
+    TableMetadataParser.write(metadata, fileIO.newOutputFile(metadataLocation));
+
+    TableMetadataCache cache = new TableMetadataCache(1024 * 1024, null);
+    cache.put(REALM, metadataLocation, metadata);
+
+    TableMetadata cached = cache.getIfPresent(REALM, metadataLocation);
+    TableMetadata read = TableMetadataParser.read(fileIO, metadataLocation);
+    assertThat(cached).isNotNull();
+    assertThat(cached.changes()).isEmpty();
+    assertThat(cached.metadataFileLocation()).isEqualTo(read.metadataFileLocation());
+    assertThat(cached.lastUpdatedMillis()).isEqualTo(read.lastUpdatedMillis());
+    assertThat(TableMetadataParser.toJson(cached)).isEqualTo(TableMetadataParser.toJson(read));
+  }
+
+  @Test
+  public void testBoundedBySize() {
+    TableMetadata metadata = newMetadata("memory://table");
+    long size = TableMetadataCache.estimateSizeInBytes(metadata);
+    assertThat(size).isPositive();
+
+    TableMetadataCache cache = new TableMetadataCache(size * 3, null);
+    for (int i = 0; i < 10; i++) {
+      cache.put(REALM, "memory://table/metadata/v" + i + ".json", metadata);
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(3);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.storage;
+
+import io.polaris.core.storage.PolarisStorageIntegration;
+import io.polaris.core.storage.azure.AzureCredentialsStorageIntegration;
+import io.polaris.core.storage.azure.AzureStorageConfigurationInfo;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class PolarisStorageIntegrationProviderImplTest {
+
+  @Test
+  public void testAzureStorageIntegrationSharedAcrossVends() {
+    AtomicInteger created = new AtomicInteger();
+    PolarisStorageIntegrationProviderImpl provider =
+        new PolarisStorageIntegrationProviderImpl(
+            Mockito::mock,
+            () -> {
+              created.incrementAndGet();
+              return Mockito.mock(AzureCredentialsStorageIntegration.class);
+            });
+    AzureStorageConfigurationInfo azureConfig =
+        new AzureStorageConfigurationInfo(
+            List.of("abfss://container@account.blob.core.windows.net/polaris-test/"), "tenant");
+
+    // each credential vend loads the storage integration again, which must keep its caches
+    PolarisStorageIntegration<AzureStorageConfigurationInfo> first =
+        provider.getStorageIntegrationForConfig(azureConfig);
+    PolarisStorageIntegration<AzureStorageConfigurationInfo> second =
+        provider.getStorageIntegrationForConfig(azureConfig);
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(created).hasValue(1);
+  }
+}
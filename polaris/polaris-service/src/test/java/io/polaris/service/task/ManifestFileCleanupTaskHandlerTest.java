@@ -15,6 +15,7 @@
  */
 package io.polaris.service.task;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatPredicate;
 
 import io.polaris.core.PolarisCallContext;
@@ -25,7 +26,10 @@ import io.polaris.core.entity.AsyncTaskType;
 import io.polaris.core.entity.TaskEntity;
 import io.polaris.service.persistence.InMemoryPolarisMetaStoreManagerFactory;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Executors;
@@ -36,9 +40,11 @@ import org.apache.iceberg.ManifestFiles;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.inmemory.InMemoryFileIO;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.io.PositionOutputStream;
+import org.apache.iceberg.io.SupportsBulkOperations;
 import org.junit.jupiter.api.Test;
 
 class ManifestFileCleanupTaskHandlerTest {
@@ -225,4 +231,130 @@ class ManifestFileCleanupTaskHandlerTest {
       assertThatPredicate((String f) -> TaskUtils.exists(f, fileIO)).rejects(dataFile2Path);
     }
   }
+
+  @Test
+  public void testCleanupFilesInBatches() throws IOException {
+    InMemoryPolarisMetaStoreManagerFactory metaStoreManagerFactory =
+        new InMemoryPolarisMetaStoreManagerFactory();
+    RealmContext realmContext = () -> "realmName";
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(
+            metaStoreManagerFactory.getOrCreateSessionSupplier(realmContext).get(),
+            new PolarisDefaultDiagServiceImpl());
+    try (CallContext callCtx = CallContext.of(realmContext, polarisCallContext)) {
+      CallContext.setCurrentContext(callCtx);
+      BulkInMemoryFileIO fileIO = new BulkInMemoryFileIO(false);
+      TableIdentifier tableIdentifier =
+          TableIdentifier.of(Namespace.of("db1", "schema1"), "table1");
+      ManifestFileCleanupTaskHandler handler =
+          new ManifestFileCleanupTaskHandler((task) -> fileIO, Executors.newSingleThreadExecutor());
+      // only some of the data files still exist, the others were deleted by another task
+      String[] dataFilePaths = new String[2500];
+      for (int i = 0; i < dataFilePaths.length; i++) {
+        dataFilePaths[i] = "dataFile" + i + ".parquet";
+        if (i % 2 == 0) {
+          writeFile(fileIO, dataFilePaths[i]);
+        }
+      }
+      ManifestFile manifestFile =
+          TaskTestUtils.manifestFile(fileIO, "manifest1.avro", 100L, dataFilePaths);
+      TaskEntity task =
+          new TaskEntity.Builder()
+              .withTaskType(AsyncTaskType.FILE_CLEANUP)
+              .withData(
+                  new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                      tableIdentifier,
+                      Base64.encodeBase64String(ManifestFiles.encode(manifestFile))))
+              .setName(UUID.randomUUID().toString())
+              .build();
+      assertThatPredicate(handler::handleTask).accepts(task);
+      assertThat(fileIO.batchSizes).containsExactly(1000, 1000, 500);
+      // only the manifest itself is deleted on its own
+      assertThat(fileIO.deletedFiles).containsExactly(manifestFile.path());
+      for (String dataFilePath : dataFilePaths) {
+        assertThatPredicate((String f) -> TaskUtils.exists(f, fileIO)).rejects(dataFilePath);
+      }
+    }
+  }
+
+  @Test
+  public void testCleanupFilesFailedBatch() throws IOException {
+    InMemoryPolarisMetaStoreManagerFactory metaStoreManagerFactory =
+        new InMemoryPolarisMetaStoreManagerFactory();
+    RealmContext realmContext = () -> "realmName";
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(
+            metaStoreManagerFactory.getOrCreateSessionSupplier(realmContext).get(),
+            new PolarisDefaultDiagServiceImpl());
+    try (CallContext callCtx = CallContext.of(realmContext, polarisCallContext)) {
+      CallContext.setCurrentContext(callCtx);
+      BulkInMemoryFileIO fileIO = new BulkInMemoryFileIO(true);
+      TableIdentifier tableIdentifier =
+          TableIdentifier.of(Namespace.of("db1", "schema1"), "table1");
+      ManifestFileCleanupTaskHandler handler =
+          new ManifestFileCleanupTaskHandler((task) -> fileIO, Executors.newSingleThreadExecutor());
+      String dataFile1Path = "dataFile1.parquet";
+      writeFile(fileIO, dataFile1Path);
+      String dataFile2Path = "dataFile2.parquet";
+      writeFile(fileIO, dataFile2Path);
+      ManifestFile manifestFile =
+          TaskTestUtils.manifestFile(fileIO, "manifest1.avro", 100L, dataFile1Path, dataFile2Path);
+      TaskEntity task =
+          new TaskEntity.Builder()
+              .withTaskType(AsyncTaskType.FILE_CLEANUP)
+              .withData(
+                  new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                      tableIdentifier,
+                      Base64.encodeBase64String(ManifestFiles.encode(manifestFile))))
+              .setName(UUID.randomUUID().toString())
+              .build();
+      assertThatPredicate(handler::handleTask).accepts(task);
+      // the failed batch is deleted one file at a time
+      assertThat(fileIO.batchSizes).containsExactly(2);
+      assertThat(fileIO.deletedFiles)
+          .containsExactlyInAnyOrder(dataFile1Path, dataFile2Path, manifestFile.path());
+      assertThatPredicate((String f) -> TaskUtils.exists(f, fileIO)).rejects(dataFile1Path);
+      assertThatPredicate((String f) -> TaskUtils.exists(f, fileIO)).rejects(dataFile2Path);
+    }
+  }
+
+  private static void writeFile(FileIO fileIO, String path) throws IOException {
+    try (PositionOutputStream out = fileIO.newOutputFile(path).createOrOverwrite()) {
+      out.write("the data".getBytes());
+    }
+  }
+
+  /** In-memory FileIO recording the bulk and single file deletions */
+  private static class BulkInMemoryFileIO extends InMemoryFileIO implements SupportsBulkOperations {
+    private final boolean failBulkDeletions;
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> deletedFiles = Collections.synchronizedList(new ArrayList<>());
+
+    BulkInMemoryFileIO(boolean failBulkDeletions) {
+      this.failBulkDeletions = failBulkDeletions;
+    }
+
+    @Override
+    public void deleteFiles(Iterable<String> pathsToDelete) throws BulkDeletionFailureException {
+      List<String> paths = new ArrayList<>();
+      pathsToDelete.forEach(paths::add);
+      batchSizes.add(paths.size());
+      if (failBulkDeletions) {
+        throw new BulkDeletionFailureException(paths.size());
+      }
+      // like S3 DeleteObjects, missing files are not an error
+      paths.stream().filter(this::fileExists).forEach(super::deleteFile);
+    }
+
+    @Override
+    public void deleteFile(String path) {
+      deletedFiles.add(path);
+      super.deleteFile(path);
+    }
+
+    @Override
+    public void close() {
+      // no-op
+    }
+  }
 }
@@ -16,6 +16,7 @@
 package io.polaris.service.task;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.polaris.core.PolarisCallContext;
 import io.polaris.core.PolarisDefaultDiagServiceImpl;
@@ -26,9 +27,11 @@ import io.polaris.core.entity.PolarisBaseEntity;
 import io.polaris.core.entity.PolarisEntityType;
 import io.polaris.core.entity.TableLikeEntity;
 import io.polaris.core.entity.TaskEntity;
+import io.polaris.core.persistence.PolarisMetaStoreManager;
 import io.polaris.service.persistence.InMemoryPolarisMetaStoreManagerFactory;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.iceberg.ManifestFile;
 import org.apache.iceberg.ManifestFiles;
@@ -37,6 +40,7 @@ import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.inmemory.InMemoryFileIO;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -364,4 +368,99 @@ class TableCleanupTaskHandlerTest {
                                   ManifestFileCleanupTaskHandler.ManifestCleanupTask.class)));
     }
   }
+
+  @Test
+  public void testTableCleanupResumesFromCheckpoint() throws IOException {
+    InMemoryPolarisMetaStoreManagerFactory metaStoreManagerFactory =
+        new InMemoryPolarisMetaStoreManagerFactory();
+    RealmContext realmContext = () -> "realmName";
+    PolarisCallContext polarisCallContext =
+        new PolarisCallContext(
+            metaStoreManagerFactory.getOrCreateSessionSupplier(realmContext).get(),
+            new PolarisDefaultDiagServiceImpl());
+    try (CallContext callCtx = CallContext.of(realmContext, polarisCallContext)) {
+      CallContext.setCurrentContext(callCtx);
+      AtomicBoolean failManifestListRead = new AtomicBoolean(true);
+      FileIO fileIO =
+          new InMemoryFileIO() {
+            @Override
+            public InputFile newInputFile(String path) {
+              if (failManifestListRead.get() && path.equals("manifestList3.avro")) {
+                throw new RuntimeException("Simulated failure reading " + path);
+              }
+              return super.newInputFile(path);
+            }
+
+            @Override
+            public void close() {
+              // no-op
+            }
+          };
+      TableIdentifier tableIdentifier =
+          TableIdentifier.of(Namespace.of("db1", "schema1"), "table1");
+      // store each manifest cleanup task in its own batch
+      TableCleanupTaskHandler handler =
+          new TableCleanupTaskHandler(Mockito.mock(), metaStoreManagerFactory, (task) -> fileIO, 1);
+      ManifestFile manifestFile1 =
+          TaskTestUtils.manifestFile(fileIO, "manifest1.avro", 100L, "dataFile1.parquet");
+      ManifestFile manifestFile2 =
+          TaskTestUtils.manifestFile(fileIO, "manifest2.avro", 101L, "dataFile2.parquet");
+      ManifestFile manifestFile3 =
+          TaskTestUtils.manifestFile(fileIO, "manifest3.avro", 102L, "dataFile3.parquet");
+      Snapshot snapshot1 =
+          TaskTestUtils.newSnapshot(fileIO, "manifestList1.avro", 1, 100L, 99L, manifestFile1);
+      Snapshot snapshot2 =
+          TaskTestUtils.newSnapshot(fileIO, "manifestList2.avro", 2, 101L, 100L, manifestFile2);
+      Snapshot snapshot3 =
+          TaskTestUtils.newSnapshot(fileIO, "manifestList3.avro", 3, 102L, 101L, manifestFile3);
+      String metadataFile = "v1-3939393.metadata.json";
+      TaskTestUtils.writeTableMetadata(fileIO, metadataFile, snapshot1, snapshot2, snapshot3);
+
+      PolarisMetaStoreManager metaStoreManager =
+          metaStoreManagerFactory.getOrCreateMetaStoreManager(realmContext);
+      TaskEntity task =
+          new TaskEntity.Builder()
+              .setName("cleanup_" + tableIdentifier.toString())
+              .setId(metaStoreManager.generateNewEntityId(polarisCallContext).getId())
+              .setCreateTimestamp(polarisCallContext.getClock().millis())
+              .withTaskType(AsyncTaskType.ENTITY_CLEANUP_SCHEDULER)
+              .withData(
+                  new TableLikeEntity.Builder(tableIdentifier, metadataFile)
+                      .setName("table1")
+                      .setCatalogId(1)
+                      .setCreateTimestamp(100)
+                      .build())
+              .build();
+      metaStoreManager.createEntityIfNotExists(polarisCallContext, null, task);
+
+      // the manifests of the first two snapshots are scheduled before reading the third fails
+      assertThatThrownBy(() -> handler.handleTask(task))
+          .hasMessageContaining("Simulated failure reading manifestList3.avro");
+      TaskEntity checkpointed =
+          TaskEntity.of(
+              metaStoreManager.loadEntity(polarisCallContext, 0L, task.getId()).getEntity());
+      assertThat(checkpointed.getPropertiesAsMap())
+          .containsEntry(TableCleanupTaskHandler.SNAPSHOTS_SCHEDULED_PROPERTY, "2");
+
+      // the resumed cleanup only schedules the manifests of the third snapshot
+      failManifestListRead.set(false);
+      assertThat(handler.handleTask(checkpointed)).isTrue();
+      assertThat(TaskUtils.exists(metadataFile, fileIO)).isFalse();
+      assertThat(
+              metaStoreManager.loadTasks(polarisCallContext, "test", 10).getEntities().stream()
+                  .map(TaskEntity::of)
+                  .filter(entity -> entity.getTaskType() == AsyncTaskType.FILE_CLEANUP)
+                  .map(
+                      entity ->
+                          entity.readData(ManifestFileCleanupTaskHandler.ManifestCleanupTask.class))
+                  .toList())
+          .containsExactlyInAnyOrder(
+              new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                  tableIdentifier, Base64.encodeBase64String(ManifestFiles.encode(manifestFile1))),
+              new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                  tableIdentifier, Base64.encodeBase64String(ManifestFiles.encode(manifestFile2))),
+              new ManifestFileCleanupTaskHandler.ManifestCleanupTask(
+                  tableIdentifier, Base64.encodeBase64String(ManifestFiles.encode(manifestFile3))));
+    }
+  }
 }
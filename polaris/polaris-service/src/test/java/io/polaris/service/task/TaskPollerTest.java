@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2024 Snowflake Computing Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.polaris.service.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polaris.core.PolarisCallContext;
+import io.polaris.core.PolarisConfigurationStore;
+import io.polaris.core.PolarisDefaultDiagServiceImpl;
+import io.polaris.core.context.CallContext;
+import io.polaris.core.context.RealmContext;
+import io.polaris.core.entity.AsyncTaskType;
+import io.polaris.core.entity.PolarisBaseEntity;
+import io.polaris.core.entity.TaskEntity;
+import io.polaris.core.monitor.PolarisMetricRegistry;
+import io.polaris.core.persistence.PolarisMetaStoreManager;
+import io.polaris.service.persistence.InMemoryPolarisMetaStoreManagerFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TaskPollerTest {
+  private static final String REALM = "realmName";
+
+  private final InMemoryPolarisMetaStoreManagerFactory metaStoreManagerFactory =
+      new InMemoryPolarisMetaStoreManagerFactory();
+  private final PolarisConfigurationStore configurationStore = new PolarisConfigurationStore() {};
+  private PolarisCallContext polarisCallContext;
+  private PolarisMetaStoreManager metaStoreManager;
+
+  @BeforeEach
+  public void before() {
+    RealmContext realmContext = () -> REALM;
+    polarisCallContext =
+        new PolarisCallContext(
+            metaStoreManagerFactory.getOrCreateSessionSupplier(realmContext).get(),
+            new PolarisDefaultDiagServiceImpl());
+    metaStoreManager = metaStoreManagerFactory.getOrCreateMetaStoreManager(realmContext);
+    CallContext.setCurrentContext(CallContext.of(realmContext, polarisCallContext));
+  }
+
+  @AfterEach
+  public void after() {
+    CallContext.unsetCurrentContext();
+  }
+
+  private List<PolarisBaseEntity> createTasks(int count, String leaseOwner) {
+    List<TaskEntity> tasks =
+        IntStream.range(0, count)
+            .mapToObj(
+                i -> {
+                  TaskEntity.Builder builder =
+                      new TaskEntity.Builder()
+                          .setName("task_" + i)
+                          .setId(metaStoreManager.generateNewEntityId(polarisCallContext).getId())
+                          .setCreateTimestamp(polarisCallContext.getClock().millis())
+                          .withTaskType(AsyncTaskType.FILE_CLEANUP);
+                  if (leaseOwner != null) {
+                    builder
+                        .withLastAttemptExecutorId(leaseOwner)
+                        .withLastAttemptStartedTimestamp(polarisCallContext.getClock().millis());
+                  }
+                  return builder.build();
+                })
+            .toList();
+    return metaStoreManager
+        .createEntitiesIfNotExist(polarisCallContext, null, List.copyOf(tasks))
+        .getEntities();
+  }
+
+  private TaskPoller newPoller(
+      TaskExecutorImpl taskExecutor, int maxInFlightTasks, PolarisMetricRegistry metricRegistry) {
+    return new TaskPoller(
+        taskExecutor,
+        metaStoreManagerFactory,
+        configurationStore,
+        Set.of(REALM),
+        1000,
+        maxInFlightTasks,
+        metricRegistry);
+  }
+
+  @Test
+  public void testRunsPersistedTasks() {
+    Set<Long> handled = ConcurrentHashMap.newKeySet();
+    TaskExecutorImpl taskExecutor =
+        new TaskExecutorImpl(MoreExecutors.newDirectExecutorService(), metaStoreManagerFactory);
+    taskExecutor.addTaskHandler(new CountingTaskHandler(handled, null));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TaskPoller poller = newPoller(taskExecutor, 10, new PolarisMetricRegistry(meterRegistry));
+    List<PolarisBaseEntity> tasks = createTasks(3, null);
+
+    assertThat(poller.pollRealm(REALM)).isEqualTo(3);
+    assertThat(handled)
+        .containsExactlyInAnyOrderElementsOf(tasks.stream().map(PolarisBaseEntity::getId).toList());
+    assertThat(taskExecutor.getInFlightTasks()).isZero();
+    assertThat(meterRegistry.timer(TaskPoller.LAG_METRIC, "REALM_ID", REALM).count()).isEqualTo(3);
+    assertThat(meterRegistry.get(TaskPoller.QUEUE_DEPTH_METRIC).gauge().value()).isZero();
+
+    // successful tasks are dropped
+    assertThat(poller.pollRealm(REALM)).isZero();
+    assertThat(metaStoreManager.loadTasks(polarisCallContext, "test", 10).getEntities()).isEmpty();
+  }
+
+  @Test
+  public void testLeasesAtMostMaxInFlightTasks() throws InterruptedException {
+    Set<Long> handled = ConcurrentHashMap.newKeySet();
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      TaskExecutorImpl taskExecutor =
+          new TaskExecutorImpl(executorService, metaStoreManagerFactory);
+      taskExecutor.addTaskHandler(new CountingTaskHandler(handled, release));
+      TaskPoller poller = newPoller(taskExecutor, 2, null);
+      createTasks(5, null);
+
+      assertThat(poller.pollRealm(REALM)).isEqualTo(2);
+      // the executor is full, the other tasks stay in the metastore
+      assertThat(poller.pollRealm(REALM)).isZero();
+      assertThat(taskExecutor.getInFlightTasks()).isEqualTo(2);
+
+      release.countDown();
+      while (taskExecutor.getInFlightTasks() > 0) {
+        Thread.sleep(10);
+      }
+      assertThat(handled).hasSize(2);
+      assertThat(poller.pollRealm(REALM)).isEqualTo(2);
+    } finally {
+      executorService.shutdownNow();
+      assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+
+  @Test
+  public void testSkipsTasksLeasedByAnotherExecutor() {
+    Set<Long> handled = ConcurrentHashMap.newKeySet();
+    TaskExecutorImpl taskExecutor =
+        new TaskExecutorImpl(MoreExecutors.newDirectExecutorService(), metaStoreManagerFactory);
+    taskExecutor.addTaskHandler(new CountingTaskHandler(handled, null));
+    TaskPoller poller = newPoller(taskExecutor, 10, null);
+    PolarisBaseEntity task = createTasks(1, "other-executor").get(0);
+
+    assertThat(poller.pollRealm(REALM)).isZero();
+    taskExecutor.addTaskHandlerContext(task.getId(), CallContext.getCurrentContext());
+    assertThat(handled).isEmpty();
+    assertThat(taskExecutor.getInFlightTasks()).isZero();
+  }
+
+  /** Records the handled task ids, optionally waiting for a latch before completing the task */
+  private record CountingTaskHandler(Set<Long> handled, CountDownLatch release)
+      implements TaskHandler {
+    @Override
+    public boolean canHandleTask(TaskEntity task) {
+      return true;
+    }
+
+    @Override
+    public boolean handleTask(TaskEntity task) {
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      handled.add(task.getId());
+      return true;
+    }
+  }
+}